@@ -3,11 +3,21 @@ package edu.csupomona.cs.cs411.project2;
 import edu.csupomona.cs.cs411.project1.lexer.Lexer;
 import edu.csupomona.cs.cs411.project1.lexer.Token;
 import edu.csupomona.cs.cs411.project1.lexer.TokenStream;
+import edu.csupomona.cs.cs411.project1.lexer.ToyKeywords;
 import edu.csupomona.cs.cs411.project1.lexer.ToyLexer;
+import edu.csupomona.cs.cs411.project2.parser.ParseContext;
+import edu.csupomona.cs.cs411.project2.parser.ParseResult;
 import edu.csupomona.cs.cs411.project2.parser.Parser;
+import edu.csupomona.cs.cs411.project2.parser.SyntaxError;
+import edu.csupomona.cs.cs411.project2.parser.glr.GLRParser;
 import edu.csupomona.cs.cs411.project2.parser.lalr.LALRParser;
 import edu.csupomona.cs.cs411.project2.parser.lalr.LALRParserGenerator;
+import edu.csupomona.cs.cs411.project2.parser.lalr.LALRTableCache;
 import edu.csupomona.cs.cs411.project2.parser.lalr.LALRTables;
+import edu.csupomona.cs.cs411.project2.parser.lr1.LR1ParserGenerator;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRParser;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRTables;
+import edu.csupomona.cs.cs411.project2.parser.slr.TableFile;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -17,50 +27,250 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class Main {
 	private static final Path OUTPUT_PATH = Paths.get(".", "output");
+	private static final Path CFG_PATH = Paths.get(".", "res", "toy.cfg.txt");
 
-	public static void main(String[] args) throws IOException {
-		LALRParserGenerator g = new LALRParserGenerator(Paths.get(".", "res", "toy.cfg.txt"));
-		g.outputCFG();
-		g.outputTables();
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		boolean recover = false;
+		boolean optimize = false;
+		boolean regenerate = false;
+		boolean lr1 = false;
+		boolean glr = false;
+		Path tablesPath = null;
+		List<Path> files = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-j") && i+1 < args.length) {
+				numThreads = Math.max(1, Integer.parseInt(args[++i]));
+				continue;
+			} else if (args[i].equals("-k")) {
+				recover = true;
+				continue;
+			} else if (args[i].equals("-O")) {
+				optimize = true;
+				continue;
+			} else if (args[i].equals("-f")) {
+				regenerate = true;
+				continue;
+			} else if (args[i].equals("-lr1")) {
+				lr1 = true;
+				continue;
+			} else if (args[i].equals("-glr")) {
+				glr = true;
+				continue;
+			} else if (args[i].equals("-t") && i+1 < args.length) {
+				tablesPath = Paths.get(args[++i]);
+				continue;
+			}
+
+			Path p = Paths.get(args[i]);
+			try (DirectoryStream<Path> directory = Files.newDirectoryStream(p)) {
+				for (Path path : directory) {
+					if (!Files.isReadable(path)) {
+						continue;
+					}
+
+					files.add(path);
+				}
+			}
+		}
+
+		LALRTables lalrTables = null;
+		LALRTableCache cache = new LALRTableCache(OUTPUT_PATH.resolve("cache"));
+		long dt = System.currentTimeMillis();
+		if (tablesPath != null) {
+			lalrTables = LALRTables.load(tablesPath);
+			System.out.format("Tables loaded from %s in %dms%n", tablesPath, System.currentTimeMillis()-dt);
+		} else if (!regenerate) {
+			lalrTables = cache.load(CFG_PATH, optimize);
+			if (lalrTables != null) {
+				System.out.format("Tables loaded from cache in %dms%n", System.currentTimeMillis()-dt);
+			}
+		}
+
+		if (lalrTables != null && !isLexedBy(lalrTables.getSLRTables())) {
+			System.out.format("Tables were not generated for the terminals of the lexer; regenerating tables...%n");
+			lalrTables = null;
+		}
+
+		if (lalrTables == null) {
+			LALRParserGenerator g = new LALRParserGenerator(CFG_PATH, optimize, numThreads);
+			g.outputCFG();
+			g.outputTables();
+			lalrTables = g.getGeneratedLALRTables();
+			g.release();
+			lalrTables.write(OUTPUT_PATH.resolve("toy.lalrtables.bin"));
+			cache.store(CFG_PATH, optimize, lalrTables);
+		}
 
-		LALRTables lalrTables = g.getGeneratedLALRTables();
 		lalrTables.getSLRTables().outputTableInfo();
 
-		Lexer<Token> lexer = new ToyLexer();
 		Parser parser = new LALRParser(lalrTables);
+		SLRTables lr1Tables = null;
+		if (lr1) {
+			lr1Tables = new LR1ParserGenerator(CFG_PATH, optimize, numThreads).getGeneratedTables();
+			System.out.format("LR(1) tables: %d tables, %d bytes; LALR tables: %d tables, %d bytes%n",
+				lr1Tables.getNumTables(),
+				sizeOf(lr1Tables),
+				lalrTables.getSLRTables().getNumTables(),
+				sizeOf(lalrTables.getSLRTables())
+			);
+
+			parser = new SLRParser(lr1Tables);
+		}
+
+		if (glr) {
+			parser = new GLRParser(lr1 ? lr1Tables : lalrTables.getSLRTables());
+		}
+
+		scanAndParseAll(parser, files, numThreads, recover);
+	}
+
+	private static boolean isLexedBy(SLRTables tables) {
+		for (ToyKeywords k : ToyKeywords.values()) {
+			if (tables.getNumTerminals() <= k.getId() || !k.toString().equals(tables.getTerminalName(k.getId()))) {
+				return false;
+			}
+		}
+
+		return tables.getEOF() == ToyKeywords._EOF.getId();
+	}
+
+	private static int sizeOf(SLRTables tables) {
+		TableFile.Builder builder = new TableFile.Builder(TableFile.SLR);
+		tables.write(builder);
+		return builder.toByteArray().length;
+	}
 
-		for (String arg : args) {
-			Path p = Paths.get(arg);
-			DirectoryStream<Path> files = Files.newDirectoryStream(p);
-			for (Path path : files) {
-				if (!Files.isReadable(path)) {
-					continue;
+	private static void scanAndParseAll(final Parser parser, List<Path> files, int numThreads, final boolean recover) throws InterruptedException {
+		Collections.sort(files);
+		final Map<Path, Long> sizes = new HashMap<>();
+		for (Path p : files) {
+			try {
+				sizes.put(p, Files.size(p));
+			} catch (IOException e) {
+				sizes.put(p, 0L);
+			}
+		}
+
+		List<Path> schedule = new ArrayList<>(files);
+		Collections.sort(schedule, new Comparator<Path>() {
+			@Override
+			public int compare(Path o1, Path o2) {
+				int cmp = sizes.get(o2).compareTo(sizes.get(o1));
+				return cmp != 0 ? cmp : o1.compareTo(o2);
+			}
+		});
+
+		final ThreadLocal<Lexer<Token>> lexers = new ThreadLocal<Lexer<Token>>() {
+			@Override
+			protected Lexer<Token> initialValue() {
+				return new ToyLexer();
+			}
+		};
+
+		long dt = System.currentTimeMillis();
+		ForkJoinPool pool = new ForkJoinPool(numThreads);
+		Map<Path, Future<Result>> results = new HashMap<>();
+		for (final Path p : schedule) {
+			results.put(p, pool.submit(new Callable<Result>() {
+				@Override
+				public Result call() {
+					return scanAndParse(lexers.get(), parser, ParseContext.get(), p, recover);
 				}
+			}));
+		}
+
+		int numAccepted = 0;
+		int numRejected = 0;
+		for (Path p : files) {
+			Result result;
+			try {
+				result = results.get(p).get();
+			} catch (ExecutionException e) {
+				e.getCause().printStackTrace();
+				continue;
+			}
 
-				scanAndParse(lexer, parser, path);
+			String fileName = p.getFileName().toString();
+			System.out.format("Results for %s:%n", fileName);
+			if (result.ERROR != null) {
+				result.ERROR.printStackTrace();
+				continue;
 			}
+
+			if (result.ACCEPTED) {
+				numAccepted++;
+			} else {
+				numRejected++;
+				if (result.ERRORS.isEmpty()) {
+					System.out.format("\tReduction undefined in table A%d%n", result.FINAL_STATE);
+				}
+
+				for (SyntaxError error : result.ERRORS) {
+					System.out.format("\tSyntax error at token %d; reduction undefined in table A%d%n", error.getTokenIndex(), error.getState());
+				}
+			}
+
+			System.out.format("%s scanned and parsed in %dms; %1$s has been %s%n", fileName, result.ELAPSED, result.ACCEPTED ? "ACCEPTED" : "REJECTED");
 		}
+
+		pool.shutdown();
+		System.out.format("%d files scanned and parsed in %dms using %d threads; %d accepted, %d rejected%n",
+			files.size(),
+			System.currentTimeMillis()-dt,
+			numThreads,
+			numAccepted,
+			numRejected
+		);
 	}
 
-	private static void scanAndParse(Lexer<Token> lexer, Parser parser, Path p) throws IOException {
+	private static Result scanAndParse(Lexer<Token> lexer, Parser parser, ParseContext context, Path p, boolean recover) {
 		String fileName = p.getFileName().toString();
 		Path outFile = OUTPUT_PATH.resolve(fileName.substring(0, fileName.lastIndexOf('.')) + ".output.txt");
 		Charset charset = Charset.forName("US-ASCII");
 		try (BufferedWriter writer = Files.newBufferedWriter(outFile, charset, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
 			try (BufferedReader br = Files.newBufferedReader(p, charset)) {
-				System.out.format("Analyzing %s...%n", fileName);
 				long dt = System.currentTimeMillis();
 				TokenStream tokenStream = lexer.lex(br);
-				boolean accepted = parser.parse(tokenStream, writer);
-				System.out.format("%s scanned and parsed in %dms; %1$s has been %s%n", fileName, System.currentTimeMillis()-dt, accepted ? "ACCEPTED" : "REJECTED");
-			} catch (IOException e) {
-				e.printStackTrace();
+				if (recover) {
+					ParseResult result = parser.recover(tokenStream, writer, context);
+					return new Result(result.isAccepted(), result.getState(), System.currentTimeMillis()-dt, result.getErrors(), null);
+				}
+
+				boolean accepted = parser.parse(tokenStream, writer, context);
+				return new Result(accepted, context.getFinalState(), System.currentTimeMillis()-dt, Collections.<SyntaxError>emptyList(), null);
 			}
 		} catch (IOException e) {
-			e.printStackTrace();
+			return new Result(false, Integer.MIN_VALUE, 0, Collections.<SyntaxError>emptyList(), e);
+		}
+	}
+
+	private static final class Result {
+		private final boolean ACCEPTED;
+		private final int FINAL_STATE;
+		private final long ELAPSED;
+		private final List<SyntaxError> ERRORS;
+		private final IOException ERROR;
+
+		Result(boolean accepted, int finalState, long elapsed, List<SyntaxError> errors, IOException error) {
+			this.ACCEPTED = accepted;
+			this.FINAL_STATE = finalState;
+			this.ELAPSED = elapsed;
+			this.ERRORS = errors;
+			this.ERROR = error;
 		}
 	}
 }
@@ -8,7 +8,6 @@ import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import edu.csupomona.cs.cs411.project1.lexer.ToyKeywords;
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -20,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -44,21 +44,47 @@ public abstract class AbstractParserGenerator {
 	protected static final int EXTRA_TERMINALS_OFFSET = 1000;
 
 	/**
-	 * Charset used when writing output.
+	 * Version of the tables generated, which must be changed whenever a
+	 * change to any generator changes the tables generated from the same CFG
+	 * so that tables cached by an earlier version are not used.
 	 */
-	protected static final Charset CHARSET = Charset.forName("US-ASCII");
+	public static final int VERSION = 7;
+
+	/**
+	 * String representation of the terminal used within error productions.
+	 */
+	public static final String ERROR_TERMINAL = "error";
 
 	/**
-	 * String representation of the regular expression delimiting the location
-	 * of new CFG nonterminals.
+	 * Charset used when writing output.
 	 */
-	protected static final String NONTERMINAL_DEF_REGEX = "[A-Z][a-zA-Z0-9]*:";
+	protected static final Charset CHARSET = Charset.forName("US-ASCII");
 
 	/**
 	 * List of all Production contained within the CFG.
 	 */
 	protected final ImmutableList<Production> PRODUCTIONS;
 
+	/**
+	 * List of all Production contained within the CFG as it was read, before
+	 * any optimizations. This is the same list as {@link #PRODUCTIONS} unless
+	 * the CFG was optimized.
+	 */
+	protected final ImmutableList<Production> ORIGINAL_PRODUCTIONS;
+
+	/**
+	 * Original reductions of every Production in {@link #PRODUCTIONS} as
+	 * {@code {production, offset}} pairs.
+	 *
+	 * @see GrammarOptimizer
+	 */
+	protected final int[][] REDUCTIONS;
+
+	/**
+	 * Every LR item of {@link #PRODUCTIONS} encoded as an integer.
+	 */
+	protected final ItemPool ITEMS;
+
 	/**
 	 * Mapping of all symbols (terminal and nonterminal) contained within the
 	 * CFG.
@@ -70,6 +96,28 @@ public abstract class AbstractParserGenerator {
 	 */
 	protected final ImmutableBiMap<Integer, ImmutableSet<Production>> NONTERMINALS;
 
+	/**
+	 * Symbol id of the terminal which ends the input, which is the first
+	 * terminal of every CFG.
+	 */
+	protected final int EOF;
+
+	/**
+	 * Symbol id of the terminal used within error productions, or
+	 * {@link Integer#MIN_VALUE} if the CFG does not use it. A parser
+	 * recovering from a syntax error shifts this terminal in place of the
+	 * input which could not be parsed. This id is only assigned to the
+	 * terminal when the CFG uses it, in which case it follows the last
+	 * terminal.
+	 */
+	protected final int ERROR;
+
+	/**
+	 * Name of every terminal, indexed by symbol id, as it is written within a
+	 * trace of a parse.
+	 */
+	private String[] terminalNames;
+
 	/**
 	 * This field represents the number of nonterminals within the CFG.
 	 */
@@ -97,7 +145,35 @@ public abstract class AbstractParserGenerator {
 	 * @throws IOException when the CFG file does not exist or cannot be read
 	 */
 	public AbstractParserGenerator(Path p) throws IOException {
-		Preconditions.checkNotNull(p);
+		this(p, false);
+	}
+
+	/**
+	 * Constructs an AbstractParserGenerator using the CFG at the given Path,
+	 * optionally optimizing its productions using a {@link GrammarOptimizer}.
+	 *
+	 * @param p path to the CFG to generate a Parser for
+	 * @param optimize {@code true} if unit productions should be eliminated
+	 *	and nonterminals referenced once should be inlined, otherwise
+	 *	{@code false}
+	 * @throws IOException when the CFG file does not exist or cannot be read
+	 */
+	public AbstractParserGenerator(Path p, boolean optimize) throws IOException {
+		this(CFG.read(p), optimize);
+	}
+
+	/**
+	 * Constructs an AbstractParserGenerator using a CFG which has already
+	 * been read, optionally optimizing its productions using a
+	 * {@link GrammarOptimizer}.
+	 *
+	 * @param cfg the CFG to generate a Parser for
+	 * @param optimize {@code true} if unit productions should be eliminated
+	 *	and nonterminals referenced once should be inlined, otherwise
+	 *	{@code false}
+	 */
+	public AbstractParserGenerator(CFG cfg, boolean optimize) {
+		Preconditions.checkNotNull(cfg);
 		numTerminals = Integer.MIN_VALUE;
 		numNonterminals = Integer.MIN_VALUE;
 		numUnreachableSymbols = Integer.MIN_VALUE;
@@ -106,7 +182,7 @@ public abstract class AbstractParserGenerator {
 
 		System.out.format("Creating symbols table...%n");
 		long dt = System.currentTimeMillis();
-		this.SYMBOLS = createSymbolsTable(p);
+		this.SYMBOLS = createSymbolsTable(cfg);
 		System.out.format("Symbols table created in %dms; %d symbols (%d terminals, %d nonterminals)%n",
 			System.currentTimeMillis()-dt,
 			numTerminals+numNonterminals,
@@ -114,150 +190,199 @@ public abstract class AbstractParserGenerator {
 			numNonterminals
 		);
 
+		this.EOF = cfg.getTerminals().isEmpty() ? ToyKeywords._EOF.getId() : 0;
+		Integer error = SYMBOLS.get(ERROR_TERMINAL);
+		this.ERROR = error != null && error < numTerminals ? error : Integer.MIN_VALUE;
+
 		System.out.format("Creating productions table and list...%n");
 		dt = System.currentTimeMillis();
 		ArrayList<Production> productions = new ArrayList<>();
-		this.NONTERMINALS = createProductionsTable(p, productions);
+		ImmutableBiMap<Integer, ImmutableSet<Production>> nonterminals = createProductionsTable(cfg, productions);
 		productions.trimToSize();
-		this.PRODUCTIONS = ImmutableList.copyOf(productions);
+		this.ORIGINAL_PRODUCTIONS = ImmutableList.copyOf(productions);
 		System.out.format("Productions table and list created in %dms; %d productions (%d unreachable symbols)%n",
 			System.currentTimeMillis()-dt,
-			this.PRODUCTIONS.size(),
+			this.ORIGINAL_PRODUCTIONS.size(),
 			numUnreachableSymbols
 		);
+
+		if (!optimize) {
+			this.NONTERMINALS = nonterminals;
+			this.PRODUCTIONS = ORIGINAL_PRODUCTIONS;
+			this.REDUCTIONS = new int[PRODUCTIONS.size()][];
+			for (int i = 0; i < REDUCTIONS.length; i++) {
+				REDUCTIONS[i] = new int[] { i, 0 };
+			}
+
+			this.ITEMS = new ItemPool(PRODUCTIONS, numTerminals+numNonterminals);
+			return;
+		}
+
+		System.out.format("Optimizing productions...%n");
+		dt = System.currentTimeMillis();
+		GrammarOptimizer optimizer = new GrammarOptimizer(ORIGINAL_PRODUCTIONS, numTerminals, numNonterminals, initialNonterminal);
+		optimizer.optimize();
+		this.PRODUCTIONS = optimizer.getProductions();
+		this.REDUCTIONS = optimizer.getReductions();
+		this.NONTERMINALS = createProductionsTable(PRODUCTIONS);
+		this.ITEMS = new ItemPool(PRODUCTIONS, numTerminals+numNonterminals);
+		System.out.format("Productions optimized in %dms; %d productions (%d unit productions eliminated, %d nonterminals inlined)%n",
+			System.currentTimeMillis()-dt,
+			this.PRODUCTIONS.size(),
+			optimizer.getNumUnitProductions(),
+			optimizer.getNumInlinedNonterminals()
+		);
 	}
 
 	/**
 	 * Generates the mapping of symbols from their String representation to
 	 * their Integer representation. Note that this is a bidirectional
 	 * mapping, so we can go from the Integer representation back to its
-	 * corresponding String representation.
+	 * corresponding String representation. The terminals are those declared
+	 * by the CFG, or the {@link ToyKeywords} if it declares none.
 	 *
-	 * @param p path to the CFG to generate the symbols table from
+	 * @param cfg the CFG to generate the symbols table from
 	 * @return bidirectional map from a String to its corresponding symbol id
-	 * @throws IOException when the CFG file does not exist or cannot be read
 	 */
-	private ImmutableBiMap<String, Integer> createSymbolsTable(Path p) throws IOException {
+	private ImmutableBiMap<String, Integer> createSymbolsTable(CFG cfg) {
 		numTerminals = numNonterminals = 0;
 		BiMap<String, Integer> symbols = HashBiMap.create();
-		for (ToyKeywords k : ToyKeywords.values()) {
-			symbols.put(k.name(), k.getId());
-			if (!k.isRegex()) {
-				symbols.put(k.getRegex(), k.getId()+EXTRA_TERMINALS_OFFSET);
+		List<String> names = new ArrayList<>();
+		ImmutableList<String> terminals = cfg.getTerminals();
+		if (terminals.isEmpty()) {
+			for (ToyKeywords k : ToyKeywords.values()) {
+				symbols.put(k.name(), k.getId());
+				if (!k.isRegex()) {
+					symbols.put(k.getRegex(), k.getId()+EXTRA_TERMINALS_OFFSET);
+				}
+
+				names.add(k.toString());
+				numTerminals++;
+			}
+		} else {
+			if (EXTRA_TERMINALS_OFFSET <= terminals.size()) {
+				throw new ProductionException("CFG declares %d terminals, but at most %d are supported!",
+					terminals.size(),
+					EXTRA_TERMINALS_OFFSET-1
+				);
 			}
 
-			numTerminals++;
-		}
+			String spelling;
+			for (String terminal : terminals) {
+				symbols.put(terminal, numTerminals);
+				spelling = cfg.getSpelling(numTerminals);
+				if (spelling != null) {
+					if (symbols.containsKey(spelling)) {
+						throw new ProductionException("Spelling %s of terminal %s is already a symbol!",
+							spelling,
+							terminal
+						);
+					}
 
-		try (BufferedReader br = Files.newBufferedReader(p, CHARSET)) {
-			int id;
-			String line;
-			while ((line = br.readLine()) != null) {
-				if (!line.matches(NONTERMINAL_DEF_REGEX)) {
-					continue;
+					symbols.put(spelling, numTerminals+EXTRA_TERMINALS_OFFSET);
 				}
 
-				id = numTerminals+numNonterminals;
-				if (initialNonterminal == Integer.MIN_VALUE) {
-					initialNonterminal = id;
-				}
+				names.add(terminal);
+				numTerminals++;
+			}
+		}
+
+		// the error terminal only takes an id when used so that grammars
+		// without error productions are numbered exactly as before
+		if (cfg.getTokens().contains(ERROR_TERMINAL) && !symbols.containsKey(ERROR_TERMINAL)) {
+			symbols.put(ERROR_TERMINAL, numTerminals);
+			names.add(ERROR_TERMINAL);
+			numTerminals++;
+		}
+
+		terminalNames = names.toArray(new String[names.size()]);
 
-				line = line.substring(0, line.length()-1);
-				symbols.put(line, id);
-				numNonterminals++;
+		int id;
+		for (String nonterminal : cfg.getNonterminals()) {
+			id = numTerminals+numNonterminals;
+			if (initialNonterminal == Integer.MIN_VALUE) {
+				initialNonterminal = id;
 			}
+
+			symbols.put(nonterminal, id);
+			numNonterminals++;
 		}
 
 		return ImmutableBiMap.copyOf(symbols);
 	}
 
-
 	/**
 	 * Generates the mapping of nonterminals from their nonterminal id to
 	 * their corresponding sets of Productions. Note that this is a
 	 * bidirectional map. Additionally, this method will populate the passed
-	 * list with the list of all Productions found.
+	 * list with the list of all Productions found. Every distinct token of
+	 * the CFG is resolved into its symbol once.
 	 *
-	 * @param p path to the CFG to generate the symbols table from
+	 * @param cfg the CFG to generate the productions from
 	 * @param productions List to add the productions found into
 	 * @return bidirectional map from a nonterminal id to its corresponding
 	 *	set of Productions
-	 * @throws IOException when the CFG file does not exist or cannot be read
 	 */
-	private ImmutableBiMap<Integer, ImmutableSet<Production>> createProductionsTable(Path p, List<Production> productions) throws IOException {
-		BiMap<Integer, Set<Production>> nonterminals = HashBiMap.create();
+	private ImmutableBiMap<Integer, ImmutableSet<Production>> createProductionsTable(CFG cfg, List<Production> productions) {
 		Set<Integer> usedSymbols = new HashSet<>();
-		try (BufferedReader br = Files.newBufferedReader(p, CHARSET)) {
-			Production production;
-			Set<Production> nonterminalProductions;
-			Integer currentNonterminal = null;
-
-			int id;
-			String line;
-			String[] tokens;
-			while ((line = br.readLine()) != null) {
-				if (line.isEmpty()) {
-					continue;
-				}
-
-				if (line.matches(NONTERMINAL_DEF_REGEX)) {
-					line = line.substring(0, line.length()-1);
-					currentNonterminal = SYMBOLS.get(line);
-					if (currentNonterminal == null) {
-						throw new ProductionException("Nonterminal %s is not within the set of symbols!",
-							line
-						);
-					} else if (currentNonterminal < numTerminals || EXTRA_TERMINALS_OFFSET <= currentNonterminal) {
-						throw new ProductionException("Terminal %s cannot be declared as a production nonterminal!",
-							SYMBOLS.inverse().get(currentNonterminal)
-						);
-					}
-
-					usedSymbols.add(currentNonterminal);
-					continue;
-				}
-
-				if (currentNonterminal == null) {
-					throw new ProductionException("Production %s does not belong to any declared nonterminal!",
-						line
-					);
-				}
-
-				nonterminalProductions = nonterminals.get(currentNonterminal);
-				if (nonterminalProductions == null) {
-					nonterminalProductions = new HashSet<>();
-					nonterminals.put(currentNonterminal, nonterminalProductions);
-				}
+		ImmutableList<String> declared = cfg.getNonterminals();
+		int[] nonterminalIds = new int[declared.size()];
+		for (int i = 0; i < nonterminalIds.length; i++) {
+			Integer nonterminal = SYMBOLS.get(declared.get(i));
+			if (nonterminal == null) {
+				throw new ProductionException("Nonterminal %s is not within the set of symbols!",
+					declared.get(i)
+				);
+			} else if (nonterminal < numTerminals || EXTRA_TERMINALS_OFFSET <= nonterminal) {
+				throw new ProductionException("Terminal %s cannot be declared as a production nonterminal!",
+					SYMBOLS.inverse().get(nonterminal)
+				);
+			}
 
-				ArrayList<Integer> productionList = new ArrayList<>();
+			nonterminalIds[i] = nonterminal;
+			usedSymbols.add(nonterminal);
+		}
 
-				line = line.trim();
-				tokens = line.split("\\s+");
-				for (String token : tokens) {
-					if (token.isEmpty()) {
-						continue;
-					}
+		ImmutableList<String> tokens = cfg.getTokens();
+		int[] tokenIds = new int[tokens.size()];
+		for (int i = 0; i < tokenIds.length; i++) {
+			tokenIds[i] = resolveSymbol(tokens.get(i));
+			usedSymbols.add(tokenIds[i]);
+		}
 
-					int tokenId = resolveSymbol(token);
-					usedSymbols.add(tokenId);
-					productionList.add(tokenId);
-				}
+		BiMap<Integer, Set<Production>> nonterminals = HashBiMap.create();
+		Set<Production> distinct = new HashSet<>();
+		Production production;
+		Set<Production> nonterminalProductions;
+		int currentNonterminal;
+		int[] productionTokens;
+		for (int i = 0; i < cfg.getNumProductions(); i++) {
+			currentNonterminal = nonterminalIds[cfg.getNonterminal(i)];
+			nonterminalProductions = nonterminals.get(currentNonterminal);
+			if (nonterminalProductions == null) {
+				nonterminalProductions = new HashSet<>();
+				nonterminals.put(currentNonterminal, nonterminalProductions);
+			}
 
-				productionList.trimToSize();
-				production = new Production(currentNonterminal, ImmutableList.copyOf(productionList));
-				if (!productions.contains(production)) {
-					productions.add(production);
-				}
+			productionTokens = cfg.getTokens(i);
+			ImmutableList.Builder<Integer> productionList = ImmutableList.builder();
+			for (int token : productionTokens) {
+				productionList.add(tokenIds[token]);
+			}
 
-				nonterminalProductions.add(production);
+			production = new Production(currentNonterminal, productionList.build());
+			if (distinct.add(production)) {
+				productions.add(production);
 			}
+
+			nonterminalProductions.add(production);
 		}
 
 		numUnreachableSymbols = 0;
 		Set<Integer> unusedSymbols = new HashSet<>(SYMBOLS.values());
 		unusedSymbols.removeAll(usedSymbols);
 		for (int symbol : unusedSymbols) {
-			if (symbol == 0) {
+			if (symbol == 0 || ERROR_TERMINAL.equals(SYMBOLS.inverse().get(symbol))) {
 				continue;
 			}
 
@@ -278,6 +403,35 @@ public abstract class AbstractParserGenerator {
 		return ImmutableBiMap.copyOf(immutableNonterminals);
 	}
 
+	/**
+	 * Generates the mapping of nonterminals from their nonterminal id to
+	 * their corresponding sets of Productions from a list of Productions.
+	 *
+	 * @param productions list of all Productions
+	 * @return bidirectional map from a nonterminal id to its corresponding
+	 *	set of Productions
+	 */
+	private ImmutableBiMap<Integer, ImmutableSet<Production>> createProductionsTable(List<Production> productions) {
+		Map<Integer, ImmutableSet.Builder<Production>> nonterminals = new LinkedHashMap<>();
+		ImmutableSet.Builder<Production> nonterminalProductions;
+		for (Production production : productions) {
+			nonterminalProductions = nonterminals.get(production.getNonterminal());
+			if (nonterminalProductions == null) {
+				nonterminalProductions = ImmutableSet.builder();
+				nonterminals.put(production.getNonterminal(), nonterminalProductions);
+			}
+
+			nonterminalProductions.add(production);
+		}
+
+		BiMap<Integer, ImmutableSet<Production>> immutableNonterminals = HashBiMap.create();
+		for (Entry<Integer, ImmutableSet.Builder<Production>> entry : nonterminals.entrySet()) {
+			immutableNonterminals.put(entry.getKey(), entry.getValue().build());
+		}
+
+		return ImmutableBiMap.copyOf(immutableNonterminals);
+	}
+
 	/**
 	 * Returns the symbol id associated with a specified token.
 	 *
@@ -342,6 +496,28 @@ public abstract class AbstractParserGenerator {
 		return numUnreachableSymbols;
 	}
 
+	/**
+	 * Returns the String representation of a given symbol id.
+	 *
+	 * @param symbol symbol id to translate
+	 * @return String representation of that symbol as written within the
+	 *	CFG, or {@code null} if there is no such symbol
+	 */
+	public final String getSymbolName(int symbol) {
+		return SYMBOLS.inverse().get(symbol);
+	}
+
+	/**
+	 * Returns the name of every terminal, indexed by symbol id, as it is
+	 * written within a trace of a parse. These are the names of the
+	 * {@link ToyKeywords} when the CFG does not declare its own terminals.
+	 *
+	 * @return a copy of the names of every terminal
+	 */
+	public final String[] getTerminalNames() {
+		return terminalNames.clone();
+	}
+
 	/**
 	 * Returns the initial nonterminal of this CFG. This is typically the
 	 * first nonterminal created, but subclasses may override it.
@@ -445,12 +621,12 @@ public abstract class AbstractParserGenerator {
 				Arrays.sort(productions, new Comparator<Production>() {
 					@Override
 					public int compare(Production o1, Production o2) {
-						return PRODUCTIONS.indexOf(o1) - PRODUCTIONS.indexOf(o2);
+						return ITEMS.indexOf(o1) - ITEMS.indexOf(o2);
 					}
 				});
 
 				for (Production p : productions) {
-					writer.write(String.format("\t%3d\t", PRODUCTIONS.indexOf(p)));
+					writer.write(String.format("\t%3d\t", ITEMS.indexOf(p)));
 					for (Integer i : p) {
 						writer.write(String.format("%s[%d] ", SYMBOLS.inverse().get(i), i));
 					}
@@ -0,0 +1,480 @@
+package edu.csupomona.cs.cs411.project2.parser;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents a CFG which has been read and tokenized, but whose
+ * tokens have not yet been resolved into symbols. A CFG is read in a single
+ * pass over its characters: a line which is a nonterminal name followed by a
+ * colon (e.g., {@code DeclList:}) declares a nonterminal, and every other
+ * non-empty line is a production of the last nonterminal declared, where the
+ * symbols of the production are separated by whitespace. Each distinct token
+ * is stored once, so that an {@link AbstractParserGenerator} resolves each
+ * token once rather than once for every time it is used.
+ * <p>
+ * A line beginning with {@code %token} declares a terminal, and is followed
+ * by the name of the terminal and optionally an alternate spelling which can
+ * be used for it within productions (e.g., {@code %token _if if}). Terminals
+ * are numbered in the order they are declared, where the first terminal is
+ * the end of the input. A CFG which declares no terminals uses the
+ * {@link edu.csupomona.cs.cs411.project1.lexer.ToyKeywords}.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class CFG {
+	/**
+	 * Number of characters read from a source at a time.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Directive which begins a line declaring a terminal.
+	 */
+	private static final String TOKEN_DIRECTIVE = "%token";
+
+	/**
+	 * Terminals declared, in the order they are declared.
+	 */
+	private final List<String> TERMINALS;
+
+	/**
+	 * Alternate spelling of each terminal within {@link #TERMINALS}, or
+	 * {@code null} if it has none.
+	 */
+	private final List<String> SPELLINGS;
+
+	/**
+	 * Nonterminals declared, in the order they are first declared.
+	 */
+	private final List<String> NONTERMINALS;
+
+	/**
+	 * Distinct tokens used within productions, in the order they are first
+	 * used.
+	 */
+	private final List<String> TOKENS;
+
+	/**
+	 * Index of each nonterminal within {@link #NONTERMINALS}.
+	 */
+	private final Map<String, Integer> NONTERMINAL_INDEXES;
+
+	/**
+	 * Index of each token within {@link #TOKENS}.
+	 */
+	private final Map<String, Integer> TOKEN_INDEXES;
+
+	/**
+	 * Index of the nonterminal of each production within
+	 * {@link #NONTERMINALS}, indexed by production.
+	 */
+	private int[] lhs;
+
+	/**
+	 * Indexes of the tokens of each production within {@link #TOKENS},
+	 * indexed by production.
+	 */
+	private int[][] rhs;
+
+	/**
+	 * Number of productions read.
+	 */
+	private int numProductions;
+
+	/**
+	 * Index of the nonterminal the productions being read belong to, or
+	 * {@link Integer#MIN_VALUE} if no nonterminal has been declared.
+	 */
+	private int currentNonterminal;
+
+	/**
+	 * Token indexes of the production being read.
+	 */
+	private int[] production;
+
+	/**
+	 * Constructs an empty CFG.
+	 */
+	private CFG() {
+		this.TERMINALS = new ArrayList<>();
+		this.SPELLINGS = new ArrayList<>();
+		this.NONTERMINALS = new ArrayList<>();
+		this.TOKENS = new ArrayList<>();
+		this.NONTERMINAL_INDEXES = new HashMap<>();
+		this.TOKEN_INDEXES = new HashMap<>();
+		this.lhs = new int[64];
+		this.rhs = new int[64][];
+		this.numProductions = 0;
+		this.currentNonterminal = Integer.MIN_VALUE;
+		this.production = new int[16];
+	}
+
+	/**
+	 * Reads the CFG within the file at a given Path.
+	 *
+	 * @param p path to the CFG
+	 * @return the CFG read
+	 * @throws IOException when the CFG file does not exist or cannot be read
+	 */
+	public static CFG read(Path p) throws IOException {
+		Preconditions.checkNotNull(p);
+		try (Reader reader = Files.newBufferedReader(p, AbstractParserGenerator.CHARSET)) {
+			return read(reader);
+		}
+	}
+
+	/**
+	 * Reads the CFG within an InputStream. The stream is read until its end,
+	 * but is not closed.
+	 *
+	 * @param in stream containing the CFG
+	 * @return the CFG read
+	 * @throws IOException when the stream cannot be read
+	 */
+	public static CFG read(InputStream in) throws IOException {
+		Preconditions.checkNotNull(in);
+		return read(new InputStreamReader(in, AbstractParserGenerator.CHARSET));
+	}
+
+	/**
+	 * Reads the CFG within a CharSequence.
+	 *
+	 * @param cfg characters of the CFG
+	 * @return the CFG read
+	 */
+	public static CFG read(CharSequence cfg) {
+		Preconditions.checkNotNull(cfg);
+		try {
+			return read(new StringReader(cfg.toString()));
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * Reads the CFG within a Reader until its end. Lines may end with
+	 * {@code \n}, {@code \r} or {@code \r\n}.
+	 *
+	 * @param reader reader containing the CFG
+	 * @return the CFG read
+	 * @throws IOException when the reader cannot be read
+	 */
+	private static CFG read(Reader reader) throws IOException {
+		CFG cfg = new CFG();
+		StringBuilder line = new StringBuilder();
+		char[] buffer = new char[BUFFER_SIZE];
+		boolean skipLineFeed = false;
+
+		char c;
+		int length;
+		while ((length = reader.read(buffer)) != -1) {
+			for (int i = 0; i < length; i++) {
+				c = buffer[i];
+				if (c == '\n' || c == '\r') {
+					if (c == '\r' || !skipLineFeed) {
+						cfg.readLine(line);
+						line.setLength(0);
+					}
+
+					skipLineFeed = c == '\r';
+					continue;
+				}
+
+				skipLineFeed = false;
+				line.append(c);
+			}
+		}
+
+		cfg.readLine(line);
+		cfg.lhs = Arrays.copyOf(cfg.lhs, cfg.numProductions);
+		cfg.rhs = Arrays.copyOf(cfg.rhs, cfg.numProductions);
+		cfg.production = null;
+		return cfg;
+	}
+
+	/**
+	 * Reads a line of the CFG, which is either empty, a terminal declaration,
+	 * a nonterminal declaration or a production.
+	 *
+	 * @param line characters of the line, not including its line terminator
+	 */
+	private void readLine(CharSequence line) {
+		if (line.length() == 0) {
+			return;
+		}
+
+		if (isDirective(line, TOKEN_DIRECTIVE)) {
+			readTerminal(line);
+			return;
+		}
+
+		if (isDeclaration(line)) {
+			String nonterminal = line.subSequence(0, line.length()-1).toString();
+			Integer index = NONTERMINAL_INDEXES.get(nonterminal);
+			if (index == null) {
+				index = NONTERMINALS.size();
+				NONTERMINALS.add(nonterminal);
+				NONTERMINAL_INDEXES.put(nonterminal, index);
+			}
+
+			currentNonterminal = index;
+			return;
+		}
+
+		if (currentNonterminal == Integer.MIN_VALUE) {
+			throw new ProductionException("Production %s does not belong to any declared nonterminal!",
+				line
+			);
+		}
+
+		int size = 0;
+		int end;
+		int i = 0;
+		while (i < line.length()) {
+			if (isWhitespace(line.charAt(i))) {
+				i++;
+				continue;
+			}
+
+			end = endOf(line, i);
+			if (size == production.length) {
+				production = Arrays.copyOf(production, size<<1);
+			}
+
+			production[size++] = indexOf(line.subSequence(i, end).toString());
+			i = end;
+		}
+
+		if (numProductions == lhs.length) {
+			lhs = Arrays.copyOf(lhs, numProductions<<1);
+			rhs = Arrays.copyOf(rhs, numProductions<<1);
+		}
+
+		lhs[numProductions] = currentNonterminal;
+		rhs[numProductions] = Arrays.copyOf(production, size);
+		numProductions++;
+	}
+
+	/**
+	 * Reads a terminal declaration, i.e., {@link #TOKEN_DIRECTIVE} followed by
+	 * the name of a terminal and optionally its alternate spelling.
+	 *
+	 * @param line the line declaring the terminal
+	 */
+	private void readTerminal(CharSequence line) {
+		String[] words = new String[3];
+		int numWords = 0;
+		int end;
+		int i = TOKEN_DIRECTIVE.length();
+		while (i < line.length()) {
+			if (isWhitespace(line.charAt(i))) {
+				i++;
+				continue;
+			}
+
+			if (numWords == words.length) {
+				break;
+			}
+
+			end = endOf(line, i);
+			words[numWords++] = line.subSequence(i, end).toString();
+			i = end;
+		}
+
+		if (numWords == 0 || words.length <= numWords) {
+			throw new ProductionException("Terminal declaration %s must name a terminal and at most one alternate spelling!",
+				line
+			);
+		} else if (TERMINALS.contains(words[0])) {
+			throw new ProductionException("Terminal %s is already declared!",
+				words[0]
+			);
+		}
+
+		TERMINALS.add(words[0]);
+		SPELLINGS.add(words[1]);
+	}
+
+	/**
+	 * Returns the index of a token within {@link #TOKENS}, adding it if it
+	 * has not been used before.
+	 *
+	 * @param token the token
+	 * @return index of the token
+	 */
+	private int indexOf(String token) {
+		Integer index = TOKEN_INDEXES.get(token);
+		if (index == null) {
+			index = TOKENS.size();
+			TOKENS.add(token);
+			TOKEN_INDEXES.put(token, index);
+		}
+
+		return index;
+	}
+
+	/**
+	 * Returns whether or not a line begins with a directive followed by
+	 * whitespace or the end of the line.
+	 *
+	 * @param line the line
+	 * @param directive the directive
+	 * @return {@code true} if it does, otherwise {@code false}
+	 */
+	private static boolean isDirective(CharSequence line, String directive) {
+		if (line.length() < directive.length()) {
+			return false;
+		}
+
+		for (int i = 0; i < directive.length(); i++) {
+			if (line.charAt(i) != directive.charAt(i)) {
+				return false;
+			}
+		}
+
+		return line.length() == directive.length() || isWhitespace(line.charAt(directive.length()));
+	}
+
+	/**
+	 * Returns the index after the last character of the word beginning at a
+	 * given index of a line.
+	 *
+	 * @param line the line
+	 * @param start index of the first character of the word
+	 * @return index of the whitespace after the word, or the length of the
+	 *	line if there is none
+	 */
+	private static int endOf(CharSequence line, int start) {
+		int i = start;
+		while (i < line.length() && !isWhitespace(line.charAt(i))) {
+			i++;
+		}
+
+		return i;
+	}
+
+	/**
+	 * Returns whether or not a line declares a nonterminal, i.e., whether it
+	 * is an uppercase letter followed by any letters or digits and ends with
+	 * a colon.
+	 *
+	 * @param line the line
+	 * @return {@code true} if it does, otherwise {@code false}
+	 */
+	private static boolean isDeclaration(CharSequence line) {
+		int last = line.length()-1;
+		if (last < 1 || line.charAt(last) != ':') {
+			return false;
+		}
+
+		char c = line.charAt(0);
+		if (c < 'A' || 'Z' < c) {
+			return false;
+		}
+
+		for (int i = 1; i < last; i++) {
+			c = line.charAt(i);
+			if (!(('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z') || ('0' <= c && c <= '9'))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns whether or not a character separates the tokens of a
+	 * production, i.e., whether it is a space or a control character.
+	 *
+	 * @param c the character
+	 * @return {@code true} if it does, otherwise {@code false}
+	 */
+	private static boolean isWhitespace(char c) {
+		return c <= ' ';
+	}
+
+	/**
+	 * Returns the terminals declared, in the order they were declared, which
+	 * is the order of their symbol ids.
+	 *
+	 * @return the terminals declared, which is empty if the CFG uses the
+	 *	{@link edu.csupomona.cs.cs411.project1.lexer.ToyKeywords}
+	 */
+	public ImmutableList<String> getTerminals() {
+		return ImmutableList.copyOf(TERMINALS);
+	}
+
+	/**
+	 * Returns the alternate spelling of a terminal declared.
+	 *
+	 * @param terminal index of the terminal within {@link #getTerminals()}
+	 * @return alternate spelling of the terminal, or {@code null} if it has
+	 *	none
+	 */
+	public String getSpelling(int terminal) {
+		return SPELLINGS.get(terminal);
+	}
+
+	/**
+	 * Returns the nonterminals declared, in the order they were first
+	 * declared. A nonterminal declared more than once is only listed once.
+	 *
+	 * @return the nonterminals declared
+	 */
+	public ImmutableList<String> getNonterminals() {
+		return ImmutableList.copyOf(NONTERMINALS);
+	}
+
+	/**
+	 * Returns the distinct tokens used within productions, in the order they
+	 * were first used.
+	 *
+	 * @return the tokens used
+	 */
+	public ImmutableList<String> getTokens() {
+		return ImmutableList.copyOf(TOKENS);
+	}
+
+	/**
+	 * Returns the number of productions read, including any duplicates.
+	 *
+	 * @return number of productions
+	 */
+	public int getNumProductions() {
+		return numProductions;
+	}
+
+	/**
+	 * Returns the nonterminal a production belongs to.
+	 *
+	 * @param production index of the production
+	 * @return index of its nonterminal within {@link #getNonterminals()}
+	 */
+	public int getNonterminal(int production) {
+		return lhs[production];
+	}
+
+	/**
+	 * Returns the tokens of a production.
+	 *
+	 * @param production index of the production
+	 * @return indexes of its tokens within {@link #getTokens()}, which must
+	 *	not be modified
+	 */
+	public int[] getTokens(int production) {
+		return rhs[production];
+	}
+}
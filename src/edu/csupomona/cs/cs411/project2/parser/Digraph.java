@@ -0,0 +1,147 @@
+package edu.csupomona.cs.cs411.project2.parser;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * This class represents DeRemer and Pennello's digraph algorithm, which
+ * unions the set of every vertex of a relation with the sets of every vertex
+ * it reaches. Each edge is visited once, and every vertex of a strongly
+ * connected component is given the same set. Sets are bitsets, and the
+ * traversal uses an explicit stack so that long chains of vertices cannot
+ * overflow the thread stack.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class Digraph {
+	/**
+	 * Value given to a vertex once its component has been assigned its set.
+	 */
+	private static final int INFINITY = Integer.MAX_VALUE;
+
+	/**
+	 * Vertices related to each vertex.
+	 */
+	private final int[][] RELATION;
+
+	/**
+	 * Set of each vertex, which is replaced by the union of the sets it
+	 * reaches.
+	 */
+	private final long[][] SETS;
+
+	/**
+	 * Depth of each vertex on {@link #STACK} when it was visited, the lowest
+	 * depth it reaches, or {@link #INFINITY} once it is finished.
+	 */
+	private final int[] N;
+
+	/**
+	 * Vertices which have been visited but whose components are unfinished.
+	 */
+	private final int[] STACK;
+
+	/**
+	 * Vertices being traversed, which replaces recursion.
+	 */
+	private final int[] CALLS;
+
+	/**
+	 * Index of the next edge of each vertex within {@link #CALLS}.
+	 */
+	private final int[] EDGES;
+
+	/**
+	 * Constructs a Digraph over a relation and the sets of its vertices.
+	 *
+	 * @param relation vertices related to each vertex
+	 * @param sets set of each vertex, which {@link #run()} replaces with the
+	 *	union of the sets it reaches
+	 */
+	public Digraph(int[][] relation, long[][] sets) {
+		Preconditions.checkArgument(relation.length == sets.length, "Table sizes do not match!");
+		this.RELATION = relation;
+		this.SETS = sets;
+		this.N = new int[relation.length];
+		this.STACK = new int[relation.length];
+		this.CALLS = new int[relation.length];
+		this.EDGES = new int[relation.length];
+	}
+
+	/**
+	 * Unions the set of every vertex with the sets of every vertex it
+	 * reaches.
+	 */
+	public void run() {
+		for (int x = 0; x < RELATION.length; x++) {
+			if (N[x] == 0) {
+				traverse(x);
+			}
+		}
+	}
+
+	/**
+	 * Traverses every vertex reachable from a vertex which has not yet been
+	 * visited.
+	 *
+	 * @param root vertex to begin at
+	 */
+	private void traverse(int root) {
+		int depth = 0;
+		int numCalls = 0;
+
+		int x;
+		int y;
+		STACK[depth++] = root;
+		N[root] = depth;
+		CALLS[numCalls] = root;
+		EDGES[numCalls++] = 0;
+		while (0 < numCalls) {
+			x = CALLS[numCalls-1];
+			if (EDGES[numCalls-1] < RELATION[x].length) {
+				y = RELATION[x][EDGES[numCalls-1]++];
+				if (N[y] == 0) {
+					STACK[depth++] = y;
+					N[y] = depth;
+					CALLS[numCalls] = y;
+					EDGES[numCalls++] = 0;
+					continue;
+				}
+
+				N[x] = Math.min(N[x], N[y]);
+				union(x, y);
+				continue;
+			}
+
+			numCalls--;
+			if (STACK[N[x]-1] == x) {
+				do {
+					y = STACK[--depth];
+					N[y] = INFINITY;
+					if (y != x) {
+						System.arraycopy(SETS[x], 0, SETS[y], 0, SETS[x].length);
+					}
+				} while (y != x);
+			}
+
+			if (0 < numCalls) {
+				y = CALLS[numCalls-1];
+				N[y] = Math.min(N[y], N[x]);
+				union(y, x);
+			}
+		}
+	}
+
+	/**
+	 * Unions the set of a vertex with the set of another.
+	 *
+	 * @param x vertex whose set is changed
+	 * @param y vertex whose set is added
+	 */
+	private void union(int x, int y) {
+		long[] to = SETS[x];
+		long[] from = SETS[y];
+		for (int i = 0; i < to.length; i++) {
+			to[i] |= from[i];
+		}
+	}
+}
@@ -0,0 +1,691 @@
+package edu.csupomona.cs.cs411.project2.parser;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class represents an optimization pass over the {@link Production}s of
+ * a CFG which reduces the number of reductions a parser makes per token. Two
+ * rewrites are applied until neither applies anymore:
+ * <ul>
+ * <li>unit productions ({@code A -> B}) are replaced by a copy of every
+ * production of {@code B} with {@code A} as its nonterminal, and</li>
+ * <li>nonterminals which are referenced only once and are not recursive are
+ * inlined into the production referencing them and removed.</li>
+ * </ul>
+ * Productions of the initial nonterminal are never rewritten, so production
+ * {@code 0} is still the one which accepts.
+ * <p>
+ * Each optimized production keeps the sequence of original reductions it
+ * stands for as pairs of {@code {production, offset}}, where {@code offset}
+ * is the number of symbols above the right-hand side of the original
+ * production when it would have been reduced. Performing these reductions in
+ * order over the symbols of an optimized production yields exactly the
+ * original derivation, so traces and trees can still report the original
+ * grammar.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class GrammarOptimizer {
+	/**
+	 * Offset within each {@code {production, offset}} pair of a reduction
+	 * where the original production id is stored.
+	 */
+	public static final int PRD = 0;
+
+	/**
+	 * Offset within each {@code {production, offset}} pair of a reduction
+	 * where the offset from the top of the stack is stored.
+	 */
+	public static final int OFF = 1;
+
+	/**
+	 * Number of terminals within the CFG, i.e., the first nonterminal id.
+	 */
+	private final int NUM_TERMINALS;
+
+	/**
+	 * Number of nonterminals within the CFG.
+	 */
+	private final int NUM_NONTERMINALS;
+
+	/**
+	 * Initial nonterminal of the CFG, whose productions are never rewritten.
+	 */
+	private final int INITIAL_NONTERMINAL;
+
+	/**
+	 * Productions being optimized.
+	 */
+	private final List<Production> PRODUCTIONS;
+
+	/**
+	 * Original reductions of every production being optimized.
+	 */
+	private final List<int[]> REDUCTIONS;
+
+	/**
+	 * Id of every production the LR(0) tables have been built from, so that
+	 * the items of a production keep the same encoding between rewrites.
+	 */
+	private final Map<Production, Integer> PRODUCTION_IDS;
+
+	/**
+	 * LR(0) tables built while checking rewrites, keyed by their sorted
+	 * kernel items.
+	 */
+	private final Map<List<Integer>, Lr0Table> TABLES;
+
+	/**
+	 * Check during which the productions of every nonterminal last changed.
+	 */
+	private final int[] CHANGED;
+
+	/**
+	 * Index within {@link #itemSymbols} of the first item of every
+	 * production, indexed by production id.
+	 */
+	private int[] itemStart;
+
+	/**
+	 * Symbol following the marker of every item, or
+	 * {@link Integer#MIN_VALUE} if the marker is at the end.
+	 */
+	private int[] itemSymbols;
+
+	/**
+	 * Number of items within {@link #itemSymbols}.
+	 */
+	private int numItems;
+
+	/**
+	 * Sorted ids of the productions of every nonterminal as of the last
+	 * check.
+	 */
+	private int[][] nonterminalProductions;
+
+	/**
+	 * Number of checks made, i.e., calls to {@link #countConflicts()}.
+	 */
+	private int numChecks;
+
+	/**
+	 * This field represents the number of unit productions eliminated.
+	 */
+	private int numUnitProductions;
+
+	/**
+	 * This field represents the number of nonterminals inlined.
+	 */
+	private int numInlinedNonterminals;
+
+	/**
+	 * Constructs a GrammarOptimizer for the given productions.
+	 *
+	 * @param productions productions of the CFG, in production id order
+	 * @param numTerminals number of terminals within the CFG
+	 * @param numNonterminals number of nonterminals within the CFG
+	 * @param initialNonterminal initial nonterminal of the CFG
+	 */
+	public GrammarOptimizer(List<Production> productions, int numTerminals, int numNonterminals, int initialNonterminal) {
+		Preconditions.checkNotNull(productions);
+		this.NUM_TERMINALS = numTerminals;
+		this.NUM_NONTERMINALS = numNonterminals;
+		this.INITIAL_NONTERMINAL = initialNonterminal;
+
+		this.PRODUCTIONS = new ArrayList<>(productions);
+		this.REDUCTIONS = new ArrayList<>(productions.size());
+		for (int i = 0; i < productions.size(); i++) {
+			REDUCTIONS.add(new int[] { i, 0 });
+		}
+
+		this.PRODUCTION_IDS = new HashMap<>();
+		this.TABLES = new HashMap<>();
+		this.CHANGED = new int[numNonterminals];
+		this.itemStart = new int[productions.size()];
+		this.itemSymbols = new int[productions.size()<<2];
+		this.numItems = 0;
+		this.nonterminalProductions = new int[numNonterminals][];
+		this.numChecks = 0;
+
+		numUnitProductions = Integer.MIN_VALUE;
+		numInlinedNonterminals = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Rewrites the productions until neither optimization applies anymore.
+	 * Inlining a nonterminal moves the decision of where its right-hand side
+	 * ends into the tables of the production it was inlined into, where the
+	 * lookaheads computed by the parser generator may no longer be able to
+	 * make it. The optimizer runs before those lookaheads exist and must
+	 * suit every generator, so it instead counts the LR(0) tables which need
+	 * a lookahead at all (a superset of those which will have conflicts),
+	 * and does not make a rewrite which would cause that count to grow.
+	 * <p>
+	 * The productions are scanned in passes, each of which continues past
+	 * the rewrites it makes, until a pass makes none.
+	 */
+	public void optimize() {
+		numUnitProductions = numInlinedNonterminals = 0;
+		int[] references = countReferences();
+		boolean[] referenced = new boolean[NUM_NONTERMINALS];
+		for (int i = 0; i < NUM_NONTERMINALS; i++) {
+			referenced[i] = 0 < references[i];
+		}
+
+		int numConflicts = countConflicts();
+		Set<List<Object>> rejected = new HashSet<>();
+		List<Production> productions = new ArrayList<>();
+		List<int[]> reductions = new ArrayList<>();
+
+		boolean rewritten;
+		Production p;
+		int nonterminal;
+		int position;
+		boolean inline;
+		int numRemoved;
+		int conflicts;
+		List<Object> rewrite;
+		do {
+			rewritten = false;
+			Rewrite_Productions:
+			for (int i = 0; i < PRODUCTIONS.size(); i++) {
+				p = PRODUCTIONS.get(i);
+				nonterminal = p.getNonterminal();
+				if (nonterminal == INITIAL_NONTERMINAL) {
+					continue;
+				}
+
+				position = -1;
+				for (int symbol : p) {
+					position++;
+					if (!isNonterminal(symbol) || symbol == INITIAL_NONTERMINAL || symbol == nonterminal) {
+						continue;
+					}
+
+					inline = references[symbol-NUM_TERMINALS] == 1 && !reaches(symbol, symbol, false);
+					if (!inline && (p.size() != 1 || reaches(symbol, nonterminal, true))) {
+						continue;
+					}
+
+					rewrite = Arrays.<Object>asList(p, position);
+					if (rejected.contains(rewrite)) {
+						continue;
+					}
+
+					productions.clear();
+					productions.addAll(PRODUCTIONS);
+					reductions.clear();
+					reductions.addAll(REDUCTIONS);
+
+					inline(i, position);
+					numRemoved = 0;
+					if (inline) {
+						for (int j = 0; j < i; j++) {
+							if (PRODUCTIONS.get(j).getNonterminal() == symbol) {
+								numRemoved++;
+							}
+						}
+
+						remove(symbol);
+					}
+
+					conflicts = countConflicts();
+					if (conflicts <= numConflicts) {
+						numConflicts = conflicts;
+						if (inline) {
+							numInlinedNonterminals++;
+						} else {
+							numUnitProductions++;
+						}
+
+						// the productions replacing p are scanned next
+						references = countReferences();
+						rewritten = true;
+						i -= numRemoved+1;
+						continue Rewrite_Productions;
+					}
+
+					PRODUCTIONS.clear();
+					PRODUCTIONS.addAll(productions);
+					REDUCTIONS.clear();
+					REDUCTIONS.addAll(reductions);
+					rejected.add(rewrite);
+				}
+			}
+		} while (rewritten);
+
+		TABLES.clear();
+
+		// nonterminals only referenced by the unit productions replaced are
+		// no longer derivable, and neither is anything only they referenced
+		boolean removed;
+		do {
+			removed = false;
+			references = countReferences();
+			for (int i = 0; i < NUM_NONTERMINALS; i++) {
+				if (referenced[i] && references[i] == 0 && i+NUM_TERMINALS != INITIAL_NONTERMINAL) {
+					referenced[i] = false;
+					removed |= remove(i+NUM_TERMINALS);
+				}
+			}
+		} while (removed);
+	}
+
+	/**
+	 * Returns the number of LR(0) tables of the productions which have either
+	 * more than one reduction or both a reduction and a shift. Items are
+	 * encoded as the index of their production within a flattened array of
+	 * right-hand sides plus the position of their marker, so that a table can
+	 * be keyed by its sorted kernel items.
+	 * <p>
+	 * The tables are kept between checks, and since a rewrite only changes
+	 * the productions of one or two nonterminals, a table is only built again
+	 * if its closure includes the productions of a nonterminal which changed
+	 * since it was built. The tables are still walked from the initial one
+	 * to find those which can be reached, but most are found to be current.
+	 *
+	 * @return number of tables with conflicts
+	 */
+	private int countConflicts() {
+		numChecks++;
+		List<List<Integer>> productions = new ArrayList<>(NUM_NONTERMINALS);
+		for (int i = 0; i < NUM_NONTERMINALS; i++) {
+			productions.add(new ArrayList<Integer>());
+		}
+
+		for (Production p : PRODUCTIONS) {
+			productions.get(p.getNonterminal()-NUM_TERMINALS).add(getId(p));
+		}
+
+		int[] ids;
+		for (int i = 0; i < NUM_NONTERMINALS; i++) {
+			ids = Ints.toArray(productions.get(i));
+			Arrays.sort(ids);
+			if (!Arrays.equals(ids, nonterminalProductions[i])) {
+				nonterminalProductions[i] = ids;
+				CHANGED[i] = numChecks;
+			}
+		}
+
+		ids = nonterminalProductions[INITIAL_NONTERMINAL-NUM_TERMINALS];
+		int[] kernel = new int[ids.length];
+		for (int i = 0; i < kernel.length; i++) {
+			kernel[i] = itemStart[ids[i]];
+		}
+
+		Arrays.sort(kernel);
+		Set<List<Integer>> visited = new HashSet<>();
+		List<List<Integer>> queue = new ArrayList<>();
+		visited.add(Ints.asList(kernel));
+		queue.add(Ints.asList(kernel));
+
+		int numConflicts = 0;
+		List<Integer> key;
+		Lr0Table table;
+		for (int i = 0; i < queue.size(); i++) {
+			key = queue.get(i);
+			table = TABLES.get(key);
+			if (table == null || !isCurrent(table)) {
+				table = createTable(key);
+				TABLES.put(key, table);
+			}
+
+			if (table.CONFLICT) {
+				numConflicts++;
+			}
+
+			for (List<Integer> next : table.NEXT) {
+				if (visited.add(next)) {
+					queue.add(next);
+				}
+			}
+		}
+
+		return numConflicts;
+	}
+
+	/**
+	 * Returns whether or not an LR(0) table is current, i.e., none of the
+	 * nonterminals within its closure have changed since it was built.
+	 *
+	 * @param table table to check
+	 * @return {@code true} if it is, otherwise {@code false}
+	 */
+	private boolean isCurrent(Lr0Table table) {
+		for (int nonterminal : table.CLOSED) {
+			if (table.CHECK < CHANGED[nonterminal]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Builds the LR(0) table with the given kernel items from the current
+	 * productions.
+	 *
+	 * @param kernel sorted kernel items of the table
+	 * @return the table built
+	 */
+	private Lr0Table createTable(List<Integer> kernel) {
+		int[] items = Ints.toArray(kernel);
+		int numTableItems = items.length;
+		boolean[] closed = new boolean[NUM_NONTERMINALS];
+		List<Integer> closedNonterminals = new ArrayList<>();
+		int symbol;
+		for (int i = 0; i < numTableItems; i++) {
+			symbol = itemSymbols[items[i]];
+			if (symbol == Integer.MIN_VALUE || !isNonterminal(symbol) || closed[symbol-NUM_TERMINALS]) {
+				continue;
+			}
+
+			closed[symbol-NUM_TERMINALS] = true;
+			closedNonterminals.add(symbol-NUM_TERMINALS);
+			int[] ids = nonterminalProductions[symbol-NUM_TERMINALS];
+			if (items.length < numTableItems+ids.length) {
+				items = Arrays.copyOf(items, Math.max(items.length<<1, numTableItems+ids.length));
+			}
+
+			for (int id : ids) {
+				items[numTableItems++] = itemStart[id];
+			}
+		}
+
+		int numReductions = 0;
+		boolean shifts = false;
+		Map<Integer, List<Integer>> transitions = new LinkedHashMap<>();
+		for (int i = 0; i < numTableItems; i++) {
+			symbol = itemSymbols[items[i]];
+			if (symbol == Integer.MIN_VALUE) {
+				numReductions++;
+				continue;
+			}
+
+			shifts |= !isNonterminal(symbol);
+			List<Integer> next = transitions.get(symbol);
+			if (next == null) {
+				next = new ArrayList<>();
+				transitions.put(symbol, next);
+			}
+
+			if (!next.contains(items[i]+1)) {
+				next.add(items[i]+1);
+			}
+		}
+
+		List<List<Integer>> next = new ArrayList<>(transitions.size());
+		int[] nextKernel;
+		for (List<Integer> nextItems : transitions.values()) {
+			nextKernel = Ints.toArray(nextItems);
+			Arrays.sort(nextKernel);
+			next.add(Ints.asList(nextKernel));
+		}
+
+		return new Lr0Table(numChecks, Ints.toArray(closedNonterminals), 1 < numReductions || (numReductions == 1 && shifts), next);
+	}
+
+	/**
+	 * Returns the id of a production, assigning it the next id and encoding
+	 * its items if it has none.
+	 *
+	 * @param p production to identify
+	 * @return id of the production
+	 */
+	private int getId(Production p) {
+		Integer id = PRODUCTION_IDS.get(p);
+		if (id != null) {
+			return id;
+		}
+
+		id = PRODUCTION_IDS.size();
+		PRODUCTION_IDS.put(p, id);
+		if (id == itemStart.length) {
+			itemStart = Arrays.copyOf(itemStart, id<<1);
+		}
+
+		if (itemSymbols.length < numItems+p.size()+1) {
+			itemSymbols = Arrays.copyOf(itemSymbols, Math.max(itemSymbols.length<<1, numItems+p.size()+1));
+		}
+
+		itemStart[id] = numItems;
+		for (int symbol : p) {
+			itemSymbols[numItems++] = symbol;
+		}
+
+		itemSymbols[numItems++] = Integer.MIN_VALUE;
+		return id;
+	}
+
+	/**
+	 * Returns the number of times each nonterminal is referenced within the
+	 * right-hand side of a production of some other nonterminal.
+	 *
+	 * @return references of each nonterminal, indexed by nonterminal id less
+	 *	the number of terminals
+	 */
+	private int[] countReferences() {
+		int[] references = new int[NUM_NONTERMINALS];
+		for (Production p : PRODUCTIONS) {
+			for (int symbol : p) {
+				if (isNonterminal(symbol) && symbol != p.getNonterminal()) {
+					references[symbol-NUM_TERMINALS]++;
+				}
+			}
+		}
+
+		return references;
+	}
+
+	/**
+	 * Returns whether or not a given nonterminal can derive a sentential form
+	 * containing another nonterminal.
+	 *
+	 * @param from nonterminal to derive from
+	 * @param to nonterminal to search for
+	 * @param unitOnly {@code true} if only unit productions should be
+	 *	followed, otherwise {@code false}
+	 * @return {@code true} if it can, otherwise {@code false}
+	 */
+	private boolean reaches(int from, int to, boolean unitOnly) {
+		boolean[] visited = new boolean[NUM_NONTERMINALS];
+		int[] stack = new int[NUM_NONTERMINALS];
+		int depth = 0;
+		stack[depth++] = from;
+		visited[from-NUM_TERMINALS] = true;
+		int nonterminal;
+		while (0 < depth) {
+			nonterminal = stack[--depth];
+			for (Production p : PRODUCTIONS) {
+				if (p.getNonterminal() != nonterminal || (unitOnly && p.size() != 1)) {
+					continue;
+				}
+
+				for (int symbol : p) {
+					if (!isNonterminal(symbol)) {
+						continue;
+					}
+
+					if (symbol == to) {
+						return true;
+					}
+
+					if (!visited[symbol-NUM_TERMINALS]) {
+						visited[symbol-NUM_TERMINALS] = true;
+						stack[depth++] = symbol;
+					}
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Replaces a production with one production for every production of the
+	 * nonterminal at a given position within its right-hand side, in which
+	 * that nonterminal is replaced by the right-hand side of that production.
+	 *
+	 * @param index index of the production to replace
+	 * @param position position of the nonterminal to inline
+	 */
+	private void inline(int index, int position) {
+		Production p = PRODUCTIONS.remove(index);
+		int[] reductions = REDUCTIONS.remove(index);
+		ImmutableList<Integer> rhs = ImmutableList.copyOf(p);
+		int nonterminal = rhs.get(position);
+		int numAfter = rhs.size()-position-1;
+
+		List<Production> inlined = new ArrayList<>();
+		List<int[]> inlinedReductions = new ArrayList<>();
+		for (int i = 0; i < PRODUCTIONS.size(); i++) {
+			if (PRODUCTIONS.get(i).getNonterminal() == nonterminal) {
+				inlined.add(PRODUCTIONS.get(i));
+				inlinedReductions.add(REDUCTIONS.get(i));
+			}
+		}
+
+		Production production;
+		int[] productionReductions;
+		for (int i = 0; i < inlined.size(); i++) {
+			production = new Production(p.getNonterminal(), ImmutableList.<Integer>builder()
+				.addAll(rhs.subList(0, position))
+				.addAll(inlined.get(i))
+				.addAll(rhs.subList(position+1, rhs.size()))
+				.build()
+			);
+
+			// the inlined reductions happen beneath the symbols following the
+			// inlined nonterminal, and then the original ones happen as before
+			productionReductions = Arrays.copyOf(inlinedReductions.get(i), inlinedReductions.get(i).length+reductions.length);
+			for (int j = OFF; j < inlinedReductions.get(i).length; j += 2) {
+				productionReductions[j] += numAfter;
+			}
+
+			System.arraycopy(reductions, 0, productionReductions, inlinedReductions.get(i).length, reductions.length);
+			PRODUCTIONS.add(index+i, production);
+			REDUCTIONS.add(index+i, productionReductions);
+		}
+	}
+
+	/**
+	 * Removes every production of a given nonterminal.
+	 *
+	 * @param nonterminal nonterminal whose productions should be removed
+	 * @return {@code true} if any productions were removed, otherwise
+	 *	{@code false}
+	 */
+	private boolean remove(int nonterminal) {
+		boolean removed = false;
+		for (int i = PRODUCTIONS.size()-1; 0 <= i; i--) {
+			if (PRODUCTIONS.get(i).getNonterminal() == nonterminal) {
+				PRODUCTIONS.remove(i);
+				REDUCTIONS.remove(i);
+				removed = true;
+			}
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Returns whether or not a given symbol identifier is a nonterminal.
+	 *
+	 * @param symbol symbol id to check
+	 * @return {@code true} if it is, otherwise {@code false}
+	 */
+	private boolean isNonterminal(int symbol) {
+		return NUM_TERMINALS <= symbol && symbol < NUM_TERMINALS+NUM_NONTERMINALS;
+	}
+
+	/**
+	 * Returns the optimized productions, in production id order.
+	 *
+	 * @return optimized productions
+	 */
+	public ImmutableList<Production> getProductions() {
+		return ImmutableList.copyOf(PRODUCTIONS);
+	}
+
+	/**
+	 * Returns the original reductions of every optimized production as
+	 * {@code {production, offset}} pairs, indexed by optimized production id.
+	 *
+	 * @return original reductions of every optimized production
+	 */
+	public int[][] getReductions() {
+		return REDUCTIONS.toArray(new int[REDUCTIONS.size()][]);
+	}
+
+	/**
+	 * Returns the number of unit productions eliminated.
+	 *
+	 * @return number of unit productions eliminated or
+	 *	{@link Integer#MIN_VALUE} if that has yet to be calculated
+	 */
+	public int getNumUnitProductions() {
+		return numUnitProductions;
+	}
+
+	/**
+	 * Returns the number of nonterminals inlined.
+	 *
+	 * @return number of nonterminals inlined or {@link Integer#MIN_VALUE} if
+	 *	that has yet to be calculated
+	 */
+	public int getNumInlinedNonterminals() {
+		return numInlinedNonterminals;
+	}
+
+	/**
+	 * This class represents an LR(0) table built while checking a rewrite.
+	 */
+	private static final class Lr0Table {
+		/**
+		 * Check during which this table was built.
+		 */
+		final int CHECK;
+
+		/**
+		 * Nonterminals whose productions were added to the closure of this
+		 * table, less the number of terminals.
+		 */
+		final int[] CLOSED;
+
+		/**
+		 * Whether or not this table has either more than one reduction or
+		 * both a reduction and a shift.
+		 */
+		final boolean CONFLICT;
+
+		/**
+		 * Sorted kernel items of every table this table has a transition to.
+		 */
+		final List<List<Integer>> NEXT;
+
+		/**
+		 * Constructs an Lr0Table with the given arguments.
+		 *
+		 * @param check check during which this table was built
+		 * @param closed nonterminals within the closure of this table
+		 * @param conflict whether or not this table has a conflict
+		 * @param next kernel items of the tables this table has a transition to
+		 */
+		Lr0Table(int check, int[] closed, boolean conflict, List<List<Integer>> next) {
+			this.CHECK = check;
+			this.CLOSED = closed;
+			this.CONFLICT = conflict;
+			this.NEXT = next;
+		}
+	}
+}
@@ -0,0 +1,262 @@
+package edu.csupomona.cs.cs411.project2.parser;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents every LR item of a list of {@link Production}s
+ * encoded as an integer, so that tables can be generated without allocating
+ * or hashing a Production for every item. An item is the index of its
+ * production shifted left by {@link #getDotBits()} bits, combined with the
+ * position of its dot, so that the next item of any item which has a next
+ * symbol is the item plus one. The symbols of every right-hand side are
+ * stored within a single pooled array.
+ * <p>
+ * Each item is also interned as a single Production, so that every table
+ * which contains an item shares the same Production.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class ItemPool {
+	/**
+	 * Number of bits used by the position of the dot within an item.
+	 */
+	private final int DOT_BITS;
+
+	/**
+	 * Nonterminal of each production, indexed by production.
+	 */
+	private final int[] LHS;
+
+	/**
+	 * Index of the first symbol of each right-hand side within
+	 * {@link #RHS}, indexed by production, along with the number of symbols
+	 * within {@link #RHS} at the end.
+	 */
+	private final int[] START;
+
+	/**
+	 * Symbols of every right-hand side.
+	 */
+	private final int[] RHS;
+
+	/**
+	 * Productions of each nonterminal, indexed by symbol, or {@code null} for
+	 * every terminal.
+	 */
+	private final int[][] PRODUCTIONS_OF;
+
+	/**
+	 * Interned Production of each item, indexed by production and then by
+	 * the position of the dot.
+	 */
+	private final Production[][] INTERNED;
+
+	/**
+	 * Item of each interned Production.
+	 */
+	private final Map<Production, Integer> ITEMS;
+
+	/**
+	 * Constructs an ItemPool containing every item of the given productions.
+	 *
+	 * @param productions productions to encode, where the index of each
+	 *	production is its index within this list
+	 * @param numSymbols number of symbols, where every symbol of the
+	 *	productions must be less than this number
+	 */
+	public ItemPool(List<Production> productions, int numSymbols) {
+		Preconditions.checkNotNull(productions);
+
+		int numProductions = productions.size();
+		this.LHS = new int[numProductions];
+		this.START = new int[numProductions+1];
+		this.INTERNED = new Production[numProductions][];
+		this.ITEMS = new HashMap<>();
+
+		int maxSize = 0;
+		for (int i = 0; i < numProductions; i++) {
+			START[i+1] = START[i]+productions.get(i).size();
+			maxSize = Math.max(maxSize, productions.get(i).size());
+		}
+
+		this.DOT_BITS = Integer.SIZE-Integer.numberOfLeadingZeros(maxSize);
+		Preconditions.checkArgument(numProductions <= (Integer.MAX_VALUE>>>DOT_BITS), "Too many productions to encode as items!");
+		this.RHS = new int[START[numProductions]];
+
+		int[] numProductionsOf = new int[numSymbols];
+		Production p;
+		for (int i = 0; i < numProductions; i++) {
+			p = productions.get(i);
+			LHS[i] = p.getNonterminal();
+			numProductionsOf[LHS[i]]++;
+
+			int j = START[i];
+			for (Integer symbol : p) {
+				Preconditions.checkArgument(0 <= symbol && symbol < numSymbols, "Symbol %s is not within [0, %s)", symbol, numSymbols);
+				RHS[j++] = symbol;
+			}
+
+			INTERNED[i] = new Production[p.size()+1];
+			for (int dot = 0; dot <= p.size(); dot++) {
+				INTERNED[i][dot] = p;
+				ITEMS.put(p, (i<<DOT_BITS)|dot);
+				if (p.hasNext()) {
+					p = p.next();
+				}
+			}
+		}
+
+		this.PRODUCTIONS_OF = new int[numSymbols][];
+		for (int i = 0; i < numProductions; i++) {
+			if (PRODUCTIONS_OF[LHS[i]] == null) {
+				PRODUCTIONS_OF[LHS[i]] = new int[numProductionsOf[LHS[i]]];
+				numProductionsOf[LHS[i]] = 0;
+			}
+
+			PRODUCTIONS_OF[LHS[i]][numProductionsOf[LHS[i]]++] = i;
+		}
+	}
+
+	/**
+	 * Releases the interned Productions of every item, along with the item of
+	 * each, which are only needed while tables are generated. Neither
+	 * {@link #toProduction(int)} nor {@link #toItem(Production)} can be used
+	 * once they have been released.
+	 */
+	public void release() {
+		Arrays.fill(INTERNED, null);
+		ITEMS.clear();
+	}
+
+	/**
+	 * Returns the number of bits used by the position of the dot within an
+	 * item.
+	 *
+	 * @return number of bits used by the dot
+	 */
+	public int getDotBits() {
+		return DOT_BITS;
+	}
+
+	/**
+	 * Returns the number of productions within this ItemPool.
+	 *
+	 * @return number of productions
+	 */
+	public int getNumProductions() {
+		return LHS.length;
+	}
+
+	/**
+	 * Returns the item of a production with its dot at a given position.
+	 *
+	 * @param production index of the production
+	 * @param dot position of the dot
+	 * @return the item
+	 */
+	public int item(int production, int dot) {
+		return (production<<DOT_BITS)|dot;
+	}
+
+	/**
+	 * Returns the production of an item.
+	 *
+	 * @param item the item
+	 * @return index of the production of the item
+	 */
+	public int getProduction(int item) {
+		return item>>>DOT_BITS;
+	}
+
+	/**
+	 * Returns the position of the dot within an item.
+	 *
+	 * @param item the item
+	 * @return position of the dot
+	 */
+	public int getDot(int item) {
+		return item&((1<<DOT_BITS)-1);
+	}
+
+	/**
+	 * Returns the nonterminal of a production.
+	 *
+	 * @param production index of the production
+	 * @return symbol id of the nonterminal
+	 */
+	public int getNonterminal(int production) {
+		return LHS[production];
+	}
+
+	/**
+	 * Returns the productions of a nonterminal.
+	 *
+	 * @param nonterminal symbol id of the nonterminal
+	 * @return indexes of the productions of the nonterminal, in order, which
+	 *	must not be modified, or {@code null} if the symbol is a terminal
+	 */
+	public int[] getProductionsOf(int nonterminal) {
+		return PRODUCTIONS_OF[nonterminal];
+	}
+
+	/**
+	 * Returns whether or not an item has a symbol after its dot.
+	 *
+	 * @param item the item
+	 * @return {@code true} if it does, otherwise {@code false}
+	 */
+	public boolean hasNext(int item) {
+		int production = getProduction(item);
+		return START[production]+getDot(item) < START[production+1];
+	}
+
+	/**
+	 * Returns the symbol after the dot of an item, which must
+	 * {@link #hasNext(int) have a next symbol}.
+	 *
+	 * @param item the item
+	 * @return symbol after the dot
+	 */
+	public int peek(int item) {
+		return RHS[START[getProduction(item)]+getDot(item)];
+	}
+
+	/**
+	 * Returns the interned Production of an item.
+	 *
+	 * @param item the item
+	 * @return Production of the item
+	 */
+	public Production toProduction(int item) {
+		return INTERNED[getProduction(item)][getDot(item)];
+	}
+
+	/**
+	 * Returns the item of a Production.
+	 *
+	 * @param p the Production
+	 * @return the item, or {@link Integer#MIN_VALUE} if the Production is not
+	 *	an item of this ItemPool
+	 */
+	public int toItem(Production p) {
+		Integer item = ITEMS.get(p);
+		return item == null ? Integer.MIN_VALUE : item;
+	}
+
+	/**
+	 * Returns the index of the production a Production was derived from,
+	 * i.e., the index of its {@link Production#getAncestor() ancestor}.
+	 *
+	 * @param p the Production
+	 * @return index of its production, or {@code -1} if the Production is not
+	 *	an item of this ItemPool
+	 */
+	public int indexOf(Production p) {
+		int item = toItem(p);
+		return item == Integer.MIN_VALUE ? -1 : getProduction(item);
+	}
+}
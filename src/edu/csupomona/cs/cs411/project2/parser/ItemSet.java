@@ -0,0 +1,136 @@
+package edu.csupomona.cs.cs411.project2.parser;
+
+import java.util.Arrays;
+
+/**
+ * This class represents an immutable set of items encoded by an
+ * {@link ItemPool}, such as the initial items which identify a
+ * {@link Table}. Items are kept sorted, so two sets are equal iff their
+ * arrays are equal, and a 64-bit fingerprint of the items is computed once
+ * so that sets are rarely compared item by item.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class ItemSet {
+	/**
+	 * Sorted items of this ItemSet.
+	 */
+	private final int[] ITEMS;
+
+	/**
+	 * Fingerprint of {@link #ITEMS}.
+	 */
+	private final long FINGERPRINT;
+
+	/**
+	 * Constructs an ItemSet from sorted and distinct items.
+	 *
+	 * @param items sorted and distinct items, which are not copied
+	 */
+	private ItemSet(int[] items) {
+		this.ITEMS = items;
+
+		long fingerprint = 0xCBF29CE484222325L;
+		for (int item : items) {
+			fingerprint ^= item;
+			fingerprint *= 0x100000001B3L;
+		}
+
+		fingerprint ^= fingerprint>>>33;
+		fingerprint *= 0xFF51AFD7ED558CCDL;
+		fingerprint ^= fingerprint>>>33;
+		this.FINGERPRINT = fingerprint;
+	}
+
+	/**
+	 * Returns an ItemSet containing the first items of an array.
+	 *
+	 * @param items array containing the items, which is not modified
+	 * @param length number of items within the array
+	 * @return ItemSet containing those items
+	 */
+	public static ItemSet of(int[] items, int length) {
+		int[] sorted = Arrays.copyOf(items, length);
+		Arrays.sort(sorted);
+
+		int size = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (size == 0 || sorted[size-1] != sorted[i]) {
+				sorted[size++] = sorted[i];
+			}
+		}
+
+		return new ItemSet(size == sorted.length ? sorted : Arrays.copyOf(sorted, size));
+	}
+
+	/**
+	 * Returns the number of items within this ItemSet.
+	 *
+	 * @return number of items
+	 */
+	public int size() {
+		return ITEMS.length;
+	}
+
+	/**
+	 * Returns an item of this ItemSet.
+	 *
+	 * @param index index of the item, which must be less than {@link #size()}
+	 * @return the item, where items are in ascending order
+	 */
+	public int get(int index) {
+		return ITEMS[index];
+	}
+
+	/**
+	 * Returns whether or not this ItemSet contains an item.
+	 *
+	 * @param item the item
+	 * @return {@code true} if it does, otherwise {@code false}
+	 */
+	public boolean contains(int item) {
+		return 0 <= Arrays.binarySearch(ITEMS, item);
+	}
+
+	/**
+	 * Returns the 64-bit fingerprint of the items of this ItemSet.
+	 *
+	 * @return fingerprint of this ItemSet
+	 */
+	public long getFingerprint() {
+		return FINGERPRINT;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+
+		if (!(obj instanceof ItemSet)) {
+			return false;
+		}
+
+		ItemSet other = (ItemSet)obj;
+		return this.FINGERPRINT == other.FINGERPRINT && Arrays.equals(this.ITEMS, other.ITEMS);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return (int)(FINGERPRINT^(FINGERPRINT>>>32));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return Arrays.toString(ITEMS);
+	}
+}
@@ -0,0 +1,189 @@
+package edu.csupomona.cs.cs411.project2.parser;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+
+/**
+ * This class represents the mutable state of a single parse, mainly the stack
+ * of tables the {@link Parser} has visited. A ParseContext is reset at the
+ * start of every parse rather than reallocated, so a caller which parses many
+ * inputs (e.g., one ParseContext per thread) does not allocate anything once
+ * the stack has grown to the depth of the deepest input seen. Parsers use
+ * the {@link #get() ParseContext of the calling thread} whenever a caller
+ * does not pass one in.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class ParseContext {
+	/**
+	 * Initial capacity of the stack when none is specified.
+	 */
+	private static final int DEFAULT_CAPACITY = 256;
+
+	/**
+	 * ParseContext of each thread, which is used whenever a caller does not
+	 * pass one in.
+	 */
+	private static final ThreadLocal<ParseContext> CONTEXTS = new ThreadLocal<ParseContext>() {
+		@Override
+		protected ParseContext initialValue() {
+			return new ParseContext();
+		}
+	};
+
+	/**
+	 * Stack of tables visited by the parser, where {@link #top} is the index
+	 * of the current table.
+	 */
+	private int[] stack;
+
+	/**
+	 * Index of the top of {@link #stack}.
+	 */
+	private int top;
+
+	/**
+	 * Index of the token currently being parsed.
+	 */
+	private int tokenIndex;
+
+	/**
+	 * Table the parser was in when it last stopped, or
+	 * {@link Integer#MIN_VALUE} if the parse has not stopped yet.
+	 */
+	private int finalState;
+
+	/**
+	 * Constructs a ParseContext with the default stack capacity.
+	 */
+	public ParseContext() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a ParseContext with the specified initial stack capacity.
+	 * The stack grows as needed beyond this capacity.
+	 *
+	 * @param initialCapacity initial capacity of the stack
+	 */
+	public ParseContext(int initialCapacity) {
+		Preconditions.checkArgument(0 < initialCapacity, "Initial capacity must be positive.");
+		this.stack = new int[initialCapacity];
+		reset(0);
+	}
+
+	/**
+	 * Returns the ParseContext of the calling thread, which is created the
+	 * first time it is needed and reused by every later call. It must not be
+	 * used by more than one parse at a time.
+	 *
+	 * @return the ParseContext of the calling thread
+	 */
+	public static ParseContext get() {
+		return CONTEXTS.get();
+	}
+
+	/**
+	 * Resets this ParseContext so that it can be used for a new parse
+	 * beginning at the given table.
+	 *
+	 * @param initialState table the parse begins in
+	 */
+	public void reset(int initialState) {
+		top = 0;
+		stack[top] = initialState;
+		tokenIndex = 0;
+		finalState = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Pushes a table onto the stack, growing the stack if necessary.
+	 *
+	 * @param state table to push
+	 */
+	public void push(int state) {
+		if (++top == stack.length) {
+			stack = Arrays.copyOf(stack, stack.length<<1);
+		}
+
+		stack[top] = state;
+	}
+
+	/**
+	 * Pops a given number of tables off of the stack and returns the table
+	 * which is then on top.
+	 *
+	 * @param count number of tables to pop
+	 * @return table on top of the stack after popping
+	 */
+	public int pop(int count) {
+		top -= count;
+		return stack[top];
+	}
+
+	/**
+	 * Returns the table on top of the stack.
+	 *
+	 * @return table on top of the stack
+	 */
+	public int peek() {
+		return stack[top];
+	}
+
+	/**
+	 * Returns the table a given number of entries below the top of the stack
+	 * without popping any tables.
+	 *
+	 * @param depth number of entries below the top of the stack
+	 * @return table at that depth
+	 */
+	public int peek(int depth) {
+		return stack[top-depth];
+	}
+
+	/**
+	 * Returns the number of tables on the stack.
+	 *
+	 * @return number of tables on the stack
+	 */
+	public int getDepth() {
+		return top+1;
+	}
+
+	/**
+	 * Returns the index of the token currently being parsed.
+	 *
+	 * @return index of the current token
+	 */
+	public int getTokenIndex() {
+		return tokenIndex;
+	}
+
+	/**
+	 * Advances to the next token and returns its index.
+	 *
+	 * @return index of the next token
+	 */
+	public int nextToken() {
+		return ++tokenIndex;
+	}
+
+	/**
+	 * Returns the table the parser was in when it stopped.
+	 *
+	 * @return table the parser stopped in, or {@link Integer#MIN_VALUE} if
+	 *	it has not stopped
+	 */
+	public int getFinalState() {
+		return finalState;
+	}
+
+	/**
+	 * Records the table the parser was in when it stopped.
+	 *
+	 * @param state table the parser stopped in
+	 */
+	public void setFinalState(int state) {
+		this.finalState = state;
+	}
+}
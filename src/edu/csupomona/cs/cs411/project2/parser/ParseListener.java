@@ -0,0 +1,62 @@
+package edu.csupomona.cs.cs411.project2.parser;
+
+import java.io.IOException;
+
+/**
+ * This interface represents the callbacks a {@link Parser} makes for each
+ * action it takes while parsing a TokenStream. All arguments are primitive
+ * identifiers so that a listener can record or react to a parse without the
+ * parser formatting or boxing anything on its behalf.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public interface ParseListener {
+	/**
+	 * Called when the parser shifts a token.
+	 *
+	 * @param state table the parser was in when shifting
+	 * @param symbol symbol id of the token shifted
+	 * @param tokenIndex index of the token shifted
+	 * @throws IOException if there is an error writing output
+	 */
+	void shift(int state, int symbol, int tokenIndex) throws IOException;
+
+	/**
+	 * Called when the parser reduces a production. Productions are always
+	 * reported as they appear within the original CFG. If the CFG was
+	 * optimized, a single reduction of the parser may be reported as several
+	 * reductions, some of which are made beneath symbols that were already
+	 * shifted or reduced.
+	 *
+	 * @param state table the parser was in when reducing
+	 * @param production id of the original production reduced
+	 * @param offset number of symbols on the stack above the right-hand side
+	 *	of the production, which is {@code 0} unless the CFG was optimized
+	 * @param symbol symbol id of the current lookahead token
+	 * @param tokenIndex index of the current lookahead token
+	 * @throws IOException if there is an error writing output
+	 */
+	void reduce(int state, int production, int offset, int symbol, int tokenIndex) throws IOException;
+
+	/**
+	 * Called when the parser accepts its input. No further callbacks are
+	 * made for that parse.
+	 *
+	 * @param symbol symbol id of the final token
+	 * @param tokenIndex index of the final token
+	 * @throws IOException if there is an error writing output
+	 */
+	void accept(int symbol, int tokenIndex) throws IOException;
+
+	/**
+	 * Called when the parser rejects its input. No further callbacks are
+	 * made for that parse.
+	 *
+	 * @param state table the parser was in when no action was found
+	 * @param symbol symbol id of the offending token, or
+	 *	{@link Integer#MIN_VALUE} if the input ended early
+	 * @param tokenIndex index of the offending token
+	 * @throws IOException if there is an error writing output
+	 */
+	void reject(int state, int symbol, int tokenIndex) throws IOException;
+}
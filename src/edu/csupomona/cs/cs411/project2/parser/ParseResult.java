@@ -0,0 +1,116 @@
+package edu.csupomona.cs.cs411.project2.parser;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+/**
+ * This class represents the outcome of recognizing a TokenStream with a
+ * {@link Parser}, i.e., whether or not it was accepted and, if it was not,
+ * where the parser stopped. When recovering from syntax errors, every error
+ * found is included as well.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class ParseResult {
+	/**
+	 * Whether or not the input was accepted.
+	 */
+	private final boolean ACCEPTED;
+
+	/**
+	 * Table the parser was in when it stopped.
+	 */
+	private final int STATE;
+
+	/**
+	 * Index of the token the parser stopped on.
+	 */
+	private final int TOKEN_INDEX;
+
+	/**
+	 * Syntax errors found, in the order they were found.
+	 */
+	private final ImmutableList<SyntaxError> ERRORS;
+
+	/**
+	 * Constructs a ParseResult with the given arguments.
+	 *
+	 * @param accepted whether or not the input was accepted
+	 * @param state table the parser was in when it stopped
+	 * @param tokenIndex index of the token the parser stopped on
+	 */
+	public ParseResult(boolean accepted, int state, int tokenIndex) {
+		this(accepted, state, tokenIndex, ImmutableList.<SyntaxError>of());
+	}
+
+	/**
+	 * Constructs a ParseResult with the given arguments.
+	 *
+	 * @param accepted whether or not the input was accepted
+	 * @param state table the parser was in when it stopped
+	 * @param tokenIndex index of the token the parser stopped on
+	 * @param errors syntax errors found, in the order they were found
+	 */
+	public ParseResult(boolean accepted, int state, int tokenIndex, List<SyntaxError> errors) {
+		this.ACCEPTED = accepted;
+		this.STATE = state;
+		this.TOKEN_INDEX = tokenIndex;
+		this.ERRORS = ImmutableList.copyOf(errors);
+	}
+
+	/**
+	 * Returns whether or not the input was accepted.
+	 *
+	 * @return {@code true} if it was, otherwise {@code false}
+	 */
+	public boolean isAccepted() {
+		return ACCEPTED;
+	}
+
+	/**
+	 * Returns the table the parser was in when it stopped. When the input
+	 * was rejected, this is the table which had no action for the token.
+	 *
+	 * @return table the parser stopped in
+	 */
+	public int getState() {
+		return STATE;
+	}
+
+	/**
+	 * Returns the index of the token the parser stopped on. When the input
+	 * was rejected, this is the index of the offending token.
+	 *
+	 * @return index of the token the parser stopped on
+	 */
+	public int getTokenIndex() {
+		return TOKEN_INDEX;
+	}
+
+	/**
+	 * Returns the syntax errors found. Errors are only collected when
+	 * recovering from them, see
+	 * {@link Parser#recover(edu.csupomona.cs.cs411.project1.lexer.TokenStream)}.
+	 *
+	 * @return syntax errors found, in the order they were found
+	 */
+	public ImmutableList<SyntaxError> getErrors() {
+		return ERRORS;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		if (ACCEPTED) {
+			return String.format("accepted at token %d", TOKEN_INDEX);
+		}
+
+		if (1 < ERRORS.size()) {
+			return String.format("rejected with %d syntax errors; stopped at token %d in table A%d", ERRORS.size(), TOKEN_INDEX, STATE);
+		}
+
+		return String.format("rejected at token %d in table A%d", TOKEN_INDEX, STATE);
+	}
+}
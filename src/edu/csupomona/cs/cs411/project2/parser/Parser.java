@@ -12,7 +12,8 @@ import java.io.Writer;
  */
 public interface Parser {
 	/**
-	 * Parses the given TokenStream and writes output into the passed Writer.
+	 * Parses the given TokenStream and writes output into the passed Writer
+	 * using the {@link ParseContext#get() ParseContext of the calling thread}.
 	 *
 	 * @param stream TokenStream to retrieve Tokens from
 	 * @param writer Writer to write output in
@@ -22,4 +23,98 @@ public interface Parser {
 	 * @throws IOException if there is an error writing to that file
 	 */
 	boolean parse(TokenStream stream, Writer writer) throws IOException;
+
+	/**
+	 * Parses the given TokenStream and writes output into the passed Writer
+	 * using the given ParseContext to store the state of the parse. The
+	 * ParseContext is reset before parsing, so the same instance can be
+	 * reused across calls by a single thread.
+	 *
+	 * @param stream TokenStream to retrieve Tokens from
+	 * @param writer Writer to write output in
+	 * @param context ParseContext to store the state of this parse in
+	 * @return {code true} if this TokenStream is accepted by the language,
+	 *	otherwise {@code false}
+	 *
+	 * @throws IOException if there is an error writing to that file
+	 */
+	boolean parse(TokenStream stream, Writer writer, ParseContext context) throws IOException;
+
+	/**
+	 * Parses the given TokenStream and reports every action taken to the
+	 * passed ParseListener using the given ParseContext to store the state
+	 * of the parse.
+	 *
+	 * @param stream TokenStream to retrieve Tokens from
+	 * @param listener ParseListener to report actions to
+	 * @param context ParseContext to store the state of this parse in
+	 * @return {code true} if this TokenStream is accepted by the language,
+	 *	otherwise {@code false}
+	 *
+	 * @throws IOException if the listener fails to write its output
+	 */
+	boolean parse(TokenStream stream, ParseListener listener, ParseContext context) throws IOException;
+
+	/**
+	 * Determines whether or not the given TokenStream is accepted by the
+	 * language without producing any output, using the
+	 * {@link ParseContext#get() ParseContext of the calling thread}.
+	 *
+	 * @param stream TokenStream to retrieve Tokens from
+	 * @return result of recognizing the TokenStream
+	 */
+	ParseResult recognize(TokenStream stream);
+
+	/**
+	 * Determines whether or not the given TokenStream is accepted by the
+	 * language without producing any output, using the given ParseContext to
+	 * store the state of the parse.
+	 *
+	 * @param stream TokenStream to retrieve Tokens from
+	 * @param context ParseContext to store the state of this parse in
+	 * @return result of recognizing the TokenStream
+	 */
+	ParseResult recognize(TokenStream stream, ParseContext context);
+
+	/**
+	 * Parses the given TokenStream without producing any output, recovering
+	 * from every syntax error found so that all of them are reported in a
+	 * single pass, using the
+	 * {@link ParseContext#get() ParseContext of the calling thread}.
+	 *
+	 * @param stream TokenStream to retrieve Tokens from
+	 * @return result of parsing the TokenStream, including every syntax
+	 *	error found
+	 */
+	ParseResult recover(TokenStream stream);
+
+	/**
+	 * Parses the given TokenStream without producing any output, recovering
+	 * from every syntax error found so that all of them are reported in a
+	 * single pass, using the given ParseContext to store the state of the
+	 * parse.
+	 *
+	 * @param stream TokenStream to retrieve Tokens from
+	 * @param context ParseContext to store the state of this parse in
+	 * @return result of parsing the TokenStream, including every syntax
+	 *	error found
+	 */
+	ParseResult recover(TokenStream stream, ParseContext context);
+
+	/**
+	 * Parses the given TokenStream, recovering from every syntax error found
+	 * so that all of them are reported in a single pass, and writes the same
+	 * output into the passed Writer as {@link #parse(TokenStream, Writer,
+	 * ParseContext)} would, using the given ParseContext to store the state
+	 * of the parse.
+	 *
+	 * @param stream TokenStream to retrieve Tokens from
+	 * @param writer Writer to write output in
+	 * @param context ParseContext to store the state of this parse in
+	 * @return result of parsing the TokenStream, including every syntax
+	 *	error found
+	 *
+	 * @throws IOException if there is an error writing to that file
+	 */
+	ParseResult recover(TokenStream stream, Writer writer, ParseContext context) throws IOException;
 }
@@ -42,6 +42,25 @@ public class Production implements Iterable<Integer> {
 	 */
 	private final ImmutableList<Integer> RHS;
 
+	/**
+	 * Hash code of {@link #RHS}, which is shared by every child of the
+	 * ancestor of this Production.
+	 */
+	private final int RHS_HASH_CODE;
+
+	/**
+	 * Hash code of this Production.
+	 */
+	private final int HASH_CODE;
+
+	/**
+	 * Child of this Production, which is created the first time it is
+	 * requested so that every child of an ancestor at the same position is
+	 * the same instance. Every field of a Production is final, so a child
+	 * created by two threads at once is equal either way.
+	 */
+	private Production next;
+
 	/**
 	 * Constructs a Production with a given nonterminal and list of symbols
 	 * generated by that nonterminal.
@@ -55,6 +74,8 @@ public class Production implements Iterable<Integer> {
 		this.POSITION_MARKER = 0;
 		this.RHS = Objects.requireNonNull(rhs);
 		this.NONTERMINAL = Objects.requireNonNull(nonterminal);
+		this.RHS_HASH_CODE = RHS.hashCode();
+		this.HASH_CODE = hashCode(NONTERMINAL, POSITION_MARKER, RHS_HASH_CODE);
 	}
 
 	/**
@@ -69,6 +90,22 @@ public class Production implements Iterable<Integer> {
 		this.ANCESTOR = p.ANCESTOR;
 		this.NONTERMINAL = p.NONTERMINAL;
 		this.POSITION_MARKER = p.POSITION_MARKER+1;
+		this.RHS_HASH_CODE = p.RHS_HASH_CODE;
+		this.HASH_CODE = hashCode(NONTERMINAL, POSITION_MARKER, RHS_HASH_CODE);
+	}
+
+	/**
+	 * Returns the hash code of a Production with the given fields, which is
+	 * the same as {@code Objects.hash(nonterminal, positionMarker, rhs)}
+	 * without boxing its arguments.
+	 *
+	 * @param nonterminal nonterminal generating the Production
+	 * @param positionMarker position of the dot
+	 * @param rhsHashCode hash code of the right-hand side
+	 * @return hash code of the Production
+	 */
+	private static int hashCode(int nonterminal, int positionMarker, int rhsHashCode) {
+		return 31*(31*(31+nonterminal)+positionMarker)+rhsHashCode;
 	}
 
 	/**
@@ -105,7 +142,13 @@ public class Production implements Iterable<Integer> {
 	 * @return child Production of this with the dot moved forward one symbol
 	 */
 	public Production next() {
-		return new Production(this);
+		Production child = next;
+		if (child == null) {
+			child = new Production(this);
+			next = child;
+		}
+
+		return child;
 	}
 
 	/**
@@ -175,7 +218,7 @@ public class Production implements Iterable<Integer> {
 		}
 
 		Production other = (Production)obj;
-		if (this.NONTERMINAL != other.NONTERMINAL || this.POSITION_MARKER != other.POSITION_MARKER || this.size() != other.size()) {
+		if (this.HASH_CODE != other.HASH_CODE || this.POSITION_MARKER != other.POSITION_MARKER || !this.NONTERMINAL.equals(other.NONTERMINAL) || this.size() != other.size()) {
 			return false;
 		}
 
@@ -187,7 +230,7 @@ public class Production implements Iterable<Integer> {
 	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.NONTERMINAL, this.POSITION_MARKER, this.RHS);
+		return HASH_CODE;
 	}
 
 	/**
@@ -0,0 +1,73 @@
+package edu.csupomona.cs.cs411.project2.parser;
+
+/**
+ * This class represents a syntax error found by a {@link Parser}, i.e., a
+ * token for which the table the parser was in had no action.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class SyntaxError {
+	/**
+	 * Table the parser was in when the error was found.
+	 */
+	private final int STATE;
+
+	/**
+	 * Symbol id of the offending token.
+	 */
+	private final int SYMBOL;
+
+	/**
+	 * Index of the offending token.
+	 */
+	private final int TOKEN_INDEX;
+
+	/**
+	 * Constructs a SyntaxError with the given arguments.
+	 *
+	 * @param state table the parser was in when the error was found
+	 * @param symbol symbol id of the offending token
+	 * @param tokenIndex index of the offending token
+	 */
+	public SyntaxError(int state, int symbol, int tokenIndex) {
+		this.STATE = state;
+		this.SYMBOL = symbol;
+		this.TOKEN_INDEX = tokenIndex;
+	}
+
+	/**
+	 * Returns the table the parser was in when the error was found.
+	 *
+	 * @return table which had no action for the token
+	 */
+	public int getState() {
+		return STATE;
+	}
+
+	/**
+	 * Returns the symbol id of the offending token.
+	 *
+	 * @return symbol id of the offending token, or {@link Integer#MIN_VALUE}
+	 *	if the input ended without an end of file token
+	 */
+	public int getSymbol() {
+		return SYMBOL;
+	}
+
+	/**
+	 * Returns the index of the offending token.
+	 *
+	 * @return index of the offending token
+	 */
+	public int getTokenIndex() {
+		return TOKEN_INDEX;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return String.format("syntax error at token %d (symbol %d) in table A%d", TOKEN_INDEX, SYMBOL, STATE);
+	}
+}
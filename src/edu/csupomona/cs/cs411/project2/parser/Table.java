@@ -1,23 +1,37 @@
 package edu.csupomona.cs.cs411.project2.parser;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterators;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Objects;
 
 /**
  * This class represents a table to be used within a parser generator. A table
  * is essentially just a set of initial productions along with another set of
  * productions which represents the closure of those productions. Each table
- * also has a list of symbols which represents the viable prefix associated with
- * this Table and a reference to the table which generated it.
+ * also has a reference to the table which generated it and the symbol which
+ * that table consumed to reach it, from which the viable prefix associated
+ * with this Table is derived.
+ * <p>
+ * Only the initial items of a Table are stored, along with its closure
+ * productions once they are first needed, since a generator iterates every
+ * Table several times. The closure can be {@link #release() released} once
+ * the generator is finished with a Table. Transitions are stored within
+ * arrays ordered by symbol, so that a Table does not keep any structure which
+ * grows with its depth.
  *
  * @author Collin Smith <collinsmith@csupomona.edu>
  */
 public class Table implements Iterable<Production> {
+	/**
+	 * Number of transitions a Table has room for when its first transition
+	 * is put.
+	 */
+	private static final int INITIAL_TRANSITIONS = 4;
+
 	/**
 	 * This field represents the unique identifier associated with this Table.
 	 * This number should be from 0 to Integer.MAX_VALUE inclusively.
@@ -31,50 +45,84 @@ public class Table implements Iterable<Production> {
 	private final Table PARENT;
 
 	/**
-	 * This field represents the mapping from symbols to "next" tables.
+	 * This field represents the symbol which the parent of this Table
+	 * consumed to reach it, or {@link Integer#MIN_VALUE} if this Table has
+	 * no parent.
+	 */
+	private final int SYMBOL;
+
+	/**
+	 * This field represents the set of initial items of this Table. This
+	 * field is used to uniquely identify this Table, as no two tables should
+	 * have the same set of initial items.
+	 */
+	private final ItemSet INITIAL_ITEMS;
+
+	/**
+	 * This field represents the items which the initial items are encoded
+	 * by.
+	 */
+	private final ItemPool ITEMS;
+
+	/**
+	 * This field represents the generator of the closure of the initial
+	 * items.
+	 */
+	private final ClosureGenerator CLOSURE;
+
+	/**
+	 * This field represents the symbols which this Table has transitions
+	 * for, in ascending order.
 	 */
-	private final Map<Integer, Table> TRANSITIONS;
+	private int[] transitionSymbols;
 
 	/**
-	 * This field represents the viable prefix associated with this Table.
+	 * This field represents the "next" table of each symbol within
+	 * {@link #transitionSymbols}.
 	 */
-	private final ImmutableList<Integer> VIABLE_PREFIX;
+	private Table[] transitionTables;
 
 	/**
-	 * This field represents the set of initial productions of this Table.
-	 * This field is used to uniquely identify this Table, as no two tables
-	 * should have the same set of initial productions.
+	 * This field represents the number of transitions of this Table.
 	 */
-	private final ImmutableSet<Production> INITIAL_PRODUCTIONS;
+	private int numTransitions;
 
 	/**
-	 * This field represents the set of productions which closes over the
-	 * initial productions.
+	 * This field represents the closure Productions of this Table, or
+	 * {@code null} if they have not been generated or have been released.
 	 */
-	private final ImmutableSet<Production> CLOSURE_PRODUCTIONS;
+	private ImmutableSet<Production> closure;
 
 	/**
 	 * Constructor which creates a Table with the arguments passed.
 	 *
 	 * @param id unique identifier of this Table
-	 * @param parent Table which this Table was generated from
-	 * @param viablePrefix List of integers representing the viable prefix
-	 * @param initialProductions Set of initial productions for this Table
-	 * @param closureProductions Set of closure productions for this Table
+	 * @param parent Table which this Table was generated from, or
+	 *	{@code null} if this is the initial Table
+	 * @param symbol symbol which the parent consumed to reach this Table,
+	 *	which is ignored if there is no parent
+	 * @param initialItems set of initial items for this Table
+	 * @param items items which the initial items are encoded by
+	 * @param closure generator of the closure of the initial items
 	 */
 	public Table(
 		int id,
 		Table parent,
-		ImmutableList<Integer> viablePrefix,
-		ImmutableSet<Production> initialProductions,
-		ImmutableSet<Production> closureProductions
+		int symbol,
+		ItemSet initialItems,
+		ItemPool items,
+		ClosureGenerator closure
 	) {
 		this.ID = id;
 		this.PARENT = parent;
-		this.TRANSITIONS = new HashMap<>();
-		this.VIABLE_PREFIX = Objects.requireNonNull(viablePrefix);
-		this.INITIAL_PRODUCTIONS = Objects.requireNonNull(initialProductions);
-		this.CLOSURE_PRODUCTIONS = Objects.requireNonNull(closureProductions);
+		this.SYMBOL = parent == null ? Integer.MIN_VALUE : symbol;
+		this.INITIAL_ITEMS = Objects.requireNonNull(initialItems);
+		this.ITEMS = Objects.requireNonNull(items);
+		this.CLOSURE = Objects.requireNonNull(closure);
+		this.transitionSymbols = null;
+		this.transitionTables = null;
+		this.numTransitions = 0;
+		this.closure = null;
 	}
 
 	/**
@@ -95,6 +143,33 @@ public class Table implements Iterable<Production> {
 		return PARENT;
 	}
 
+	/**
+	 * Returns the symbol which the parent of this Table consumed to reach
+	 * it, i.e., the last symbol of its viable prefix.
+	 *
+	 * @return the symbol, or {@link Integer#MIN_VALUE} if this Table has no
+	 *	parent
+	 */
+	public int getSymbol() {
+		return SYMBOL;
+	}
+
+	/**
+	 * Returns the index of the transition for a given symbol within
+	 * {@link #transitionSymbols}.
+	 *
+	 * @param symbol symbol to find
+	 * @return index of the transition, or {@code -(insertion point)-1} if
+	 *	there is no transition for the symbol
+	 */
+	private int indexOf(int symbol) {
+		if (numTransitions == 0) {
+			return -1;
+		}
+
+		return Arrays.binarySearch(transitionSymbols, 0, numTransitions, symbol);
+	}
+
 	/**
 	 * Returns whether or not there exist a transition in this table for a
 	 * given symbol.
@@ -103,7 +178,7 @@ public class Table implements Iterable<Production> {
 	 * @return {@code true} if it does, otherwise {@code false}
 	 */
 	public boolean containsTransitionFor(Integer symbol) {
-		return TRANSITIONS.containsKey(symbol);
+		return 0 <= indexOf(symbol);
 	}
 
 	/**
@@ -114,7 +189,8 @@ public class Table implements Iterable<Production> {
 	 * @return parent Table, or {@code null} if the transition does not exist
 	 */
 	public Table getTransitionFor(Integer symbol) {
-		return TRANSITIONS.get(symbol);
+		int i = indexOf(symbol);
+		return i < 0 ? null : transitionTables[i];
 	}
 
 	/**
@@ -126,17 +202,59 @@ public class Table implements Iterable<Production> {
 	 * @return old Table used as the transition or {@code null} if none
 	 */
 	public Table putTransition(Integer symbol, Table t) {
-		return TRANSITIONS.put(symbol, t);
+		Preconditions.checkNotNull(t);
+		int i = indexOf(symbol);
+		if (0 <= i) {
+			Table old = transitionTables[i];
+			transitionTables[i] = t;
+			return old;
+		}
+
+		if (numTransitions == 0) {
+			transitionSymbols = new int[INITIAL_TRANSITIONS];
+			transitionTables = new Table[INITIAL_TRANSITIONS];
+		} else if (numTransitions == transitionSymbols.length) {
+			transitionSymbols = Arrays.copyOf(transitionSymbols, numTransitions<<1);
+			transitionTables = Arrays.copyOf(transitionTables, numTransitions<<1);
+		}
+
+		i = -i-1;
+		System.arraycopy(transitionSymbols, i, transitionSymbols, i+1, numTransitions-i);
+		System.arraycopy(transitionTables, i, transitionTables, i+1, numTransitions-i);
+		transitionSymbols[i] = symbol;
+		transitionTables[i] = t;
+		numTransitions++;
+		return null;
 	}
 
 	/**
-	 * Returns an immutable view of the list of viable integers representing
-	 * the viable prefix for this Table.
+	 * Returns the list of integers representing the viable prefix for this
+	 * Table, which is found by following the parents of this Table back to
+	 * the initial Table.
 	 *
 	 * @return the list of viable prefix symbols of this Table
 	 */
 	public ImmutableList<Integer> getViablePrefix() {
-		return VIABLE_PREFIX;
+		int depth = 0;
+		for (Table t = this; t.PARENT != null; t = t.PARENT) {
+			depth++;
+		}
+
+		Integer[] viablePrefix = new Integer[depth];
+		for (Table t = this; t.PARENT != null; t = t.PARENT) {
+			viablePrefix[--depth] = t.SYMBOL;
+		}
+
+		return ImmutableList.copyOf(viablePrefix);
+	}
+
+	/**
+	 * Returns the set of initial items of this Table.
+	 *
+	 * @return the set of initial items of this Table
+	 */
+	public ItemSet getInitialItems() {
+		return INITIAL_ITEMS;
 	}
 
 	/**
@@ -145,16 +263,37 @@ public class Table implements Iterable<Production> {
 	 * @return the immutable set of initial Productions of this Table
 	 */
 	public ImmutableSet<Production> getInitialProductions() {
-		return INITIAL_PRODUCTIONS;
+		ImmutableSet.Builder<Production> productions = ImmutableSet.builder();
+		for (int i = 0; i < INITIAL_ITEMS.size(); i++) {
+			productions.add(ITEMS.toProduction(INITIAL_ITEMS.get(i)));
+		}
+
+		return productions.build();
 	}
 
 	/**
-	 * Returns the immutable set of closure Productions of this Table
+	 * Returns the immutable set of closure Productions of this Table, which
+	 * is generated the first time it is called and kept until this Table is
+	 * {@link #release() released}.
 	 *
 	 * @return the immutable set of closure Productions of this Table
 	 */
 	public ImmutableSet<Production> getClosureProductions() {
-		return CLOSURE_PRODUCTIONS;
+		ImmutableSet<Production> productions = closure;
+		if (productions == null) {
+			productions = CLOSURE.getClosureProductions(INITIAL_ITEMS);
+			closure = productions;
+		}
+
+		return productions;
+	}
+
+	/**
+	 * Releases the closure Productions of this Table, which will be
+	 * generated again if they are needed.
+	 */
+	public void release() {
+		closure = null;
 	}
 
 	/**
@@ -166,7 +305,7 @@ public class Table implements Iterable<Production> {
 	 */
 	@Override
 	public Iterator<Production> iterator() {
-		return Iterators.concat(INITIAL_PRODUCTIONS.iterator(), CLOSURE_PRODUCTIONS.iterator());
+		return Iterators.concat(getInitialProductions().iterator(), getClosureProductions().iterator());
 	}
 
 	/**
@@ -174,11 +313,26 @@ public class Table implements Iterable<Production> {
 	 * generation of any child Tables.
 	 *
 	 * @param nextSymbol next symbol of the child Table
-	 * @param nextInitialProductions set of initial productions of the child
+	 * @param nextInitialItems set of initial items of the child
 	 * @return Metadata to help with the creation of child Tables of this
 	 */
-	public Metadata getMetadataForChild(Integer nextSymbol, ImmutableSet<Production> nextInitialProductions) {
-		return new Metadata(this, nextSymbol, nextInitialProductions);
+	public Metadata getMetadataForChild(Integer nextSymbol, ItemSet nextInitialItems) {
+		return new Metadata(this, nextSymbol, nextInitialItems);
+	}
+
+	/**
+	 * This interface represents the generator of the closure of the initial
+	 * items of a Table.
+	 */
+	public interface ClosureGenerator {
+		/**
+		 * Returns the closure Productions of a set of initial items, which
+		 * do not include the initial items themselves.
+		 *
+		 * @param initialItems set of initial items
+		 * @return the immutable set of closure Productions
+		 */
+		ImmutableSet<Production> getClosureProductions(ItemSet initialItems);
 	}
 
 	/**
@@ -198,28 +352,27 @@ public class Table implements Iterable<Production> {
 		private final Table PARENT;
 
 		/**
-		 * This field represents the set of initial productions for the next
-		 * Table.
+		 * This field represents the set of initial items for the next Table.
 		 */
-		private final ImmutableSet<Production> NEXT_INITIAL_PRODUCTIONS;
+		private final ItemSet NEXT_INITIAL_ITEMS;
 
 		/**
 		 * Constructs a Metadata to store the Table which created it, the
 		 * initial symbol for the next Table, as well as the set of initial
-		 * Productions for that Table.
+		 * items for that Table.
 		 *
 		 * @param parent
 		 * @param nextSymbol
-		 * @param nextInitialProductions
+		 * @param nextInitialItems
 		 */
 		private Metadata(
 			Table parent,
 			Integer nextSymbol,
-			ImmutableSet<Production> nextInitialProductions
+			ItemSet nextInitialItems
 		) {
 			this.PARENT = Objects.requireNonNull(parent);
 			this.NEXT_SYMBOL = Objects.requireNonNull(nextSymbol);
-			this.NEXT_INITIAL_PRODUCTIONS = Objects.requireNonNull(nextInitialProductions);
+			this.NEXT_INITIAL_ITEMS = Objects.requireNonNull(nextInitialItems);
 		}
 
 		/**
@@ -242,13 +395,12 @@ public class Table implements Iterable<Production> {
 		}
 
 		/**
-		 * Returns the set of initial Productions to be used for the next
-		 * Table.
+		 * Returns the set of initial items to be used for the next Table.
 		 *
-		 * @return set of initial productions for the next Table
+		 * @return set of initial items for the next Table
 		 */
-		public ImmutableSet<Production> getNextInitialProductions() {
-			return NEXT_INITIAL_PRODUCTIONS;
+		public ItemSet getNextInitialItems() {
+			return NEXT_INITIAL_ITEMS;
 		}
 	}
 }
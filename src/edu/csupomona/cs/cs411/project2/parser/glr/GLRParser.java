@@ -0,0 +1,1015 @@
+package edu.csupomona.cs.cs411.project2.parser.glr;
+
+import edu.csupomona.cs.cs411.project1.lexer.Token;
+import edu.csupomona.cs.cs411.project1.lexer.TokenStream;
+import edu.csupomona.cs.cs411.project2.parser.ParseContext;
+import edu.csupomona.cs.cs411.project2.parser.ParseListener;
+import edu.csupomona.cs.cs411.project2.parser.ParseResult;
+import edu.csupomona.cs.cs411.project2.parser.Parser;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRErrorRecovery;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRTables;
+import edu.csupomona.cs.cs411.project2.parser.trace.TextParseListener;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents a generalized LR parser, which can parse using
+ * tables with conflicts by making every action of a conflict. Where the
+ * tables have no conflict the parser runs the same loop as an
+ * {@link edu.csupomona.cs.cs411.project2.parser.slr.SLRParser} on a single
+ * stack. Once it reaches a conflict, the stack is turned into a
+ * graph-structured stack whose heads are parsed in lockstep, sharing their
+ * common prefixes and merging whenever they reach the same table on the same
+ * token. When only one head remains and its stack no longer branches, the
+ * parser returns to the single stack.
+ * <p>
+ * Every derivation of the input is kept within a {@link SharedPackedForest}.
+ * A {@link ParseListener} is told the actions of a single derivation once the
+ * input has been accepted, preferring the actions which the tables would have
+ * chosen without their conflicts, so that a grammar without conflicts is
+ * reported exactly as an SLRParser would report it. When an input is rejected,
+ * the actions which built the stack it was rejected in are reported instead.
+ * <p>
+ * The CFG cannot express empty productions, so every reduction pops at least
+ * one table, which this parser relies upon.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public class GLRParser implements Parser {
+	/**
+	 * Symbol id of the end of file terminal.
+	 */
+	private final int EOF;
+
+	/**
+	 * This field represents the tables that this parser uses.
+	 */
+	private final SLRTables SLR_TABLES;
+
+	/**
+	 * This field represents the error recovery used by this parser.
+	 */
+	private final SLRErrorRecovery ERROR_RECOVERY;
+
+	/**
+	 * This field represents the TextParseListener of each thread, which is
+	 * {@link TextParseListener#reset(Writer) reset} for every trace written.
+	 */
+	private final ThreadLocal<TextParseListener> TEXT_LISTENERS;
+
+	/**
+	 * Constructs a GLRParser which will use the given tables, including the
+	 * reductions of their conflicts, to shift, reduce and goto.
+	 *
+	 * @param tables tables containing the action information of this Parser.
+	 */
+	public GLRParser(SLRTables tables) {
+		this.SLR_TABLES = tables;
+		this.EOF = tables.getEOF();
+		this.ERROR_RECOVERY = new SLRErrorRecovery(tables);
+		this.TEXT_LISTENERS = new ThreadLocal<>();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean parse(TokenStream stream, Writer writer) throws IOException {
+		return parse(stream, writer, ParseContext.get());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean parse(TokenStream stream, Writer writer, ParseContext context) throws IOException {
+		return parse(stream, getTextListener(writer), context);
+	}
+
+	/**
+	 * Returns the TextParseListener of the calling thread reset to write into
+	 * the given Writer.
+	 *
+	 * @param writer Writer to write the trace into
+	 * @return the TextParseListener of the calling thread
+	 */
+	private TextParseListener getTextListener(Writer writer) {
+		TextParseListener listener = TEXT_LISTENERS.get();
+		if (listener == null) {
+			listener = new TextParseListener(writer, SLR_TABLES.getTerminalNames());
+			TEXT_LISTENERS.set(listener);
+			return listener;
+		}
+
+		return listener.reset(writer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean parse(TokenStream stream, ParseListener listener, ParseContext context) throws IOException {
+		Parse parse = new Parse(context, true);
+		if (!parse.run(stream)) {
+			for (SharedPackedForest.Node node : parse.stack) {
+				report(node, listener);
+			}
+
+			listener.reject(context.getFinalState(), parse.symbol, context.getTokenIndex());
+			return false;
+		}
+
+		SharedPackedForest.Alternative alternative = parse.root.getAlternative(0);
+		for (int i = 0; i < alternative.getNumChildren(); i++) {
+			report(alternative.getChild(i), listener);
+		}
+
+		listener.accept(parse.symbol, context.getTokenIndex());
+		return true;
+	}
+
+	/**
+	 * Parses the given TokenStream and returns every derivation of it.
+	 *
+	 * @param stream TokenStream to retrieve Tokens from
+	 * @param context ParseContext to store the state of this parse in
+	 * @return forest of every derivation of the TokenStream, or {@code null}
+	 *	if it was rejected
+	 */
+	public SharedPackedForest parse(TokenStream stream, ParseContext context) {
+		Parse parse = new Parse(context, true);
+		if (!parse.run(stream)) {
+			return null;
+		}
+
+		return new SharedPackedForest(parse.root);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ParseResult recognize(TokenStream stream) {
+		return recognize(stream, ParseContext.get());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ParseResult recognize(TokenStream stream, ParseContext context) {
+		boolean accepted = new Parse(context, false).run(stream);
+		return new ParseResult(accepted, context.getFinalState(), context.getTokenIndex());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ParseResult recover(TokenStream stream) {
+		return recover(stream, ParseContext.get());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ParseResult recover(TokenStream stream, ParseContext context) {
+		return ERROR_RECOVERY.recover(stream, context);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The tokens read by this parser are kept, so that an input it rejects
+	 * is recovered from without being lexed again. Like
+	 * {@link #recover(TokenStream, ParseContext)}, recovery makes the actions
+	 * the tables would have chosen without their conflicts.
+	 */
+	@Override
+	public ParseResult recover(TokenStream stream, Writer writer, ParseContext context) throws IOException {
+		RecordedTokenStream recorded = new RecordedTokenStream(stream);
+		if (parse(recorded, writer, context)) {
+			return new ParseResult(true, context.getFinalState(), context.getTokenIndex());
+		}
+
+		return ERROR_RECOVERY.recover(recorded.replay(), context);
+	}
+
+	/**
+	 * Reports the actions of the first derivation of a node to a listener,
+	 * in the order an LR parser makes them, i.e., every token shifted and
+	 * every production reduced after its right-hand side.
+	 *
+	 * @param node node to report the derivation of
+	 * @param listener ParseListener to report actions to
+	 * @throws IOException if the listener fails to write its output
+	 */
+	private void report(SharedPackedForest.Node node, ParseListener listener) throws IOException {
+		Deque<SharedPackedForest.Node> nodes = new ArrayDeque<>();
+		Deque<Integer> children = new ArrayDeque<>();
+		nodes.push(node);
+		children.push(0);
+
+		int child;
+		int production;
+		SharedPackedForest.Alternative alternative;
+		while (!nodes.isEmpty()) {
+			node = nodes.peek();
+			if (node.isToken()) {
+				listener.shift(node.getState(), node.getSymbol(), node.getStart());
+				nodes.pop();
+				children.pop();
+				continue;
+			}
+
+			alternative = node.getAlternative(0);
+			child = children.pop();
+			if (child < alternative.getNumChildren()) {
+				children.push(child+1);
+				nodes.push(alternative.getChild(child));
+				children.push(0);
+				continue;
+			}
+
+			nodes.pop();
+			production = alternative.getProduction();
+			for (int i = 0; i < SLR_TABLES.getNumReductions(production); i++) {
+				listener.reduce(alternative.getState(), SLR_TABLES.getReduction(production, i), SLR_TABLES.getReductionOffset(production, i), alternative.getSymbol(), node.getEnd());
+			}
+		}
+	}
+
+	/**
+	 * This class represents the state of a single parse made by a
+	 * GLRParser, which is kept apart from the parser so that the parser can
+	 * be used by many threads.
+	 */
+	private final class Parse {
+		/**
+		 * ParseContext containing the single stack, along with the index of
+		 * the current token.
+		 */
+		private final ParseContext CONTEXT;
+
+		/**
+		 * Whether or not a {@link SharedPackedForest} is built.
+		 */
+		private final boolean FOREST;
+
+		/**
+		 * Heads of the graph-structured stack on the current token.
+		 */
+		private final List<StackNode> HEADS;
+
+		/**
+		 * Heads of the graph-structured stack on the current token, keyed by
+		 * their tables.
+		 */
+		private final Map<Integer, StackNode> HEADS_BY_STATE;
+
+		/**
+		 * Forest nodes ending at the current token, keyed by their symbol and
+		 * the index of their first token.
+		 */
+		private final Map<Long, SharedPackedForest.Node> NODES;
+
+		/**
+		 * Reductions which have yet to be made on the current token.
+		 */
+		private final Deque<Reduction> REDUCTIONS;
+
+		/**
+		 * Forest nodes of the single stack, where each node is at the same
+		 * index as the table it was pushed with.
+		 */
+		private SharedPackedForest.Node[] values;
+
+		/**
+		 * Symbol of the current token.
+		 */
+		private int symbol;
+
+		/**
+		 * Whether or not the input has been accepted.
+		 */
+		private boolean accepted;
+
+		/**
+		 * Whether or not the graph-structured stack has accepted or rejected
+		 * the input.
+		 */
+		private boolean isFinished;
+
+		/**
+		 * Node deriving the input from the initial nonterminal, once the
+		 * input is accepted and if a forest is built.
+		 */
+		private SharedPackedForest.Node root;
+
+		/**
+		 * Forest nodes of the stack the input was rejected in, from the
+		 * bottom of the stack to its top, once the input is rejected and if a
+		 * forest is built.
+		 */
+		private SharedPackedForest.Node[] stack;
+
+		/**
+		 * Constructs a Parse using the given ParseContext.
+		 *
+		 * @param context ParseContext to store the state of the parse in
+		 * @param forest {@code true} if a {@link SharedPackedForest} should be
+		 *	built, otherwise {@code false}
+		 */
+		Parse(ParseContext context, boolean forest) {
+			this.CONTEXT = context;
+			this.FOREST = forest;
+			this.HEADS = new ArrayList<>();
+			this.HEADS_BY_STATE = new HashMap<>();
+			this.NODES = new HashMap<>();
+			this.REDUCTIONS = new ArrayDeque<>();
+			this.values = forest ? new SharedPackedForest.Node[16] : null;
+		}
+
+		/**
+		 * Parses the given TokenStream using a single stack until a conflict
+		 * is reached, and then the graph-structured stack until the parse
+		 * is deterministic again.
+		 *
+		 * @param stream TokenStream to retrieve Tokens from
+		 * @return {@code true} if the TokenStream is accepted, otherwise
+		 *	{@code false}
+		 */
+		boolean run(TokenStream stream) {
+			int state = 0;
+			CONTEXT.reset(state);
+
+			int shift;
+			int production;
+			int size;
+			int nonterminal;
+			SharedPackedForest.Node node = null;
+
+			Token t = stream.next();
+			symbol = SLR_TABLES.getTokenId(t);
+			while (true) {
+				if (SLR_TABLES.conflict(state, symbol) != Integer.MIN_VALUE) {
+					t = generalize(stream);
+					if (isFinished) {
+						return accepted;
+					}
+
+					symbol = SLR_TABLES.getTokenId(t);
+					state = CONTEXT.peek();
+					continue;
+				}
+
+				shift = SLR_TABLES.shift(state, symbol);
+				if (shift != Integer.MIN_VALUE) {
+					if (FOREST) {
+						node = new SharedPackedForest.Node(symbol, CONTEXT.getTokenIndex(), CONTEXT.getTokenIndex()+1, state);
+					}
+
+					state = shift;
+					CONTEXT.push(state);
+					CONTEXT.nextToken();
+					if (FOREST) {
+						setValue(CONTEXT.getDepth()-1, node);
+					}
+
+					t = stream.next();
+					symbol = SLR_TABLES.getTokenId(t);
+					continue;
+				}
+
+				production = SLR_TABLES.reduce(state, symbol);
+				if (production == Integer.MIN_VALUE) {
+					if (FOREST) {
+						stack = Arrays.copyOfRange(values, 1, CONTEXT.getDepth());
+					}
+
+					CONTEXT.setFinalState(state);
+					return false;
+				}
+
+				size = SLR_TABLES.getRHSSize(production);
+				nonterminal = SLR_TABLES.getNonterminalId(production);
+				if (FOREST) {
+					int top = CONTEXT.getDepth()-1;
+					SharedPackedForest.Node[] children = Arrays.copyOfRange(values, top-size+1, top+1);
+					node = new SharedPackedForest.Node(nonterminal, children[0].getStart(), CONTEXT.getTokenIndex(), Integer.MIN_VALUE);
+					node.addAlternative(new SharedPackedForest.Alternative(production, state, symbol, children), true);
+				}
+
+				if (production == 0 && symbol == EOF) {
+					root = node;
+					CONTEXT.setFinalState(state);
+					return true;
+				}
+
+				state = SLR_TABLES.move(CONTEXT.pop(size), nonterminal);
+				CONTEXT.push(state);
+				if (FOREST) {
+					setValue(CONTEXT.getDepth()-1, node);
+				}
+			}
+		}
+
+		/**
+		 * Sets the forest node of the single stack at the given index,
+		 * growing the stack of forest nodes if necessary.
+		 *
+		 * @param index index within the single stack
+		 * @param node forest node pushed at that index
+		 */
+		private void setValue(int index, SharedPackedForest.Node node) {
+			if (index == values.length) {
+				values = Arrays.copyOf(values, values.length<<1);
+			}
+
+			values[index] = node;
+		}
+
+		/**
+		 * Turns the single stack into a graph-structured stack and parses
+		 * using it until either the input is accepted or rejected, or the
+		 * graph-structured stack can be turned back into a single stack.
+		 *
+		 * @param stream TokenStream to retrieve Tokens from
+		 * @return next Token to parse using the single stack, or {@code null}
+		 *	if the parse {@link #isFinished is finished}
+		 */
+		private Token generalize(TokenStream stream) {
+			int depth = CONTEXT.getDepth();
+			StackNode head = new StackNode(CONTEXT.peek(depth-1), 0, true);
+			NODES.clear();
+			for (int i = 1; i < depth; i++) {
+				StackNode next = new StackNode(CONTEXT.peek(depth-1-i), FOREST ? values[i].getEnd() : 0, true);
+				next.addEdge(head, FOREST ? values[i] : null, true);
+				head = next;
+				if (FOREST && !values[i].isToken() && values[i].getEnd() == CONTEXT.getTokenIndex()) {
+					NODES.put(getKey(values[i].getSymbol(), values[i].getStart()), values[i]);
+				}
+			}
+
+			HEADS.clear();
+			HEADS.add(head);
+
+			Token t;
+			while (true) {
+				reduceAll();
+				if (accepted) {
+					isFinished = true;
+					return null;
+				}
+
+				if (!shiftAll()) {
+					isFinished = true;
+					return null;
+				}
+
+				CONTEXT.nextToken();
+				NODES.clear();
+				t = stream.next();
+				symbol = SLR_TABLES.getTokenId(t);
+				if (HEADS.size() == 1 && HEADS.get(0).isChain()) {
+					linearize(HEADS.get(0));
+					return t;
+				}
+			}
+		}
+
+		/**
+		 * Makes every reduction of every head on the current token, along
+		 * with every reduction of the heads those reductions create.
+		 */
+		private void reduceAll() {
+			HEADS_BY_STATE.clear();
+			for (StackNode head : HEADS) {
+				HEADS_BY_STATE.put(head.STATE, head);
+			}
+
+			int numHeads = HEADS.size();
+			for (int i = 0; i < numHeads; i++) {
+				queueReductions(HEADS.get(i), null);
+			}
+
+			Reduction r;
+			while ((r = REDUCTIONS.poll()) != null) {
+				int size = SLR_TABLES.getRHSSize(r.PRODUCTION);
+				SharedPackedForest.Node[] children = FOREST ? new SharedPackedForest.Node[size] : null;
+				if (r.EDGE == null) {
+					reducePaths(r.HEAD, r.HEAD, r.PRODUCTION, size, children, r.IS_PREFERRED);
+				} else {
+					if (FOREST) {
+						children[size-1] = r.EDGE.VALUE;
+					}
+
+					reducePaths(r.HEAD, r.EDGE.TO, r.PRODUCTION, size-1, children, r.IS_PREFERRED && r.EDGE.isPreferred);
+				}
+			}
+		}
+
+		/**
+		 * Queues every reduction of a head on the current token. Reductions
+		 * which the tables would have chosen without their conflicts are made
+		 * first, so that the heads of the deterministic parse are created
+		 * before any other heads.
+		 *
+		 * @param head head to reduce
+		 * @param edge edge which every path reduced must begin with, or
+		 *	{@code null} if any path may be reduced
+		 */
+		private void queueReductions(StackNode head, Edge edge) {
+			int production = SLR_TABLES.reduce(head.STATE, symbol);
+			if (production != Integer.MIN_VALUE) {
+				if (head.isPreferred && SLR_TABLES.shift(head.STATE, symbol) == Integer.MIN_VALUE) {
+					REDUCTIONS.addFirst(new Reduction(head, edge, production, true));
+				} else {
+					REDUCTIONS.addLast(new Reduction(head, edge, production, false));
+				}
+			}
+
+			int conflict = SLR_TABLES.conflict(head.STATE, symbol);
+			if (conflict == Integer.MIN_VALUE) {
+				return;
+			}
+
+			for (int i = 0; i < SLR_TABLES.getNumConflictingReductions(conflict); i++) {
+				REDUCTIONS.addLast(new Reduction(head, edge, SLR_TABLES.getConflictingReduction(conflict, i), false));
+			}
+		}
+
+		/**
+		 * Reduces a production along every path of a given length beneath a
+		 * node of the graph-structured stack.
+		 *
+		 * @param head head the reduction is made in
+		 * @param node node the remaining path begins at
+		 * @param production production to reduce
+		 * @param length number of edges remaining along the path
+		 * @param children forest nodes of the right-hand side, filled in from
+		 *	the right as the path is followed
+		 * @param isPreferred {@code true} if the path so far is the one the
+		 *	deterministic parse would have reduced, otherwise {@code false}
+		 */
+		private void reducePaths(StackNode head, StackNode node, int production, int length, SharedPackedForest.Node[] children, boolean isPreferred) {
+			if (length == 0) {
+				reduce(head, node, production, FOREST ? children.clone() : null, isPreferred);
+				return;
+			}
+
+			for (Edge e = node.edges; e != null; e = e.next) {
+				if (FOREST) {
+					children[length-1] = e.VALUE;
+				}
+
+				reducePaths(head, e.TO, production, length-1, children, isPreferred && e.isPreferred);
+			}
+		}
+
+		/**
+		 * Reduces a production along a single path, adding an edge from the
+		 * head of the goto table on the current token to the node the path
+		 * ends at.
+		 *
+		 * @param head head the reduction is made in
+		 * @param node node the path ends at
+		 * @param production production to reduce
+		 * @param children forest nodes of the right-hand side
+		 * @param isPreferred {@code true} if this is the reduction the
+		 *	deterministic parse would have made, otherwise {@code false}
+		 */
+		private void reduce(StackNode head, StackNode node, int production, SharedPackedForest.Node[] children, boolean isPreferred) {
+			int nonterminal = SLR_TABLES.getNonterminalId(production);
+			SharedPackedForest.Node value = null;
+			if (FOREST) {
+				value = getNode(nonterminal, node.LEVEL);
+				value.addAlternative(new SharedPackedForest.Alternative(production, head.STATE, symbol, children), isPreferred);
+			}
+
+			if (production == 0 && symbol == EOF) {
+				if (node.edges == null) {
+					if (!accepted || isPreferred) {
+						CONTEXT.setFinalState(head.STATE);
+					}
+
+					accepted = true;
+					root = value;
+				}
+
+				return;
+			}
+
+			int state = SLR_TABLES.move(node.STATE, nonterminal);
+			StackNode next = HEADS_BY_STATE.get(state);
+			if (next == null) {
+				next = new StackNode(state, CONTEXT.getTokenIndex(), isPreferred);
+				next.addEdge(node, value, isPreferred);
+				HEADS.add(next);
+				HEADS_BY_STATE.put(state, next);
+				queueReductions(next, null);
+				return;
+			}
+
+			next.isPreferred |= isPreferred;
+			Edge edge = next.getEdge(node);
+			if (edge != null) {
+				edge.isPreferred |= isPreferred;
+				return;
+			}
+
+			queueReductions(next, next.addEdge(node, value, isPreferred));
+		}
+
+		/**
+		 * Shifts the current token onto every head which can shift it.
+		 *
+		 * @return {@code true} if any head shifted the token, otherwise
+		 *	{@code false}, in which case the input is rejected
+		 */
+		private boolean shiftAll() {
+			StackNode from = null;
+			for (StackNode head : HEADS) {
+				if (SLR_TABLES.shift(head.STATE, symbol) != Integer.MIN_VALUE && (from == null || (head.isPreferred && !from.isPreferred))) {
+					from = head;
+				}
+			}
+
+			if (from == null) {
+				StackNode rejected = HEADS.get(0);
+				for (StackNode head : HEADS) {
+					if (head.isPreferred) {
+						rejected = head;
+					}
+				}
+
+				if (FOREST) {
+					stack = getStack(rejected);
+				}
+
+				CONTEXT.setFinalState(rejected.STATE);
+				return false;
+			}
+
+			SharedPackedForest.Node token = null;
+			if (FOREST) {
+				token = new SharedPackedForest.Node(symbol, CONTEXT.getTokenIndex(), CONTEXT.getTokenIndex()+1, from.STATE);
+			}
+
+			List<StackNode> heads = new ArrayList<>();
+			HEADS_BY_STATE.clear();
+
+			int state;
+			StackNode next;
+			for (StackNode head : HEADS) {
+				state = SLR_TABLES.shift(head.STATE, symbol);
+				if (state == Integer.MIN_VALUE) {
+					continue;
+				}
+
+				next = HEADS_BY_STATE.get(state);
+				if (next == null) {
+					next = new StackNode(state, CONTEXT.getTokenIndex()+1, head.isPreferred);
+					heads.add(next);
+					HEADS_BY_STATE.put(state, next);
+				}
+
+				next.isPreferred |= head.isPreferred;
+				next.addEdge(head, token, head.isPreferred);
+			}
+
+			HEADS.clear();
+			HEADS.addAll(heads);
+			return true;
+		}
+
+		/**
+		 * Returns the forest nodes of a stack within the graph-structured
+		 * stack, following the edges made by the deterministic parse where
+		 * there are any.
+		 *
+		 * @param head head of the stack
+		 * @return forest nodes of the stack, from its bottom to its top
+		 */
+		private SharedPackedForest.Node[] getStack(StackNode head) {
+			List<SharedPackedForest.Node> nodes = new ArrayList<>();
+			Edge edge;
+			for (StackNode node = head; node.edges != null; node = edge.TO) {
+				edge = node.edges;
+				for (Edge e = node.edges; e != null; e = e.next) {
+					if (e.isPreferred) {
+						edge = e;
+						break;
+					}
+				}
+
+				nodes.add(edge.VALUE);
+			}
+
+			Collections.reverse(nodes);
+			return nodes.toArray(new SharedPackedForest.Node[nodes.size()]);
+		}
+
+		/**
+		 * Turns a graph-structured stack which no longer branches back into
+		 * the single stack.
+		 *
+		 * @param head only head of the graph-structured stack
+		 */
+		private void linearize(StackNode head) {
+			int depth = 0;
+			for (StackNode node = head; node != null; node = node.edges == null ? null : node.edges.TO) {
+				depth++;
+			}
+
+			int[] states = new int[depth];
+			SharedPackedForest.Node[] nodes = new SharedPackedForest.Node[depth];
+			int i = depth;
+			for (StackNode node = head; node.edges != null; node = node.edges.TO) {
+				i--;
+				states[i] = node.STATE;
+				nodes[i] = node.edges.VALUE;
+			}
+
+			CONTEXT.pop(CONTEXT.getDepth()-1);
+			for (i = 1; i < depth; i++) {
+				CONTEXT.push(states[i]);
+				if (FOREST) {
+					setValue(i, nodes[i]);
+				}
+			}
+		}
+
+		/**
+		 * Returns the forest node of a symbol spanning from a given token to
+		 * the current token, creating it if necessary.
+		 *
+		 * @param symbol symbol of the node
+		 * @param start index of the first token spanned
+		 * @return forest node of that symbol and span
+		 */
+		private SharedPackedForest.Node getNode(int symbol, int start) {
+			Long key = getKey(symbol, start);
+			SharedPackedForest.Node node = NODES.get(key);
+			if (node == null) {
+				node = new SharedPackedForest.Node(symbol, start, CONTEXT.getTokenIndex(), Integer.MIN_VALUE);
+				NODES.put(key, node);
+			}
+
+			return node;
+		}
+
+		/**
+		 * Returns the key of a forest node ending at the current token.
+		 *
+		 * @param symbol symbol of the node
+		 * @param start index of the first token spanned
+		 * @return key of that node
+		 */
+		private long getKey(int symbol, int start) {
+			return ((long)symbol<<Integer.SIZE)|start;
+		}
+	}
+
+	/**
+	 * This class represents a node of the graph-structured stack, i.e., a
+	 * table reached after a given number of tokens, along with the edges to
+	 * every node beneath it.
+	 */
+	private static final class StackNode {
+		/**
+		 * Table of this StackNode.
+		 */
+		final int STATE;
+
+		/**
+		 * Number of tokens shifted when this StackNode was reached.
+		 */
+		final int LEVEL;
+
+		/**
+		 * First edge to a node beneath this StackNode, or {@code null} if
+		 * this StackNode is the bottom of the stack.
+		 */
+		Edge edges;
+
+		/**
+		 * Whether or not the deterministic parse reached this StackNode.
+		 */
+		boolean isPreferred;
+
+		/**
+		 * Constructs a StackNode with the given arguments.
+		 *
+		 * @param state table of the node
+		 * @param level number of tokens shifted
+		 * @param isPreferred {@code true} if the deterministic parse reached
+		 *	the node, otherwise {@code false}
+		 */
+		StackNode(int state, int level, boolean isPreferred) {
+			this.STATE = state;
+			this.LEVEL = level;
+			this.isPreferred = isPreferred;
+		}
+
+		/**
+		 * Adds an edge from this StackNode to a node beneath it.
+		 *
+		 * @param to node beneath this StackNode
+		 * @param value forest node of the symbol between them
+		 * @param isPreferred {@code true} if the deterministic parse made the
+		 *	edge, otherwise {@code false}
+		 * @return the edge added
+		 */
+		Edge addEdge(StackNode to, SharedPackedForest.Node value, boolean isPreferred) {
+			edges = new Edge(to, value, isPreferred, edges);
+			return edges;
+		}
+
+		/**
+		 * Returns the edge from this StackNode to a given node.
+		 *
+		 * @param to node beneath this StackNode
+		 * @return the edge, or {@code null} if there is none
+		 */
+		Edge getEdge(StackNode to) {
+			for (Edge e = edges; e != null; e = e.next) {
+				if (e.TO == to) {
+					return e;
+				}
+			}
+
+			return null;
+		}
+
+		/**
+		 * Returns whether or not there is only one path from this StackNode
+		 * to the bottom of the stack.
+		 *
+		 * @return {@code true} if there is, otherwise {@code false}
+		 */
+		boolean isChain() {
+			for (StackNode node = this; node.edges != null; node = node.edges.TO) {
+				if (node.edges.next != null) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+
+	/**
+	 * This class represents an edge of the graph-structured stack.
+	 */
+	private static final class Edge {
+		/**
+		 * Node beneath the node this Edge belongs to.
+		 */
+		final StackNode TO;
+
+		/**
+		 * Forest node of the symbol between the two nodes, or {@code null} if
+		 * no forest is built.
+		 */
+		final SharedPackedForest.Node VALUE;
+
+		/**
+		 * Next edge of the node this Edge belongs to.
+		 */
+		final Edge next;
+
+		/**
+		 * Whether or not the deterministic parse made this Edge.
+		 */
+		boolean isPreferred;
+
+		/**
+		 * Constructs an Edge with the given arguments.
+		 *
+		 * @param to node beneath the node the Edge belongs to
+		 * @param value forest node of the symbol between them
+		 * @param isPreferred {@code true} if the deterministic parse made the
+		 *	Edge, otherwise {@code false}
+		 * @param next next edge of the node the Edge belongs to
+		 */
+		Edge(StackNode to, SharedPackedForest.Node value, boolean isPreferred, Edge next) {
+			this.TO = to;
+			this.VALUE = value;
+			this.isPreferred = isPreferred;
+			this.next = next;
+		}
+	}
+
+	/**
+	 * This class represents a reduction which has yet to be made.
+	 */
+	private static final class Reduction {
+		/**
+		 * Head the reduction is made in.
+		 */
+		final StackNode HEAD;
+
+		/**
+		 * Edge which every path reduced must begin with, or {@code null} if
+		 * any path may be reduced.
+		 */
+		final Edge EDGE;
+
+		/**
+		 * Production to reduce.
+		 */
+		final int PRODUCTION;
+
+		/**
+		 * Whether or not this is the reduction the tables would have chosen
+		 * without their conflicts.
+		 */
+		final boolean IS_PREFERRED;
+
+		/**
+		 * Constructs a Reduction with the given arguments.
+		 *
+		 * @param head head the reduction is made in
+		 * @param edge edge every path must begin with, or {@code null}
+		 * @param production production to reduce
+		 * @param isPreferred {@code true} if the tables would have chosen the
+		 *	reduction without their conflicts, otherwise {@code false}
+		 */
+		Reduction(StackNode head, Edge edge, int production, boolean isPreferred) {
+			this.HEAD = head;
+			this.EDGE = edge;
+			this.PRODUCTION = production;
+			this.IS_PREFERRED = isPreferred;
+		}
+	}
+
+	/**
+	 * This class represents a TokenStream which records every token read
+	 * from another one until it is replayed, after which the recorded tokens
+	 * are read again before the rest of the other stream.
+	 */
+	private static final class RecordedTokenStream implements TokenStream {
+		/**
+		 * TokenStream the tokens are read from.
+		 */
+		final TokenStream STREAM;
+
+		/**
+		 * Tokens read while recording.
+		 */
+		final List<Token> TOKENS;
+
+		/**
+		 * Index of the next recorded token to read, or {@code -1} while
+		 * recording.
+		 */
+		int next;
+
+		/**
+		 * Constructs a RecordedTokenStream which records the tokens read
+		 * from the given TokenStream.
+		 *
+		 * @param stream TokenStream to read tokens from
+		 */
+		RecordedTokenStream(TokenStream stream) {
+			this.STREAM = stream;
+			this.TOKENS = new ArrayList<>();
+			this.next = -1;
+		}
+
+		/**
+		 * Stops recording, so that the recorded tokens are read again.
+		 *
+		 * @return this RecordedTokenStream
+		 */
+		RecordedTokenStream replay() {
+			next = 0;
+			return this;
+		}
+
+		@Override
+		public Token next() {
+			if (next == -1) {
+				Token t = STREAM.next();
+				TOKENS.add(t);
+				return t;
+			}
+
+			if (next < TOKENS.size()) {
+				return TOKENS.get(next++);
+			}
+
+			return STREAM.next();
+		}
+	}
+}
@@ -0,0 +1,362 @@
+package edu.csupomona.cs.cs411.project2.parser.glr;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class represents a shared packed parse forest, which contains every
+ * derivation of an input accepted by a {@link GLRParser}. Each {@link Node}
+ * stands for a symbol spanning a range of tokens, and is shared by every
+ * derivation which derives that symbol from those tokens. The different
+ * ways in which a symbol derives its tokens are packed within its node as
+ * {@link Alternative}s, so an ambiguous input does not need a tree for every
+ * one of its derivations.
+ * <p>
+ * The first alternative of every node is the one which the deterministic
+ * parse of the same tables would have made, if it was made at all, so
+ * following the first alternatives gives the same tree as an
+ * {@link edu.csupomona.cs.cs411.project2.parser.slr.SLRParser}.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class SharedPackedForest {
+	/**
+	 * Node deriving every token of the input from the initial nonterminal.
+	 */
+	private final Node ROOT;
+
+	/**
+	 * Constructs a SharedPackedForest with the given root.
+	 *
+	 * @param root node deriving every token of the input
+	 */
+	SharedPackedForest(Node root) {
+		this.ROOT = root;
+	}
+
+	/**
+	 * Returns the node deriving every token of the input from the initial
+	 * nonterminal.
+	 *
+	 * @return root of this SharedPackedForest
+	 */
+	public Node getRoot() {
+		return ROOT;
+	}
+
+	/**
+	 * Returns whether or not any node of this SharedPackedForest has more
+	 * than one alternative, i.e., whether the input has more than one
+	 * derivation.
+	 *
+	 * @return {@code true} if the input is ambiguous, otherwise {@code false}
+	 */
+	public boolean isAmbiguous() {
+		for (Node node : getNodes()) {
+			if (1 < node.ALTERNATIVES.size()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the number of nodes within this SharedPackedForest.
+	 *
+	 * @return number of nodes
+	 */
+	public int getNumNodes() {
+		return getNodes().size();
+	}
+
+	/**
+	 * Returns every node reachable from the root.
+	 *
+	 * @return nodes of this SharedPackedForest
+	 */
+	private Set<Node> getNodes() {
+		Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		Deque<Node> remaining = new ArrayDeque<>();
+		nodes.add(ROOT);
+		remaining.push(ROOT);
+
+		Node node;
+		while (!remaining.isEmpty()) {
+			node = remaining.pop();
+			for (Alternative alternative : node.ALTERNATIVES) {
+				for (Node child : alternative.CHILDREN) {
+					if (nodes.add(child)) {
+						remaining.push(child);
+					}
+				}
+			}
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * This class represents a symbol deriving a range of tokens, i.e., a
+	 * token itself or a nonterminal along with every alternative which
+	 * derives it.
+	 */
+	public static final class Node {
+		/**
+		 * Symbol of this Node.
+		 */
+		private final int SYMBOL;
+
+		/**
+		 * Index of the first token spanned by this Node.
+		 */
+		private final int START;
+
+		/**
+		 * Index after the last token spanned by this Node.
+		 */
+		private final int END;
+
+		/**
+		 * Table the token of this Node was shifted from, or
+		 * {@link Integer#MIN_VALUE} if this Node is not a token.
+		 */
+		private final int STATE;
+
+		/**
+		 * Alternatives which derive this Node, which is empty if this Node is
+		 * a token.
+		 */
+		private final List<Alternative> ALTERNATIVES;
+
+		/**
+		 * Constructs a Node with the given arguments.
+		 *
+		 * @param symbol symbol of the Node
+		 * @param start index of the first token spanned
+		 * @param end index after the last token spanned
+		 * @param state table the token was shifted from, or
+		 *	{@link Integer#MIN_VALUE} if the Node is not a token
+		 */
+		Node(int symbol, int start, int end, int state) {
+			this.SYMBOL = symbol;
+			this.START = start;
+			this.END = end;
+			this.STATE = state;
+			this.ALTERNATIVES = new ArrayList<>(1);
+		}
+
+		/**
+		 * Adds an alternative to this Node unless an equal alternative was
+		 * already added. A preferred alternative is moved before every other
+		 * alternative.
+		 *
+		 * @param alternative alternative to add
+		 * @param isPreferred {@code true} if the deterministic parse would
+		 *	have made this alternative, otherwise {@code false}
+		 */
+		void addAlternative(Alternative alternative, boolean isPreferred) {
+			for (int i = 0; i < ALTERNATIVES.size(); i++) {
+				if (ALTERNATIVES.get(i).equals(alternative)) {
+					if (isPreferred && i != 0) {
+						ALTERNATIVES.add(0, ALTERNATIVES.remove(i));
+					}
+
+					return;
+				}
+			}
+
+			if (isPreferred) {
+				ALTERNATIVES.add(0, alternative);
+			} else {
+				ALTERNATIVES.add(alternative);
+			}
+		}
+
+		/**
+		 * Returns the symbol of this Node.
+		 *
+		 * @return symbol id
+		 */
+		public int getSymbol() {
+			return SYMBOL;
+		}
+
+		/**
+		 * Returns the index of the first token spanned by this Node.
+		 *
+		 * @return index of the first token
+		 */
+		public int getStart() {
+			return START;
+		}
+
+		/**
+		 * Returns the index after the last token spanned by this Node.
+		 *
+		 * @return index after the last token
+		 */
+		public int getEnd() {
+			return END;
+		}
+
+		/**
+		 * Returns the table the token of this Node was shifted from.
+		 *
+		 * @return table the token was shifted from, or
+		 *	{@link Integer#MIN_VALUE} if this Node is not a token
+		 */
+		public int getState() {
+			return STATE;
+		}
+
+		/**
+		 * Returns whether or not this Node is a token.
+		 *
+		 * @return {@code true} if it is, otherwise {@code false}
+		 */
+		public boolean isToken() {
+			return ALTERNATIVES.isEmpty();
+		}
+
+		/**
+		 * Returns the number of alternatives which derive this Node.
+		 *
+		 * @return number of alternatives
+		 */
+		public int getNumAlternatives() {
+			return ALTERNATIVES.size();
+		}
+
+		/**
+		 * Returns an alternative which derives this Node.
+		 *
+		 * @param alternative index of the alternative, which must be less
+		 *	than {@link #getNumAlternatives()}
+		 * @return the alternative
+		 */
+		public Alternative getAlternative(int alternative) {
+			return ALTERNATIVES.get(alternative);
+		}
+	}
+
+	/**
+	 * This class represents one way in which a {@link Node} is derived, i.e.,
+	 * a production and the nodes of its right-hand side.
+	 */
+	public static final class Alternative {
+		/**
+		 * Production reduced.
+		 */
+		private final int PRODUCTION;
+
+		/**
+		 * Table the production was reduced in.
+		 */
+		private final int STATE;
+
+		/**
+		 * Symbol of the lookahead token the production was reduced on.
+		 */
+		private final int SYMBOL;
+
+		/**
+		 * Nodes of the right-hand side of the production.
+		 */
+		private final Node[] CHILDREN;
+
+		/**
+		 * Constructs an Alternative with the given arguments.
+		 *
+		 * @param production production reduced
+		 * @param state table the production was reduced in
+		 * @param symbol symbol of the lookahead token
+		 * @param children nodes of the right-hand side
+		 */
+		Alternative(int production, int state, int symbol, Node[] children) {
+			this.PRODUCTION = production;
+			this.STATE = state;
+			this.SYMBOL = symbol;
+			this.CHILDREN = children;
+		}
+
+		/**
+		 * Returns the production reduced.
+		 *
+		 * @return production id
+		 */
+		public int getProduction() {
+			return PRODUCTION;
+		}
+
+		/**
+		 * Returns the table the production was reduced in.
+		 *
+		 * @return table id
+		 */
+		public int getState() {
+			return STATE;
+		}
+
+		/**
+		 * Returns the symbol of the lookahead token the production was
+		 * reduced on.
+		 *
+		 * @return symbol id
+		 */
+		public int getSymbol() {
+			return SYMBOL;
+		}
+
+		/**
+		 * Returns the number of nodes on the right-hand side.
+		 *
+		 * @return number of children
+		 */
+		public int getNumChildren() {
+			return CHILDREN.length;
+		}
+
+		/**
+		 * Returns a node on the right-hand side.
+		 *
+		 * @param child index of the child, which must be less than
+		 *	{@link #getNumChildren()}
+		 * @return the child
+		 */
+		public Node getChild(int child) {
+			return CHILDREN[child];
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+
+			if (!(obj instanceof Alternative)) {
+				return false;
+			}
+
+			Alternative other = (Alternative)obj;
+			return this.PRODUCTION == other.PRODUCTION && Arrays.equals(this.CHILDREN, other.CHILDREN);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			return 31*PRODUCTION+Arrays.hashCode(CHILDREN);
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package edu.csupomona.cs.cs411.project2.parser.lalr;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
+import edu.csupomona.cs.cs411.project2.parser.CFG;
+import edu.csupomona.cs.cs411.project2.parser.slr.TableFile;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+public final class GrammarRegistry {
+	private final long MAX_BYTES;
+	private final int NUM_THREADS;
+	private final ConcurrentMap<String, FutureTask<LALRTables>> COMPILING;
+	private final LinkedHashMap<String, Entry> TABLES;
+
+	private long numBytes;
+	private int numCompiled;
+	private int numEvicted;
+
+	public GrammarRegistry(long maxBytes) {
+		this(maxBytes, 1);
+	}
+
+	public GrammarRegistry(long maxBytes, int numThreads) {
+		Preconditions.checkArgument(0 < maxBytes, "maxBytes must be positive");
+		Preconditions.checkArgument(0 < numThreads, "numThreads must be positive");
+		this.MAX_BYTES = maxBytes;
+		this.NUM_THREADS = numThreads;
+		this.COMPILING = new ConcurrentHashMap<>();
+		this.TABLES = new LinkedHashMap<>(16, 0.75f, true);
+		this.numBytes = 0;
+		this.numCompiled = 0;
+		this.numEvicted = 0;
+	}
+
+	public LALRTables get(Path cfg, boolean optimize) throws IOException {
+		Preconditions.checkNotNull(cfg);
+		return get(new String(Files.readAllBytes(cfg), LALRTableCache.CHARSET), optimize);
+	}
+
+	public LALRTables get(CharSequence cfg, final boolean optimize) {
+		Preconditions.checkNotNull(cfg);
+		final String text = cfg.toString();
+		String key = LALRTableCache.getKey(text, optimize);
+		LALRTables tables = lookup(key);
+		if (tables != null) {
+			return tables;
+		}
+
+		FutureTask<LALRTables> task = new FutureTask<>(new Callable<LALRTables>() {
+			@Override
+			public LALRTables call() {
+				return new LALRParserGenerator(CFG.read(text), optimize, NUM_THREADS).getGeneratedLALRTables();
+			}
+		});
+
+		FutureTask<LALRTables> compiling = COMPILING.putIfAbsent(key, task);
+		if (compiling == null) {
+			// tables are stored before their task is removed, so tables which
+			// finished compiling since the lookup are found here
+			tables = lookup(key);
+			if (tables != null) {
+				COMPILING.remove(key, task);
+				return tables;
+			}
+
+			compiling = task;
+			try {
+				task.run();
+				tables = getResult(task);
+				store(key, tables, sizeOf(tables));
+			} finally {
+				COMPILING.remove(key, task);
+			}
+		}
+
+		return getResult(compiling);
+	}
+
+	private static LALRTables getResult(FutureTask<LALRTables> task) {
+		try {
+			return Uninterruptibles.getUninterruptibly(task);
+		} catch (ExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		}
+	}
+
+	private synchronized LALRTables lookup(String key) {
+		Entry entry = TABLES.get(key);
+		return entry == null ? null : entry.TABLES;
+	}
+
+	private synchronized void store(String key, LALRTables tables, int size) {
+		numCompiled++;
+		if (MAX_BYTES < size) {
+			return;
+		}
+
+		Entry previous = TABLES.put(key, new Entry(tables, size));
+		if (previous != null) {
+			numBytes -= previous.NUM_BYTES;
+		}
+
+		numBytes += size;
+		Entry eldest;
+		Iterator<Entry> it = TABLES.values().iterator();
+		while (MAX_BYTES < numBytes) {
+			eldest = it.next();
+			it.remove();
+			numBytes -= eldest.NUM_BYTES;
+			numEvicted++;
+		}
+	}
+
+	private static int sizeOf(LALRTables tables) {
+		TableFile.Builder builder = new TableFile.Builder(TableFile.LALR);
+		tables.write(builder);
+		return builder.toByteArray().length;
+	}
+
+	public synchronized int getNumGrammars() {
+		return TABLES.size();
+	}
+
+	public synchronized long getNumBytes() {
+		return numBytes;
+	}
+
+	public long getMaxBytes() {
+		return MAX_BYTES;
+	}
+
+	public synchronized int getNumCompiled() {
+		return numCompiled;
+	}
+
+	public synchronized int getNumEvicted() {
+		return numEvicted;
+	}
+
+	int getNumCompiling() {
+		return COMPILING.size();
+	}
+
+	private static final class Entry {
+		private final LALRTables TABLES;
+		private final int NUM_BYTES;
+
+		Entry(LALRTables tables, int numBytes) {
+			this.TABLES = tables;
+			this.NUM_BYTES = numBytes;
+		}
+	}
+}
@@ -2,116 +2,62 @@ package edu.csupomona.cs.cs411.project2.parser.lalr;
 
 import com.google.common.base.Strings;
 import com.google.common.collect.BiMap;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterators;
-import com.google.common.collect.PeekingIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 import edu.csupomona.cs.cs411.project2.parser.AbstractParserGenerator;
+import edu.csupomona.cs.cs411.project2.parser.CFG;
+import edu.csupomona.cs.cs411.project2.parser.Digraph;
 import edu.csupomona.cs.cs411.project2.parser.Production;
+import edu.csupomona.cs.cs411.project2.parser.Table;
 import edu.csupomona.cs.cs411.project2.parser.slr.SLRParserGenerator;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRTables;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.lang.reflect.Array;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 public final class LALRParserGenerator extends SLRParserGenerator {
 	private final LALRTables LALR_TABLES;
-	private final ImmutableSet<Integer>[] FIRST;
-	private final ImmutableSet<Integer>[] FOLLOW;
 
-	public LALRParserGenerator(Path p) throws IOException {
-		super(p);
-
-		System.out.format("Generating first sets...%n");
-		long dt = System.currentTimeMillis();
-		this.FIRST = generateFirstSets();
-		System.out.format("First sets generated in %dms%n",
-			System.currentTimeMillis()-dt
-		);
-
-		System.out.format("Generating follow sets...%n");
-		dt = System.currentTimeMillis();
-		this.FOLLOW = generateFollowSets();
-		System.out.format("Follow sets generated in %dms%n",
-			System.currentTimeMillis()-dt
-		);
+	private int numShiftReduceConflicts;
+	private int numReduceReduceConflicts;
 
-		System.out.format("Generating LALR tables...%n");
-		dt = System.currentTimeMillis();
-		LALR_TABLES = generateLALRTables();
-		System.out.format("LALR tables generated in %dms%n",
-			System.currentTimeMillis()-dt
-		);
+	public LALRParserGenerator(Path p) throws IOException {
+		this(p, false);
 	}
 
-	private ImmutableSet<Integer>[] generateFirstSets() {
-		Set<Integer>[] first = (Set<Integer>[])Array.newInstance(Set.class, super.getNumTerminals()+super.getNumNonterminals());
-		for (int i = 0; i < super.getNumTerminals(); i++) {
-			first[i] = ImmutableSet.of(i);
-		}
-
-		for (Production p : super.PRODUCTIONS) {
-			int nonterminal = p.getNonterminal();
-			if (first[nonterminal] == null) {
-				first[nonterminal] = new HashSet<>();
-			}
-
-			first[nonterminal].add(p.peek());
-		}
-
-		ImmutableSet<Integer>[] immutableFirst = (ImmutableSet<Integer>[])Array.newInstance(ImmutableSet.class, first.length);
-		for (int i = 0; i < first.length; i++) {
-			immutableFirst[i] = ImmutableSet.copyOf(first[i]);
-		}
-
-		return immutableFirst;
+	public LALRParserGenerator(Path p, boolean optimize) throws IOException {
+		this(p, optimize, 1);
 	}
 
-	private ImmutableSet<Integer>[] generateFollowSets() {
-		Set<Integer>[] follow = (Set<Integer>[])Array.newInstance(Set.class, super.getNumTerminals()+super.getNumNonterminals());
-		for (int i = 0; i < follow.length; i++) {
-			follow[i] = new HashSet<>();
-		}
-
-		follow[getInitialNonterminal()].add(super.resolveSymbol("$"));
+	public LALRParserGenerator(Path p, boolean optimize, int numThreads) throws IOException {
+		this(CFG.read(p), optimize, numThreads);
+	}
 
-		int symbol;
-		int nonterminal;
-		boolean changes;
-		do {
-			changes = false;
-			for (Production p : super.PRODUCTIONS) {
-				nonterminal = p.getNonterminal();
-				for (PeekingIterator<Integer> it = Iterators.peekingIterator(p.iterator()); it.hasNext(); ) {
-					symbol = it.next();
-					if (super.isNonterminal(symbol)) {
-						if (it.hasNext()) {
-							if (follow[symbol].addAll(FIRST[it.peek()])) {
-								changes = true;
-							}
-						} else {
-							if (follow[symbol].addAll(follow[nonterminal])) {
-								changes = true;
-							}
-						}
-					}
-				}
-			}
-		} while (changes);
+	public LALRParserGenerator(CFG cfg, boolean optimize, int numThreads) {
+		super(cfg, optimize, numThreads);
 
-		ImmutableSet<Integer>[] immutableFollow = (ImmutableSet<Integer>[])Array.newInstance(ImmutableSet.class, follow.length);
-		for (int i = 0; i < follow.length; i++) {
-			immutableFollow[i] = ImmutableSet.copyOf(follow[i]);
-		}
+		numShiftReduceConflicts = Integer.MIN_VALUE;
+		numReduceReduceConflicts = Integer.MIN_VALUE;
 
-		return immutableFollow;
+		System.out.format("Generating LALR tables...%n");
+		long dt = System.currentTimeMillis();
+		LALR_TABLES = generateLALRTables();
+		System.out.format("LALR tables generated in %dms; %d tables (%d shift-reduce conflicts, %d reduce-reduce conflicts)%n",
+			System.currentTimeMillis()-dt,
+			LALR_TABLES.getSLRTables().getNumTables(),
+			numShiftReduceConflicts,
+			numReduceReduceConflicts
+		);
 	}
 
 	@Override
@@ -151,8 +97,8 @@ public final class LALRParserGenerator extends SLRParserGenerator {
 					entry.getValue(),
 					entry.getKey(),
 					Strings.nullToEmpty(alternateValue),
-					FIRST[entry.getValue()],
-					FOLLOW[entry.getValue()]
+					toSet(FIRST[entry.getValue()]),
+					toSet(FOLLOW[entry.getValue()])
 				));
 			}
 		} catch (IOException e) {
@@ -161,19 +107,178 @@ public final class LALRParserGenerator extends SLRParserGenerator {
 	}
 
 	private LALRTables generateLALRTables() {
-		final int numLongs = (int)Math.ceil((double)super.SYMBOLS.size()/Long.SIZE);
-
-		long[] ref;
-		long[][] _follow = new long[super.getNumNonterminals()][];
-		for (int i = super.getNumTerminals(); i < FOLLOW.length; i++) {
-			ref = new long[numLongs];
-			_follow[i-super.getNumTerminals()] = ref;
-			for (int symbol : FOLLOW[i]) {
-				ref[symbol/Long.SIZE] |= (1<<(symbol%Long.SIZE));
+		final int numLongs = (int)Math.ceil((double)super.getNumTerminals()/Long.SIZE);
+
+		Table[] tables = TABLES.values().toArray(new Table[TABLES.size()]);
+
+		// number every nonterminal transition (p, A). The initial nonterminal
+		// is given a transition out of the initial table even when none
+		// exists so that its productions are reduced on the end of file.
+		List<Integer> from = new ArrayList<>();
+		List<Integer> on = new ArrayList<>();
+		List<Map<Integer, Integer>> transitions = new ArrayList<>(tables.length);
+		for (Table t : tables) {
+			Map<Integer, Integer> transition = new HashMap<>();
+			transitions.add(transition);
+			for (Production p : t) {
+				if (p.hasNext() && super.isNonterminal(p.peek()) && !transition.containsKey(p.peek())) {
+					transition.put(p.peek(), from.size());
+					from.add(t.getId());
+					on.add(p.peek());
+				}
+			}
+		}
+
+		final int initialTransition;
+		Integer existing = transitions.get(0).get(super.getInitialNonterminal());
+		if (existing == null) {
+			initialTransition = from.size();
+			transitions.get(0).put(super.getInitialNonterminal(), initialTransition);
+			from.add(0);
+			on.add(super.getInitialNonterminal());
+		} else {
+			initialTransition = existing;
+		}
+
+		final int numTransitions = from.size();
+
+		// DR(p, A) contains the terminals shifted by goto(p, A), and
+		// (p, A) reads (r, C) when r = goto(p, A) and C is nullable
+		Table next;
+		long[][] follow = new long[numTransitions][numLongs];
+		List<List<Integer>> reads = new ArrayList<>(numTransitions);
+		for (int i = 0; i < numTransitions; i++) {
+			reads.add(new ArrayList<Integer>());
+			next = tables[from.get(i)].getTransitionFor(on.get(i));
+			if (next == null) {
+				continue;
+			}
+
+			for (Production p : next) {
+				if (!p.hasNext()) {
+					continue;
+				}
+
+				int symbol = p.peek();
+				if (!super.isNonterminal(symbol)) {
+					follow[i][symbol/Long.SIZE] |= (1L<<(symbol%Long.SIZE));
+				} else if (NULLABLE[symbol]) {
+					reads.get(i).add(transitions.get(next.getId()).get(symbol));
+				}
+			}
+		}
+
+		follow[initialTransition][EOF/Long.SIZE] |= (1L<<(EOF%Long.SIZE));
+
+		// (p, A) includes (p', B) when B -> BETA A GAMMA, GAMMA is nullable
+		// and p' reaches p on BETA, and (q, B -> OMEGA) has a lookback to
+		// (p', B) when p' reaches q on OMEGA
+		List<List<Integer>> includes = new ArrayList<>(numTransitions);
+		for (int i = 0; i < numTransitions; i++) {
+			includes.add(new ArrayList<Integer>());
+		}
+
+		List<Map<Production, List<Integer>>> lookbacks = new ArrayList<>(tables.length);
+		for (int i = 0; i < tables.length; i++) {
+			lookbacks.add(new HashMap<Production, List<Integer>>());
+		}
+
+		Table t;
+		int symbol;
+		int[] rhs;
+		for (int i = 0; i < numTransitions; i++) {
+			Walk_Productions:
+			for (Production p : NONTERMINALS.get(on.get(i))) {
+				rhs = Ints.toArray(ImmutableList.copyOf(p));
+				boolean nullableSuffix = true;
+				boolean[] includesAt = new boolean[rhs.length];
+				for (int j = rhs.length-1; 0 <= j; j--) {
+					includesAt[j] = nullableSuffix && super.isNonterminal(rhs[j]);
+					nullableSuffix &= NULLABLE[rhs[j]];
+				}
+
+				t = tables[from.get(i)];
+				for (int j = 0; j < rhs.length; j++) {
+					symbol = rhs[j];
+					if (includesAt[j]) {
+						includes.get(transitions.get(t.getId()).get(symbol)).add(i);
+					}
+
+					t = t.getTransitionFor(symbol);
+					p = p.next();
+					if (t == null) {
+						continue Walk_Productions;
+					}
+				}
+
+				List<Integer> lookback = lookbacks.get(t.getId()).get(p);
+				if (lookback == null) {
+					lookback = new ArrayList<>();
+					lookbacks.get(t.getId()).put(p, lookback);
+				}
+
+				lookback.add(i);
 			}
 		}
 
-		return LALRTables.build(SLR_TABLES, new LALRTables.Lookahead(_follow));
+		new Digraph(toArray(reads), follow).run();
+		new Digraph(toArray(includes), follow).run();
+
+		// LA(q, A -> OMEGA) is the union of Follow(p, A) over its lookbacks
+		List<Map<Production, Set<Integer>>> lookaheads = new ArrayList<>(tables.length);
+		int[] _start = new int[tables.length+1];
+		List<Integer> _production = new ArrayList<>();
+		List<long[]> _lookahead = new ArrayList<>();
+		for (int i = 0; i < tables.length; i++) {
+			_start[i] = _production.size();
+			Map<Production, Set<Integer>> lookahead = new HashMap<>();
+			for (Production p : tables[i]) {
+				if (p.hasNext()) {
+					continue;
+				}
+
+				long[] bits = new long[numLongs];
+				List<Integer> lookback = lookbacks.get(i).get(p);
+				if (lookback != null) {
+					for (int transition : lookback) {
+						for (int j = 0; j < numLongs; j++) {
+							bits[j] |= follow[transition][j];
+						}
+					}
+				}
+
+				lookahead.put(p, toSet(bits));
+				_production.add(ITEMS.indexOf(p));
+				_lookahead.add(bits);
+			}
+
+			lookaheads.add(lookahead);
+		}
+
+		_start[tables.length] = _production.size();
+
+		SLRTables slrTables = generateSLRTables(TABLES.values(), lookaheads);
+		numShiftReduceConflicts = slrTables.getNumShiftReduceConflicts();
+		numReduceReduceConflicts = slrTables.getNumReduceReduceConflicts();
+		return LALRTables.build(slrTables, new LALRTables.Lookahead(
+			_start,
+			Ints.toArray(_production),
+			_lookahead.toArray(new long[_lookahead.size()][])
+		));
+	}
+
+	private static int[][] toArray(List<List<Integer>> relation) {
+		int[][] array = new int[relation.size()][];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = Ints.toArray(relation.get(i));
+		}
+
+		return array;
+	}
+
+	@Override
+	public SLRTables getGeneratedTables() {
+		return LALR_TABLES.getSLRTables();
 	}
 
 	public LALRTables getGeneratedLALRTables() {
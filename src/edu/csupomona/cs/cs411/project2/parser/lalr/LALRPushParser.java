@@ -0,0 +1,9 @@
+package edu.csupomona.cs.cs411.project2.parser.lalr;
+
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRPushParser;
+
+public class LALRPushParser extends SLRPushParser {
+	public LALRPushParser(LALRTables lalrTables) {
+		super(lalrTables.getSLRTables());
+	}
+}
@@ -0,0 +1,73 @@
+package edu.csupomona.cs.cs411.project2.parser.lalr;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import edu.csupomona.cs.cs411.project2.parser.AbstractParserGenerator;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+public final class LALRTableCache {
+	static final Charset CHARSET = Charset.forName("UTF-8");
+
+	private static final String EXTENSION = ".lalrtables.bin";
+
+	private final Path DIRECTORY;
+
+	public LALRTableCache(Path directory) {
+		this.DIRECTORY = Preconditions.checkNotNull(directory);
+	}
+
+	public String getKey(Path cfg, boolean optimize) throws IOException {
+		return getKey(new String(Files.readAllBytes(cfg), CHARSET), optimize);
+	}
+
+	static String getKey(CharSequence cfg, boolean optimize) {
+		Hasher hasher = Hashing.sha1().newHasher();
+		hasher.putInt(AbstractParserGenerator.VERSION);
+		hasher.putBoolean(optimize);
+		hasher.putString(cfg, CHARSET);
+		return hasher.hash().toString();
+	}
+
+	public LALRTables load(Path cfg, boolean optimize) {
+		Path path;
+		try {
+			path = DIRECTORY.resolve(getKey(cfg, optimize) + EXTENSION);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+
+		if (!Files.isReadable(path)) {
+			return null;
+		}
+
+		try {
+			return LALRTables.load(path);
+		} catch (IOException | RuntimeException e) {
+			System.out.format("Cached tables %s cannot be read (%s); regenerating tables...%n", path.getFileName(), e.getMessage());
+			return null;
+		}
+	}
+
+	public void store(Path cfg, boolean optimize, LALRTables tables) {
+		Preconditions.checkNotNull(tables);
+		try {
+			Files.createDirectories(DIRECTORY);
+			Path path = DIRECTORY.resolve(getKey(cfg, optimize) + EXTENSION);
+			Path temp = Files.createTempFile(DIRECTORY, null, EXTENSION);
+			try {
+				tables.write(temp);
+				Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
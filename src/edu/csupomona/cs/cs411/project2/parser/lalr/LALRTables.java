@@ -1,8 +1,16 @@
 package edu.csupomona.cs.cs411.project2.parser.lalr;
 
 import edu.csupomona.cs.cs411.project2.parser.slr.SLRTables;
+import edu.csupomona.cs.cs411.project2.parser.slr.TableFile;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.file.Path;
+
+public final class LALRTables implements Serializable {
+	private static final long serialVersionUID = 1L;
 
-public final class LALRTables {
 	private final SLRTables SLR_TABLES;
 	private final Lookahead LOOKAHEAD;
 
@@ -19,15 +27,104 @@ public final class LALRTables {
 		return SLR_TABLES;
 	}
 
-	public boolean lookahead(int production, int symbol) {
-		return ((LOOKAHEAD.LOOKAHEAD[production][symbol/Long.SIZE])&(symbol%Long.SIZE)) != 0;
+	public boolean lookahead(int table, int production, int symbol) {
+		for (int i = LOOKAHEAD.START[table]; i < LOOKAHEAD.START[table+1]; i++) {
+			if (LOOKAHEAD.PRODUCTION[i] == production) {
+				return ((LOOKAHEAD.LOOKAHEAD[i][symbol/Long.SIZE])&(1L<<(symbol%Long.SIZE))) != 0;
+			}
+		}
+
+		return false;
+	}
+
+	public void write(Path path) throws IOException {
+		TableFile.Builder builder = new TableFile.Builder(TableFile.LALR);
+		write(builder);
+		builder.write(path);
+	}
+
+	public void write(TableFile.Builder builder) {
+		SLR_TABLES.write(builder);
+		builder.putInts(LOOKAHEAD.START);
+		builder.putInts(LOOKAHEAD.PRODUCTION);
+		for (long[] row : LOOKAHEAD.LOOKAHEAD) {
+			builder.putLongs(row);
+		}
+	}
+
+	public static LALRTables load(Path path) throws IOException {
+		TableFile file = TableFile.map(path, TableFile.LALR);
+		LALRTables tables = read(file);
+		if (!file.isFinished()) {
+			throw new IOException("Table file is malformed!");
+		}
+
+		return tables;
+	}
+
+	public static LALRTables read(TableFile file) throws IOException {
+		SLRTables slrTables = SLRTables.read(file);
+		int[] start = file.nextInts();
+		int[] production = file.nextInts();
+		if (start.length != slrTables.getNumTables()+1 || start[0] != 0 || start[start.length-1] != production.length) {
+			throw new IOException("Table file is malformed!");
+		}
+
+		for (int i = 1; i < start.length; i++) {
+			if (start[i] < start[i-1]) {
+				throw new IOException("Table file is malformed!");
+			}
+		}
+
+		long[][] lookahead = new long[production.length][];
+		for (int i = 0; i < lookahead.length; i++) {
+			lookahead[i] = file.nextLongs();
+		}
+
+		return new LALRTables(slrTables, new Lookahead(start, production, lookahead));
+	}
+
+	private Object writeReplace() {
+		return new SerializationProxy(this);
+	}
+
+	private void readObject(ObjectInputStream in) throws InvalidObjectException {
+		throw new InvalidObjectException("Proxy required");
 	}
 
 	public static class Lookahead {
+		private final int[] START;
+		private final int[] PRODUCTION;
 		private final long[][] LOOKAHEAD;
 
-		public Lookahead(long[][] _lookahead) {
+		public Lookahead(int[] _start, int[] _production, long[][] _lookahead) {
+			if (_start[_start.length-1] != _production.length || _production.length != _lookahead.length) {
+				throw new IllegalArgumentException("Table sizes do not match!");
+			}
+
+			this.START = _start;
+			this.PRODUCTION = _production;
 			this.LOOKAHEAD = _lookahead;
 		}
 	}
+
+	private static final class SerializationProxy implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final byte[] BYTES;
+
+		SerializationProxy(LALRTables tables) {
+			TableFile.Builder builder = new TableFile.Builder(TableFile.LALR);
+			tables.write(builder);
+			this.BYTES = builder.toByteArray();
+		}
+
+		private Object readResolve() throws InvalidObjectException {
+			try {
+				return read(TableFile.wrap(BYTES, TableFile.LALR));
+			} catch (IOException e) {
+				throw new InvalidObjectException(e.getMessage());
+			}
+		}
+	}
 }
@@ -0,0 +1,535 @@
+package edu.csupomona.cs.cs411.project2.parser.lr1;
+
+import com.google.common.collect.ImmutableSet;
+import edu.csupomona.cs.cs411.project2.parser.CFG;
+import edu.csupomona.cs.cs411.project2.parser.ItemSet;
+import edu.csupomona.cs.cs411.project2.parser.Production;
+import edu.csupomona.cs.cs411.project2.parser.Table;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRParserGenerator;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRTables;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * This class represents an LR(1) parser generator which will, given a path
+ * to a valid CFG, generate {@link SLRTables} with the power of canonical LR(1)
+ * tables but close to the number of tables of an LALR parser. The tables are
+ * built from LR(1) items, i.e., productions paired with their lookahead sets,
+ * and a new table is merged into an existing table with the same productions
+ * whenever the two are weakly compatible as defined by Pager:
+ * <p>
+ * Two tables whose productions i and j have the lookahead sets L<sub>i</sub>
+ * and L<sub>j</sub> in one and M<sub>i</sub> and M<sub>j</sub> in the other
+ * are weakly compatible when, for every pair of productions, either both
+ * L<sub>i</sub> &cap; M<sub>j</sub> and L<sub>j</sub> &cap; M<sub>i</sub> are
+ * empty, or L<sub>i</sub> &cap; L<sub>j</sub> or M<sub>i</sub> &cap;
+ * M<sub>j</sub> is not. Merging weakly compatible tables never introduces a
+ * reduce-reduce conflict which canonical LR(1) tables would not have, so
+ * the tables only split where the LALR tables would have a conflict.
+ * <p>
+ * The generated tables use the same runtime structure as the SLR and LALR
+ * tables, so any {@link edu.csupomona.cs.cs411.project2.parser.slr.SLRParser}
+ * can parse using them.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public class LR1ParserGenerator extends SLRParserGenerator {
+	/**
+	 * Reference to the LR(1) {@link SLRTables} generated by this
+	 * LR1ParserGenerator.
+	 */
+	private final SLRTables LR1_TABLES;
+
+	/**
+	 * Number of longs within each lookahead set.
+	 */
+	private final int NUM_LONGS;
+
+	/**
+	 * Whether or not weakly compatible tables are merged. Otherwise only
+	 * tables whose lookahead sets are identical are, and the tables are the
+	 * canonical LR(1) tables.
+	 */
+	private final boolean MERGE;
+
+	/**
+	 * This field represents the number of times a table was merged into an
+	 * existing table with the same productions.
+	 */
+	private int numMergedTables;
+
+	/**
+	 * Constructs an LR1ParserGenerator using the CFG at the given path.
+	 *
+	 * @param p path to the CFG to generate the tables from
+	 * @throws IOException when the CFG is not found or cannot be read from
+	 */
+	public LR1ParserGenerator(Path p) throws IOException {
+		this(p, false);
+	}
+
+	/**
+	 * Constructs an LR1ParserGenerator using the CFG at the given path,
+	 * optionally optimizing the CFG before generating tables from it.
+	 *
+	 * @param p path to the CFG to generate the tables from
+	 * @param optimize {@code true} if the CFG should be optimized using a
+	 *	{@link edu.csupomona.cs.cs411.project2.parser.GrammarOptimizer},
+	 *	otherwise {@code false}
+	 * @throws IOException when the CFG is not found or cannot be read from
+	 */
+	public LR1ParserGenerator(Path p, boolean optimize) throws IOException {
+		this(p, optimize, 1);
+	}
+
+	/**
+	 * Constructs an LR1ParserGenerator using the CFG at the given path,
+	 * optionally optimizing the CFG before generating tables from it, and
+	 * generating its LR(0) tables using a given number of threads.
+	 *
+	 * @param p path to the CFG to generate the tables from
+	 * @param optimize {@code true} if the CFG should be optimized using a
+	 *	{@link edu.csupomona.cs.cs411.project2.parser.GrammarOptimizer},
+	 *	otherwise {@code false}
+	 * @param numThreads number of threads to generate LR(0) tables with
+	 * @throws IOException when the CFG is not found or cannot be read from
+	 */
+	public LR1ParserGenerator(Path p, boolean optimize, int numThreads) throws IOException {
+		this(CFG.read(p), optimize, numThreads);
+	}
+
+	/**
+	 * Constructs an LR1ParserGenerator using a CFG which has already been
+	 * read, optionally optimizing the CFG before generating tables from it,
+	 * and generating its LR(0) tables using a given number of threads.
+	 *
+	 * @param cfg the CFG to generate the tables from
+	 * @param optimize {@code true} if the CFG should be optimized using a
+	 *	{@link edu.csupomona.cs.cs411.project2.parser.GrammarOptimizer},
+	 *	otherwise {@code false}
+	 * @param numThreads number of threads to generate LR(0) tables with
+	 */
+	public LR1ParserGenerator(CFG cfg, boolean optimize, int numThreads) {
+		this(cfg, optimize, numThreads, true);
+	}
+
+	/**
+	 * Constructs an LR1ParserGenerator using a CFG which has already been
+	 * read, optionally merging weakly compatible tables. Without merging,
+	 * the canonical LR(1) tables are generated, which is only useful to
+	 * compare against the merged tables.
+	 *
+	 * @param cfg the CFG to generate the tables from
+	 * @param optimize {@code true} if the CFG should be optimized using a
+	 *	{@link edu.csupomona.cs.cs411.project2.parser.GrammarOptimizer},
+	 *	otherwise {@code false}
+	 * @param numThreads number of threads to generate LR(0) tables with
+	 * @param merge {@code true} if weakly compatible tables should be
+	 *	merged, otherwise {@code false}
+	 */
+	LR1ParserGenerator(CFG cfg, boolean optimize, int numThreads, boolean merge) {
+		super(cfg, optimize, numThreads);
+
+		numMergedTables = Integer.MIN_VALUE;
+		this.MERGE = merge;
+
+		this.NUM_LONGS = (int)Math.ceil((double)super.getNumTerminals()/Long.SIZE);
+
+		System.out.format("Generating LR(1) tables...%n");
+		long dt = System.currentTimeMillis();
+		List<Table> tables = new ArrayList<>();
+		List<Map<Production, Set<Integer>>> lookaheads = new ArrayList<>();
+		generateLR1Tables(tables, lookaheads);
+		this.LR1_TABLES = generateSLRTables(tables, lookaheads);
+		System.out.format("LR(1) tables generated in %dms; %d tables, %d merged, %d LALR tables (%d shift-reduce conflicts, %d reduce-reduce conflicts)%n",
+			System.currentTimeMillis()-dt,
+			tables.size(),
+			numMergedTables,
+			TABLES.size(),
+			LR1_TABLES.getNumShiftReduceConflicts(),
+			LR1_TABLES.getNumReduceReduceConflicts()
+		);
+	}
+
+	/**
+	 * Generates the LR(1) tables, merging weakly compatible tables as they
+	 * are created, and then numbers the tables reachable from the initial
+	 * table in breadth-first order.
+	 *
+	 * @param tables list to add the {@link Table}s created to, in order of
+	 *	their ids
+	 * @param lookaheads list to add the lookahead sets of the productions
+	 *	reduced within each table to, in order of their ids
+	 */
+	private void generateLR1Tables(List<Table> tables, List<Map<Production, Set<Integer>>> lookaheads) {
+		numMergedTables = 0;
+
+		Map<Set<Production>, List<State>> states = new HashMap<>();
+		Queue<State> queue = new LinkedList<>();
+
+		Map<Production, long[]> initialItems = new LinkedHashMap<>();
+		long[] eof = new long[NUM_LONGS];
+		eof[EOF/Long.SIZE] |= (1L<<(EOF%Long.SIZE));
+		for (Production p : NONTERMINALS.get(super.getInitialNonterminal())) {
+			initialItems.put(p, eof.clone());
+		}
+
+		State initial = getState(states, queue, null, initialItems);
+		while (!queue.isEmpty()) {
+			generateTransitions(states, queue, queue.poll());
+		}
+
+		// tables merged away or redirected during generation may no longer be
+		// reachable, so only the reachable tables are numbered
+		Map<State, Table> reachable = new LinkedHashMap<>();
+		Queue<State> remaining = new LinkedList<>();
+		reachable.put(initial, createTable(0, null, Integer.MIN_VALUE, initial));
+		remaining.offer(initial);
+
+		State state;
+		Table table;
+		Table nextTable;
+		while (!remaining.isEmpty()) {
+			state = remaining.poll();
+			table = reachable.get(state);
+			for (Map.Entry<Integer, State> transition : state.TRANSITIONS.entrySet()) {
+				nextTable = reachable.get(transition.getValue());
+				if (nextTable == null) {
+					nextTable = createTable(reachable.size(), table, transition.getKey(), transition.getValue());
+					reachable.put(transition.getValue(), nextTable);
+					remaining.offer(transition.getValue());
+				}
+
+				table.putTransition(transition.getKey(), nextTable);
+			}
+		}
+
+		for (Map.Entry<State, Table> entry : reachable.entrySet()) {
+			Map<Production, Set<Integer>> lookahead = new HashMap<>();
+			for (Map.Entry<Production, long[]> item : closeOver(entry.getKey()).entrySet()) {
+				if (!item.getKey().hasNext()) {
+					lookahead.put(item.getKey(), toSet(item.getValue()));
+				}
+			}
+
+			tables.add(entry.getValue());
+			lookaheads.add(lookahead);
+		}
+	}
+
+	/**
+	 * Creates the {@link Table} of a given state.
+	 *
+	 * @param id id of the Table
+	 * @param parent Table which transitions to this Table first, or
+	 *	{@code null} if this is the initial Table
+	 * @param symbol symbol of the transition from the parent
+	 * @param state state to create the Table of
+	 * @return the Table created
+	 */
+	private Table createTable(int id, Table parent, int symbol, State state) {
+		int[] items = new int[state.CORE.size()];
+		int numItems = 0;
+		for (Production p : state.CORE) {
+			items[numItems++] = ITEMS.toItem(p);
+		}
+
+		return createTable(id, parent, symbol, ItemSet.of(items, numItems));
+	}
+
+	/**
+	 * Generates the transitions of a state, creating or merging into the
+	 * states they transition to. A state is only generated again if the
+	 * lookahead sets of its items grow after it was generated.
+	 *
+	 * @param states existing states, keyed by their productions
+	 * @param queue queue to add states whose transitions must be generated to
+	 * @param state state to generate the transitions of
+	 */
+	private void generateTransitions(Map<Set<Production>, List<State>> states, Queue<State> queue, State state) {
+		state.isQueued = false;
+
+		Map<Integer, Map<Production, long[]>> transitions = new TreeMap<>();
+		Map<Production, long[]> items;
+		for (Map.Entry<Production, long[]> item : closeOver(state).entrySet()) {
+			if (!item.getKey().hasNext()) {
+				continue;
+			}
+
+			items = transitions.get(item.getKey().peek());
+			if (items == null) {
+				items = new LinkedHashMap<>();
+				transitions.put(item.getKey().peek(), items);
+			}
+
+			items.put(item.getKey().next(), item.getValue().clone());
+		}
+
+		for (Map.Entry<Integer, Map<Production, long[]>> transition : transitions.entrySet()) {
+			State next = state.TRANSITIONS.get(transition.getKey());
+			if (next != null && isCompatible(next, transition.getValue())) {
+				merge(queue, next, transition.getValue());
+				continue;
+			}
+
+			state.TRANSITIONS.put(transition.getKey(), getState(states, queue, next, transition.getValue()));
+		}
+	}
+
+	/**
+	 * Returns a state with the given items, merging them into an existing
+	 * weakly compatible state if there is one.
+	 *
+	 * @param states existing states, keyed by their productions
+	 * @param queue queue to add states whose transitions must be generated to
+	 * @param exclude state which is known not to be compatible, or
+	 *	{@code null}
+	 * @param items items of the state, mapped to their lookahead sets
+	 * @return the state containing those items
+	 */
+	private State getState(Map<Set<Production>, List<State>> states, Queue<State> queue, State exclude, Map<Production, long[]> items) {
+		ImmutableSet<Production> core = ImmutableSet.copyOf(items.keySet());
+		List<State> sameCore = states.get(core);
+		if (sameCore == null) {
+			sameCore = new ArrayList<>();
+			states.put(core, sameCore);
+		}
+
+		for (State state : sameCore) {
+			if (state != exclude && isCompatible(state, items)) {
+				numMergedTables++;
+				merge(queue, state, items);
+				return state;
+			}
+		}
+
+		State state = new State(core, items);
+		sameCore.add(state);
+		state.isQueued = true;
+		queue.offer(state);
+		return state;
+	}
+
+	/**
+	 * Merges the lookahead sets of the given items into a state with the
+	 * same productions, queueing the state if any of its lookahead sets grew.
+	 *
+	 * @param queue queue to add states whose transitions must be generated to
+	 * @param state state to merge into
+	 * @param items items to merge, mapped to their lookahead sets
+	 */
+	private void merge(Queue<State> queue, State state, Map<Production, long[]> items) {
+		boolean changes = false;
+		for (Map.Entry<Production, long[]> item : items.entrySet()) {
+			changes |= union(state.ITEMS.get(item.getKey()), item.getValue());
+		}
+
+		if (changes && !state.isQueued) {
+			state.isQueued = true;
+			queue.offer(state);
+		}
+	}
+
+	/**
+	 * Returns whether or not the given items can be merged into a state with
+	 * the same productions, i.e., whether they are weakly compatible, or have
+	 * the same lookahead sets when weakly compatible tables are not merged.
+	 *
+	 * @param state state to check
+	 * @param items items to check, mapped to their lookahead sets
+	 * @return {@code true} if they can be merged, otherwise {@code false}
+	 */
+	private boolean isCompatible(State state, Map<Production, long[]> items) {
+		if (MERGE) {
+			return isWeaklyCompatible(state, items);
+		}
+
+		for (Map.Entry<Production, long[]> item : items.entrySet()) {
+			if (!Arrays.equals(state.ITEMS.get(item.getKey()), item.getValue())) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns whether or not a state and the given items with the same
+	 * productions are weakly compatible, i.e., can be merged without
+	 * introducing a reduce-reduce conflict.
+	 *
+	 * @param state state to check
+	 * @param items items to check, mapped to their lookahead sets
+	 * @return {@code true} if they are weakly compatible, otherwise
+	 *	{@code false}
+	 */
+	private boolean isWeaklyCompatible(State state, Map<Production, long[]> items) {
+		Production[] productions = state.CORE.toArray(new Production[state.CORE.size()]);
+
+		long[] li;
+		long[] lj;
+		long[] mi;
+		long[] mj;
+		for (int i = 0; i < productions.length; i++) {
+			li = state.ITEMS.get(productions[i]);
+			mi = items.get(productions[i]);
+			for (int j = i+1; j < productions.length; j++) {
+				lj = state.ITEMS.get(productions[j]);
+				mj = items.get(productions[j]);
+				if (!intersects(li, mj) && !intersects(lj, mi)) {
+					continue;
+				}
+
+				if (!intersects(li, lj) && !intersects(mi, mj)) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Closes over the items of a state. The lookahead set of a closure
+	 * production is the FIRST set of the symbol after its nonterminal, or
+	 * the lookahead set of the item containing its nonterminal when that
+	 * nonterminal is the last symbol of the item.
+	 *
+	 * @param state state to close over
+	 * @return items of the state and its closure productions, mapped to their
+	 *	lookahead sets
+	 */
+	private Map<Production, long[]> closeOver(State state) {
+		Map<Production, long[]> closure = new LinkedHashMap<>();
+		for (Map.Entry<Production, long[]> item : state.ITEMS.entrySet()) {
+			closure.put(item.getKey(), item.getValue().clone());
+		}
+
+		Queue<Production> remaining = new LinkedList<>(closure.keySet());
+
+		Production p;
+		long[] lookahead;
+		long[] existing;
+		while (!remaining.isEmpty()) {
+			p = remaining.poll();
+			if (!p.hasNext() || !isNonterminal(p.peek())) {
+				continue;
+			}
+
+			Production after = p.next();
+			lookahead = after.hasNext() ? FIRST[after.peek()] : closure.get(p);
+			for (Production closureProduction : NONTERMINALS.get(p.peek())) {
+				existing = closure.get(closureProduction);
+				if (existing == null) {
+					closure.put(closureProduction, lookahead.clone());
+					remaining.offer(closureProduction);
+				} else if (union(existing, lookahead) && !remaining.contains(closureProduction)) {
+					remaining.offer(closureProduction);
+				}
+			}
+		}
+
+		return closure;
+	}
+
+	/**
+	 * Adds the terminals of one lookahead set to another.
+	 *
+	 * @param to lookahead set to add to
+	 * @param from lookahead set to add
+	 * @return {@code true} if any terminals were added, otherwise
+	 *	{@code false}
+	 */
+	private static boolean union(long[] to, long[] from) {
+		long word;
+		boolean changes = false;
+		for (int i = 0; i < to.length; i++) {
+			word = to[i]|from[i];
+			if (word != to[i]) {
+				to[i] = word;
+				changes = true;
+			}
+		}
+
+		return changes;
+	}
+
+	/**
+	 * Returns whether or not two lookahead sets have any terminal in common.
+	 *
+	 * @param a first lookahead set
+	 * @param b second lookahead set
+	 * @return {@code true} if they do, otherwise {@code false}
+	 */
+	private static boolean intersects(long[] a, long[] b) {
+		for (int i = 0; i < a.length; i++) {
+			if ((a[i]&b[i]) != 0) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the LR(1) {@link SLRTables} generated by this
+	 * LR1ParserGenerator.
+	 *
+	 * @return the LR(1) SLRTables generated by this LR1ParserGenerator
+	 */
+	@Override
+	public SLRTables getGeneratedTables() {
+		return LR1_TABLES;
+	}
+
+	/**
+	 * This class represents a state of the LR(1) tables while they are
+	 * generated, i.e., the initial productions of a table mapped to their
+	 * lookahead sets, and the states it transitions to.
+	 */
+	private static final class State {
+		/**
+		 * Initial productions of this State.
+		 */
+		final ImmutableSet<Production> CORE;
+
+		/**
+		 * Initial productions of this State mapped to their lookahead sets,
+		 * which grow as other states are merged into this State.
+		 */
+		final Map<Production, long[]> ITEMS;
+
+		/**
+		 * States this State transitions to, keyed by symbol.
+		 */
+		final Map<Integer, State> TRANSITIONS;
+
+		/**
+		 * Whether or not this State is waiting for its transitions to be
+		 * generated.
+		 */
+		boolean isQueued;
+
+		/**
+		 * Constructs a State with the given items.
+		 *
+		 * @param core initial productions of the State
+		 * @param items initial productions mapped to their lookahead sets
+		 */
+		State(ImmutableSet<Production> core, Map<Production, long[]> items) {
+			this.CORE = core;
+			this.ITEMS = items;
+			this.TRANSITIONS = new TreeMap<>();
+		}
+	}
+}
@@ -0,0 +1,330 @@
+package edu.csupomona.cs.cs411.project2.parser.slr;
+
+import com.google.common.primitives.Longs;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class represents a sparse two-dimensional table of integers which has
+ * been packed into three flat arrays using row displacement (also known as
+ * comb-vector packing). Every row is given a base offset such that none of its
+ * occupied columns collide with those of any other row, and each slot stores
+ * the base of the row which owns it so that a lookup can be answered with a
+ * single index computation and a single comparison, regardless of how wide
+ * the row is.
+ * <p>
+ * Rows with identical entries are packed once and share the same base, so a
+ * row which repeats another, such as the row of a state with the same actions
+ * as another state, does not occupy any slots of its own. Every other row is
+ * given a distinct base.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class CompressedTable {
+	/**
+	 * Value stored within {@link #CHECK} for any slot not owned by a row.
+	 */
+	private static final int UNUSED = Integer.MIN_VALUE;
+
+	/**
+	 * Base offset of every row within {@link #CHECK} and {@link #NEXT}.
+	 */
+	private final int[] BASE;
+
+	/**
+	 * Base of the row which owns each slot, or {@link #UNUSED} if the slot is
+	 * empty.
+	 */
+	private final int[] CHECK;
+
+	/**
+	 * Value stored within each slot.
+	 */
+	private final int[] NEXT;
+
+	/**
+	 * Constructs a CompressedTable with the specified arguments.
+	 *
+	 * @param base base offset for every row, or {@link Integer#MIN_VALUE}
+	 *	for an empty row
+	 * @param check base of the owning row of every slot
+	 * @param next value of every slot
+	 */
+	public CompressedTable(int[] base, int[] check, int[] next) {
+		if (check.length != next.length) {
+			throw new IllegalArgumentException("Table sizes do not match!");
+		}
+
+		this.BASE = base;
+		this.CHECK = check;
+		this.NEXT = next;
+	}
+
+	/**
+	 * Packs the given rows into a CompressedTable. Each row is represented
+	 * as a flat array of {@code {column, value}} pairs, and a {@code null}
+	 * row is treated as empty. Rows are placed densest first at the lowest
+	 * distinct base at which all of their columns are free, and rows with
+	 * identical entries share a single base.
+	 *
+	 * @param rows rows to pack, where {@code rows[i]} contains the pairs of
+	 *	row {@code i}
+	 * @return the packed CompressedTable
+	 */
+	public static CompressedTable pack(final int[][] rows) {
+		Integer[] order = new Integer[rows.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return length(rows[o2]) - length(rows[o1]);
+			}
+		});
+
+		int[] base = new int[rows.length];
+		int[] check = new int[64];
+		int[] next = new int[64];
+		Arrays.fill(base, UNUSED);
+		Arrays.fill(check, UNUSED);
+
+		Set<Integer> bases = new HashSet<>();
+		Map<List<Long>, Integer> packed = new HashMap<>();
+		List<Long> entries;
+		Integer existing;
+
+		int size = 0;
+		int firstFree = 0;
+		for (int row : order) {
+			int[] pairs = rows[row];
+			if (length(pairs) == 0) {
+				continue;
+			}
+
+			entries = entriesOf(pairs);
+			existing = packed.get(entries);
+			if (existing != null) {
+				base[row] = existing;
+				continue;
+			}
+
+			int minColumn = Integer.MAX_VALUE;
+			for (int i = 0; i < pairs.length; i += 2) {
+				minColumn = Math.min(minColumn, pairs[i]);
+			}
+
+			int offset = firstFree-minColumn;
+			Find_Base:
+			while (true) {
+				if (bases.contains(offset)) {
+					offset++;
+					continue;
+				}
+
+				for (int i = 0; i < pairs.length; i += 2) {
+					int slot = offset+pairs[i];
+					if (slot < check.length && check[slot] != UNUSED) {
+						offset++;
+						continue Find_Base;
+					}
+				}
+
+				break;
+			}
+
+			base[row] = offset;
+			bases.add(offset);
+			packed.put(entries, offset);
+
+			for (int i = 0; i < pairs.length; i += 2) {
+				int slot = offset+pairs[i];
+				if (check.length <= slot) {
+					int oldLength = check.length;
+					int newLength = Math.max(oldLength<<1, slot+1);
+					check = Arrays.copyOf(check, newLength);
+					next = Arrays.copyOf(next, newLength);
+					Arrays.fill(check, oldLength, newLength, UNUSED);
+				}
+
+				check[slot] = offset;
+				next[slot] = pairs[i+1];
+				size = Math.max(size, slot+1);
+			}
+
+			while (firstFree < check.length && check[firstFree] != UNUSED) {
+				firstFree++;
+			}
+		}
+
+		return new CompressedTable(base, Arrays.copyOf(check, size), Arrays.copyOf(next, size));
+	}
+
+	/**
+	 * Returns the entries of a row ordered by column, where each entry is its
+	 * column in the upper 32 bits and its value in the lower 32 bits, so that
+	 * rows with the same entries in any order are equal.
+	 *
+	 * @param pairs row to convert
+	 * @return sorted entries of the row
+	 */
+	private static List<Long> entriesOf(int[] pairs) {
+		long[] entries = new long[pairs.length>>1];
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = ((long)pairs[i<<1]<<32)|(pairs[(i<<1)+1]&0xFFFFFFFFL);
+		}
+
+		Arrays.sort(entries);
+		return Longs.asList(entries);
+	}
+
+	/**
+	 * Returns the number of entries contained within a row.
+	 *
+	 * @param pairs row to check
+	 * @return number of {@code {column, value}} pairs in the row
+	 */
+	private static int length(int[] pairs) {
+		return pairs == null ? 0 : pairs.length>>1;
+	}
+
+	/**
+	 * Returns the value stored at the given row and column.
+	 *
+	 * @param row row to check
+	 * @param column column to check
+	 * @return value stored, or {@link Integer#MIN_VALUE} if none exists
+	 */
+	public int get(int row, int column) {
+		int base = BASE[row];
+		int slot = base+column;
+		if (base == UNUSED || slot < 0 || CHECK.length <= slot || CHECK[slot] != base) {
+			return Integer.MIN_VALUE;
+		}
+
+		return NEXT[slot];
+	}
+
+	/**
+	 * Returns the number of rows within this CompressedTable.
+	 *
+	 * @return number of rows
+	 */
+	public int getNumRows() {
+		return BASE.length;
+	}
+
+	/**
+	 * Returns the base offset of a given row.
+	 *
+	 * @param row row to check
+	 * @return base offset of that row, or {@link Integer#MIN_VALUE} if the
+	 *	row is empty
+	 */
+	public int getBase(int row) {
+		return BASE[row];
+	}
+
+	/**
+	 * Returns the number of slots in the packed arrays of this
+	 * CompressedTable.
+	 *
+	 * @return number of slots
+	 */
+	public int getNumSlots() {
+		return CHECK.length;
+	}
+
+	/**
+	 * Returns the number of non-empty rows which share the base of another
+	 * row because their entries are identical.
+	 *
+	 * @return number of shared rows
+	 */
+	public int getNumSharedRows() {
+		int numShared = 0;
+		Set<Integer> bases = new HashSet<>();
+		for (int base : BASE) {
+			if (base != UNUSED && !bases.add(base)) {
+				numShared++;
+			}
+		}
+
+		return numShared;
+	}
+
+	/**
+	 * Returns the number of slots which the shared rows of this
+	 * CompressedTable would have occupied had they not shared the base of
+	 * another row, i.e., the sum of the number of entries of every shared
+	 * row.
+	 *
+	 * @return number of slots saved by sharing rows
+	 */
+	public int getNumSharedSlots() {
+		Map<Integer, Integer> numEntries = new HashMap<>();
+		Integer count;
+		for (int base : CHECK) {
+			if (base != UNUSED) {
+				count = numEntries.get(base);
+				numEntries.put(base, count == null ? 1 : count+1);
+			}
+		}
+
+		int numShared = 0;
+		Set<Integer> bases = new HashSet<>();
+		for (int base : BASE) {
+			if (base != UNUSED && !bases.add(base)) {
+				numShared += numEntries.get(base);
+			}
+		}
+
+		return numShared;
+	}
+
+	/**
+	 * Returns the number of bytes used by the arrays of this
+	 * CompressedTable.
+	 *
+	 * @return number of bytes used
+	 */
+	public int getNumBytes() {
+		return (BASE.length+CHECK.length+NEXT.length)*(Integer.SIZE/Byte.SIZE);
+	}
+
+	/**
+	 * Appends the arrays of this CompressedTable to a table file.
+	 *
+	 * @param builder builder of the table file
+	 */
+	public void write(TableFile.Builder builder) {
+		builder.putInts(BASE).putInts(CHECK).putInts(NEXT);
+	}
+
+	/**
+	 * Reads a CompressedTable which was {@link #write(TableFile.Builder)
+	 * written} to a table file.
+	 *
+	 * @param file table file to read from
+	 * @return the CompressedTable read
+	 * @throws IOException if the table file does not contain a
+	 *	CompressedTable
+	 */
+	public static CompressedTable read(TableFile file) throws IOException {
+		int[] base = file.nextInts();
+		int[] check = file.nextInts();
+		int[] next = file.nextInts();
+		try {
+			return new CompressedTable(base, check, next);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e);
+		}
+	}
+}
@@ -0,0 +1,421 @@
+package edu.csupomona.cs.cs411.project2.parser.slr;
+
+import com.google.common.base.Preconditions;
+import edu.csupomona.cs.cs411.project1.lexer.Token;
+import edu.csupomona.cs.cs411.project1.lexer.TokenStream;
+import edu.csupomona.cs.cs411.project2.parser.ParseContext;
+import edu.csupomona.cs.cs411.project2.parser.ParseListener;
+import edu.csupomona.cs.cs411.project2.parser.ParseResult;
+import edu.csupomona.cs.cs411.project2.parser.SyntaxError;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class represents a table-driven parse which recovers from syntax
+ * errors instead of stopping at the first one, so that every error within
+ * the input is reported in a single pass.
+ * <p>
+ * When no action exists for a token, the stack is first searched for a table
+ * which shifts the {@link SLRTables#getError() error} terminal, in
+ * which case the stack is popped to it, {@code error} is shifted and tokens
+ * are discarded until one can be parsed. If the grammar has no such error
+ * production, panic mode is used instead: tokens are discarded up to the next
+ * {@link SLRTables#getSyncTerminal(int) synchronizing terminal} (e.g.,
+ * {@code ;} or {@code }}), and the stack is popped to
+ * the nearest table which can either shift that terminal or, by going to some
+ * nonterminal, reach a table which can. The nonterminal stands in for the
+ * input which was discarded. A synchronizing terminal which cannot be shifted
+ * anywhere is discarded as well.
+ * <p>
+ * Whether each table shifts {@code error}, and which table it recovers to for
+ * each synchronizing terminal, is found once when this SLRErrorRecovery is
+ * constructed. During a parse, the nearest such table beneath every entry of
+ * the stack is recorded the first time that entry is searched, and remains
+ * valid until the stack is popped below it, so each entry is searched once
+ * for every time it is pushed. Every token is discarded at most once, so the
+ * cost remains proportional to the size of the input. Errors
+ * found before {@link #RECOVERED_TOKENS} tokens have been shifted after a
+ * recovery are assumed to be caused by the previous error and are not
+ * reported, and an error found again on the token which was recovered at
+ * discards that token.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class SLRErrorRecovery {
+	/**
+	 * Number of tokens which must be shifted after recovering from an error
+	 * before another error is reported.
+	 */
+	private static final int RECOVERED_TOKENS = 3;
+
+	/**
+	 * This field represents the tables that this parser uses.
+	 */
+	private final SLRTables SLR_TABLES;
+
+	/**
+	 * Symbol id of the token which ends the input.
+	 */
+	private final int EOF;
+
+	/**
+	 * Symbol id of the {@link SLRTables#getError() error} terminal, or
+	 * {@link Integer#MIN_VALUE} if the tables have none.
+	 */
+	private final int ERROR;
+
+	/**
+	 * Value of {@link #RECOVERY} when a table shifts the synchronizing
+	 * terminal itself.
+	 */
+	private static final int SHIFTS = -1;
+
+	/**
+	 * Index of every terminal within the synchronizing terminals, or
+	 * {@code -1} if it is not one.
+	 */
+	private final int[] SYNC;
+
+	/**
+	 * Whether or not every table shifts the {@link #ERROR error} terminal.
+	 */
+	private final boolean[] SHIFTS_ERROR;
+
+	/**
+	 * Table which every table goes to on some nonterminal in order to shift
+	 * every synchronizing terminal, {@link #SHIFTS} if it shifts that
+	 * terminal itself, or {@link Integer#MIN_VALUE} if it can do neither.
+	 */
+	private final int[][] RECOVERY;
+
+	/**
+	 * Constructs an SLRErrorRecovery which will use the given tables to
+	 * shift, reduce and goto.
+	 *
+	 * @param tables tables containing the action information of this parser
+	 */
+	public SLRErrorRecovery(SLRTables tables) {
+		this.SLR_TABLES = Preconditions.checkNotNull(tables);
+		this.EOF = SLR_TABLES.getEOF();
+		this.ERROR = SLR_TABLES.getError();
+
+		this.SYNC = new int[SLR_TABLES.getNumTerminals()];
+		Arrays.fill(SYNC, -1);
+
+		int numSync = SLR_TABLES.getNumSyncTerminals();
+		int[] syncTerminals = new int[numSync];
+		for (int i = 0; i < numSync; i++) {
+			syncTerminals[i] = SLR_TABLES.getSyncTerminal(i);
+			SYNC[syncTerminals[i]] = i;
+		}
+
+		Set<Integer> nonterminals = new LinkedHashSet<>();
+		for (int i = 0; i < SLR_TABLES.getNumProductions(); i++) {
+			nonterminals.add(SLR_TABLES.getNonterminalId(i));
+		}
+
+		int numTables = SLR_TABLES.getNumTables();
+		this.SHIFTS_ERROR = new boolean[numTables];
+		this.RECOVERY = new int[numTables][numSync];
+		int next;
+		for (int state = 0; state < numTables; state++) {
+			SHIFTS_ERROR[state] = ERROR != Integer.MIN_VALUE && SLR_TABLES.shift(state, ERROR) != Integer.MIN_VALUE;
+			Find_Recovery:
+			for (int i = 0; i < numSync; i++) {
+				if (SLR_TABLES.shift(state, syncTerminals[i]) != Integer.MIN_VALUE) {
+					RECOVERY[state][i] = SHIFTS;
+					continue;
+				}
+
+				for (int nonterminal : nonterminals) {
+					next = SLR_TABLES.move(state, nonterminal);
+					if (next != Integer.MIN_VALUE && SLR_TABLES.shift(next, syncTerminals[i]) != Integer.MIN_VALUE) {
+						RECOVERY[state][i] = next;
+						continue Find_Recovery;
+					}
+				}
+
+				RECOVERY[state][i] = Integer.MIN_VALUE;
+			}
+		}
+	}
+
+	/**
+	 * Parses the given TokenStream, recovering from every syntax error found.
+	 *
+	 * @param stream TokenStream to retrieve Tokens from
+	 * @param context ParseContext to store the state of this parse in
+	 * @return result of parsing the TokenStream, which is only accepted if
+	 *	no syntax errors were found
+	 */
+	public ParseResult recover(TokenStream stream, ParseContext context) {
+		try {
+			return recover(stream, null, context);
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * Parses the given TokenStream, recovering from every syntax error found
+	 * and reporting the actions taken up to the first one to the passed
+	 * ParseListener. The listener is told of the first error as a rejection
+	 * and of nothing after it, so it sees the same actions as it would from
+	 * {@link SLRParser#parse(TokenStream, ParseListener, ParseContext)}.
+	 *
+	 * @param stream TokenStream to retrieve Tokens from
+	 * @param listener ParseListener to report actions to, or {@code null}
+	 *	if none should be reported
+	 * @param context ParseContext to store the state of this parse in
+	 * @return result of parsing the TokenStream, which is only accepted if
+	 *	no syntax errors were found
+	 *
+	 * @throws IOException if the listener fails to write its output
+	 */
+	public ParseResult recover(TokenStream stream, ParseListener listener, ParseContext context) throws IOException {
+		int state = 0;
+		context.reset(state);
+
+		List<SyntaxError> errors = new ArrayList<>();
+		RecoveryPoints points = null;
+		int recoveredAt = -1;
+		int numShifted = RECOVERED_TOKENS;
+
+		int shift;
+		int production;
+		int depth;
+		int recovery;
+
+		Token t = stream.next();
+		int symbol = SLR_TABLES.getTokenId(t);
+		boolean accepted = false;
+		Parse_Tokens:
+		while (true) {
+			shift = SLR_TABLES.shift(state, symbol);
+			if (shift != Integer.MIN_VALUE) {
+				if (listener != null) {
+					listener.shift(state, symbol, context.getTokenIndex());
+				}
+
+				state = shift;
+				context.push(state);
+				context.nextToken();
+				numShifted++;
+				t = stream.next();
+				symbol = SLR_TABLES.getTokenId(t);
+				continue;
+			}
+
+			production = SLR_TABLES.reduce(state, symbol);
+			if (production != Integer.MIN_VALUE && (production != 0 || symbol == EOF)) {
+				if (production == 0) {
+					accepted = errors.isEmpty();
+					if (listener != null) {
+						listener.accept(symbol, context.getTokenIndex());
+					}
+
+					break;
+				}
+
+				if (listener != null) {
+					for (int i = 0; i < SLR_TABLES.getNumReductions(production); i++) {
+						listener.reduce(state, SLR_TABLES.getReduction(production, i), SLR_TABLES.getReductionOffset(production, i), symbol, context.getTokenIndex());
+					}
+				}
+
+				state = context.pop(SLR_TABLES.getRHSSize(production));
+				if (points != null) {
+					points.popped(context);
+				}
+
+				state = SLR_TABLES.move(state, SLR_TABLES.getNonterminalId(production));
+				context.push(state);
+				continue;
+			}
+
+			if (listener != null) {
+				listener.reject(state, symbol, context.getTokenIndex());
+				listener = null;
+			}
+
+			if (RECOVERED_TOKENS <= numShifted) {
+				errors.add(new SyntaxError(state, symbol, context.getTokenIndex()));
+			}
+
+			if (symbol == EOF || symbol == Integer.MIN_VALUE) {
+				break;
+			}
+
+			if (recoveredAt == context.getTokenIndex()) {
+				t = stream.next();
+				symbol = SLR_TABLES.getTokenId(t);
+				context.nextToken();
+			}
+
+			if (points == null) {
+				points = new RecoveryPoints();
+			}
+
+			points.search(context);
+			numShifted = 0;
+			depth = points.findError(context);
+			if (depth != Integer.MIN_VALUE) {
+				state = context.pop(depth);
+				points.popped(context);
+				state = SLR_TABLES.shift(state, ERROR);
+				context.push(state);
+				while (SLR_TABLES.shift(state, symbol) == Integer.MIN_VALUE && SLR_TABLES.reduce(state, symbol) == Integer.MIN_VALUE) {
+					if (symbol == EOF || symbol == Integer.MIN_VALUE) {
+						break Parse_Tokens;
+					}
+
+					t = stream.next();
+					symbol = SLR_TABLES.getTokenId(t);
+					context.nextToken();
+				}
+
+				recoveredAt = context.getTokenIndex();
+				continue;
+			}
+
+			while (true) {
+				while (symbol < 0 || SYNC.length <= symbol || SYNC[symbol] == -1) {
+					if (symbol == EOF || symbol == Integer.MIN_VALUE) {
+						break Parse_Tokens;
+					}
+
+					t = stream.next();
+					symbol = SLR_TABLES.getTokenId(t);
+					context.nextToken();
+				}
+
+				depth = points.findSync(context, SYNC[symbol]);
+				if (depth != Integer.MIN_VALUE) {
+					state = context.pop(depth);
+					points.popped(context);
+					recovery = RECOVERY[state][SYNC[symbol]];
+					if (recovery != SHIFTS) {
+						state = recovery;
+						context.push(state);
+					}
+
+					break;
+				}
+
+				t = stream.next();
+				symbol = SLR_TABLES.getTokenId(t);
+				context.nextToken();
+			}
+
+			recoveredAt = context.getTokenIndex();
+		}
+
+		context.setFinalState(state);
+		return new ParseResult(accepted, state, context.getTokenIndex(), errors);
+	}
+
+	/**
+	 * This class records, for every entry of the stack, the nearest entry at
+	 * or beneath it whose table shifts {@code error} or recovers each
+	 * synchronizing terminal. Entries are only searched once they are above
+	 * every entry which has already been searched, and an entry stays searched
+	 * until the stack is popped below it.
+	 */
+	private final class RecoveryPoints {
+		/**
+		 * Index of the nearest entry at or beneath every entry which shifts
+		 * {@code error}, or {@code -1} if there is none.
+		 */
+		private int[] error;
+
+		/**
+		 * Index of the nearest entry at or beneath every entry which
+		 * recovers each synchronizing terminal, or {@code -1} if there is
+		 * none.
+		 */
+		private int[][] sync;
+
+		/**
+		 * Number of entries at the bottom of the stack which have been
+		 * searched and not popped since.
+		 */
+		private int searched;
+
+		/**
+		 * Constructs a RecoveryPoints where no entry has been searched.
+		 */
+		RecoveryPoints() {
+			this.error = new int[0];
+			this.sync = new int[RECOVERY.length == 0 ? 0 : RECOVERY[0].length][0];
+			this.searched = 0;
+		}
+
+		/**
+		 * Records that the stack has been popped, which may have removed
+		 * entries which were searched.
+		 *
+		 * @param context ParseContext containing the stack
+		 */
+		void popped(ParseContext context) {
+			searched = Math.min(searched, context.getDepth());
+		}
+
+		/**
+		 * Searches every entry of the stack which has not been searched.
+		 *
+		 * @param context ParseContext containing the stack
+		 */
+		void search(ParseContext context) {
+			int size = context.getDepth();
+			if (error.length < size) {
+				int capacity = Math.max(size, error.length<<1);
+				error = Arrays.copyOf(error, capacity);
+				for (int i = 0; i < sync.length; i++) {
+					sync[i] = Arrays.copyOf(sync[i], capacity);
+				}
+			}
+
+			int state;
+			for (int index = searched; index < size; index++) {
+				state = context.peek(size-1-index);
+				error[index] = SHIFTS_ERROR[state] ? index : index == 0 ? -1 : error[index-1];
+				for (int i = 0; i < sync.length; i++) {
+					sync[i][index] = RECOVERY[state][i] != Integer.MIN_VALUE ? index : index == 0 ? -1 : sync[i][index-1];
+				}
+			}
+
+			searched = size;
+		}
+
+		/**
+		 * Returns the depth of the nearest table on the stack which shifts
+		 * {@code error}.
+		 *
+		 * @param context ParseContext containing the stack
+		 * @return number of tables above that table, or
+		 *	{@link Integer#MIN_VALUE} if there is none
+		 */
+		int findError(ParseContext context) {
+			int index = error[context.getDepth()-1];
+			return index == -1 ? Integer.MIN_VALUE : context.getDepth()-1-index;
+		}
+
+		/**
+		 * Returns the depth of the nearest table on the stack which recovers
+		 * a given synchronizing terminal.
+		 *
+		 * @param context ParseContext containing the stack
+		 * @param sync index of the synchronizing terminal
+		 * @return number of tables above that table, or
+		 *	{@link Integer#MIN_VALUE} if there is none
+		 */
+		int findSync(ParseContext context, int sync) {
+			int index = this.sync[sync][context.getDepth()-1];
+			return index == -1 ? Integer.MIN_VALUE : context.getDepth()-1-index;
+		}
+	}
+}
@@ -2,22 +2,43 @@ package edu.csupomona.cs.cs411.project2.parser.slr;
 
 import edu.csupomona.cs.cs411.project1.lexer.Token;
 import edu.csupomona.cs.cs411.project1.lexer.TokenStream;
-import edu.csupomona.cs.cs411.project1.lexer.ToyKeywords;
+import edu.csupomona.cs.cs411.project2.parser.ParseContext;
+import edu.csupomona.cs.cs411.project2.parser.ParseListener;
+import edu.csupomona.cs.cs411.project2.parser.ParseResult;
 import edu.csupomona.cs.cs411.project2.parser.Parser;
+import edu.csupomona.cs.cs411.project2.parser.trace.TextParseListener;
 import java.io.IOException;
 import java.io.Writer;
 
 /**
- * This class represents an SLR parser which can parse any LR(0) grammar.
+ * This class represents an SLR parser which can parse any SLR(1) grammar.
+ * Reductions are only made on lookahead tokens which can follow them, so
+ * input is rejected at the first token which cannot be parsed.
  *
  * @author Collin Smith <collinsmith@csupomona.edu>
  */
 public class SLRParser implements Parser {
+	/**
+	 * Symbol id of the token which ends the input.
+	 */
+	private final int EOF;
+
 	/**
 	 * This field represents the tables that this parser uses.
 	 */
 	private final SLRTables SLR_TABLES;
 
+	/**
+	 * This field represents the error recovery used by this parser.
+	 */
+	private final SLRErrorRecovery ERROR_RECOVERY;
+
+	/**
+	 * This field represents the TextParseListener of each thread, which is
+	 * {@link TextParseListener#reset(Writer) reset} for every trace written.
+	 */
+	private final ThreadLocal<TextParseListener> TEXT_LISTENERS;
+
 	/**
 	 * Constructs an SLR Parser which will use the given tables to shift,
 	 * reduce and goto.
@@ -26,6 +47,9 @@ public class SLRParser implements Parser {
 	 */
 	public SLRParser(SLRTables tables) {
 		this.SLR_TABLES = tables;
+		this.EOF = tables.getEOF();
+		this.ERROR_RECOVERY = new SLRErrorRecovery(tables);
+		this.TEXT_LISTENERS = new ThreadLocal<>();
 	}
 
 	/**
@@ -33,11 +57,42 @@ public class SLRParser implements Parser {
 	 */
 	@Override
 	public boolean parse(TokenStream stream, Writer writer) throws IOException {
-		int top = 0;
-		int state = 0;
-		int[] stack = new int[256];
+		return parse(stream, writer, ParseContext.get());
+	}
 
-		stack[top] = state;
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean parse(TokenStream stream, Writer writer, ParseContext context) throws IOException {
+		return parse(stream, getTextListener(writer), context);
+	}
+
+	/**
+	 * Returns the TextParseListener of the calling thread reset to write into
+	 * the given Writer.
+	 *
+	 * @param writer Writer to write the trace into
+	 * @return the TextParseListener of the calling thread
+	 */
+	private TextParseListener getTextListener(Writer writer) {
+		TextParseListener listener = TEXT_LISTENERS.get();
+		if (listener == null) {
+			listener = new TextParseListener(writer, SLR_TABLES.getTerminalNames());
+			TEXT_LISTENERS.set(listener);
+			return listener;
+		}
+
+		return listener.reset(writer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean parse(TokenStream stream, ParseListener listener, ParseContext context) throws IOException {
+		int state = 0;
+		context.reset(state);
 
 		int shift = Integer.MIN_VALUE;
 		int production = Integer.MIN_VALUE;
@@ -49,47 +104,115 @@ public class SLRParser implements Parser {
 		while (true) {
 			t = stream.next();
 			symbol = SLR_TABLES.getTokenId(t);
-			if (symbol != Integer.MIN_VALUE) {
-				writer.write(String.format("%-3d %-16s", symbol, t));
-			}
-
 			Shift_Handler:
 			while(true) {
 				shift = SLR_TABLES.shift(state, symbol);
 				if (shift != Integer.MIN_VALUE) {
-					writer.write(String.format("[shift]%n"));
+					listener.shift(state, symbol, context.getTokenIndex());
 					state = shift;
-					stack[++top] = state;
+					context.push(state);
+					context.nextToken();
 					continue Get_Next_Token;
 				}
 
-				production = SLR_TABLES.reduce(state);
-				switch (production) {
-					case Integer.MIN_VALUE:
-						accepted = false;
-						System.out.format("\tReduction undefined in table A%d%n", state);
-						break Get_Next_Token;
-					case 0:
-						// When current reduction is back to A0 because EOF is found, we're done
-						if (t == ToyKeywords._EOF) {
-							accepted = true;
-							break Get_Next_Token;
-						}
-					default:
-						writer.write(String.format("[reduce %d]", production));
-						top -= SLR_TABLES.getRHSSize(production);
-						state = SLR_TABLES.move(stack[top], SLR_TABLES.getNonterminalId(production));
-						stack[++top] = state;
+				production = SLR_TABLES.reduce(state, symbol);
+				if (production == Integer.MIN_VALUE) {
+					accepted = false;
+					listener.reject(state, symbol, context.getTokenIndex());
+					break Get_Next_Token;
+				} else if (production == 0 && symbol == EOF) {
+					// When current reduction is back to A0 because EOF is found, we're done
+					accepted = true;
+					listener.accept(symbol, context.getTokenIndex());
+					break Get_Next_Token;
+				}
+
+				for (int i = 0; i < SLR_TABLES.getNumReductions(production); i++) {
+					listener.reduce(state, SLR_TABLES.getReduction(production, i), SLR_TABLES.getReductionOffset(production, i), symbol, context.getTokenIndex());
 				}
+
+				state = SLR_TABLES.move(context.pop(SLR_TABLES.getRHSSize(production)), SLR_TABLES.getNonterminalId(production));
+				context.push(state);
 			}
 		}
 
-		if (accepted) {
-			writer.write(String.format("%n[accept]"));
-		} else {
-			writer.write(String.format("%n[reject]"));
+		context.setFinalState(state);
+		return accepted;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ParseResult recognize(TokenStream stream) {
+		return recognize(stream, ParseContext.get());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ParseResult recognize(TokenStream stream, ParseContext context) {
+		int state = 0;
+		context.reset(state);
+
+		int shift;
+		int production;
+
+		Token t;
+		int symbol;
+		boolean accepted = false;
+		Get_Next_Token:
+		while (true) {
+			t = stream.next();
+			symbol = SLR_TABLES.getTokenId(t);
+			while (true) {
+				shift = SLR_TABLES.shift(state, symbol);
+				if (shift != Integer.MIN_VALUE) {
+					state = shift;
+					context.push(state);
+					context.nextToken();
+					continue Get_Next_Token;
+				}
+
+				production = SLR_TABLES.reduce(state, symbol);
+				if (production == Integer.MIN_VALUE) {
+					break Get_Next_Token;
+				} else if (production == 0 && symbol == EOF) {
+					accepted = true;
+					break Get_Next_Token;
+				}
+
+				state = SLR_TABLES.move(context.pop(SLR_TABLES.getRHSSize(production)), SLR_TABLES.getNonterminalId(production));
+				context.push(state);
+			}
 		}
 
-		return accepted;
+		context.setFinalState(state);
+		return new ParseResult(accepted, state, context.getTokenIndex());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ParseResult recover(TokenStream stream) {
+		return recover(stream, ParseContext.get());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ParseResult recover(TokenStream stream, ParseContext context) {
+		return ERROR_RECOVERY.recover(stream, context);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ParseResult recover(TokenStream stream, Writer writer, ParseContext context) throws IOException {
+		return ERROR_RECOVERY.recover(stream, getTextListener(writer), context);
 	}
 }
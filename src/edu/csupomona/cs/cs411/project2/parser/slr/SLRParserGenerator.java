@@ -1,8 +1,13 @@
 package edu.csupomona.cs.cs411.project2.parser.slr;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
 import edu.csupomona.cs.cs411.project2.parser.AbstractParserGenerator;
+import edu.csupomona.cs.cs411.project2.parser.CFG;
+import edu.csupomona.cs.cs411.project2.parser.Digraph;
+import edu.csupomona.cs.cs411.project2.parser.ItemSet;
 import edu.csupomona.cs.cs411.project2.parser.Production;
 import edu.csupomona.cs.cs411.project2.parser.Table;
 import java.io.BufferedWriter;
@@ -12,6 +17,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -19,28 +28,84 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * This class represents an SLR parser generator which will, given a path
  * to a valid CFG, convert that CFG into tables which a {@link SLRParser} can
  * use. It is possible to extend this class to create more efficient generators
  * for say an LALR parser.
+ * <p>
+ * Each production is only reduced on the terminals within the FOLLOW set of
+ * its nonterminal, so a parser using these tables rejects its input at the
+ * first token which cannot be parsed. Shift-reduce conflicts are resolved
+ * in favor of the shift, and reduce-reduce conflicts in favor of the
+ * production which appears first within the CFG. The reductions which lose
+ * a conflict are kept within the tables so that a
+ * {@link edu.csupomona.cs.cs411.project2.parser.glr.GLRParser} can make them
+ * as well.
  *
  * @author Collin Smith <collinsmith@csupomona.edu>
  */
 public class SLRParserGenerator extends AbstractParserGenerator {
+	/**
+	 * Spellings of the terminals which error recovery synchronizes on.
+	 * Those which are not terminals of the CFG are ignored.
+	 */
+	private static final ImmutableList<String> SYNC_TERMINALS = ImmutableList.of(";", "}");
+
 	/**
 	 * Reference to the {@link SLRTables} generated by this SLRParserGenerator
 	 */
 	protected final SLRTables SLR_TABLES;
 
 	/**
-	 * This field represents a mapping of sets of Productions to the
+	 * This field represents a mapping of sets of initial items to the
 	 * {@link Table} they belong to. This allows for a method to store the
 	 * table information, as well as a fast lookup to check if a similar
-	 * table for a set of initial productions already exists.
+	 * table for a set of initial items already exists.
+	 */
+	protected final Map<ItemSet, Table> TABLES;
+
+	/**
+	 * Closure of each nonterminal as a bitset over productions, i.e., every
+	 * production whose item with its dot at the beginning is within the
+	 * closure of an item whose next symbol is the nonterminal. This is
+	 * indexed by nonterminal, beginning at the first nonterminal.
+	 */
+	private final long[][] CLOSURE_MASKS;
+
+	/**
+	 * Generator of the closure productions of every {@link Table} created by
+	 * this SLRParserGenerator, so that tables do not need to store them.
+	 */
+	private final Table.ClosureGenerator CLOSURE_GENERATOR;
+
+	/**
+	 * Whether or not each symbol derives the empty string, indexed by symbol
+	 * id.
+	 */
+	protected final boolean[] NULLABLE;
+
+	/**
+	 * FIRST set of every symbol as a bitset over terminals, i.e., the
+	 * terminals which can begin a string derived from that symbol, indexed by
+	 * symbol id.
 	 */
-	protected final Map<Set<Production>, Table> TABLES;
+	protected final long[][] FIRST;
+
+	/**
+	 * FOLLOW set of every symbol as a bitset over terminals, i.e., the
+	 * terminals which can immediately follow that symbol within a sentential
+	 * form, indexed by symbol id.
+	 */
+	protected final long[][] FOLLOW;
 
 	/**
 	 * This field represents the number of shift-reduce conflicts detected
@@ -60,6 +125,12 @@ public class SLRParserGenerator extends AbstractParserGenerator {
 	 */
 	private int numUnrepeatedTables;
 
+	/**
+	 * This field represents whether or not this SLRParserGenerator has been
+	 * {@link #release() released}.
+	 */
+	private boolean isReleased;
+
 	/**
 	 * Constructs an SLRParserGenerator using the CFG at the given path. This
 	 * constructor will generate anything that {@link AbstractParserGenerator}
@@ -70,23 +141,100 @@ public class SLRParserGenerator extends AbstractParserGenerator {
 	 * @throws IOException when the CFG is not found or cannot be read from
 	 */
 	public SLRParserGenerator(Path p) throws IOException {
-		super(p);
+		this(p, false);
+	}
+
+	/**
+	 * Constructs an SLRParserGenerator using the CFG at the given path,
+	 * optionally optimizing the CFG before generating tables from it. Tables
+	 * generated from an optimized CFG still report the reductions of the
+	 * original CFG.
+	 *
+	 * @param p path to the CFG to generate the SLRTables from
+	 * @param optimize {@code true} if the CFG should be optimized using a
+	 *	{@link edu.csupomona.cs.cs411.project2.parser.GrammarOptimizer},
+	 *	otherwise {@code false}
+	 * @throws IOException when the CFG is not found or cannot be read from
+	 */
+	public SLRParserGenerator(Path p, boolean optimize) throws IOException {
+		this(p, optimize, 1);
+	}
+
+	/**
+	 * Constructs an SLRParserGenerator using the CFG at the given path,
+	 * optionally optimizing the CFG before generating tables from it, and
+	 * generating the tables using a given number of threads. The tables
+	 * generated are the same regardless of the number of threads used.
+	 *
+	 * @param p path to the CFG to generate the SLRTables from
+	 * @param optimize {@code true} if the CFG should be optimized using a
+	 *	{@link edu.csupomona.cs.cs411.project2.parser.GrammarOptimizer},
+	 *	otherwise {@code false}
+	 * @param numThreads number of threads to generate tables with, where
+	 *	{@code 1} generates them on the calling thread
+	 * @throws IOException when the CFG is not found or cannot be read from
+	 */
+	public SLRParserGenerator(Path p, boolean optimize, int numThreads) throws IOException {
+		this(CFG.read(p), optimize, numThreads);
+	}
+
+	/**
+	 * Constructs an SLRParserGenerator using a CFG which has already been
+	 * read, optionally optimizing the CFG before generating tables from it,
+	 * and generating the tables using a given number of threads. The tables
+	 * generated are the same regardless of the number of threads used.
+	 *
+	 * @param cfg the CFG to generate the SLRTables from
+	 * @param optimize {@code true} if the CFG should be optimized using a
+	 *	{@link edu.csupomona.cs.cs411.project2.parser.GrammarOptimizer},
+	 *	otherwise {@code false}
+	 * @param numThreads number of threads to generate tables with, where
+	 *	{@code 1} generates them on the calling thread
+	 */
+	public SLRParserGenerator(CFG cfg, boolean optimize, int numThreads) {
+		super(cfg, optimize);
+		Preconditions.checkArgument(0 < numThreads, "numThreads must be positive");
 
 		numWithShiftReduce = Integer.MIN_VALUE;
 		numWithReduceReduce = Integer.MIN_VALUE;
 		numUnrepeatedTables = Integer.MIN_VALUE;
+		isReleased = false;
 
 		System.out.format("Generating tables...%n");
 		long dt = System.currentTimeMillis();
-		this.TABLES = generateParserTables();
-		System.out.format("Tables generated in %dms; %d tables%n",
+		this.CLOSURE_MASKS = generateClosureMasks();
+		this.CLOSURE_GENERATOR = new Table.ClosureGenerator() {
+			@Override
+			public ImmutableSet<Production> getClosureProductions(ItemSet initialItems) {
+				return toProductions(generateClosureItems(initialItems));
+			}
+		};
+
+		this.TABLES = numThreads == 1 ? generateParserTables() : generateParserTables(numThreads);
+		System.out.format("Tables generated in %dms; %d tables (%d threads)%n",
 			System.currentTimeMillis()-dt,
-			this.TABLES.size()
+			this.TABLES.size(),
+			numThreads
+		);
+
+		System.out.format("Generating first sets...%n");
+		dt = System.currentTimeMillis();
+		this.NULLABLE = generateNullable();
+		this.FIRST = generateFirstSets();
+		System.out.format("First sets generated in %dms%n",
+			System.currentTimeMillis()-dt
+		);
+
+		System.out.format("Generating follow sets...%n");
+		dt = System.currentTimeMillis();
+		this.FOLLOW = generateFollowSets();
+		System.out.format("Follow sets generated in %dms%n",
+			System.currentTimeMillis()-dt
 		);
 
 		dt = System.currentTimeMillis();
 		System.out.format("Generating SLR tables...%n");
-		this.SLR_TABLES = generateSLRTables();
+		this.SLR_TABLES = generateSLRTables(TABLES.values(), generateFollowLookaheads());
 		System.out.format("SLR tables generated in %dms; %d tables (%d shift-reduce conflicts, %d reduce-reduce conflicts)%n",
 			System.currentTimeMillis()-dt,
 			this.TABLES.size(),
@@ -98,14 +246,14 @@ public class SLRParserGenerator extends AbstractParserGenerator {
 	/**
 	 * Generates and returns the set of tables creates in the form of a map
 	 * in which each {@link Table} is a value for its corresponding initial
-	 * productions key.
+	 * items key.
 	 *
 	 * @return mapping of all {@link Table}s created
 	 */
-	private Map<Set<Production>, Table> generateParserTables() {
-		Map<Set<Production>, Table> tables = new LinkedHashMap<>();
+	private Map<ItemSet, Table> generateParserTables() {
+		Map<ItemSet, Table> tables = new LinkedHashMap<>();
 
-		numWithReduceReduce = numUnrepeatedTables = 0;
+		numUnrepeatedTables = 0;
 
 		Queue<Table.Metadata> queue = new LinkedList<>();
 		do {
@@ -123,21 +271,21 @@ public class SLRParserGenerator extends AbstractParserGenerator {
 	 * @param tables map to add any created tables to
 	 * @param queue queue to add additional metadata to for future tables
 	 */
-	private void generateTable(Map<Set<Production>, Table> tables, Queue<Table.Metadata> queue) {
+	private void generateTable(Map<ItemSet, Table> tables, Queue<Table.Metadata> queue) {
 		Table parent;
 		Integer symbol;
-		ImmutableSet<Production> productions;
+		ItemSet items;
 		Table.Metadata metadata = queue.poll();
 		if (metadata == null) {
 			parent = null;
-			symbol = null;
-			productions = NONTERMINALS.get(super.getInitialNonterminal());
+			symbol = Integer.MIN_VALUE;
+			items = getInitialItems();
 		} else {
 			parent = metadata.getParent();
 			symbol = metadata.getNextSymbol();
-			productions = metadata.getNextInitialProductions();
+			items = metadata.getNextInitialItems();
 
-			Table existingTable = tables.get(productions);
+			Table existingTable = tables.get(items);
 			if (existingTable != null) {
 				parent.putTransition(symbol, existingTable);
 				numUnrepeatedTables++;
@@ -145,109 +293,514 @@ public class SLRParserGenerator extends AbstractParserGenerator {
 			}
 		}
 
-		Set<Production> closures = new HashSet<>();
-		for (Production initialProduction : productions) {
-			closeOverProduction(productions, closures, initialProduction);
+		Closure closure = generateClosure(items);
+		Table t = createTable(tables.size(), parent, symbol, items);
+		tables.put(items, t);
+		if (parent != null) {
+			parent.putTransition(symbol, t);
 		}
 
-		List<Integer> viablePrefix;
-		if (parent != null) {
-			viablePrefix = new LinkedList<>(parent.getViablePrefix());
-			viablePrefix.add(symbol);
-		} else {
-			viablePrefix = new LinkedList<>();
+		for (int i = 0; i < closure.SYMBOLS.length; i++) {
+			queue.offer(t.getMetadataForChild(closure.SYMBOLS[i], closure.SUCCESSORS[i]));
 		}
+	}
 
-		int tableId = tables.size();
-		Table t = new Table(
-			tableId,
-			parent,
-			ImmutableList.copyOf(viablePrefix),
-			productions,
-			ImmutableSet.copyOf(closures)
-		);
+	/**
+	 * Generates the tables in parallel using a {@link ForkJoinPool}. The
+	 * closure and successors of each set of initial items are found by a
+	 * {@link ClosureTask}, which forks a task for every successor not yet
+	 * claimed by another task. The tables are then numbered by walking the
+	 * successors breadth-first from the initial table, in the same order that
+	 * {@link #generateParserTables()} generates them in, so the tables
+	 * generated do not depend on the order the tasks finish in.
+	 *
+	 * @param numThreads number of threads to generate tables with
+	 * @return mapping of all {@link Table}s created
+	 */
+	private Map<ItemSet, Table> generateParserTables(int numThreads) {
+		ItemSet initialItems = getInitialItems();
+		ConcurrentMap<ItemSet, Closure> closures = new ConcurrentHashMap<>();
+		Set<ItemSet> claimed = Collections.newSetFromMap(new ConcurrentHashMap<ItemSet, Boolean>());
+		claimed.add(initialItems);
 
-		tables.put(productions, t);
-		if (parent != null) {
-			parent.putTransition(symbol, t);
+		ForkJoinPool pool = new ForkJoinPool(numThreads);
+		try {
+			pool.invoke(new ClosureTask(closures, claimed, initialItems));
+		} finally {
+			pool.shutdown();
 		}
 
-		Queue<Production> remainingProductions = new LinkedList<>(productions);
-		remainingProductions.addAll(closures);
+		Map<ItemSet, Table> tables = new LinkedHashMap<>();
+		numUnrepeatedTables = 0;
 
-		Production p;
-		Set<Production> reduces = new HashSet<>();
-		while (!remainingProductions.isEmpty()) {
-			p = remainingProductions.poll();
-			if (p.hasNext()) {
-				Integer nextSymbol = p.peek();
-				Set<Production> productionsWithSameNextSymbol = new HashSet<>();
-				for (Production sibling : remainingProductions) {
-					if (sibling.hasNext() && sibling.peek() == nextSymbol) {
-						productionsWithSameNextSymbol.add(sibling);
-					}
+		Table t = createTable(0, null, Integer.MIN_VALUE, initialItems);
+		tables.put(initialItems, t);
+
+		Queue<Table> queue = new LinkedList<>();
+		queue.offer(t);
+
+		Closure closure;
+		Table child;
+		ItemSet items;
+		while (!queue.isEmpty()) {
+			t = queue.poll();
+			closure = closures.remove(t.getInitialItems());
+			for (int i = 0; i < closure.SYMBOLS.length; i++) {
+				items = closure.SUCCESSORS[i];
+				child = tables.get(items);
+				if (child != null) {
+					t.putTransition(closure.SYMBOLS[i], child);
+					numUnrepeatedTables++;
+					continue;
 				}
 
-				remainingProductions.removeAll(productionsWithSameNextSymbol);
-				productionsWithSameNextSymbol.add(p);
+				child = createTable(tables.size(), t, closure.SYMBOLS[i], items);
+				tables.put(items, child);
+				t.putTransition(closure.SYMBOLS[i], child);
+				queue.offer(child);
+			}
+		}
 
-				Set<Production> nextInitialProductions = new HashSet<>();
-				for (Production productionWithSameNextSymbol : productionsWithSameNextSymbol) {
-					nextInitialProductions.add(productionWithSameNextSymbol.next());
+		return tables;
+	}
+
+	/**
+	 * Generates the closure of every nonterminal as a bitset over
+	 * productions. The closure of a nonterminal is its productions along with
+	 * the closure of every nonterminal which one of its productions begins
+	 * with, so the closures are found using a {@link Digraph} over the
+	 * "begins with" relation, which gives every nonterminal within a cycle of
+	 * that relation the same closure.
+	 *
+	 * @return closure of every nonterminal, indexed by nonterminal beginning
+	 *	at the first nonterminal
+	 */
+	private long[][] generateClosureMasks() {
+		int numTerminals = super.getNumTerminals();
+		int numNonterminals = super.getNumNonterminals();
+		int numLongs = (ITEMS.getNumProductions()+Long.SIZE-1)/Long.SIZE;
+
+		long[][] masks = new long[numNonterminals][numLongs];
+		int[][] beginsWith = new int[numNonterminals][];
+		boolean[] isRelated = new boolean[numNonterminals];
+		int[] related = new int[numNonterminals];
+		int numRelated;
+
+		int[] productions;
+		int item;
+		int symbol;
+		for (int nonterminal = 0; nonterminal < numNonterminals; nonterminal++) {
+			productions = ITEMS.getProductionsOf(numTerminals+nonterminal);
+			if (productions == null) {
+				beginsWith[nonterminal] = new int[0];
+				continue;
+			}
+
+			numRelated = 0;
+			for (int production : productions) {
+				masks[nonterminal][production/Long.SIZE] |= 1L<<(production%Long.SIZE);
+				item = ITEMS.item(production, 0);
+				if (ITEMS.hasNext(item) && isNonterminal(symbol = ITEMS.peek(item)) && !isRelated[symbol-numTerminals]) {
+					isRelated[symbol-numTerminals] = true;
+					related[numRelated++] = symbol-numTerminals;
 				}
+			}
+
+			beginsWith[nonterminal] = Arrays.copyOf(related, numRelated);
+			for (int i = 0; i < numRelated; i++) {
+				isRelated[related[i]] = false;
+			}
+		}
+
+		new Digraph(beginsWith, masks).run();
+		return masks;
+	}
+
+	/**
+	 * Returns the initial items of the initial table, i.e., every production
+	 * of the initial nonterminal with its dot at the beginning.
+	 *
+	 * @return initial items of the initial table
+	 */
+	private ItemSet getInitialItems() {
+		int[] productions = ITEMS.getProductionsOf(super.getInitialNonterminal());
+		int[] items = new int[productions.length];
+		for (int i = 0; i < productions.length; i++) {
+			items[i] = ITEMS.item(productions[i], 0);
+		}
+
+		return ItemSet.of(items, items.length);
+	}
+
+	/**
+	 * Creates a {@link Table} whose closure productions are generated by
+	 * this SLRParserGenerator whenever they are needed.
+	 *
+	 * @param id unique identifier of the Table
+	 * @param parent Table which the Table was generated from, or
+	 *	{@code null} if it is the initial Table
+	 * @param symbol symbol which the parent consumed to reach the Table
+	 * @param initialItems set of initial items of the Table
+	 * @return the Table created
+	 */
+	protected Table createTable(int id, Table parent, int symbol, ItemSet initialItems) {
+		return new Table(id, parent, symbol, initialItems, ITEMS, CLOSURE_GENERATOR);
+	}
 
-				Table.Metadata nextTable = t.getMetadataForChild(nextSymbol, ImmutableSet.copyOf(nextInitialProductions));
-				queue.offer(nextTable);
-			} else {
-				reduces.add(p);
+	/**
+	 * Generates the closure items of a set of initial items, which is the
+	 * union of the {@link #CLOSURE_MASKS closures} of the next symbols of the
+	 * initial items, without the initial items themselves.
+	 *
+	 * @param items initial items to close over
+	 * @return sorted closure items
+	 */
+	private int[] generateClosureItems(ItemSet items) {
+		int numTerminals = super.getNumTerminals();
+		long[] mask = new long[(ITEMS.getNumProductions()+Long.SIZE-1)/Long.SIZE];
+
+		int item;
+		int symbol;
+		long[] closure;
+		for (int i = 0; i < items.size(); i++) {
+			item = items.get(i);
+			if (ITEMS.hasNext(item) && isNonterminal(symbol = ITEMS.peek(item))) {
+				closure = CLOSURE_MASKS[symbol-numTerminals];
+				for (int j = 0; j < mask.length; j++) {
+					mask[j] |= closure[j];
+				}
 			}
 		}
 
-		if (1 < reduces.size()) {
-			numWithReduceReduce++;
-			System.out.format("Table A%d has %d reduce productions:%n", tableId, reduces.size());
-			for (Production reduce : reduces) {
-				System.out.format("\t%s%n", reduce.toString(SYMBOLS.inverse()));
+		int numClosures = 0;
+		for (long bits : mask) {
+			numClosures += Long.bitCount(bits);
+		}
+
+		int[] closures = new int[numClosures];
+		numClosures = 0;
+		long bits;
+		for (int i = 0; i < mask.length; i++) {
+			for (bits = mask[i]; bits != 0; bits &= bits-1) {
+				item = ITEMS.item(i*Long.SIZE+Long.numberOfTrailingZeros(bits), 0);
+				if (!items.contains(item)) {
+					closures[numClosures++] = item;
+				}
 			}
 		}
+
+		if (numClosures < closures.length) {
+			closures = Arrays.copyOf(closures, numClosures);
+		}
+
+		return closures;
 	}
 
 	/**
-	 * Closes over a given set of initial productions of a {@link Production}
-	 * and adds those closures to a set of closures.
-	 * @param initials
-	 * @param closures
-	 * @param p
+	 * Generates the initial items of every successor of a table with a set
+	 * of initial items. The initial items of a successor are the items of
+	 * the table which consume its symbol with their dots moved past it,
+	 * which are bucketed by symbol, and successors are ordered by the first
+	 * item of the table which consumes their symbol, where the initial items
+	 * come before the {@link #generateClosureItems(ItemSet) closure items}.
+	 *
+	 * @param items initial items to close over
+	 * @return closure of the items
 	 */
-	private void closeOverProduction(Set<Production> initials, Set<Production> closures, Production p) {
-		if (!p.hasNext()) {
-			return;
+	private Closure generateClosure(ItemSet items) {
+		int numSymbols = super.getNumTerminals()+super.getNumNonterminals();
+		int[] closures = generateClosureItems(items);
+		int numClosures = closures.length;
+
+		int item;
+		int symbol;
+		int[] numSuccessorItems = new int[numSymbols];
+		int[] symbols = new int[numSymbols];
+		int numSuccessors = 0;
+		for (int i = 0; i < items.size()+numClosures; i++) {
+			item = i < items.size() ? items.get(i) : closures[i-items.size()];
+			if (ITEMS.hasNext(item) && numSuccessorItems[symbol = ITEMS.peek(item)]++ == 0) {
+				symbols[numSuccessors++] = symbol;
+			}
+		}
+
+		int[][] successorItems = new int[numSymbols][];
+		for (int i = 0; i < numSuccessors; i++) {
+			successorItems[symbols[i]] = new int[numSuccessorItems[symbols[i]]];
+			numSuccessorItems[symbols[i]] = 0;
+		}
+
+		for (int i = 0; i < items.size()+numClosures; i++) {
+			item = i < items.size() ? items.get(i) : closures[i-items.size()];
+			if (ITEMS.hasNext(item)) {
+				symbol = ITEMS.peek(item);
+				successorItems[symbol][numSuccessorItems[symbol]++] = item+1;
+			}
+		}
+
+		ItemSet[] successors = new ItemSet[numSuccessors];
+		for (int i = 0; i < numSuccessors; i++) {
+			successors[i] = ItemSet.of(successorItems[symbols[i]], successorItems[symbols[i]].length);
+		}
+
+		return new Closure(Arrays.copyOf(symbols, numSuccessors), successors);
+	}
+
+	/**
+	 * Returns the interned {@link Production}s of a set of items.
+	 *
+	 * @param items items
+	 * @return Productions of the items, in the same order
+	 */
+	private ImmutableSet<Production> toProductions(int[] items) {
+		ImmutableSet.Builder<Production> productions = ImmutableSet.builder();
+		for (int item : items) {
+			productions.add(ITEMS.toProduction(item));
+		}
+
+		return productions.build();
+	}
+
+	/**
+	 * Generates whether or not each symbol derives the empty string. A
+	 * nonterminal is nullable once every symbol of one of its productions is
+	 * nullable, so each production counts its symbols which are not yet known
+	 * to be nullable, and each nullable nonterminal found is taken off of the
+	 * counts of the productions it appears in, making one pass over the
+	 * symbols of the CFG.
+	 *
+	 * @return whether or not each symbol is nullable, indexed by symbol id
+	 */
+	private boolean[] generateNullable() {
+		int numSymbols = super.getNumTerminals()+super.getNumNonterminals();
+		int numProductions = ITEMS.getNumProductions();
+		boolean[] nullable = new boolean[numSymbols];
+		int[] remaining = new int[numProductions];
+		int[] numOccurrences = new int[numSymbols];
+
+		int item;
+		for (int production = 0; production < numProductions; production++) {
+			for (item = ITEMS.item(production, 0); ITEMS.hasNext(item); item++) {
+				remaining[production]++;
+				numOccurrences[ITEMS.peek(item)]++;
+			}
+		}
+
+		int[][] occurrences = new int[numSymbols][];
+		for (int symbol = 0; symbol < numSymbols; symbol++) {
+			occurrences[symbol] = new int[numOccurrences[symbol]];
+			numOccurrences[symbol] = 0;
+		}
+
+		int symbol;
+		for (int production = 0; production < numProductions; production++) {
+			for (item = ITEMS.item(production, 0); ITEMS.hasNext(item); item++) {
+				symbol = ITEMS.peek(item);
+				occurrences[symbol][numOccurrences[symbol]++] = production;
+			}
+		}
+
+		int[] queue = new int[numSymbols];
+		int head = 0;
+		int tail = 0;
+		for (int production = 0; production < numProductions; production++) {
+			symbol = ITEMS.getNonterminal(production);
+			if (remaining[production] == 0 && !nullable[symbol]) {
+				nullable[symbol] = true;
+				queue[tail++] = symbol;
+			}
+		}
+
+		while (head < tail) {
+			for (int production : occurrences[queue[head++]]) {
+				symbol = ITEMS.getNonterminal(production);
+				if (--remaining[production] == 0 && !nullable[symbol]) {
+					nullable[symbol] = true;
+					queue[tail++] = symbol;
+				}
+			}
+		}
+
+		return nullable;
+	}
+
+	/**
+	 * Generates the FIRST set of every symbol. The FIRST set of a terminal is
+	 * the terminal itself, and the FIRST set of a nonterminal is the union of
+	 * the FIRST sets of the symbols which can begin its productions, i.e.,
+	 * each symbol of a production up to and including its first symbol which
+	 * is not {@link #NULLABLE nullable}. The FIRST sets of nonterminals
+	 * depend on one another, so they are found using a {@link Digraph}, which
+	 * finishes each strongly connected component of that relation in one
+	 * pass.
+	 *
+	 * @return FIRST set of every symbol, indexed by symbol id
+	 */
+	private long[][] generateFirstSets() {
+		int numTerminals = super.getNumTerminals();
+		int numNonterminals = super.getNumNonterminals();
+		long[][] first = new long[numTerminals+numNonterminals][(numTerminals+Long.SIZE-1)/Long.SIZE];
+		for (int terminal = 0; terminal < numTerminals; terminal++) {
+			first[terminal][terminal/Long.SIZE] |= 1L<<(terminal%Long.SIZE);
+		}
+
+		int[][] beginsWith = new int[numNonterminals][];
+		boolean[] isRelated = new boolean[numNonterminals];
+		int[] related = new int[numNonterminals];
+		int numRelated;
+
+		int[] productions;
+		int item;
+		int symbol;
+		for (int nonterminal = 0; nonterminal < numNonterminals; nonterminal++) {
+			productions = ITEMS.getProductionsOf(numTerminals+nonterminal);
+			if (productions == null) {
+				beginsWith[nonterminal] = new int[0];
+				continue;
+			}
+
+			numRelated = 0;
+			for (int production : productions) {
+				for (item = ITEMS.item(production, 0); ITEMS.hasNext(item); item++) {
+					symbol = ITEMS.peek(item);
+					if (!isNonterminal(symbol)) {
+						first[numTerminals+nonterminal][symbol/Long.SIZE] |= 1L<<(symbol%Long.SIZE);
+						break;
+					}
+
+					if (!isRelated[symbol-numTerminals]) {
+						isRelated[symbol-numTerminals] = true;
+						related[numRelated++] = symbol-numTerminals;
+					}
+
+					if (!NULLABLE[symbol]) {
+						break;
+					}
+				}
+			}
+
+			beginsWith[nonterminal] = Arrays.copyOf(related, numRelated);
+			for (int i = 0; i < numRelated; i++) {
+				isRelated[related[i]] = false;
+			}
 		}
 
-		Integer nextSymbol = p.peek();
-		if (isNonterminal(nextSymbol)) {
-			for (Production closure : NONTERMINALS.get(nextSymbol)) {
-				if (initials.contains(closure) || closures.contains(closure)) {
+		new Digraph(beginsWith, Arrays.copyOfRange(first, numTerminals, first.length)).run();
+		return first;
+	}
+
+	/**
+	 * Generates the FOLLOW set of every symbol. The end of file terminal
+	 * follows the initial nonterminal, the FIRST sets of the symbols after a
+	 * nonterminal within a production follow that nonterminal up to and
+	 * including the first which is not {@link #NULLABLE nullable}, and the
+	 * FOLLOW set of the nonterminal of a production follows every
+	 * nonterminal of that production which only nullable symbols come after.
+	 * The last of these relates FOLLOW sets to one another, so they are
+	 * found using a {@link Digraph}.
+	 *
+	 * @return FOLLOW set of every symbol, indexed by symbol id
+	 */
+	private long[][] generateFollowSets() {
+		int numTerminals = super.getNumTerminals();
+		int numNonterminals = super.getNumNonterminals();
+		int numLongs = (numTerminals+Long.SIZE-1)/Long.SIZE;
+		long[][] follow = new long[numTerminals+numNonterminals][numLongs];
+
+		follow[getInitialNonterminal()][EOF/Long.SIZE] |= 1L<<(EOF%Long.SIZE);
+
+		List<List<Integer>> followedBy = new ArrayList<>(numNonterminals);
+		for (int i = 0; i < numNonterminals; i++) {
+			followedBy.add(new ArrayList<Integer>());
+		}
+
+		int nonterminal;
+		int symbol;
+		int next;
+		boolean isNullableSuffix;
+		for (int production = 0; production < ITEMS.getNumProductions(); production++) {
+			nonterminal = ITEMS.getNonterminal(production);
+			for (int item = ITEMS.item(production, 0); ITEMS.hasNext(item); item++) {
+				symbol = ITEMS.peek(item);
+				if (!isNonterminal(symbol)) {
 					continue;
 				}
 
-				closures.add(closure);
-				closeOverProduction(initials, closures, closure);
+				isNullableSuffix = true;
+				for (next = item+1; ITEMS.hasNext(next); next++) {
+					union(follow[symbol], FIRST[ITEMS.peek(next)]);
+					if (!NULLABLE[ITEMS.peek(next)]) {
+						isNullableSuffix = false;
+						break;
+					}
+				}
+
+				if (isNullableSuffix && symbol != nonterminal && !followedBy.get(symbol-numTerminals).contains(nonterminal-numTerminals)) {
+					followedBy.get(symbol-numTerminals).add(nonterminal-numTerminals);
+				}
 			}
 		}
+
+		int[][] relation = new int[numNonterminals][];
+		for (int i = 0; i < numNonterminals; i++) {
+			relation[i] = Ints.toArray(followedBy.get(i));
+		}
+
+		new Digraph(relation, Arrays.copyOfRange(follow, numTerminals, follow.length)).run();
+		return follow;
+	}
+
+	/**
+	 * Adds the terminals of one bitset to another.
+	 *
+	 * @param to bitset to add to
+	 * @param from bitset to add
+	 */
+	private static void union(long[] to, long[] from) {
+		for (int i = 0; i < to.length; i++) {
+			to[i] |= from[i];
+		}
+	}
+
+	/**
+	 * Returns the terminals within a bitset over terminals, such as a
+	 * {@link #FIRST} or {@link #FOLLOW} set or a lookahead set.
+	 *
+	 * @param bits bitset over terminals
+	 * @return terminals within that bitset, in ascending order
+	 */
+	protected static Set<Integer> toSet(long[] bits) {
+		ImmutableSet.Builder<Integer> set = ImmutableSet.builder();
+		for (int i = 0; i < bits.length; i++) {
+			for (long word = bits[i]; word != 0; word &= word-1) {
+				set.add(i*Long.SIZE+Long.numberOfTrailingZeros(word));
+			}
+		}
+
+		return set.build();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void outputCFG() {
+		Preconditions.checkState(!isReleased, "The CFG of this generator has been released!");
+		super.outputCFG();
 	}
 
 	/**
 	 * Outputs the table information that was generated by this generator.
 	 */
 	public void outputTables() {
+		Preconditions.checkState(!isReleased, "The tables of this generator have been released!");
 		try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(".", "output", "toy.tables.txt"), AbstractParserGenerator.CHARSET, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
 			for (Table t : TABLES.values()) {
 				writer.write(String.format("A%d: V%s", t.getId(), t.getViablePrefix()));
 				if (t.getParent() != null) {
 					writer.write(String.format(" = goto(A%d, %d)",
 						t.getParent().getId(),
-						t.getViablePrefix().get(t.getViablePrefix().size()-1)
+						t.getSymbol()
 					));
 				}
 
@@ -284,7 +837,7 @@ public class SLRParserGenerator extends AbstractParserGenerator {
 			writer.write(String.format("%s\t%-32s reduce(%d)%n",
 				isInitialProduction ? "I:" : "",
 				p,
-				PRODUCTIONS.indexOf(p.getAncestor())
+				ITEMS.indexOf(p)
 			));
 
 			return;
@@ -306,92 +859,169 @@ public class SLRParserGenerator extends AbstractParserGenerator {
 	}
 
 	/**
-	 * Generates the more compact {@link SLRTables} object which can be used
-	 * in an {@link SLRParser}.
+	 * Returns the lookahead sets of an SLR parser, in which every production
+	 * is reduced on the FOLLOW set of its nonterminal.
 	 *
-	 * @return the SLRTables for this SLRParserGenerator
+	 * @return lookahead sets of the productions reduced within each table,
+	 *	indexed by table id
 	 */
-	private SLRTables generateSLRTables() {
-		int numTables = TABLES.size();
+	private List<Map<Production, Set<Integer>>> generateFollowLookaheads() {
+		List<Map<Production, Set<Integer>>> lookaheads = new ArrayList<>(TABLES.size());
+		Map<Integer, Set<Integer>> follow = new HashMap<>();
+		Set<Integer> symbols;
+		for (Table t : TABLES.values()) {
+			Map<Production, Set<Integer>> lookahead = new HashMap<>();
+			for (Production p : t) {
+				if (!p.hasNext()) {
+					symbols = follow.get(p.getNonterminal());
+					if (symbols == null) {
+						symbols = toSet(FOLLOW[p.getNonterminal()]);
+						follow.put(p.getNonterminal(), symbols);
+					}
+
+					lookahead.put(p, symbols);
+				}
+			}
+
+			lookaheads.add(lookahead);
+		}
+
+		return lookaheads;
+	}
 
-		int[] _reduce = new int[numTables];
-		int[] gotoSwitch = new int[numTables];
-		int[] shiftSwitch = new int[numTables];
+	/**
+	 * Generates the more compact {@link SLRTables} object which can be used
+	 * in an {@link SLRParser}. Each production is reduced within a table on
+	 * the terminals of its lookahead set in that table, which allows
+	 * subclasses to generate the same tables from more precise lookahead
+	 * sets than the FOLLOW sets used here, or from tables of their own.
+	 *
+	 * @param tables tables to generate from, whose ids must number them from
+	 *	0 and whose transitions must be within them
+	 * @param lookaheads lookahead sets of the productions reduced within each
+	 *	table, indexed by table id
+	 * @return the SLRTables for these tables and lookahead sets
+	 */
+	protected final SLRTables generateSLRTables(Collection<Table> tables, List<Map<Production, Set<Integer>>> lookaheads) {
+		int numTables = tables.size();
 
-		ArrayList<Integer[]> gotoList = new ArrayList<>();
-		ArrayList<Integer[]> shiftList = new ArrayList<>();
-		final Integer[] EMPTY_ELEMENT = new Integer[] { Integer.MIN_VALUE, Integer.MIN_VALUE };
+		int[][] shiftRows = new int[numTables][];
+		int[][] reduceRows = new int[numTables][];
+		int[][] gotoRows = new int[numTables][];
+		int[][] conflictRows = new int[numTables][];
+		List<Integer> conflictStart = new ArrayList<>();
+		List<Integer> conflictReductions = new ArrayList<>();
 
 		numWithShiftReduce = 0;
-		Integer currentSymbol = null;
+		numWithReduceReduce = 0;
 
 		int tableId;
+		int production;
+		Map<Production, Set<Integer>> lookahead;
 		Table nextTable = null;
 		Integer nextSymbol = null;
-		for (Table t : TABLES.values()) {
+		List<Integer> shiftRow = new ArrayList<>();
+		List<Integer> gotoRow = new ArrayList<>();
+		Set<Integer> shiftSymbols = new HashSet<>();
+		Map<Integer, Integer> reduceRow = new TreeMap<>();
+		Map<Integer, SortedSet<Integer>> conflictRow = new TreeMap<>();
+		List<Production> reduces = new ArrayList<>();
+		SortedSet<Integer> shiftReduceSymbols = new TreeSet<>();
+		SortedSet<Integer> reduceReduceSymbols = new TreeSet<>();
+		for (Table t : tables) {
 			tableId = t.getId();
-			_reduce[tableId] = Integer.MIN_VALUE;
-			gotoSwitch[tableId] = Integer.MIN_VALUE;
-			shiftSwitch[tableId] = Integer.MIN_VALUE;
+			lookahead = lookaheads.get(tableId);
+			shiftRow.clear();
+			gotoRow.clear();
+			shiftSymbols.clear();
+			reduceRow.clear();
+			conflictRow.clear();
+			reduces.clear();
+			shiftReduceSymbols.clear();
+			reduceReduceSymbols.clear();
 			for (Production p : t) {
 				if (!p.hasNext()) {
-					if (_reduce[tableId] == Integer.MIN_VALUE) {
-						_reduce[tableId] = PRODUCTIONS.indexOf(p.getAncestor());
-						currentSymbol = p.current();
-					} else {
-						// reduce-reduce conflict indicated in previous stage
-					}
-
+					reduces.add(p);
 					continue;
 				}
 
 				nextSymbol = p.peek();
 				nextTable = t.getTransitionFor(nextSymbol);
 				if (!isNonterminal(nextSymbol)) {
-					if (shiftSwitch[tableId] == Integer.MIN_VALUE) {
-						shiftSwitch[tableId] = shiftList.size();
+					if (shiftSymbols.add(nextSymbol)) {
+						shiftRow.add(nextSymbol);
+						shiftRow.add(nextTable.getId());
 					}
-
-					shiftList.add(new Integer[] { nextSymbol, nextTable.getId() });
 				} else {
-					if (gotoSwitch[tableId] == Integer.MIN_VALUE) {
-						gotoSwitch[tableId] = gotoList.size();
+					gotoRow.add(nextSymbol);
+					gotoRow.add(nextTable.getId());
+				}
+			}
+
+			for (Production p : reduces) {
+				production = ITEMS.indexOf(p);
+				for (int symbol : lookahead.get(p)) {
+					if (shiftSymbols.contains(symbol)) {
+						shiftReduceSymbols.add(symbol);
+						addConflict(conflictRow, symbol, production);
+						continue;
 					}
 
-					gotoList.add(new Integer[] { nextSymbol, nextTable.getId() });
+					Integer existing = reduceRow.get(symbol);
+					if (existing != null) {
+						reduceReduceSymbols.add(symbol);
+						if (existing < production) {
+							addConflict(conflictRow, symbol, production);
+							continue;
+						}
+
+						addConflict(conflictRow, symbol, existing);
+					}
+
+					reduceRow.put(symbol, production);
 				}
 			}
 
-			if (_reduce[tableId] != Integer.MIN_VALUE && shiftSwitch[tableId] != Integer.MIN_VALUE) {
+			if (!shiftReduceSymbols.isEmpty()) {
 				numWithShiftReduce++;
-				System.out.format("Table A%d has a shift-reduce conflict:%n", tableId);
-				for (Production p : t) {
-					if (p.current() == currentSymbol) {
+				System.out.format("Table A%d has a shift-reduce conflict on %s:%n", tableId, toString(shiftReduceSymbols));
+				for (Production p : reduces) {
+					if (!Collections.disjoint(lookahead.get(p), shiftReduceSymbols)) {
 						System.out.format("\t%s%n", p.toString(SYMBOLS.inverse()));
 					}
 				}
 			}
 
-			if (shiftSwitch[tableId] != Integer.MIN_VALUE) {
-				shiftList.add(EMPTY_ELEMENT);
+			if (!reduceReduceSymbols.isEmpty()) {
+				numWithReduceReduce++;
+				System.out.format("Table A%d has a reduce-reduce conflict on %s:%n", tableId, toString(reduceReduceSymbols));
+				for (Production p : reduces) {
+					if (!Collections.disjoint(lookahead.get(p), reduceReduceSymbols)) {
+						System.out.format("\t%s%n", p.toString(SYMBOLS.inverse()));
+					}
+				}
 			}
 
-			if (gotoSwitch[tableId] != Integer.MIN_VALUE) {
-				gotoList.add(EMPTY_ELEMENT);
+			shiftRows[tableId] = Ints.toArray(shiftRow);
+			reduceRows[tableId] = new int[reduceRow.size()<<1];
+			int i = 0;
+			for (Map.Entry<Integer, Integer> entry : reduceRow.entrySet()) {
+				reduceRows[tableId][i++] = entry.getKey();
+				reduceRows[tableId][i++] = entry.getValue();
 			}
-		}
 
-		int[][] _shift = new int[shiftList.size()][2];
-		for (int i = 0; i < _shift.length; i++) {
-			_shift[i][SLRTables.SYM] = shiftList.get(i)[SLRTables.SYM];
-			_shift[i][SLRTables.NXT] = shiftList.get(i)[SLRTables.NXT];
+			gotoRows[tableId] = Ints.toArray(gotoRow);
+			conflictRows[tableId] = new int[conflictRow.size()<<1];
+			i = 0;
+			for (Map.Entry<Integer, SortedSet<Integer>> entry : conflictRow.entrySet()) {
+				conflictRows[tableId][i++] = entry.getKey();
+				conflictRows[tableId][i++] = conflictStart.size();
+				conflictStart.add(conflictReductions.size());
+				conflictReductions.addAll(entry.getValue());
+			}
 		}
 
-		int[][] _goto = new int[gotoList.size()][2];
-		for (int i = 0; i < _goto.length; i++) {
-			_goto[i][SLRTables.SYM] = gotoList.get(i)[SLRTables.SYM];
-			_goto[i][SLRTables.NXT] = gotoList.get(i)[SLRTables.NXT];
-		}
+		conflictStart.add(conflictReductions.size());
 
 		Production p;
 		int numProduction = PRODUCTIONS.size();
@@ -403,14 +1033,155 @@ public class SLRParserGenerator extends AbstractParserGenerator {
 			_rhs[i] = p.size();
 		}
 
-		return SLRTables.build(
-			new SLRTables.ShiftTable(shiftSwitch, _shift),
-			new SLRTables.ReduceTable(_reduce),
-			new SLRTables.GotoTable(gotoSwitch, _goto),
-			new SLRTables.ProductionTable(_lhs, _rhs),
+		int numReductions = 0;
+		int[] _reductionStart = new int[numProduction+1];
+		for (int i = 0; i < numProduction; i++) {
+			_reductionStart[i] = numReductions;
+			numReductions += REDUCTIONS[i].length;
+		}
+
+		_reductionStart[numProduction] = numReductions;
+		int[] _reductions = new int[numReductions];
+		for (int i = 0; i < numProduction; i++) {
+			System.arraycopy(REDUCTIONS[i], 0, _reductions, _reductionStart[i], REDUCTIONS[i].length);
+		}
+
+		int numOriginalProduction = ORIGINAL_PRODUCTIONS.size();
+		int[] _originalLHS = new int[numOriginalProduction];
+		int[] _originalRHS = new int[numOriginalProduction];
+		for (int i = 0; i < numOriginalProduction; i++) {
+			p = ORIGINAL_PRODUCTIONS.get(i);
+			_originalLHS[i] = p.getNonterminal();
+			_originalRHS[i] = p.size();
+		}
+
+		SLRTables.ProductionTable productionTable = new SLRTables.ProductionTable(_lhs, _rhs, _reductionStart, _reductions, _originalLHS, _originalRHS);
+		int[] _conflictStart = Ints.toArray(conflictStart);
+		int[] _conflictReductions = Ints.toArray(conflictReductions);
+		SLRTables.TerminalTable terminalTable = createTerminalTable();
+
+		CompressedTable[] packed = new CompressedTable[] {
+			CompressedTable.pack(shiftRows),
+			CompressedTable.pack(reduceRows),
+			CompressedTable.pack(gotoRows),
+			CompressedTable.pack(conflictRows)
+		};
+
+		SLRTables slrTables = SLRTables.build(
+			packed[0],
+			packed[1],
+			packed[2],
+			productionTable,
+			new SLRTables.ConflictTable(packed[3], _conflictStart, _conflictReductions),
+			terminalTable,
 			numWithShiftReduce,
 			numWithReduceReduce
 		);
+
+		int numSharedRows = 0;
+		int numSharedSlots = 0;
+		for (CompressedTable table : packed) {
+			numSharedRows += table.getNumSharedRows();
+			numSharedSlots += table.getNumSharedSlots();
+		}
+
+		// each slot a shared row would have occupied costs a check and a next
+		System.out.format("Tables packed into %d bytes (%d bytes without sharing identical rows); %d rows shared%n",
+			slrTables.getNumBytes(),
+			slrTables.getNumBytes()+2*numSharedSlots*(Integer.SIZE/Byte.SIZE),
+			numSharedRows
+		);
+
+		return slrTables;
+	}
+
+	/**
+	 * Creates the table of terminals which the generated tables are stored
+	 * with, so that parsers do not depend upon the terminals of any
+	 * particular lexer.
+	 *
+	 * @return the terminal table
+	 */
+	private SLRTables.TerminalTable createTerminalTable() {
+		List<Integer> sync = new ArrayList<>();
+		Integer terminal;
+		for (String spelling : SYNC_TERMINALS) {
+			terminal = SYMBOLS.get(spelling);
+			if (terminal == null) {
+				continue;
+			}
+
+			if (EXTRA_TERMINALS_OFFSET <= terminal) {
+				terminal -= EXTRA_TERMINALS_OFFSET;
+			}
+
+			if (terminal < getNumTerminals() && !sync.contains(terminal)) {
+				sync.add(terminal);
+			}
+		}
+
+		return new SLRTables.TerminalTable(EOF, ERROR, Ints.toArray(sync), getTerminalNames());
+	}
+
+	/**
+	 * Records a production which lost a conflict on a given symbol.
+	 *
+	 * @param conflictRow productions which lost a conflict within a table,
+	 *	keyed by symbol
+	 * @param symbol symbol of the conflict
+	 * @param production production which lost the conflict
+	 */
+	private static void addConflict(Map<Integer, SortedSet<Integer>> conflictRow, int symbol, int production) {
+		SortedSet<Integer> productions = conflictRow.get(symbol);
+		if (productions == null) {
+			productions = new TreeSet<>();
+			conflictRow.put(symbol, productions);
+		}
+
+		productions.add(production);
+	}
+
+	/**
+	 * Returns the names of the given symbols.
+	 *
+	 * @param symbols symbols to name
+	 * @return names of those symbols, separated by spaces
+	 */
+	private String toString(Set<Integer> symbols) {
+		StringBuilder sb = new StringBuilder();
+		for (int symbol : symbols) {
+			if (0 < sb.length()) {
+				sb.append(' ');
+			}
+
+			sb.append(getSymbolName(symbol));
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Releases everything this SLRParserGenerator generated its
+	 * {@link SLRTables} from, which is only needed to generate tables and
+	 * to {@link #outputTables() output} them, so that it can be garbage
+	 * collected while the generated tables are still in use. This includes
+	 * the {@link Table}s and their closures, the closure of every
+	 * nonterminal, the {@link #FIRST} and {@link #FOLLOW} sets and the
+	 * interned Production of every item. Only the symbols of the CFG are
+	 * kept, so that they can still be named, but neither the tables nor the
+	 * CFG can be output once they have been released.
+	 */
+	public void release() {
+		for (Table t : TABLES.values()) {
+			t.release();
+		}
+
+		TABLES.clear();
+		Arrays.fill(CLOSURE_MASKS, null);
+		Arrays.fill(FIRST, null);
+		Arrays.fill(FOLLOW, null);
+		ITEMS.release();
+		isReleased = true;
 	}
 
 	/**
@@ -421,4 +1192,88 @@ public class SLRParserGenerator extends AbstractParserGenerator {
 	public SLRTables getGeneratedTables() {
 		return SLR_TABLES;
 	}
+
+	/**
+	 * This class represents the initial items of every successor of a table
+	 * with a set of initial items.
+	 */
+	private static final class Closure {
+		/**
+		 * Symbol of each successor.
+		 */
+		final int[] SYMBOLS;
+
+		/**
+		 * Initial items of each successor.
+		 */
+		final ItemSet[] SUCCESSORS;
+
+		/**
+		 * Constructs a Closure with the given arguments.
+		 *
+		 * @param symbols symbol of each successor
+		 * @param successors initial items of each successor
+		 */
+		Closure(int[] symbols, ItemSet[] successors) {
+			this.SYMBOLS = symbols;
+			this.SUCCESSORS = successors;
+		}
+	}
+
+	/**
+	 * This class represents a task which generates the {@link Closure} of a
+	 * set of initial items, and then the closures of each of its successors
+	 * which no other task has claimed.
+	 */
+	private final class ClosureTask extends RecursiveAction {
+		// RecursiveAction is Serializable, but a ClosureTask is never serialized
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Closures generated so far, keyed by their initial items.
+		 */
+		private final ConcurrentMap<ItemSet, Closure> CLOSURES;
+
+		/**
+		 * Initial items which a task has been created for.
+		 */
+		private final Set<ItemSet> CLAIMED;
+
+		/**
+		 * Initial items to generate the closure of.
+		 */
+		private final ItemSet ITEM_SET;
+
+		/**
+		 * Constructs a ClosureTask for initial items which have already been
+		 * claimed by the caller.
+		 *
+		 * @param closures closures generated so far
+		 * @param claimed initial items which a task has been created for
+		 * @param items initial items to generate the closure of
+		 */
+		ClosureTask(ConcurrentMap<ItemSet, Closure> closures, Set<ItemSet> claimed, ItemSet items) {
+			this.CLOSURES = closures;
+			this.CLAIMED = claimed;
+			this.ITEM_SET = items;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void compute() {
+			Closure closure = generateClosure(ITEM_SET);
+			CLOSURES.put(ITEM_SET, closure);
+
+			List<ClosureTask> tasks = new ArrayList<>();
+			for (ItemSet successor : closure.SUCCESSORS) {
+				if (CLAIMED.add(successor)) {
+					tasks.add(new ClosureTask(CLOSURES, CLAIMED, successor));
+				}
+			}
+
+			invokeAll(tasks);
+		}
+	}
 }
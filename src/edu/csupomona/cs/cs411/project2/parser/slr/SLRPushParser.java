@@ -0,0 +1,240 @@
+package edu.csupomona.cs.cs411.project2.parser.slr;
+
+import com.google.common.base.Preconditions;
+import edu.csupomona.cs.cs411.project1.lexer.Token;
+import edu.csupomona.cs.cs411.project2.parser.ParseListener;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * This class represents a push-style parser which is handed tokens one at a
+ * time (or in batches) as they become available, rather than pulling them from
+ * a TokenStream. Every token is fully processed before a push returns, so the
+ * entire state of a suspended parse is its stack of tables, which is kept in a
+ * small growable array. A single thread can therefore interleave many
+ * concurrent partial parses, each holding only one SLRPushParser.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public class SLRPushParser {
+	/**
+	 * Initial capacity of the stack of every SLRPushParser.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Symbol id of the token which ends the input.
+	 */
+	private final int EOF;
+
+	/**
+	 * This enum represents the result of pushing input into a parser.
+	 */
+	public enum Status {
+		/**
+		 * The input so far is a valid prefix and more tokens are required.
+		 */
+		NEED_MORE,
+
+		/**
+		 * The input has been accepted.
+		 */
+		ACCEPT,
+
+		/**
+		 * The input has been rejected.
+		 */
+		REJECT
+	}
+
+	/**
+	 * This field represents the tables that this parser uses.
+	 */
+	private final SLRTables SLR_TABLES;
+
+	/**
+	 * Stack of tables visited by this parser.
+	 */
+	private int[] stack;
+
+	/**
+	 * Index of the top of {@link #stack}.
+	 */
+	private int top;
+
+	/**
+	 * Index of the next token to be pushed.
+	 */
+	private int tokenIndex;
+
+	/**
+	 * Status of this parser after the last token pushed.
+	 */
+	private Status status;
+
+	/**
+	 * Constructs an SLRPushParser which will use the given tables to shift,
+	 * reduce and goto.
+	 *
+	 * @param tables tables containing the action information of this parser
+	 */
+	public SLRPushParser(SLRTables tables) {
+		this.SLR_TABLES = Preconditions.checkNotNull(tables);
+		this.EOF = SLR_TABLES.getEOF();
+		this.stack = new int[INITIAL_CAPACITY];
+		reset();
+	}
+
+	/**
+	 * Resets this parser so that it can begin parsing new input.
+	 */
+	public final void reset() {
+		top = 0;
+		stack[top] = 0;
+		tokenIndex = 0;
+		status = Status.NEED_MORE;
+	}
+
+	/**
+	 * Pushes the next token into this parser.
+	 *
+	 * @param t next token, or {@code null} if the input ended without an
+	 *	end of file token
+	 * @return status of this parser after processing the token
+	 */
+	public final Status push(Token t) {
+		return push(SLR_TABLES.getTokenId(t));
+	}
+
+	/**
+	 * Pushes the next token into this parser.
+	 *
+	 * @param symbol symbol id of the next token
+	 * @return status of this parser after processing the token
+	 */
+	public final Status push(int symbol) {
+		try {
+			return push(symbol, null);
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * Pushes a batch of tokens into this parser, stopping early if the input
+	 * is accepted or rejected.
+	 *
+	 * @param symbols array containing the symbol ids of the tokens
+	 * @param offset index within {@code symbols} of the first token
+	 * @param length number of tokens to push
+	 * @return status of this parser after processing the tokens
+	 */
+	public final Status push(int[] symbols, int offset, int length) {
+		Preconditions.checkPositionIndexes(offset, offset+length, symbols.length);
+		for (int i = offset; i < offset+length && status == Status.NEED_MORE; i++) {
+			push(symbols[i]);
+		}
+
+		return status;
+	}
+
+	/**
+	 * Pushes the next token into this parser and reports every action taken
+	 * to the given ParseListener.
+	 *
+	 * @param symbol symbol id of the next token
+	 * @param listener ParseListener to report actions to, or {@code null}
+	 * @return status of this parser after processing the token
+	 * @throws IOException if the listener fails to write its output
+	 */
+	public final Status push(int symbol, ParseListener listener) throws IOException {
+		if (status != Status.NEED_MORE) {
+			return status;
+		}
+
+		int state = stack[top];
+		int shift;
+		int production;
+		while (true) {
+			shift = SLR_TABLES.shift(state, symbol);
+			if (shift != Integer.MIN_VALUE) {
+				if (listener != null) {
+					listener.shift(state, symbol, tokenIndex);
+				}
+
+				push0(shift);
+				tokenIndex++;
+				return status;
+			}
+
+			production = SLR_TABLES.reduce(state, symbol);
+			if (production == Integer.MIN_VALUE) {
+				status = Status.REJECT;
+				if (listener != null) {
+					listener.reject(state, symbol, tokenIndex);
+				}
+
+				return status;
+			} else if (production == 0 && symbol == EOF) {
+				status = Status.ACCEPT;
+				if (listener != null) {
+					listener.accept(symbol, tokenIndex);
+				}
+
+				return status;
+			}
+
+			if (listener != null) {
+				for (int i = 0; i < SLR_TABLES.getNumReductions(production); i++) {
+					listener.reduce(state, SLR_TABLES.getReduction(production, i), SLR_TABLES.getReductionOffset(production, i), symbol, tokenIndex);
+				}
+			}
+
+			top -= SLR_TABLES.getRHSSize(production);
+			state = SLR_TABLES.move(stack[top], SLR_TABLES.getNonterminalId(production));
+			push0(state);
+		}
+	}
+
+	/**
+	 * Pushes a table onto the stack, growing the stack if necessary.
+	 *
+	 * @param state table to push
+	 */
+	private void push0(int state) {
+		if (++top == stack.length) {
+			stack = Arrays.copyOf(stack, stack.length<<1);
+		}
+
+		stack[top] = state;
+	}
+
+	/**
+	 * Returns the status of this parser after the last token pushed.
+	 *
+	 * @return status of this parser
+	 */
+	public final Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Returns the table on top of the stack of this parser. When the input
+	 * has been rejected, this is the table which had no action for the last
+	 * token pushed.
+	 *
+	 * @return table on top of the stack
+	 */
+	public final int getState() {
+		return stack[top];
+	}
+
+	/**
+	 * Returns the number of tokens shifted by this parser so far.
+	 *
+	 * @return index of the next token to be pushed
+	 */
+	public final int getTokenIndex() {
+		return tokenIndex;
+	}
+}
@@ -1,53 +1,81 @@
 package edu.csupomona.cs.cs411.project2.parser.slr;
 
 import edu.csupomona.cs.cs411.project1.lexer.Token;
+import edu.csupomona.cs.cs411.project2.parser.GrammarOptimizer;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class represents a compact, serializable set of arrays which store
  * information that can be used by an {@link SLRParser}.
+ * <p>
+ * SLRTables also store the terminals they were generated for (the end of file
+ * terminal, the {@code error} terminal, the terminals which error recovery
+ * synchronizes on and the name of every terminal), so that a parser does not
+ * depend upon the terminals of any particular lexer.
+ * <p>
+ * SLRTables can be {@link #write(Path) written} to a {@link TableFile} and
+ * {@link #load(Path) loaded} from one without generating them again.
+ * Serializing an SLRTables serializes the contents of its table file.
  *
  * @author Collin Smith <collinsmith@csupomona.edu>
  */
 public final class SLRTables implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	/**
-	 * Index within the second dimension of the shift and reduce arrays where
-	 * the symbols are stored.
+	 * Offset within each {@code {symbol, next}} pair of a shift, reduce or goto row
+	 * where the symbol is stored.
 	 */
 	public static final int SYM = 0;
 
 	/**
-	 * Index within the second dimension of the shift and reduce arrays where
-	 * the next elements are stored.
+	 * Offset within each {@code {symbol, next}} pair of a shift, reduce or goto row
+	 * where the next table is stored.
 	 */
 	public static final int NXT = 1;
 
 	/**
-	 * Goto tables for this object
+	 * Goto tables for this object, indexed by table and nonterminal
 	 */
-	private final GotoTable GOTO;
+	private final CompressedTable GOTO;
 
 	/**
-	 * Shift tables for this object
+	 * Shift tables for this object, indexed by table and terminal
 	 */
-	private final ShiftTable SHIFT;
+	private final CompressedTable SHIFT;
 
 	/**
-	 * Reduce tables for this object
+	 * Reduce tables for this object, indexed by table and terminal
 	 */
-	private final ReduceTable REDUCE;
+	private final CompressedTable REDUCE;
 
 	/**
 	 * Production tables for this object
 	 */
 	private final ProductionTable PRODUCTION;
 
+	/**
+	 * Conflict tables for this object, which keep the reductions that lost
+	 * a conflict
+	 */
+	private final ConflictTable CONFLICT;
+
+	/**
+	 * Terminal table for this object
+	 */
+	private final TerminalTable TERMINAL;
+
 	/**
 	 * This field represents the number of shift-reduce conflicts detected
 	 * while generating the SLRTables. This is mainly stored so that this
@@ -69,11 +97,13 @@ public final class SLRTables implements Serializable {
 	 * @param reduce reduce tables
 	 * @param _goto goto tables
 	 * @param production production tables
+	 * @param conflict conflict tables
+	 * @param terminal terminal table
 	 * @param numShiftReduceConflicts number of shift-reduce conflicts
 	 * @param numReduceReduceConflicts number of reduce-reduce conflicts
 	 */
-	private SLRTables(ShiftTable _shift, ReduceTable reduce, GotoTable _goto, ProductionTable production, int numShiftReduceConflicts, int numReduceReduceConflicts) {
-		if (_shift.SWITCH.length != reduce.REDUCE.length || reduce.REDUCE.length != _goto.SWITCH.length) {
+	private SLRTables(CompressedTable _shift, CompressedTable reduce, CompressedTable _goto, ProductionTable production, ConflictTable conflict, TerminalTable terminal, int numShiftReduceConflicts, int numReduceReduceConflicts) {
+		if (_shift.getNumRows() != reduce.getNumRows() || reduce.getNumRows() != _goto.getNumRows() || reduce.getNumRows() != conflict.INDEX.getNumRows()) {
 			throw new IllegalArgumentException("Table sizes do not match!");
 		}
 
@@ -81,6 +111,8 @@ public final class SLRTables implements Serializable {
 		this.SHIFT = _shift;
 		this.REDUCE = reduce;
 		this.PRODUCTION = production;
+		this.CONFLICT = conflict;
+		this.TERMINAL = terminal;
 
 		this.NUM_SHIFT_REDUCE_CONFLICTS = numShiftReduceConflicts;
 		this.NUM_REDUCE_REDUCE_CONFLICTS = numReduceReduceConflicts;
@@ -93,12 +125,14 @@ public final class SLRTables implements Serializable {
 	 * @param reduce reduce tables
 	 * @param _goto goto tables
 	 * @param production production tables
+	 * @param conflict conflict tables
+	 * @param terminal terminal table
 	 * @param numShiftReduceConflicts number of shift-reduce conflicts
 	 * @param numReduceReduceConflicts number of reduce-reduce conflicts
 	 * @return the SLRTables generated
 	 */
-	public static SLRTables build(ShiftTable _shift, ReduceTable reduce, GotoTable _goto, ProductionTable production, int numShiftReduceConflicts, int numReduceReduceConflicts) {
-		return new SLRTables(_shift, reduce, _goto, production, numShiftReduceConflicts, numReduceReduceConflicts);
+	public static SLRTables build(CompressedTable _shift, CompressedTable reduce, CompressedTable _goto, ProductionTable production, ConflictTable conflict, TerminalTable terminal, int numShiftReduceConflicts, int numReduceReduceConflicts) {
+		return new SLRTables(_shift, reduce, _goto, production, conflict, terminal, numShiftReduceConflicts, numReduceReduceConflicts);
 	}
 
 	/**
@@ -110,27 +144,61 @@ public final class SLRTables implements Serializable {
 	 *	none exists
 	 */
 	public int shift(int table, int symbol) {
-		int id = SHIFT.SWITCH[table];
-		if (id == Integer.MIN_VALUE) {
-			return Integer.MIN_VALUE;
-		}
-
-		int cache;
-		while ((cache = SHIFT.SHIFT[id][SYM]) != Integer.MIN_VALUE && cache != symbol) {
-			id++;
-		}
+		return SHIFT.get(table, symbol);
+	}
 
-		return cache == symbol ? SHIFT.SHIFT[id][NXT] : Integer.MIN_VALUE;
+	/**
+	 * Returns the production which the specified state should reduce when
+	 * the lookahead token is a given terminal. Reductions are only made on
+	 * the terminals which can follow them, so a state has no reduction on a
+	 * terminal which cannot be parsed.
+	 *
+	 * @param table state of the parser
+	 * @param symbol symbol of the lookahead token
+	 * @return production to reduce or {@link Integer#MIN_VALUE} if none
+	 *	exists
+	 */
+	public int reduce(int table, int symbol) {
+		return REDUCE.get(table, symbol);
 	}
 
 	/**
-	 * Returns the table which the specified state should reduce to.
+	 * Returns the conflict of a given state on a given terminal, i.e., the
+	 * reductions which could also be made there but lost to the
+	 * {@link #shift(int, int) shift} or {@link #reduce(int, int) reduction}
+	 * chosen when the conflict was resolved. Only a
+	 * {@link edu.csupomona.cs.cs411.project2.parser.glr.GLRParser} makes
+	 * these reductions.
 	 *
 	 * @param table state of the parser
-	 * @return table to reduce to or {@link Integer#MIN_VALUE} if none exists
+	 * @param symbol symbol of the lookahead token
+	 * @return conflict of that state on that terminal or
+	 *	{@link Integer#MIN_VALUE} if none exists
 	 */
-	public int reduce(int table) {
-		return REDUCE.REDUCE[table];
+	public int conflict(int table, int symbol) {
+		return CONFLICT.INDEX.get(table, symbol);
+	}
+
+	/**
+	 * Returns the number of reductions which lost a given conflict.
+	 *
+	 * @param conflict conflict to check
+	 * @return number of reductions which lost that conflict
+	 */
+	public int getNumConflictingReductions(int conflict) {
+		return CONFLICT.START[conflict+1]-CONFLICT.START[conflict];
+	}
+
+	/**
+	 * Returns a production which lost a given conflict.
+	 *
+	 * @param conflict conflict to check
+	 * @param reduction index of the reduction, which must be less than
+	 *	{@link #getNumConflictingReductions(int)}
+	 * @return production which lost that conflict
+	 */
+	public int getConflictingReduction(int conflict, int reduction) {
+		return CONFLICT.REDUCTIONS[CONFLICT.START[conflict]+reduction];
 	}
 
 	/**
@@ -142,17 +210,7 @@ public final class SLRTables implements Serializable {
 	 *	none exists
 	 */
 	public int move(int table, int symbol) {
-		int id = GOTO.SWITCH[table];
-		if (id == Integer.MIN_VALUE) {
-			return Integer.MIN_VALUE;
-		}
-
-		int cache;
-		while ((cache = GOTO.GOTO[id][SYM]) != Integer.MIN_VALUE && cache != symbol) {
-			id++;
-		}
-
-		return cache == symbol ? GOTO.GOTO[id][NXT] : Integer.MIN_VALUE;
+		return GOTO.get(table, symbol);
 	}
 
 	/**
@@ -176,6 +234,191 @@ public final class SLRTables implements Serializable {
 		return PRODUCTION.RHS[production];
 	}
 
+	/**
+	 * Returns the number of original reductions a given production id stands
+	 * for. This is always {@code 1} unless the CFG was optimized.
+	 *
+	 * @param production production to check
+	 * @return number of original productions reduced by the production
+	 */
+	public int getNumReductions(int production) {
+		return (PRODUCTION.REDUCTION_START[production+1]-PRODUCTION.REDUCTION_START[production])>>1;
+	}
+
+	/**
+	 * Returns the original production id of a reduction made when reducing
+	 * a given production id. The reductions are made in order, and reducing
+	 * each consumes the {@link #getOriginalRHSSize(int) rhs} of its original
+	 * production beneath {@link #getReductionOffset(int, int) offset} symbols
+	 * and replaces them with its nonterminal.
+	 *
+	 * @param production production to check
+	 * @param reduction index of the reduction, which must be less than
+	 *	{@link #getNumReductions(int)}
+	 * @return original production id reduced
+	 */
+	public int getReduction(int production, int reduction) {
+		return PRODUCTION.REDUCTIONS[PRODUCTION.REDUCTION_START[production]+(reduction<<1)+GrammarOptimizer.PRD];
+	}
+
+	/**
+	 * Returns the number of symbols above the rhs of an original reduction
+	 * made when reducing a given production id.
+	 *
+	 * @param production production to check
+	 * @param reduction index of the reduction, which must be less than
+	 *	{@link #getNumReductions(int)}
+	 * @return number of symbols above the rhs of the original production
+	 */
+	public int getReductionOffset(int production, int reduction) {
+		return PRODUCTION.REDUCTIONS[PRODUCTION.REDUCTION_START[production]+(reduction<<1)+GrammarOptimizer.OFF];
+	}
+
+	/**
+	 * Returns the nonterminal identifier associated with a given original
+	 * production id.
+	 *
+	 * @param production original production to check
+	 * @return identifier for the left-hand side nonterminal
+	 */
+	public int getOriginalNonterminalId(int production) {
+		return PRODUCTION.ORIGINAL_LHS[production];
+	}
+
+	/**
+	 * Returns the number of symbols generated by a given original production
+	 * id.
+	 *
+	 * @param production original production to check
+	 * @return number of symbols the original production generates
+	 */
+	public int getOriginalRHSSize(int production) {
+		return PRODUCTION.ORIGINAL_RHS[production];
+	}
+
+	/**
+	 * Returns the number of terminals within these SLRTables, including the
+	 * {@code error} terminal if the CFG used it.
+	 *
+	 * @return number of terminals
+	 */
+	public int getNumTerminals() {
+		return TERMINAL.NAMES.length;
+	}
+
+	/**
+	 * Returns the name of a given terminal, as it was written within the
+	 * CFG.
+	 *
+	 * @param terminal terminal to check
+	 * @return name of the terminal
+	 */
+	public String getTerminalName(int terminal) {
+		return TERMINAL.NAMES[terminal];
+	}
+
+	/**
+	 * Returns the names of every terminal, indexed by terminal id.
+	 *
+	 * @return a copy of the names of every terminal
+	 */
+	public String[] getTerminalNames() {
+		return TERMINAL.NAMES.clone();
+	}
+
+	/**
+	 * Returns the identifier of the terminal which ends the input.
+	 *
+	 * @return identifier of the end of file terminal
+	 */
+	public int getEOF() {
+		return TERMINAL.EOF;
+	}
+
+	/**
+	 * Returns the identifier of the terminal used within error productions.
+	 *
+	 * @return identifier of the {@code error} terminal, or
+	 *	{@link Integer#MIN_VALUE} if the CFG has no error productions
+	 */
+	public int getError() {
+		return TERMINAL.ERROR;
+	}
+
+	/**
+	 * Returns the number of terminals which error recovery synchronizes on.
+	 *
+	 * @return number of synchronizing terminals
+	 */
+	public int getNumSyncTerminals() {
+		return TERMINAL.SYNC.length;
+	}
+
+	/**
+	 * Returns a terminal which error recovery synchronizes on.
+	 *
+	 * @param sync index of the synchronizing terminal, which must be less
+	 *	than {@link #getNumSyncTerminals()}
+	 * @return identifier of the synchronizing terminal
+	 */
+	public int getSyncTerminal(int sync) {
+		return TERMINAL.SYNC[sync];
+	}
+
+	/**
+	 * Returns the number of tables (states) within these SLRTables.
+	 *
+	 * @return number of tables
+	 */
+	public int getNumTables() {
+		return REDUCE.getNumRows();
+	}
+
+	/**
+	 * Returns the number of productions within these SLRTables.
+	 *
+	 * @return number of productions
+	 */
+	public int getNumProductions() {
+		return PRODUCTION.LHS.length;
+	}
+
+	/**
+	 * Returns the number of tables with a shift-reduce conflict which were
+	 * resolved when generating these SLRTables.
+	 *
+	 * @return number of shift-reduce conflicts
+	 */
+	public int getNumShiftReduceConflicts() {
+		return NUM_SHIFT_REDUCE_CONFLICTS;
+	}
+
+	/**
+	 * Returns the number of tables with a reduce-reduce conflict which were
+	 * resolved when generating these SLRTables.
+	 *
+	 * @return number of reduce-reduce conflicts
+	 */
+	public int getNumReduceReduceConflicts() {
+		return NUM_REDUCE_REDUCE_CONFLICTS;
+	}
+
+	/**
+	 * Returns the number of bytes used by the arrays of these SLRTables.
+	 *
+	 * @return number of bytes used
+	 */
+	public int getNumBytes() {
+		int numInts = PRODUCTION.LHS.length+PRODUCTION.RHS.length+PRODUCTION.REDUCTION_START.length+PRODUCTION.REDUCTIONS.length;
+		if (PRODUCTION.ORIGINAL_LHS != PRODUCTION.LHS) {
+			numInts += PRODUCTION.ORIGINAL_LHS.length+PRODUCTION.ORIGINAL_RHS.length;
+		}
+
+		numInts += CONFLICT.START.length+CONFLICT.REDUCTIONS.length;
+		numInts += TERMINAL.SYNC.length;
+		return SHIFT.getNumBytes()+REDUCE.getNumBytes()+GOTO.getNumBytes()+CONFLICT.INDEX.getNumBytes()+numInts*(Integer.SIZE/Byte.SIZE);
+	}
+
 	/**
 	 * Returns the identifier associated with a given {@link Token}
 	 *
@@ -199,28 +442,27 @@ public final class SLRTables implements Serializable {
 	public void outputTableInfo() {
 		Charset charset = Charset.forName("US-ASCII");
 		try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(".", "output", "toy.slrtables.txt"), charset, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
-			writer.append(String.format("%-8s: switch = %d%n", "Shift", SHIFT.SWITCH.length));
-			writer.append(String.format("%8s  shift = %d%n", "", SHIFT.SHIFT.length));
-			writer.append(String.format("%-8s: reduce = %d%n", "Reduce", REDUCE.REDUCE.length));
-			writer.append(String.format("%-8s: switch = %d%n", "Goto", GOTO.SWITCH.length));
-			writer.append(String.format("%8s  goto = %d%n", "", GOTO.GOTO.length));
+			writer.append(String.format("%-8s: base = %d%n", "Shift", SHIFT.getNumRows()));
+			writer.append(String.format("%8s  check/next = %d%n", "", SHIFT.getNumSlots()));
+			writer.append(String.format("%-8s: base = %d%n", "Reduce", REDUCE.getNumRows()));
+			writer.append(String.format("%8s  check/next = %d%n", "", REDUCE.getNumSlots()));
+			writer.append(String.format("%-8s: base = %d%n", "Goto", GOTO.getNumRows()));
+			writer.append(String.format("%8s  check/next = %d%n", "", GOTO.getNumSlots()));
 			writer.append(String.format("%n%n"));
 
-			writer.append(String.format("%d tables%n", SHIFT.SWITCH.length));
+			writer.append(String.format("%d tables%n", REDUCE.getNumRows()));
 			writer.append(String.format("%d shift-reduce conflicts%n", NUM_SHIFT_REDUCE_CONFLICTS));
 			writer.append(String.format("%d reduce-reduce conflicts%n", NUM_REDUCE_REDUCE_CONFLICTS));
 			writer.append(String.format("%n%n"));
 
-			writer.append(String.format("%-30s|%-12s|%-30s%n", "SHIFT", "REDUCE", "GOTO"));
-			writer.append(String.format("%-6s%-6s%-6s%-6s%-6s|%-6s%-6s|%-6s%-6s%-6s%-6s%-6s%n", "", "switch", "", "symbol", "next", "", "reduce", "", "switch", "", "symbol", "next"));
+			writer.append(String.format("%-12s|%-12s|%-12s%n", "SHIFT", "REDUCE", "GOTO"));
+			writer.append(String.format("%-6s%-6s|%-6s%-6s|%-6s%-6s%n", "", "base", "", "base", "", "base"));
 
-			// TODO this will only do shift number of tables and not the entire thing
-			int i;
-			for (i = 0; i < SHIFT.SWITCH.length; i++) {
-				writer.append(String.format("%-6s%-6s%-6s%-6s%-6s|%-6s%-6s|%-6s%-6s%-6s%-6s%-6s%n",
-					String.format("A%d", i), convertValue(SHIFT.SWITCH[i]), i+1, convertValue(SHIFT.SHIFT[i+1][SYM]), convertValue(SHIFT.SHIFT[i+1][NXT]),
-					String.format("A%d", i), convertValue(REDUCE.REDUCE[i]),
-					String.format("A%d", i), convertValue(GOTO.SWITCH[i]), i+1, convertValue(GOTO.GOTO[i+1][SYM]), convertValue(GOTO.GOTO[i+1][NXT])
+			for (int i = 0; i < REDUCE.getNumRows(); i++) {
+				writer.append(String.format("%-6s%-6s|%-6s%-6s|%-6s%-6s%n",
+					String.format("A%d", i), toString(SHIFT, i),
+					String.format("A%d", i), toString(REDUCE, i),
+					String.format("A%d", i), toString(GOTO, i)
 				));
 			}
 		} catch (IOException e) {
@@ -229,120 +471,399 @@ public final class SLRTables implements Serializable {
 	}
 
 	/**
-	 * Returns the String representation of a given integer, or an empty
-	 * String if the value is {@link Integer#MIN_VALUE}.
+	 * Returns the base of a row of a CompressedTable as a String.
 	 *
-	 * @param i integer to convert
-	 * @return String representation of {code i}, or an empty String if
-	 *	{code i} is {@link Integer#MIN_VALUE}.
+	 * @param table table containing the row
+	 * @param row row to check
+	 * @return base of the row, or {@code -} if the row is empty
 	 */
-	private String convertValue(int i) {
-		if (i == Integer.MIN_VALUE) {
-			return "";
+	private static String toString(CompressedTable table, int row) {
+		int base = table.getBase(row);
+		return base == Integer.MIN_VALUE ? "-" : Integer.toString(base);
+	}
+
+	/**
+	 * Writes these SLRTables to a table file at the given path.
+	 *
+	 * @param path path to write the table file to
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(Path path) throws IOException {
+		TableFile.Builder builder = new TableFile.Builder(TableFile.SLR);
+		write(builder);
+		builder.write(path);
+	}
+
+	/**
+	 * Appends the arrays of these SLRTables to a table file.
+	 *
+	 * @param builder builder of the table file
+	 */
+	public void write(TableFile.Builder builder) {
+		SHIFT.write(builder);
+		REDUCE.write(builder);
+		GOTO.write(builder);
+		builder.putInts(PRODUCTION.LHS);
+		builder.putInts(PRODUCTION.RHS);
+		builder.putInts(PRODUCTION.REDUCTION_START);
+		builder.putInts(PRODUCTION.REDUCTIONS);
+		builder.putInts(PRODUCTION.ORIGINAL_LHS);
+		builder.putInts(PRODUCTION.ORIGINAL_RHS);
+		CONFLICT.INDEX.write(builder);
+		builder.putInts(CONFLICT.START);
+		builder.putInts(CONFLICT.REDUCTIONS);
+		builder.putInt(TERMINAL.EOF);
+		builder.putInt(TERMINAL.ERROR);
+		builder.putInts(TERMINAL.SYNC);
+		builder.putInt(TERMINAL.NAMES.length);
+		for (String name : TERMINAL.NAMES) {
+			builder.putString(name);
+		}
+
+		builder.putInt(NUM_SHIFT_REDUCE_CONFLICTS);
+		builder.putInt(NUM_REDUCE_REDUCE_CONFLICTS);
+	}
+
+	/**
+	 * Loads SLRTables from the table file at the given path, which is mapped
+	 * into memory rather than read through a stream.
+	 *
+	 * @param path path of the table file
+	 * @return the SLRTables loaded
+	 * @throws IOException if the file cannot be read, or does not contain
+	 *	SLRTables
+	 */
+	public static SLRTables load(Path path) throws IOException {
+		TableFile file = TableFile.map(path, TableFile.SLR);
+		SLRTables tables = read(file);
+		if (!file.isFinished()) {
+			throw new IOException("Table file is malformed!");
 		}
 
-		return Integer.toString(i);
+		return tables;
+	}
+
+	/**
+	 * Reads SLRTables which were {@link #write(TableFile.Builder) written}
+	 * to a table file.
+	 *
+	 * @param file table file to read from
+	 * @return the SLRTables read
+	 * @throws IOException if the table file does not contain SLRTables
+	 */
+	public static SLRTables read(TableFile file) throws IOException {
+		CompressedTable _shift = CompressedTable.read(file);
+		CompressedTable reduce = CompressedTable.read(file);
+		CompressedTable _goto = CompressedTable.read(file);
+		int[] lhs = file.nextInts();
+		int[] rhs = file.nextInts();
+		int[] reductionStart = file.nextInts();
+		int[] reductions = file.nextInts();
+		int[] originalLHS = file.nextInts();
+		int[] originalRHS = file.nextInts();
+		CompressedTable conflictIndex = CompressedTable.read(file);
+		int[] conflictStart = file.nextInts();
+		int[] conflictReductions = file.nextInts();
+		int eof = file.nextInt();
+		int error = file.nextInt();
+		int[] sync = file.nextInts();
+		int numTerminals = file.nextInt();
+		if (numTerminals < 0) {
+			throw new IOException("Table file is malformed!");
+		}
+
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < numTerminals; i++) {
+			names.add(file.nextString());
+		}
+
+		int numShiftReduceConflicts = file.nextInt();
+		int numReduceReduceConflicts = file.nextInt();
+		try {
+			return new SLRTables(_shift, reduce, _goto, new ProductionTable(lhs, rhs, reductionStart, reductions, originalLHS, originalRHS), new ConflictTable(conflictIndex, conflictStart, conflictReductions), new TerminalTable(eof, error, sync, names.toArray(new String[names.size()])), numShiftReduceConflicts, numReduceReduceConflicts);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Replaces these SLRTables with a {@link SerializationProxy} when they
+	 * are serialized, since the tables they contain are not serializable.
+	 *
+	 * @return proxy to serialize instead
+	 */
+	private Object writeReplace() {
+		return new SerializationProxy(this);
+	}
+
+	/**
+	 * Prevents SLRTables from being deserialized without a
+	 * {@link SerializationProxy}.
+	 *
+	 * @param in stream being deserialized
+	 * @throws InvalidObjectException always
+	 */
+	private void readObject(ObjectInputStream in) throws InvalidObjectException {
+		throw new InvalidObjectException("Proxy required");
 	}
 
 	/**
-	 * This class encapsulates the shift tables used in a {@link SLRParser}
+	 * This class encapsulates the production tables used in a
+	 * {@link SLRParser}
 	 */
-	public static class ShiftTable {
+	public static class ProductionTable {
 		/**
-		 * Switch array which points to the starting index for a given
-		 * table within the shift array.
+		 * Stores the nonterminal id for every production id.
+		 */
+		private final int[] LHS;
+
+		/**
+		 * Stores the number of symbols on the rhs of every production id.
 		 */
-		private final int[] SWITCH;
+		private final int[] RHS;
 
 		/**
-		 * Contains a list of shift transitions associated with each table,
-		 * separated by a {@link Integer#MIN_VALUE} pair.
+		 * Stores the index within {@link #REDUCTIONS} of the first original
+		 * reduction of every production id, followed by the length of
+		 * {@link #REDUCTIONS}.
 		 */
-		private final int[][] SHIFT;
+		private final int[] REDUCTION_START;
 
 		/**
-		 * Constructs a shift table with the specified arguments.
+		 * Stores the original reductions of every production id as
+		 * {@code {production, offset}} pairs.
+		 */
+		private final int[] REDUCTIONS;
+
+		/**
+		 * Stores the nonterminal id for every original production id.
+		 */
+		private final int[] ORIGINAL_LHS;
+
+		/**
+		 * Stores the number of symbols on the rhs of every original
+		 * production id.
+		 */
+		private final int[] ORIGINAL_RHS;
+
+		/**
+		 * Constructs a production table with the specified arguments for a
+		 * CFG which was not optimized, i.e., in which every production
+		 * reduces only itself.
 		 *
-		 * @param _switch switch array for this table
-		 * @param shift shift array for this table
+		 * @param lhs lhs array for this table
+		 * @param rhs rhs array for this table
 		 */
-		public ShiftTable(int[] _switch, int[][] shift) {
-			this.SWITCH = _switch;
-			this.SHIFT = shift;
+		public ProductionTable(int[] lhs, int[] rhs) {
+			this(lhs, rhs, identityStart(lhs.length), identityReductions(lhs.length), lhs, rhs);
+		}
+
+		/**
+		 * Constructs a production table with the specified arguments.
+		 *
+		 * @param lhs lhs array for this table
+		 * @param rhs rhs array for this table
+		 * @param reductionStart index of the first original reduction of
+		 *	every production within {@code reductions}, followed by the
+		 *	length of {@code reductions}
+		 * @param reductions original reductions of every production as
+		 *	{@code {production, offset}} pairs
+		 * @param originalLHS lhs array of the original productions
+		 * @param originalRHS rhs array of the original productions
+		 */
+		public ProductionTable(int[] lhs, int[] rhs, int[] reductionStart, int[] reductions, int[] originalLHS, int[] originalRHS) {
+			if (lhs.length != rhs.length || reductionStart.length != lhs.length+1 || originalLHS.length != originalRHS.length) {
+				throw new IllegalArgumentException("Table sizes do not match!");
+			}
+
+			this.LHS = lhs;
+			this.RHS = rhs;
+			this.REDUCTION_START = reductionStart;
+			this.REDUCTIONS = reductions;
+			this.ORIGINAL_LHS = originalLHS;
+			this.ORIGINAL_RHS = originalRHS;
+		}
+
+		/**
+		 * Returns the start of the reductions of every production within
+		 * identity reductions.
+		 *
+		 * @param numProductions number of productions
+		 * @return index of the first reduction of every production
+		 */
+		private static int[] identityStart(int numProductions) {
+			int[] reductionStart = new int[numProductions+1];
+			for (int i = 0; i <= numProductions; i++) {
+				reductionStart[i] = i<<1;
+			}
+
+			return reductionStart;
+		}
+
+		/**
+		 * Returns reductions in which every production reduces only itself.
+		 *
+		 * @param numProductions number of productions
+		 * @return {@code {production, offset}} pairs of every production
+		 */
+		private static int[] identityReductions(int numProductions) {
+			int[] reductions = new int[numProductions<<1];
+			for (int i = 0; i < numProductions; i++) {
+				reductions[(i<<1)+GrammarOptimizer.PRD] = i;
+				reductions[(i<<1)+GrammarOptimizer.OFF] = 0;
+			}
+
+			return reductions;
 		}
 	}
 
 	/**
-	 * This class encapsulates the reduce tables used in a {@link SLRParser}
+	 * This class encapsulates the conflict tables used by a
+	 * {@link edu.csupomona.cs.cs411.project2.parser.glr.GLRParser}, which
+	 * keep every reduction that lost a conflict when the tables were
+	 * generated.
 	 */
-	public static class ReduceTable {
+	public static class ConflictTable {
 		/**
-		 * Array containing the reduction table ids for each table.
+		 * Stores the conflict of every table on every terminal, indexed by
+		 * table and terminal.
 		 */
-		private final int[] REDUCE;
+		private final CompressedTable INDEX;
 
 		/**
-		 * Constructs a reduce table with the specified argument.
+		 * Stores the index within {@link #REDUCTIONS} of the first reduction
+		 * of every conflict, followed by the length of {@link #REDUCTIONS}.
+		 */
+		private final int[] START;
+
+		/**
+		 * Stores the productions which lost every conflict.
+		 */
+		private final int[] REDUCTIONS;
+
+		/**
+		 * Constructs a conflict table with the specified arguments.
 		 *
-		 * @param reduce reduce array for this table
+		 * @param index conflict of every table on every terminal
+		 * @param start index of the first reduction of every conflict within
+		 *	{@code reductions}, followed by the length of
+		 *	{@code reductions}
+		 * @param reductions productions which lost every conflict
 		 */
-		public ReduceTable(int[] reduce) {
-			this.REDUCE = reduce;
+		public ConflictTable(CompressedTable index, int[] start, int[] reductions) {
+			if (start.length == 0 || start[start.length-1] != reductions.length) {
+				throw new IllegalArgumentException("Table sizes do not match!");
+			}
+
+			for (int i = 1; i < start.length; i++) {
+				if (start[i] < start[i-1]) {
+					throw new IllegalArgumentException("Table sizes do not match!");
+				}
+			}
+
+			this.INDEX = index;
+			this.START = start;
+			this.REDUCTIONS = reductions;
 		}
 	}
 
 	/**
-	 * This class encapsulates the goto tables used in a {@link SLRParser}
+	 * This class encapsulates the terminals which the tables used in a
+	 * {@link SLRParser} were generated for.
 	 */
-	public static class GotoTable {
+	public static class TerminalTable {
+		/**
+		 * Stores the id of the terminal which ends the input.
+		 */
+		private final int EOF;
+
 		/**
-		 * Switch array which points to the starting index for a given
-		 * table within the goto array.
+		 * Stores the id of the terminal used within error productions, or
+		 * {@link Integer#MIN_VALUE} if there is none.
 		 */
-		private final int[] SWITCH;
+		private final int ERROR;
 
 		/**
-		 * Contains a list of goto transitions associated with each table,
-		 * separated by a {@link Integer#MIN_VALUE} pair.
+		 * Stores the ids of the terminals which error recovery synchronizes
+		 * on.
 		 */
-		private final int[][] GOTO;
+		private final int[] SYNC;
 
 		/**
-		 * Constructs a shift table with the specified arguments.
+		 * Stores the name of every terminal id.
+		 */
+		private final String[] NAMES;
+
+		/**
+		 * Constructs a terminal table with the specified arguments.
 		 *
-		 * @param _switch switch array for this table
-		 * @param _goto goto array for this table
+		 * @param eof id of the terminal which ends the input
+		 * @param error id of the terminal used within error productions, or
+		 *	{@link Integer#MIN_VALUE} if there is none
+		 * @param sync ids of the terminals which error recovery synchronizes
+		 *	on
+		 * @param names name of every terminal id
 		 */
-		public GotoTable(int[] _switch, int[][] _goto) {
-			this.SWITCH = _switch;
-			this.GOTO = _goto;
+		public TerminalTable(int eof, int error, int[] sync, String[] names) {
+			if (eof < 0 || names.length <= eof || (error != Integer.MIN_VALUE && (error < 0 || names.length <= error))) {
+				throw new IllegalArgumentException("Terminal ids are out of range!");
+			}
+
+			for (int terminal : sync) {
+				if (terminal < 0 || names.length <= terminal) {
+					throw new IllegalArgumentException("Terminal ids are out of range!");
+				}
+			}
+
+			for (String name : names) {
+				if (name == null) {
+					throw new IllegalArgumentException("Terminal names cannot be null!");
+				}
+			}
+
+			this.EOF = eof;
+			this.ERROR = error;
+			this.SYNC = sync;
+			this.NAMES = names;
 		}
 	}
 
 	/**
-	 * This class encapsulates the production tables used in a
-	 * {@link SLRParser}
+	 * This class represents the serialized form of {@link SLRTables}, which
+	 * is the contents of their table file.
 	 */
-	public static class ProductionTable {
+	private static final class SerializationProxy implements Serializable {
+		private static final long serialVersionUID = 1L;
+
 		/**
-		 * Stores the nonterminal id for every production id.
+		 * Contents of the table file of the SLRTables serialized.
 		 */
-		private final int[] LHS;
+		private final byte[] BYTES;
 
 		/**
-		 * Stores the number of symbols on the rhs of every production id.
+		 * Constructs a SerializationProxy for the given SLRTables.
+		 *
+		 * @param tables SLRTables being serialized
 		 */
-		private final int[] RHS;
+		SerializationProxy(SLRTables tables) {
+			TableFile.Builder builder = new TableFile.Builder(TableFile.SLR);
+			tables.write(builder);
+			this.BYTES = builder.toByteArray();
+		}
 
 		/**
-		 * Constructs a production table with the specified arguments.
+		 * Returns the SLRTables contained within the serialized table file.
 		 *
-		 * @param lhs lhs array for this table
-		 * @param rhs rhs array for this table
+		 * @return SLRTables deserialized
+		 * @throws InvalidObjectException if the serialized table file is not
+		 *	valid
 		 */
-		public ProductionTable(int[] lhs, int[] rhs) {
-			this.LHS = lhs;
-			this.RHS = rhs;
+		private Object readResolve() throws InvalidObjectException {
+			try {
+				return read(TableFile.wrap(BYTES, TableFile.SLR));
+			} catch (IOException e) {
+				throw new InvalidObjectException(e.getMessage());
+			}
 		}
 	}
 }
@@ -0,0 +1,420 @@
+package edu.csupomona.cs.cs411.project2.parser.slr;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class represents a precompiled table file, which stores the flat
+ * arrays of a set of tables so that they can be loaded without generating
+ * them again. A table file begins with a header of {@link #HEADER_SIZE}
+ * bytes made of six ints:
+ * <pre>
+ * magic     {@link #MAGIC}, written in the byte order of the file
+ * version   {@link #VERSION}
+ * kind      {@link #SLR} or {@link #LALR}
+ * size      number of bytes following the header
+ * checksum  32-bit FNV-1a hash of the bytes following the header
+ * reserved  0
+ * </pre>
+ * which is followed by the sections of the tables, each of which is a count
+ * followed by that many ints (or longs, which are aligned to 8 bytes, or the
+ * chars of a String, each stored as an int). Files are written in the native
+ * byte order, and the order of a file being read is found from its magic
+ * number.
+ * <p>
+ * A TableFile which was {@link #map(Path, int) mapped} checks and reads the
+ * pages of the file directly, so each section is copied into its array in
+ * bulk, without decoding or buffering the file, and every process which maps
+ * the same file shares one copy of it within the page cache. The arrays
+ * themselves are kept on the heap, since parsers index them directly.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class TableFile {
+	/**
+	 * Kind of a file containing {@link SLRTables}.
+	 */
+	public static final int SLR = 0;
+
+	/**
+	 * Kind of a file containing LALR tables, which are {@link SLRTables}
+	 * followed by their lookahead sets.
+	 */
+	public static final int LALR = 1;
+
+	/**
+	 * Magic number which begins every table file ({@code "TOYT"}).
+	 */
+	private static final int MAGIC = 0x544F5954;
+
+	/**
+	 * Version of the table file format written, which must be changed
+	 * whenever the sections of any tables are changed.
+	 */
+	private static final int VERSION = 6;
+
+	/**
+	 * Number of bytes within the header of a table file.
+	 */
+	private static final int HEADER_SIZE = 24;
+
+	/**
+	 * Offset basis of the 32-bit FNV-1a hash.
+	 */
+	private static final int FNV_OFFSET_BASIS = 0x811C9DC5;
+
+	/**
+	 * Prime of the 32-bit FNV-1a hash.
+	 */
+	private static final int FNV_PRIME = 0x01000193;
+
+	/**
+	 * Sections of this file which have not been read yet.
+	 */
+	private final ByteBuffer BUFFER;
+
+	/**
+	 * Constructs a TableFile which reads the sections within the given
+	 * buffer.
+	 *
+	 * @param buffer sections of the file
+	 */
+	private TableFile(ByteBuffer buffer) {
+		this.BUFFER = buffer;
+	}
+
+	/**
+	 * Maps the table file at the given path into memory and checks its
+	 * header and checksum.
+	 *
+	 * @param path path of the table file
+	 * @param kind kind of tables expected
+	 * @return TableFile reading the sections of that file
+	 * @throws IOException if the file cannot be read, or is not a valid table
+	 *	file of the expected kind
+	 */
+	public static TableFile map(Path path, int kind) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), kind);
+		}
+	}
+
+	/**
+	 * Checks the header and checksum of the table file contained within the
+	 * given bytes.
+	 *
+	 * @param bytes contents of the table file
+	 * @param kind kind of tables expected
+	 * @return TableFile reading the sections of those bytes
+	 * @throws IOException if the bytes are not a valid table file of the
+	 *	expected kind
+	 */
+	public static TableFile wrap(byte[] bytes, int kind) throws IOException {
+		return read(ByteBuffer.wrap(bytes), kind);
+	}
+
+	/**
+	 * Checks the header and checksum of the table file contained within the
+	 * given buffer.
+	 *
+	 * @param buffer contents of the table file
+	 * @param kind kind of tables expected
+	 * @return TableFile reading the sections of that buffer
+	 * @throws IOException if the buffer is not a valid table file of the
+	 *	expected kind
+	 */
+	private static TableFile read(ByteBuffer buffer, int kind) throws IOException {
+		if (buffer.limit() < HEADER_SIZE) {
+			throw new IOException("Table file is truncated!");
+		}
+
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		int magic = buffer.getInt(0);
+		if (magic == Integer.reverseBytes(MAGIC)) {
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+		} else if (magic != MAGIC) {
+			throw new IOException("Not a table file!");
+		}
+
+		int version = buffer.getInt(4);
+		if (version != VERSION) {
+			throw new IOException(String.format("Table file version %d is not supported!", version));
+		}
+
+		if (buffer.getInt(8) != kind) {
+			throw new IOException("Table file does not contain the expected tables!");
+		}
+
+		if (buffer.limit()-HEADER_SIZE != buffer.getInt(12)) {
+			throw new IOException("Table file is truncated!");
+		}
+
+		if (checksum(buffer, HEADER_SIZE, buffer.limit()) != buffer.getInt(16)) {
+			throw new IOException("Table file checksum does not match!");
+		}
+
+		buffer.position(HEADER_SIZE);
+		return new TableFile(buffer.slice().order(buffer.order()));
+	}
+
+	/**
+	 * Returns the 32-bit FNV-1a hash of a range of bytes within a buffer.
+	 *
+	 * @param buffer buffer to hash
+	 * @param start index of the first byte to hash
+	 * @param end index after the last byte to hash
+	 * @return hash of those bytes
+	 */
+	private static int checksum(ByteBuffer buffer, int start, int end) {
+		int hash = FNV_OFFSET_BASIS;
+		for (int i = start; i < end; i++) {
+			hash ^= buffer.get(i)&0xFF;
+			hash *= FNV_PRIME;
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Reads the next section of this file, which contains a single int.
+	 *
+	 * @return int read
+	 * @throws IOException if the file has no more sections
+	 */
+	public int nextInt() throws IOException {
+		try {
+			return BUFFER.getInt();
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Table file is malformed!", e);
+		}
+	}
+
+	/**
+	 * Reads the next section of this file, which contains an array of ints.
+	 *
+	 * @return ints within the section
+	 * @throws IOException if the file has no more sections
+	 */
+	public int[] nextInts() throws IOException {
+		int length = nextInt();
+		ByteBuffer slice = slice(length, Integer.SIZE/Byte.SIZE);
+		int[] ints = new int[length];
+		slice.asIntBuffer().get(ints);
+		return ints;
+	}
+
+	/**
+	 * Reads the next section of this file, which contains the chars of a
+	 * String.
+	 *
+	 * @return String within the section
+	 * @throws IOException if the file has no more sections, or the section
+	 *	does not contain chars
+	 */
+	public String nextString() throws IOException {
+		int[] ints = nextInts();
+		char[] chars = new char[ints.length];
+		for (int i = 0; i < ints.length; i++) {
+			if (ints[i] < Character.MIN_VALUE || Character.MAX_VALUE < ints[i]) {
+				throw new IOException("Table file is malformed!");
+			}
+
+			chars[i] = (char)ints[i];
+		}
+
+		return new String(chars);
+	}
+
+	/**
+	 * Reads the next section of this file, which contains an array of longs.
+	 *
+	 * @return longs within the section
+	 * @throws IOException if the file has no more sections
+	 */
+	public long[] nextLongs() throws IOException {
+		int length = nextInt();
+		int alignment = Long.SIZE/Byte.SIZE;
+		if (BUFFER.position()%alignment != 0) {
+			nextInt();
+		}
+
+		ByteBuffer slice = slice(length, alignment);
+		long[] longs = new long[length];
+		slice.asLongBuffer().get(longs);
+		return longs;
+	}
+
+	/**
+	 * Returns a view of the next elements within this file and skips past
+	 * them.
+	 *
+	 * @param length number of elements
+	 * @param size number of bytes within each element
+	 * @return view of those elements, in the byte order of this file
+	 * @throws IOException if the file does not contain that many elements
+	 */
+	private ByteBuffer slice(int length, int size) throws IOException {
+		if (length < 0 || BUFFER.remaining()/size < length) {
+			throw new IOException("Table file is malformed!");
+		}
+
+		ByteBuffer slice = BUFFER.slice().order(BUFFER.order());
+		slice.limit(length*size);
+		BUFFER.position(BUFFER.position()+length*size);
+		return slice;
+	}
+
+	/**
+	 * Returns whether or not every section of this file has been read.
+	 *
+	 * @return {@code true} if there are no more sections, otherwise
+	 *	{@code false}
+	 */
+	public boolean isFinished() {
+		return !BUFFER.hasRemaining();
+	}
+
+	/**
+	 * This class represents a builder of table files, whose sections are
+	 * appended in the order they will be read.
+	 */
+	public static final class Builder {
+		/**
+		 * Kind of the tables being written.
+		 */
+		private final int KIND;
+
+		/**
+		 * Buffer containing the header and every section appended.
+		 */
+		private ByteBuffer buffer;
+
+		/**
+		 * Constructs a Builder for a table file of the given kind.
+		 *
+		 * @param kind kind of the tables being written
+		 */
+		public Builder(int kind) {
+			this.KIND = kind;
+			this.buffer = ByteBuffer.allocate(1<<12).order(ByteOrder.nativeOrder());
+			buffer.position(HEADER_SIZE);
+		}
+
+		/**
+		 * Appends a section containing a single int.
+		 *
+		 * @param i int to append
+		 * @return this Builder
+		 */
+		public Builder putInt(int i) {
+			ensureCapacity(Integer.SIZE/Byte.SIZE);
+			buffer.putInt(i);
+			return this;
+		}
+
+		/**
+		 * Appends a section containing the given ints.
+		 *
+		 * @param ints ints to append
+		 * @return this Builder
+		 */
+		public Builder putInts(int[] ints) {
+			putInt(ints.length);
+			ensureCapacity(ints.length*(Integer.SIZE/Byte.SIZE));
+			buffer.asIntBuffer().put(ints);
+			buffer.position(buffer.position()+ints.length*(Integer.SIZE/Byte.SIZE));
+			return this;
+		}
+
+		/**
+		 * Appends a section containing the chars of the given String.
+		 *
+		 * @param s String to append
+		 * @return this Builder
+		 */
+		public Builder putString(String s) {
+			int[] chars = new int[s.length()];
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = s.charAt(i);
+			}
+
+			return putInts(chars);
+		}
+
+		/**
+		 * Appends a section containing the given longs.
+		 *
+		 * @param longs longs to append
+		 * @return this Builder
+		 */
+		public Builder putLongs(long[] longs) {
+			putInt(longs.length);
+			if (buffer.position()%(Long.SIZE/Byte.SIZE) != 0) {
+				putInt(0);
+			}
+
+			ensureCapacity(longs.length*(Long.SIZE/Byte.SIZE));
+			buffer.asLongBuffer().put(longs);
+			buffer.position(buffer.position()+longs.length*(Long.SIZE/Byte.SIZE));
+			return this;
+		}
+
+		/**
+		 * Ensures that the buffer can hold a given number of additional
+		 * bytes.
+		 *
+		 * @param numBytes number of bytes which will be appended
+		 */
+		private void ensureCapacity(int numBytes) {
+			if (numBytes <= buffer.remaining()) {
+				return;
+			}
+
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity()<<1, buffer.position()+numBytes)).order(buffer.order());
+			buffer.flip();
+			grown.put(buffer);
+			buffer = grown;
+		}
+
+		/**
+		 * Returns the contents of the table file built, including its
+		 * header.
+		 *
+		 * @return bytes of the table file
+		 */
+		public byte[] toByteArray() {
+			int size = buffer.position();
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putInt(8, KIND);
+			buffer.putInt(12, size-HEADER_SIZE);
+			buffer.putInt(16, checksum(buffer, HEADER_SIZE, size));
+			buffer.putInt(20, 0);
+			return Arrays.copyOf(buffer.array(), size);
+		}
+
+		/**
+		 * Writes the table file built to the given path, replacing any file
+		 * which already exists there.
+		 *
+		 * @param path path to write the table file to
+		 * @throws IOException if the file cannot be written
+		 */
+		public void write(Path path) throws IOException {
+			Preconditions.checkNotNull(path);
+			ByteBuffer bytes = ByteBuffer.wrap(toByteArray());
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				while (bytes.hasRemaining()) {
+					channel.write(bytes);
+				}
+			}
+		}
+	}
+}
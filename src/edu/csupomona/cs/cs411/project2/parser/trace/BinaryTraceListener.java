@@ -0,0 +1,191 @@
+package edu.csupomona.cs.cs411.project2.parser.trace;
+
+import com.google.common.base.Preconditions;
+import edu.csupomona.cs.cs411.project2.parser.ParseListener;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This class represents a {@link ParseListener} which records a parse as a
+ * compact binary trace that can later be rendered by a
+ * {@link BinaryTraceReader}. The trace begins with {@link #MAGIC} and
+ * {@link #VERSION}, followed by one record per callback consisting of an
+ * opcode byte and its arguments encoded as zig-zag variable length integers.
+ * Token indexes are stored as the difference from the previous record, so a
+ * typical record occupies only a few bytes.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class BinaryTraceListener implements ParseListener, Flushable {
+	/**
+	 * Bytes which begin every binary trace.
+	 */
+	static final byte[] MAGIC = { 'S', 'L', 'R', 'T' };
+
+	/**
+	 * Version of the binary trace format written.
+	 */
+	static final int VERSION = 2;
+
+	/**
+	 * Opcode of a shift record: state, symbol, token delta.
+	 */
+	static final int SHIFT = 0;
+
+	/**
+	 * Opcode of a reduce record: state, production, offset, symbol, token
+	 * delta.
+	 */
+	static final int REDUCE = 1;
+
+	/**
+	 * Opcode of an accept record: symbol, token delta.
+	 */
+	static final int ACCEPT = 2;
+
+	/**
+	 * Opcode of a reject record: state, symbol, token delta.
+	 */
+	static final int REJECT = 3;
+
+	/**
+	 * OutputStream to write the trace into.
+	 */
+	private final OutputStream OUT;
+
+	/**
+	 * Buffer used to collect records before writing them.
+	 */
+	private final byte[] BUFFER;
+
+	/**
+	 * Number of bytes currently within {@link #BUFFER}.
+	 */
+	private int length;
+
+	/**
+	 * Token index of the previous record.
+	 */
+	private int lastToken;
+
+	/**
+	 * Constructs a BinaryTraceListener which writes into the given
+	 * OutputStream. The header is written immediately.
+	 *
+	 * @param out OutputStream to write the trace into
+	 * @throws IOException if there is an error writing the header
+	 */
+	public BinaryTraceListener(OutputStream out) throws IOException {
+		this.OUT = Preconditions.checkNotNull(out);
+		this.BUFFER = new byte[8192];
+		this.length = 0;
+		this.lastToken = 0;
+
+		System.arraycopy(MAGIC, 0, BUFFER, 0, MAGIC.length);
+		length = MAGIC.length;
+		writeVarInt(VERSION);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void shift(int state, int symbol, int tokenIndex) throws IOException {
+		ensureCapacity();
+		BUFFER[length++] = SHIFT;
+		writeVarInt(state);
+		writeVarInt(symbol);
+		writeTokenIndex(tokenIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reduce(int state, int production, int offset, int symbol, int tokenIndex) throws IOException {
+		ensureCapacity();
+		BUFFER[length++] = REDUCE;
+		writeVarInt(state);
+		writeVarInt(production);
+		writeVarInt(offset);
+		writeVarInt(symbol);
+		writeTokenIndex(tokenIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void accept(int symbol, int tokenIndex) throws IOException {
+		ensureCapacity();
+		BUFFER[length++] = ACCEPT;
+		writeVarInt(symbol);
+		writeTokenIndex(tokenIndex);
+		lastToken = 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reject(int state, int symbol, int tokenIndex) throws IOException {
+		ensureCapacity();
+		BUFFER[length++] = REJECT;
+		writeVarInt(state);
+		writeVarInt(symbol);
+		writeTokenIndex(tokenIndex);
+		lastToken = 0;
+	}
+
+	/**
+	 * Writes any buffered records into the OutputStream and flushes it.
+	 *
+	 * @throws IOException if there is an error writing
+	 */
+	@Override
+	public void flush() throws IOException {
+		OUT.write(BUFFER, 0, length);
+		OUT.flush();
+		length = 0;
+	}
+
+	/**
+	 * Writes the buffered records into the OutputStream if there may not be
+	 * enough room in the buffer for another record.
+	 *
+	 * @throws IOException if there is an error writing
+	 */
+	private void ensureCapacity() throws IOException {
+		// largest record is an opcode followed by five 5-byte integers
+		if (BUFFER.length-26 < length) {
+			OUT.write(BUFFER, 0, length);
+			length = 0;
+		}
+	}
+
+	/**
+	 * Writes a token index as the difference from the previous token index.
+	 *
+	 * @param tokenIndex token index to write
+	 */
+	private void writeTokenIndex(int tokenIndex) {
+		writeVarInt(tokenIndex-lastToken);
+		lastToken = tokenIndex;
+	}
+
+	/**
+	 * Writes a zig-zag encoded variable length integer into the buffer.
+	 *
+	 * @param i integer to write
+	 */
+	private void writeVarInt(int i) {
+		int zigzag = (i<<1)^(i>>31);
+		while ((zigzag&~0x7F) != 0) {
+			BUFFER[length++] = (byte)((zigzag&0x7F)|0x80);
+			zigzag >>>= 7;
+		}
+
+		BUFFER[length++] = (byte)zigzag;
+	}
+}
@@ -0,0 +1,147 @@
+package edu.csupomona.cs.cs411.project2.parser.trace;
+
+import com.google.common.base.Preconditions;
+import edu.csupomona.cs.cs411.project2.parser.ParseListener;
+import edu.csupomona.cs.cs411.project2.parser.lalr.LALRTables;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * This class represents a reader for traces written by a
+ * {@link BinaryTraceListener}. Reading a trace replays each recorded callback
+ * into another {@link ParseListener}, e.g., a {@link TextParseListener} to
+ * render the trace as text.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class BinaryTraceReader {
+	/**
+	 * InputStream to read the trace from.
+	 */
+	private final InputStream IN;
+
+	/**
+	 * Token index of the previous record.
+	 */
+	private int lastToken;
+
+	/**
+	 * Constructs a BinaryTraceReader which reads from the given InputStream
+	 * and validates the header of the trace.
+	 *
+	 * @param in InputStream to read the trace from
+	 * @throws IOException if the header cannot be read or is not valid
+	 */
+	public BinaryTraceReader(InputStream in) throws IOException {
+		this.IN = Preconditions.checkNotNull(in);
+		this.lastToken = 0;
+
+		for (byte b : BinaryTraceListener.MAGIC) {
+			if (in.read() != b) {
+				throw new IOException("Input is not a binary trace!");
+			}
+		}
+
+		int version = readVarInt();
+		if (version != BinaryTraceListener.VERSION) {
+			throw new IOException(String.format("Unsupported binary trace version %d!", version));
+		}
+	}
+
+	/**
+	 * Replays every remaining record of the trace into the given listener.
+	 *
+	 * @param listener listener to replay the trace into
+	 * @throws IOException if the trace cannot be read or the listener cannot
+	 *	write its output
+	 */
+	public void replay(ParseListener listener) throws IOException {
+		int opcode;
+		while ((opcode = IN.read()) != -1) {
+			switch (opcode) {
+				case BinaryTraceListener.SHIFT:
+					listener.shift(readVarInt(), readVarInt(), readTokenIndex());
+					break;
+				case BinaryTraceListener.REDUCE:
+					listener.reduce(readVarInt(), readVarInt(), readVarInt(), readVarInt(), readTokenIndex());
+					break;
+				case BinaryTraceListener.ACCEPT:
+					listener.accept(readVarInt(), readTokenIndex());
+					lastToken = 0;
+					break;
+				case BinaryTraceListener.REJECT:
+					listener.reject(readVarInt(), readVarInt(), readTokenIndex());
+					lastToken = 0;
+					break;
+				default:
+					throw new IOException(String.format("Unknown binary trace opcode %d!", opcode));
+			}
+		}
+	}
+
+	/**
+	 * Reads a token index stored as the difference from the previous token
+	 * index.
+	 *
+	 * @return token index read
+	 * @throws IOException if the trace cannot be read
+	 */
+	private int readTokenIndex() throws IOException {
+		lastToken += readVarInt();
+		return lastToken;
+	}
+
+	/**
+	 * Reads a zig-zag encoded variable length integer.
+	 *
+	 * @return integer read
+	 * @throws IOException if the trace cannot be read
+	 */
+	private int readVarInt() throws IOException {
+		int zigzag = 0;
+		int b;
+		int shift = 0;
+		do {
+			b = IN.read();
+			if (b == -1) {
+				throw new EOFException("Binary trace ended unexpectedly!");
+			}
+
+			zigzag |= (b&0x7F)<<shift;
+			shift += 7;
+		} while ((b&0x80) != 0);
+
+		return (zigzag>>>1)^-(zigzag&1);
+	}
+
+	/**
+	 * Renders each binary trace given as an argument as text on standard
+	 * output. The first argument is the table file of the {@link LALRTables}
+	 * which the traces were recorded with, whose terminal names are written
+	 * for each token.
+	 *
+	 * @param args path to a table file followed by paths to binary traces
+	 * @throws IOException if the table file or a trace cannot be read
+	 */
+	public static void main(String[] args) throws IOException {
+		Preconditions.checkArgument(0 < args.length, "A table file must be given.");
+		String[] names = LALRTables.load(Paths.get(args[0])).getSLRTables().getTerminalNames();
+		Writer writer = new BufferedWriter(new OutputStreamWriter(System.out));
+		for (int i = 1; i < args.length; i++) {
+			try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(args[i])))) {
+				new BinaryTraceReader(in).replay(new TextParseListener(writer, names));
+			}
+
+			writer.write(String.format("%n"));
+		}
+
+		writer.flush();
+	}
+}
@@ -0,0 +1,43 @@
+package edu.csupomona.cs.cs411.project2.parser.trace;
+
+import edu.csupomona.cs.cs411.project2.parser.ParseListener;
+
+/**
+ * This class represents a {@link ParseListener} which ignores every callback.
+ * It can be used when only the result of a parse is needed.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class NoOpParseListener implements ParseListener {
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void shift(int state, int symbol, int tokenIndex) {
+		//...
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reduce(int state, int production, int offset, int symbol, int tokenIndex) {
+		//...
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void accept(int symbol, int tokenIndex) {
+		//...
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reject(int state, int symbol, int tokenIndex) {
+		//...
+	}
+}
@@ -0,0 +1,234 @@
+package edu.csupomona.cs.cs411.project2.parser.trace;
+
+import com.google.common.base.Preconditions;
+import edu.csupomona.cs.cs411.project2.parser.ParseListener;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * This class represents a {@link ParseListener} which writes a human readable
+ * trace of a parse. Each token is written on its own line as its symbol id
+ * and name followed by every action taken while it was the lookahead, e.g.,
+ * {@code 46  _id             [reduce 15][reduce 12][shift]}, and the trace
+ * ends with either {@code [accept]} or {@code [reject]}. Text is assembled
+ * into a reusable character buffer rather than formatted, and a
+ * TextParseListener can be {@link #reset(Writer) reset} to write the trace of
+ * another parse into another Writer, so that a single instance per thread can
+ * write the traces of many parses without allocating anything.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class TextParseListener implements ParseListener {
+	/**
+	 * Width of the column containing the symbol id of a token.
+	 */
+	private static final int SYMBOL_WIDTH = 3;
+
+	/**
+	 * Width of the column containing the name of a token.
+	 */
+	private static final int NAME_WIDTH = 16;
+
+	/**
+	 * Line separator used when writing output.
+	 */
+	private static final String NEW_LINE = System.getProperty("line.separator");
+
+	/**
+	 * Text written for a shift action.
+	 */
+	private static final char[] SHIFT = ("[shift]" + NEW_LINE).toCharArray();
+
+	/**
+	 * Text written when a parse is accepted.
+	 */
+	private static final char[] ACCEPT = (NEW_LINE + "[accept]").toCharArray();
+
+	/**
+	 * Text written when a parse is rejected.
+	 */
+	private static final char[] REJECT = (NEW_LINE + "[reject]").toCharArray();
+
+	/**
+	 * Writer to write the trace into.
+	 */
+	private Writer writer;
+
+	/**
+	 * Names of every symbol, indexed by symbol id.
+	 */
+	private final String[] NAMES;
+
+	/**
+	 * Buffer used to assemble text before writing it.
+	 */
+	private char[] buffer;
+
+	/**
+	 * Index of the token whose line is currently being written, or
+	 * {@link Integer#MIN_VALUE} if no line has been started.
+	 */
+	private int currentToken;
+
+	/**
+	 * Constructs a TextParseListener which writes into the given Writer using
+	 * the given symbol names.
+	 *
+	 * @param writer Writer to write the trace into
+	 * @param names names of every symbol, indexed by symbol id
+	 */
+	public TextParseListener(Writer writer, String[] names) {
+		this.NAMES = Preconditions.checkNotNull(names);
+		this.buffer = new char[64];
+		reset(writer);
+	}
+
+	/**
+	 * Resets this TextParseListener so that it writes the trace of a new
+	 * parse into the given Writer.
+	 *
+	 * @param writer Writer to write the trace into
+	 * @return this TextParseListener
+	 */
+	public TextParseListener reset(Writer writer) {
+		this.writer = Preconditions.checkNotNull(writer);
+		this.currentToken = Integer.MIN_VALUE;
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void shift(int state, int symbol, int tokenIndex) throws IOException {
+		startToken(symbol, tokenIndex);
+		writer.write(SHIFT);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reduce(int state, int production, int offset, int symbol, int tokenIndex) throws IOException {
+		startToken(symbol, tokenIndex);
+		int length = 0;
+		length = append("[reduce ", length);
+		length = append(production, length);
+		buffer[length++] = ']';
+		writer.write(buffer, 0, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void accept(int symbol, int tokenIndex) throws IOException {
+		startToken(symbol, tokenIndex);
+		writer.write(ACCEPT);
+		currentToken = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reject(int state, int symbol, int tokenIndex) throws IOException {
+		startToken(symbol, tokenIndex);
+		writer.write(REJECT);
+		currentToken = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Writes the symbol id and name of a token if its line has not been
+	 * started yet.
+	 *
+	 * @param symbol symbol id of the token
+	 * @param tokenIndex index of the token
+	 * @throws IOException if there is an error writing output
+	 */
+	private void startToken(int symbol, int tokenIndex) throws IOException {
+		if (tokenIndex == currentToken) {
+			return;
+		}
+
+		currentToken = tokenIndex;
+		if (symbol == Integer.MIN_VALUE) {
+			return;
+		}
+
+		int length = 0;
+		length = append(symbol, length);
+		length = pad(length, SYMBOL_WIDTH);
+		length = append(" ", length);
+		int nameStart = length;
+		length = append(0 <= symbol && symbol < NAMES.length ? NAMES[symbol] : Integer.toString(symbol), length);
+		length = pad(length, nameStart+NAME_WIDTH);
+		writer.write(buffer, 0, length);
+	}
+
+	/**
+	 * Appends a String to the buffer.
+	 *
+	 * @param s String to append
+	 * @param length current length of the buffer
+	 * @return new length of the buffer
+	 */
+	private int append(String s, int length) {
+		ensureCapacity(length+s.length());
+		s.getChars(0, s.length(), buffer, length);
+		return length+s.length();
+	}
+
+	/**
+	 * Appends the decimal representation of an integer to the buffer.
+	 *
+	 * @param i integer to append
+	 * @param length current length of the buffer
+	 * @return new length of the buffer
+	 */
+	private int append(int i, int length) {
+		if (i < 0) {
+			return append(Integer.toString(i), length);
+		}
+
+		int digits = 1;
+		for (int j = i; 10 <= j; j /= 10) {
+			digits++;
+		}
+
+		ensureCapacity(length+digits);
+		for (int j = length+digits-1; length <= j; j--) {
+			buffer[j] = (char)('0'+(i%10));
+			i /= 10;
+		}
+
+		return length+digits;
+	}
+
+	/**
+	 * Pads the buffer with spaces up to a given width.
+	 *
+	 * @param length current length of the buffer
+	 * @param width width to pad to
+	 * @return new length of the buffer
+	 */
+	private int pad(int length, int width) {
+		int newLength = Math.max(length, width);
+		ensureCapacity(newLength);
+		Arrays.fill(buffer, length, newLength, ' ');
+		return newLength;
+	}
+
+	/**
+	 * Grows the buffer so that it can hold at least the given number of
+	 * characters.
+	 *
+	 * @param capacity number of characters required
+	 */
+	private void ensureCapacity(int capacity) {
+		if (buffer.length < capacity) {
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length<<1, capacity));
+		}
+	}
+}
@@ -0,0 +1,806 @@
+package edu.csupomona.cs.cs411.project2.parser.tree;
+
+import com.google.common.base.Preconditions;
+import edu.csupomona.cs.cs411.project1.lexer.Lexer;
+import edu.csupomona.cs.cs411.project1.lexer.Token;
+import edu.csupomona.cs.cs411.project1.lexer.TokenStream;
+import edu.csupomona.cs.cs411.project2.parser.ParseResult;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRTables;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents a parser which keeps the tokens and
+ * {@link SyntaxTree} of a document between edits so that an edit only needs
+ * to relex the lines it changed and reparse the tokens around them.
+ * <p>
+ * Every node of the tree records the table to the left of it. When reparsing,
+ * a node from the previous tree which begins at the current token is reused
+ * whole, without looking at any of its tokens, if the parser is in the same
+ * table the node was started in and neither the node nor the token which
+ * followed it (its lookahead) was touched by the edit. Otherwise the node is
+ * broken down into its children, and finally into tokens, which are parsed as
+ * usual. Since spans are stored relative to the parent, a reused node is
+ * moved to its new position without visiting its descendants. The work done
+ * is therefore proportional to the size of the edit and the number of nodes
+ * enclosing it (and their siblings) rather than the size of the document.
+ * Lists in the Toy CFG are left-recursive, so every list enclosing the edit
+ * rebuilds one node per element after the edit, although each element is
+ * reused whole.
+ * <p>
+ * Nodes of the previous tree which are not reused are released back into the
+ * arena of the tree once the document is accepted, and the nodes built by a
+ * parse which is rejected are released immediately, so the arena does not
+ * grow with the number of edits. Since tokens do not record where they were
+ * found, the lexer is run over whole lines: an edit relexes the lines it
+ * replaces, widened to include any block comment which spans them. Tokens and
+ * lines are kept within gap buffers positioned at the most recent edit.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class IncrementalParser {
+	/**
+	 * Symbol id of the token which ends the input.
+	 */
+	private final int EOF;
+
+	/**
+	 * This field represents the tables that this parser uses.
+	 */
+	private final SLRTables SLR_TABLES;
+
+	/**
+	 * Lexer used to scan the lines of the document.
+	 */
+	private final Lexer<Token> LEXER;
+
+	/**
+	 * Tree built for the document, which is reused between edits.
+	 */
+	private final SyntaxTree TREE;
+
+	/**
+	 * Symbol ids of the tokens of the document, ending with {@link #EOF}.
+	 */
+	private final SymbolBuffer SYMBOLS;
+
+	/**
+	 * Lines of the document. The tokens of lines joined by a block comment
+	 * all belong to the first of those lines.
+	 */
+	private final LineBuffer LINES;
+
+	/**
+	 * Lines being lexed by an edit.
+	 */
+	private final List<String> BLOCK;
+
+	/**
+	 * Symbol ids of the tokens most recently lexed.
+	 */
+	private int[] lexed;
+
+	/**
+	 * Number of tokens within {@link #lexed}.
+	 */
+	private int numLexed;
+
+	/**
+	 * Number of tokens on every line most recently lexed.
+	 */
+	private int[] lexedLines;
+
+	/**
+	 * Whether or not every line most recently lexed continues the previous
+	 * line.
+	 */
+	private boolean[] lexedContinued;
+
+	/**
+	 * Number of lines within {@link #lexedLines}.
+	 */
+	private int numLexedLines;
+
+	/**
+	 * Stack of tables visited while parsing.
+	 */
+	private int[] states;
+
+	/**
+	 * Stack of nodes which have not yet been given a parent.
+	 */
+	private int[] nodes;
+
+	/**
+	 * Number of entries within {@link #states} and {@link #nodes}.
+	 */
+	private int depth;
+
+	/**
+	 * Nodes of the previous tree which have not yet been reused or broken
+	 * down, with the next one to consider on top.
+	 */
+	private int[] pending;
+
+	/**
+	 * Index of the first token covered by every node within
+	 * {@link #pending}, as it was before the edits.
+	 */
+	private int[] pendingStart;
+
+	/**
+	 * Number of nodes within {@link #pending}.
+	 */
+	private int numPending;
+
+	/**
+	 * Root of the last tree accepted, or {@link SyntaxTree#NONE} if there is
+	 * none to reuse.
+	 */
+	private int oldRoot;
+
+	/**
+	 * Whether or not the tokens have been edited since {@link #oldRoot} was
+	 * accepted.
+	 */
+	private boolean damaged;
+
+	/**
+	 * Index of the first token edited since {@link #oldRoot} was accepted.
+	 */
+	private int damageStart;
+
+	/**
+	 * Index one past the last token edited since {@link #oldRoot} was
+	 * accepted, as it was before the edits.
+	 */
+	private int damageEnd;
+
+	/**
+	 * Change in the number of tokens since {@link #oldRoot} was accepted.
+	 */
+	private int damageDelta;
+
+	/**
+	 * Nodes of {@link #oldRoot} reused by the current parse, each followed
+	 * by its original parent, offset and next sibling.
+	 */
+	private int[] detached;
+
+	/**
+	 * Number of entries within {@link #detached}.
+	 */
+	private int numDetached;
+
+	/**
+	 * Nodes created by the current parse.
+	 */
+	private int[] created;
+
+	/**
+	 * Number of nodes within {@link #created}.
+	 */
+	private int numCreated;
+
+	/**
+	 * Nodes of {@link #oldRoot} broken down by the current parse, or the
+	 * complements ({@code ~node}) of the roots of subtrees skipped by it,
+	 * which are released if the document is accepted.
+	 */
+	private int[] discarded;
+
+	/**
+	 * Number of entries within {@link #discarded}.
+	 */
+	private int numDiscarded;
+
+	/**
+	 * Stack used when releasing subtrees.
+	 */
+	private int[] scratch;
+
+	/**
+	 * Outcome of the last parse.
+	 */
+	private ParseResult result;
+
+	/**
+	 * Number of nodes reused by the last parse.
+	 */
+	private int numReused;
+
+	/**
+	 * Number of tokens shifted by the last parse.
+	 */
+	private int numShifted;
+
+	/**
+	 * Constructs an IncrementalParser which will use the given tables and
+	 * lexer.
+	 *
+	 * @param tables tables containing the action information of this parser
+	 * @param lexer lexer used to scan the lines of the document
+	 */
+	public IncrementalParser(SLRTables tables, Lexer<Token> lexer) {
+		this.SLR_TABLES = Preconditions.checkNotNull(tables);
+		this.EOF = SLR_TABLES.getEOF();
+		this.LEXER = Preconditions.checkNotNull(lexer);
+		this.TREE = new SyntaxTree();
+		this.SYMBOLS = new SymbolBuffer(256);
+		this.LINES = new LineBuffer(64);
+		this.BLOCK = new ArrayList<>();
+		this.states = new int[256];
+		this.nodes = new int[256];
+		this.pending = new int[64];
+		this.pendingStart = new int[64];
+		this.lexed = new int[256];
+		this.lexedLines = new int[64];
+		this.lexedContinued = new boolean[64];
+		this.detached = new int[64];
+		this.created = new int[256];
+		this.discarded = new int[64];
+		this.scratch = new int[64];
+		this.oldRoot = SyntaxTree.NONE;
+		this.result = new ParseResult(false, 0, 0);
+	}
+
+	/**
+	 * Lexes and parses an entire document, discarding any previous one.
+	 *
+	 * @param text text of the document
+	 * @return {@code true} if the document is accepted, otherwise
+	 *	{@code false}
+	 * @throws IOException if the lexer fails to read the text
+	 */
+	public boolean parse(CharSequence text) throws IOException {
+		BLOCK.clear();
+		split(text, BLOCK);
+		lex(BLOCK);
+		LINES.clear();
+		LINES.replace(0, 0, BLOCK, lexedLines, lexedContinued);
+		SYMBOLS.clear();
+		SYMBOLS.replace(0, 0, new int[] { EOF }, 1);
+		oldRoot = SyntaxTree.NONE;
+		damaged = false;
+		return replaceTokens(0, 0);
+	}
+
+	/**
+	 * Replaces lines of the document with new text, relexing only that text
+	 * and reparsing the tokens around it.
+	 *
+	 * @param firstLine index of the first line to replace
+	 * @param count number of lines to replace
+	 * @param text text replacing the lines, which may contain any number of
+	 *	lines
+	 * @return {@code true} if the document is accepted, otherwise
+	 *	{@code false}
+	 * @throws IOException if the lexer fails to read the text
+	 */
+	public boolean edit(int firstLine, int count, CharSequence text) throws IOException {
+		Preconditions.checkPositionIndexes(firstLine, firstLine+count, LINES.size());
+		int first = firstLine;
+		while (0 < first && LINES.isContinued(first)) {
+			first--;
+		}
+
+		int last = firstLine+count;
+		while (last < LINES.size() && LINES.isContinued(last)) {
+			last++;
+		}
+
+		BLOCK.clear();
+		for (int i = first; i < firstLine; i++) {
+			BLOCK.add(LINES.getText(i));
+		}
+
+		split(text, BLOCK);
+		for (int i = firstLine+count; i < last; i++) {
+			BLOCK.add(LINES.getText(i));
+		}
+
+		while (lex(BLOCK) && last < LINES.size()) {
+			do {
+				BLOCK.add(LINES.getText(last++));
+			} while (last < LINES.size() && LINES.isContinued(last));
+		}
+
+		int start = LINES.getTokensBefore(first);
+		int removed = LINES.replace(first, last-first, BLOCK, lexedLines, lexedContinued);
+		return replaceTokens(start, removed);
+	}
+
+	/**
+	 * Replaces tokens of the document with the tokens within {@link #lexed}
+	 * and reparses the tokens around them. If the document has not been
+	 * accepted since the last edit, the tokens edited then are reparsed as
+	 * well.
+	 *
+	 * @param start index of the first token to replace
+	 * @param removed number of tokens to replace
+	 * @return {@code true} if the document is accepted, otherwise
+	 *	{@code false}
+	 */
+	private boolean replaceTokens(int start, int removed) {
+		int delta = numLexed-removed;
+		SYMBOLS.replace(start, removed, lexed, numLexed);
+		if (!damaged) {
+			damageStart = start;
+			damageEnd = start+removed;
+			damageDelta = delta;
+			damaged = true;
+		} else {
+			int end = Math.max(damageEnd+damageDelta, start+removed);
+			damageStart = Math.min(damageStart, start);
+			damageEnd = end-damageDelta;
+			damageDelta += delta;
+		}
+
+		return reparse();
+	}
+
+	/**
+	 * Parses the tokens of the document, reusing the nodes of
+	 * {@link #oldRoot} which were not affected by the edits since it was
+	 * accepted. If the document is accepted, the nodes of {@link #oldRoot}
+	 * which were not reused are released. Otherwise the nodes created are
+	 * released and the changes made to those reused are undone so that they
+	 * can be reused by the next edit.
+	 *
+	 * @return {@code true} if the document is accepted, otherwise
+	 *	{@code false}
+	 */
+	private boolean reparse() {
+		if (oldRoot == SyntaxTree.NONE) {
+			TREE.clear();
+		}
+
+		numDetached = 0;
+		numCreated = 0;
+		numDiscarded = 0;
+		numPending = 0;
+		pushPending(oldRoot, 0);
+
+		int numTokens = SYMBOLS.size();
+		int insertedEnd = damageEnd+damageDelta;
+		numReused = 0;
+		numShifted = 0;
+		depth = 0;
+		states[depth++] = 0;
+
+		int tokenIndex = 0;
+		int state;
+		int symbol;
+		int shift;
+		int production;
+		int node;
+		Parse_Tokens: while (true) {
+			state = states[depth-1];
+			symbol = tokenIndex < numTokens ? SYMBOLS.get(tokenIndex) : Integer.MIN_VALUE;
+			shift = SLR_TABLES.shift(state, symbol);
+			if (shift != Integer.MIN_VALUE) {
+				if (0 < numPending && (tokenIndex < damageStart || insertedEnd <= tokenIndex)) {
+					int oldIndex = tokenIndex < damageStart ? tokenIndex : tokenIndex-damageDelta;
+					node = findReusable(state, oldIndex);
+					if (node != SyntaxTree.NONE) {
+						detach(node, tokenIndex);
+						push(SLR_TABLES.move(state, SLR_TABLES.getOriginalNonterminalId(TREE.getProduction(node))), node);
+						tokenIndex += TREE.getWidth(node);
+						numReused++;
+						continue Parse_Tokens;
+					}
+				}
+
+				node = TREE.addToken(symbol, state, tokenIndex);
+				created(node);
+				push(shift, node);
+				tokenIndex++;
+				numShifted++;
+				continue;
+			}
+
+			production = SLR_TABLES.reduce(state, symbol);
+			if (production == Integer.MIN_VALUE || (production == 0 && symbol != EOF)) {
+				undo();
+				TREE.setRoot(SyntaxTree.NONE);
+				result = new ParseResult(false, state, tokenIndex);
+				return false;
+			}
+
+			// an optimized production may stand for several original ones,
+			// each of which is added to the tree as it would have been reduced
+			int top = depth-1;
+			int reduction;
+			int offset;
+			depth -= SLR_TABLES.getRHSSize(production);
+			for (int i = 0; i < SLR_TABLES.getNumReductions(production); i++) {
+				if (top == nodes.length) {
+					states = Arrays.copyOf(states, top<<1);
+					nodes = Arrays.copyOf(nodes, top<<1);
+				}
+
+				reduction = SLR_TABLES.getReduction(production, i);
+				offset = SLR_TABLES.getReductionOffset(production, i);
+				top = TREE.reduce(reduction, SLR_TABLES.getOriginalRHSSize(reduction), nodes, top, offset, state, tokenIndex);
+				created(nodes[top-offset-1]);
+			}
+
+			node = nodes[depth-1];
+			if (production == 0) {
+				releaseDiscarded();
+				TREE.setRoot(node);
+				oldRoot = node;
+				damaged = false;
+				result = new ParseResult(true, state, tokenIndex);
+				return true;
+			}
+
+			push(SLR_TABLES.move(states[depth-1], SLR_TABLES.getNonterminalId(production)), node);
+		}
+	}
+
+	/**
+	 * Detaches a node of {@link #oldRoot} so that it can be reused at the
+	 * given token, recording its original position so that it can be
+	 * restored.
+	 *
+	 * @param node node to detach
+	 * @param tokenIndex index of the first token the node covers now
+	 */
+	private void detach(int node, int tokenIndex) {
+		if (numDetached+4 > detached.length) {
+			detached = Arrays.copyOf(detached, detached.length<<1);
+		}
+
+		detached[numDetached++] = node;
+		detached[numDetached++] = TREE.getParent(node);
+		detached[numDetached++] = TREE.getOffset(node);
+		detached[numDetached++] = TREE.getNextSibling(node);
+		TREE.link(node, SyntaxTree.NONE, tokenIndex, SyntaxTree.NONE);
+	}
+
+	/**
+	 * Records a node created by the current parse.
+	 *
+	 * @param node node created
+	 */
+	private void created(int node) {
+		if (numCreated == created.length) {
+			created = Arrays.copyOf(created, numCreated<<1);
+		}
+
+		created[numCreated++] = node;
+	}
+
+	/**
+	 * Records a node of {@link #oldRoot} which will not be reused.
+	 *
+	 * @param node node broken down, or the complement ({@code ~node}) of the
+	 *	root of a subtree skipped
+	 */
+	private void discard(int node) {
+		if (numDiscarded == discarded.length) {
+			discarded = Arrays.copyOf(discarded, numDiscarded<<1);
+		}
+
+		discarded[numDiscarded++] = node;
+	}
+
+	/**
+	 * Restores the nodes of {@link #oldRoot} reused by the current parse and
+	 * releases the nodes it created.
+	 */
+	private void undo() {
+		while (0 < numDetached) {
+			numDetached -= 4;
+			TREE.link(detached[numDetached], detached[numDetached+1], detached[numDetached+2], detached[numDetached+3]);
+		}
+
+		while (0 < numCreated) {
+			TREE.release(created[--numCreated]);
+		}
+	}
+
+	/**
+	 * Releases the nodes of {@link #oldRoot} which were not reused by the
+	 * current parse, i.e., those broken down or skipped, and those still
+	 * pending together with their next siblings.
+	 */
+	private void releaseDiscarded() {
+		int node;
+		for (int i = 0; i < numDiscarded; i++) {
+			node = discarded[i];
+			if (node < 0) {
+				scratch = TREE.releaseSubtree(~node, scratch);
+			} else {
+				TREE.release(node);
+			}
+		}
+
+		int next;
+		while (0 < numPending) {
+			for (node = pending[--numPending]; node != SyntaxTree.NONE; node = next) {
+				next = TREE.getNextSibling(node);
+				scratch = TREE.releaseSubtree(node, scratch);
+			}
+		}
+
+		numDiscarded = 0;
+		numDetached = 0;
+		numCreated = 0;
+	}
+
+	/**
+	 * Finds a node of the previous tree beginning at the given token which
+	 * can be reused in the given table, breaking down any nodes which cannot.
+	 *
+	 * @param state table the parser is in
+	 * @param oldIndex index of the current token before the edits
+	 * @return node to reuse, or {@link SyntaxTree#NONE} if there is none
+	 */
+	private int findReusable(int state, int oldIndex) {
+		int node;
+		int start;
+		int end;
+		while (0 < numPending) {
+			node = pending[numPending-1];
+			start = pendingStart[numPending-1];
+			end = start+TREE.getWidth(node);
+			if (oldIndex < start) {
+				return SyntaxTree.NONE;
+			}
+
+			numPending--;
+			pushPending(TREE.getNextSibling(node), end);
+			if (end <= oldIndex) {
+				discard(~node);
+				continue;
+			}
+
+			if (start == oldIndex && !TREE.isToken(node) && TREE.getLeftState(node) == state
+					&& (end < damageStart || damageEnd <= start)
+					&& SLR_TABLES.move(state, SLR_TABLES.getOriginalNonterminalId(TREE.getProduction(node))) != Integer.MIN_VALUE) {
+				return node;
+			}
+
+			discard(node);
+			pushPending(TREE.getFirstChild(node), start);
+		}
+
+		return SyntaxTree.NONE;
+	}
+
+	/**
+	 * Pushes a node of the previous tree onto the pending stack, growing it
+	 * if necessary.
+	 *
+	 * @param node node to push, or {@link SyntaxTree#NONE} to ignore
+	 * @param start index of the first token covered by the node before the
+	 *	edits
+	 */
+	private void pushPending(int node, int start) {
+		if (node == SyntaxTree.NONE) {
+			return;
+		}
+
+		if (numPending == pending.length) {
+			pending = Arrays.copyOf(pending, numPending<<1);
+			pendingStart = Arrays.copyOf(pendingStart, pending.length);
+		}
+
+		pending[numPending] = node;
+		pendingStart[numPending] = start;
+		numPending++;
+	}
+
+	/**
+	 * Pushes a table and the node which led to it onto the stacks, growing
+	 * them if necessary.
+	 *
+	 * @param state table to push
+	 * @param node node to push
+	 */
+	private void push(int state, int node) {
+		if (depth == states.length) {
+			states = Arrays.copyOf(states, depth<<1);
+			nodes = Arrays.copyOf(nodes, depth<<1);
+		}
+
+		states[depth] = state;
+		nodes[depth-1] = node;
+		depth++;
+	}
+
+	/**
+	 * Splits text into lines, adding them to a list.
+	 *
+	 * @param text text to split
+	 * @param lines list to add the lines to
+	 */
+	private static void split(CharSequence text, List<String> lines) {
+		int lineStart = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				lines.add(text.subSequence(lineStart, i).toString());
+				lineStart = i+1;
+			}
+		}
+
+		lines.add(text.subSequence(lineStart, text.length()).toString());
+	}
+
+	/**
+	 * Lexes lines into {@link #lexed}, recording the number of tokens on each
+	 * line within {@link #lexedLines}. Each line is lexed on its own unless it
+	 * ends inside of a block comment, in which case it is lexed together with
+	 * the lines that follow until the comment ends.
+	 *
+	 * @param lines lines to lex, the first of which must not begin inside of
+	 *	a block comment
+	 * @return {@code true} if the last line ends inside of a block comment,
+	 *	otherwise {@code false}
+	 * @throws IOException if the lexer fails to read the lines
+	 */
+	private boolean lex(List<String> lines) throws IOException {
+		numLexed = 0;
+		if (lexedLines.length < lines.size()) {
+			lexedLines = new int[Math.max(lexedLines.length<<1, lines.size())];
+			lexedContinued = new boolean[lexedLines.length];
+		}
+
+		StringBuilder segment = new StringBuilder();
+		boolean inComment = false;
+		int segmentStart = 0;
+		for (int i = 0; i < lines.size(); i++) {
+			lexedContinued[i] = inComment;
+			lexedLines[i] = 0;
+			inComment = endsInComment(lines.get(i), inComment);
+			if (inComment && i < lines.size()-1) {
+				continue;
+			}
+
+			segment.setLength(0);
+			for (int j = segmentStart; j <= i; j++) {
+				if (segmentStart < j) {
+					segment.append('\n');
+				}
+
+				segment.append(lines.get(j));
+			}
+
+			int before = numLexed;
+			TokenStream tokenStream = LEXER.lex(new StringReader(segment.toString()));
+			int symbol;
+			while ((symbol = SLR_TABLES.getTokenId(tokenStream.next())) != Integer.MIN_VALUE && symbol != EOF) {
+				if (numLexed == lexed.length) {
+					lexed = Arrays.copyOf(lexed, numLexed<<1);
+				}
+
+				lexed[numLexed++] = symbol;
+			}
+
+			lexedLines[segmentStart] = numLexed-before;
+			segmentStart = i+1;
+		}
+
+		numLexedLines = lines.size();
+		return inComment;
+	}
+
+	/**
+	 * Returns whether or not a line ends inside of a block comment, following
+	 * the comment and string rules of the Toy language.
+	 *
+	 * @param line line to scan
+	 * @param inComment whether or not the line begins inside of a block
+	 *	comment
+	 * @return {@code true} if the line ends inside of a block comment,
+	 *	otherwise {@code false}
+	 */
+	private static boolean endsInComment(String line, boolean inComment) {
+		char c;
+		for (int i = 0; i < line.length(); i++) {
+			c = line.charAt(i);
+			if (inComment) {
+				if (c == '*' && i+1 < line.length() && line.charAt(i+1) == '/') {
+					inComment = false;
+					i++;
+				}
+			} else if (c == '/' && i+1 < line.length() && line.charAt(i+1) == '/') {
+				return false;
+			} else if (c == '/' && i+1 < line.length() && line.charAt(i+1) == '*') {
+				inComment = true;
+				i++;
+			} else if (c == '"') {
+				i = line.indexOf('"', i+1);
+				if (i == -1) {
+					return false;
+				}
+			}
+		}
+
+		return inComment;
+	}
+
+	/**
+	 * Returns the tree built for the document by the last parse. The tree is
+	 * only complete if the document was accepted.
+	 *
+	 * @return tree built for the document
+	 */
+	public SyntaxTree getTree() {
+		return TREE;
+	}
+
+	/**
+	 * Returns whether or not the document was accepted by the last parse.
+	 *
+	 * @return {@code true} if it was, otherwise {@code false}
+	 */
+	public boolean isAccepted() {
+		return result.isAccepted();
+	}
+
+	/**
+	 * Returns the outcome of the last parse, i.e., whether or not the
+	 * document was accepted and where the parser stopped.
+	 *
+	 * @return outcome of the last parse
+	 */
+	public ParseResult getResult() {
+		return result;
+	}
+
+	/**
+	 * Returns the number of tokens within the document, including the end of
+	 * file token.
+	 *
+	 * @return number of tokens
+	 */
+	public int getNumTokens() {
+		return SYMBOLS.size();
+	}
+
+	/**
+	 * Returns the symbol id of a token of the document.
+	 *
+	 * @param tokenIndex index of the token
+	 * @return symbol id of the token
+	 */
+	public int getSymbol(int tokenIndex) {
+		Preconditions.checkElementIndex(tokenIndex, SYMBOLS.size());
+		return SYMBOLS.get(tokenIndex);
+	}
+
+	/**
+	 * Returns the number of lines within the document.
+	 *
+	 * @return number of lines
+	 */
+	public int getNumLines() {
+		return LINES.size();
+	}
+
+	/**
+	 * Returns the number of nodes of the previous tree which were reused by
+	 * the last parse.
+	 *
+	 * @return number of nodes reused
+	 */
+	public int getNumReused() {
+		return numReused;
+	}
+
+	/**
+	 * Returns the number of tokens which were shifted one at a time by the
+	 * last parse.
+	 *
+	 * @return number of tokens shifted
+	 */
+	public int getNumShifted() {
+		return numShifted;
+	}
+}
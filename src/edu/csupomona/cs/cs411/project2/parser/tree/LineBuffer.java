@@ -0,0 +1,242 @@
+package edu.csupomona.cs.cs411.project2.parser.tree;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents the lines of a document stored within a gap buffer.
+ * Every line records its text, the number of tokens lexed from it and whether
+ * or not it begins inside of a block comment started on a previous line. The
+ * number of tokens before the gap is kept as a running sum, so that finding
+ * the first token of a line, like replacing lines, costs time proportional to
+ * the distance from the previous edit rather than to the size of the
+ * document.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+final class LineBuffer {
+	/**
+	 * Text of every line.
+	 */
+	private String[] text;
+
+	/**
+	 * Number of tokens on every line.
+	 */
+	private int[] tokens;
+
+	/**
+	 * Whether or not every line continues the previous one.
+	 */
+	private boolean[] continued;
+
+	/**
+	 * Index of the first element of the gap.
+	 */
+	private int gapStart;
+
+	/**
+	 * Index one past the last element of the gap.
+	 */
+	private int gapEnd;
+
+	/**
+	 * Number of tokens on the lines before the gap.
+	 */
+	private int tokensBeforeGap;
+
+	/**
+	 * Constructs an empty LineBuffer with the specified initial capacity.
+	 *
+	 * @param initialCapacity initial number of lines the buffer can hold
+	 */
+	LineBuffer(int initialCapacity) {
+		Preconditions.checkArgument(0 < initialCapacity, "Initial capacity must be positive.");
+		this.text = new String[initialCapacity];
+		this.tokens = new int[initialCapacity];
+		this.continued = new boolean[initialCapacity];
+		clear();
+	}
+
+	/**
+	 * Removes every line from this LineBuffer.
+	 */
+	void clear() {
+		Arrays.fill(text, null);
+		gapStart = 0;
+		gapEnd = text.length;
+		tokensBeforeGap = 0;
+	}
+
+	/**
+	 * Returns the number of lines within this LineBuffer.
+	 *
+	 * @return number of lines
+	 */
+	int size() {
+		return text.length-(gapEnd-gapStart);
+	}
+
+	/**
+	 * Returns the text of a line.
+	 *
+	 * @param line index of the line
+	 * @return text of the line
+	 */
+	String getText(int line) {
+		return text[toIndex(line)];
+	}
+
+	/**
+	 * Returns whether or not a line begins inside of a block comment started
+	 * on a previous line.
+	 *
+	 * @param line index of the line
+	 * @return {@code true} if it does, otherwise {@code false}
+	 */
+	boolean isContinued(int line) {
+		return continued[toIndex(line)];
+	}
+
+	/**
+	 * Returns the number of tokens on the lines before a line.
+	 *
+	 * @param line index of the line
+	 * @return number of tokens before the line
+	 */
+	int getTokensBefore(int line) {
+		Preconditions.checkPositionIndex(line, size());
+		moveGap(line);
+		return tokensBeforeGap;
+	}
+
+	/**
+	 * Replaces lines with new ones.
+	 *
+	 * @param firstLine index of the first line to replace
+	 * @param count number of lines to replace
+	 * @param lines text of the lines to insert
+	 * @param lineTokens number of tokens on each line to insert
+	 * @param lineContinued whether or not each line to insert continues the
+	 *	previous one
+	 * @return number of tokens on the lines replaced
+	 */
+	int replace(int firstLine, int count, List<String> lines, int[] lineTokens, boolean[] lineContinued) {
+		Preconditions.checkPositionIndexes(firstLine, firstLine+count, size());
+		moveGap(firstLine);
+		int removed = 0;
+		for (int i = gapEnd; i < gapEnd+count; i++) {
+			removed += tokens[i];
+			text[i] = null;
+		}
+
+		gapEnd += count;
+		int inserted = lines.size();
+		if (gapEnd-gapStart < inserted) {
+			int capacity = Math.max(text.length<<1, size()+inserted);
+			int after = text.length-gapEnd;
+			text = grow(text, capacity, after);
+			tokens = grow(tokens, capacity, after);
+			continued = grow(continued, capacity, after);
+			gapEnd = capacity-after;
+		}
+
+		for (int i = 0; i < inserted; i++) {
+			text[gapStart] = lines.get(i);
+			tokens[gapStart] = lineTokens[i];
+			continued[gapStart] = lineContinued[i];
+			tokensBeforeGap += lineTokens[i];
+			gapStart++;
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Returns the index within the arrays of a line.
+	 *
+	 * @param line index of the line
+	 * @return index of the line within the arrays
+	 */
+	private int toIndex(int line) {
+		Preconditions.checkElementIndex(line, size());
+		return line < gapStart ? line : line+gapEnd-gapStart;
+	}
+
+	/**
+	 * Moves the gap so that it begins at the given line, updating the
+	 * number of tokens before it.
+	 *
+	 * @param line index of the line the gap should precede
+	 */
+	private void moveGap(int line) {
+		while (line < gapStart) {
+			gapStart--;
+			gapEnd--;
+			text[gapEnd] = text[gapStart];
+			tokens[gapEnd] = tokens[gapStart];
+			continued[gapEnd] = continued[gapStart];
+			text[gapStart] = null;
+			tokensBeforeGap -= tokens[gapEnd];
+		}
+
+		while (gapStart < line) {
+			text[gapStart] = text[gapEnd];
+			tokens[gapStart] = tokens[gapEnd];
+			continued[gapStart] = continued[gapEnd];
+			text[gapEnd] = null;
+			tokensBeforeGap += tokens[gapStart];
+			gapStart++;
+			gapEnd++;
+		}
+	}
+
+	/**
+	 * Copies an array into a larger one, keeping the given number of
+	 * elements at its end.
+	 *
+	 * @param array array to copy
+	 * @param capacity length of the new array
+	 * @param after number of elements after the gap
+	 * @return the new array
+	 */
+	private static String[] grow(String[] array, int capacity, int after) {
+		String[] grown = new String[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length-after);
+		System.arraycopy(array, array.length-after, grown, capacity-after, after);
+		return grown;
+	}
+
+	/**
+	 * Copies an array into a larger one, keeping the given number of
+	 * elements at its end.
+	 *
+	 * @param array array to copy
+	 * @param capacity length of the new array
+	 * @param after number of elements after the gap
+	 * @return the new array
+	 */
+	private static int[] grow(int[] array, int capacity, int after) {
+		int[] grown = new int[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length-after);
+		System.arraycopy(array, array.length-after, grown, capacity-after, after);
+		return grown;
+	}
+
+	/**
+	 * Copies an array into a larger one, keeping the given number of
+	 * elements at its end.
+	 *
+	 * @param array array to copy
+	 * @param capacity length of the new array
+	 * @param after number of elements after the gap
+	 * @return the new array
+	 */
+	private static boolean[] grow(boolean[] array, int capacity, int after) {
+		boolean[] grown = new boolean[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length-after);
+		System.arraycopy(array, array.length-after, grown, capacity-after, after);
+		return grown;
+	}
+}
@@ -0,0 +1,112 @@
+package edu.csupomona.cs.cs411.project2.parser.tree;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * This class represents the symbol ids of the tokens of a document stored
+ * within a gap buffer. The gap is moved to wherever symbols are replaced, so
+ * that the cost of a replacement is proportional to the number of symbols
+ * replaced and the distance from the previous replacement rather than to the
+ * size of the document.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+final class SymbolBuffer {
+	/**
+	 * Symbol ids before and after the gap.
+	 */
+	private int[] symbols;
+
+	/**
+	 * Index of the first element of the gap.
+	 */
+	private int gapStart;
+
+	/**
+	 * Index one past the last element of the gap.
+	 */
+	private int gapEnd;
+
+	/**
+	 * Constructs an empty SymbolBuffer with the specified initial capacity.
+	 *
+	 * @param initialCapacity initial number of symbols the buffer can hold
+	 */
+	SymbolBuffer(int initialCapacity) {
+		Preconditions.checkArgument(0 < initialCapacity, "Initial capacity must be positive.");
+		this.symbols = new int[initialCapacity];
+		clear();
+	}
+
+	/**
+	 * Removes every symbol from this SymbolBuffer.
+	 */
+	void clear() {
+		gapStart = 0;
+		gapEnd = symbols.length;
+	}
+
+	/**
+	 * Returns the number of symbols within this SymbolBuffer.
+	 *
+	 * @return number of symbols
+	 */
+	int size() {
+		return symbols.length-(gapEnd-gapStart);
+	}
+
+	/**
+	 * Returns the symbol id at the given index.
+	 *
+	 * @param index index of the symbol
+	 * @return symbol id
+	 */
+	int get(int index) {
+		return index < gapStart ? symbols[index] : symbols[index+gapEnd-gapStart];
+	}
+
+	/**
+	 * Replaces symbols with the first symbols of an array.
+	 *
+	 * @param start index of the first symbol to replace
+	 * @param removed number of symbols to replace
+	 * @param inserted array containing the symbols to insert
+	 * @param count number of symbols to insert
+	 */
+	void replace(int start, int removed, int[] inserted, int count) {
+		Preconditions.checkPositionIndexes(start, start+removed, size());
+		moveGap(start);
+		gapEnd += removed;
+		if (gapEnd-gapStart < count) {
+			int capacity = Math.max(symbols.length<<1, size()+count);
+			int[] grown = new int[capacity];
+			System.arraycopy(symbols, 0, grown, 0, gapStart);
+			System.arraycopy(symbols, gapEnd, grown, capacity-(symbols.length-gapEnd), symbols.length-gapEnd);
+			gapEnd = capacity-(symbols.length-gapEnd);
+			symbols = grown;
+		}
+
+		System.arraycopy(inserted, 0, symbols, gapStart, count);
+		gapStart += count;
+	}
+
+	/**
+	 * Moves the gap so that it begins at the given index.
+	 *
+	 * @param index index of the symbol the gap should precede
+	 */
+	private void moveGap(int index) {
+		int count;
+		if (index < gapStart) {
+			count = gapStart-index;
+			System.arraycopy(symbols, index, symbols, gapEnd-count, count);
+			gapStart -= count;
+			gapEnd -= count;
+		} else if (gapStart < index) {
+			count = index-gapStart;
+			System.arraycopy(symbols, gapEnd, symbols, gapStart, count);
+			gapStart += count;
+			gapEnd += count;
+		}
+	}
+}
@@ -0,0 +1,572 @@
+package edu.csupomona.cs.cs411.project2.parser.tree;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * This class represents a concrete syntax tree stored as a set of parallel
+ * primitive arrays (an arena) rather than as node objects. Every node is
+ * identified by its index within the arena, and stores either the production
+ * it was reduced from or, for tokens, the complement ({@code ~symbol}) of its
+ * symbol id, its first child, its next sibling, its parent, the span of token
+ * indexes it covers and the table the parser was in to the left of it (i.e.,
+ * the table on top of the stack when its first token was shifted).
+ * <p>
+ * A span is stored as the offset of its first token from the first token of
+ * the parent, together with the number of tokens it covers, so that a
+ * subtree can be moved elsewhere in the document by changing its root alone.
+ * The offset of a node without a parent is the index of its first token.
+ * Nodes which are no longer needed can be released back into the arena,
+ * where they are kept within a free list (linked through their next
+ * siblings) and handed out again before the arena grows.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class SyntaxTree {
+	/**
+	 * Value used for a missing node, e.g., the first child of a token.
+	 */
+	public static final int NONE = -1;
+
+	/**
+	 * Bytes which begin every serialized SyntaxTree.
+	 */
+	private static final byte[] MAGIC = { 'S', 'L', 'R', 'C' };
+
+	/**
+	 * Version of the serialized format written.
+	 */
+	private static final int VERSION = 3;
+
+	/**
+	 * Initial capacity of the arena when none is specified.
+	 */
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Production id of every node, or {@code ~symbol} for tokens.
+	 */
+	private int[] production;
+
+	/**
+	 * First child of every node, or {@link #NONE}.
+	 */
+	private int[] firstChild;
+
+	/**
+	 * Next sibling of every node, or {@link #NONE}.
+	 */
+	private int[] nextSibling;
+
+	/**
+	 * Parent of every node, or {@link #NONE}.
+	 */
+	private int[] parent;
+
+	/**
+	 * Index of the first token covered by every node, relative to the first
+	 * token covered by its parent if it has one.
+	 */
+	private int[] offset;
+
+	/**
+	 * Number of tokens covered by every node.
+	 */
+	private int[] width;
+
+	/**
+	 * Table to the left of every node.
+	 */
+	private int[] leftState;
+
+	/**
+	 * Number of nodes allocated from the arena, including released ones.
+	 */
+	private int size;
+
+	/**
+	 * First node of the free list, or {@link #NONE} if it is empty.
+	 */
+	private int free;
+
+	/**
+	 * Number of nodes within the free list.
+	 */
+	private int numFree;
+
+	/**
+	 * Root of this SyntaxTree, or {@link #NONE} if it is incomplete.
+	 */
+	private int root;
+
+	/**
+	 * Constructs an empty SyntaxTree with the default capacity.
+	 */
+	public SyntaxTree() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs an empty SyntaxTree with the specified initial capacity. The
+	 * arena grows as needed beyond this capacity.
+	 *
+	 * @param initialCapacity initial number of nodes the arena can hold
+	 */
+	public SyntaxTree(int initialCapacity) {
+		Preconditions.checkArgument(0 < initialCapacity, "Initial capacity must be positive.");
+		this.production = new int[initialCapacity];
+		this.firstChild = new int[initialCapacity];
+		this.nextSibling = new int[initialCapacity];
+		this.parent = new int[initialCapacity];
+		this.offset = new int[initialCapacity];
+		this.width = new int[initialCapacity];
+		this.leftState = new int[initialCapacity];
+		clear();
+	}
+
+	/**
+	 * Removes every node from this SyntaxTree while keeping its capacity so
+	 * that it can be reused.
+	 */
+	public void clear() {
+		size = 0;
+		free = NONE;
+		numFree = 0;
+		root = NONE;
+	}
+
+	/**
+	 * Appends a token node to the arena.
+	 *
+	 * @param symbol symbol id of the token
+	 * @param state table the parser was in when shifting the token
+	 * @param tokenIndex index of the token
+	 * @return the node created
+	 */
+	public int addToken(int symbol, int state, int tokenIndex) {
+		int node = allocate();
+		production[node] = ~symbol;
+		leftState[node] = state;
+		firstChild[node] = NONE;
+		nextSibling[node] = NONE;
+		parent[node] = NONE;
+		offset[node] = tokenIndex;
+		width[node] = 1;
+		return node;
+	}
+
+	/**
+	 * Appends a node for a reduced production to the arena, linking the
+	 * given children to it in order. The children must not have a parent. A
+	 * production without children covers the empty span at the given token
+	 * index.
+	 *
+	 * @param productionId id of the production reduced
+	 * @param children array containing the children of the node
+	 * @param offset index within {@code children} of the first child
+	 * @param count number of children
+	 * @param state table the parser was in when reducing the production
+	 * @param tokenIndex index of the lookahead token at the reduction
+	 * @return the node created
+	 */
+	public int addProduction(int productionId, int[] children, int offset, int count, int state, int tokenIndex) {
+		int node = allocate();
+		production[node] = productionId;
+		nextSibling[node] = NONE;
+		parent[node] = NONE;
+		if (count == 0) {
+			firstChild[node] = NONE;
+			leftState[node] = state;
+			this.offset[node] = tokenIndex;
+			width[node] = 0;
+			return node;
+		}
+
+		int last = offset+count-1;
+		int start = this.offset[children[offset]];
+		int child;
+		for (int i = offset; i <= last; i++) {
+			child = children[i];
+			nextSibling[child] = i < last ? children[i+1] : NONE;
+			parent[child] = node;
+			this.offset[child] -= start;
+		}
+
+		firstChild[node] = children[offset];
+		leftState[node] = leftState[children[offset]];
+		this.offset[node] = start;
+		width[node] = this.offset[children[last]]+width[children[last]];
+		return node;
+	}
+
+	/**
+	 * Appends a node for a reduced production whose children lie beneath the
+	 * top of a stack of nodes, and replaces those children on the stack with
+	 * it. The nodes above the children are moved down (or up, if there are
+	 * no children) to make room. This is how reductions of an optimized CFG
+	 * which report an offset are applied, see
+	 * {@link edu.csupomona.cs.cs411.project2.parser.ParseListener#reduce}.
+	 * The stack must have room for one more node if {@code count} is
+	 * {@code 0}.
+	 *
+	 * @param productionId id of the production reduced
+	 * @param count number of children
+	 * @param stack stack of nodes which have not yet been given a parent
+	 * @param depth number of nodes within {@code stack}
+	 * @param offset number of nodes above the children
+	 * @param state table the parser was in when reducing the production
+	 * @param tokenIndex index of the lookahead token at the reduction
+	 * @return number of nodes within {@code stack} after the reduction
+	 */
+	public int reduce(int productionId, int count, int[] stack, int depth, int offset, int state, int tokenIndex) {
+		int first = depth-offset-count;
+		if (count == 0 && 0 < offset) {
+			tokenIndex = this.offset[stack[first]];
+		}
+
+		int node = addProduction(productionId, stack, first, count, state, tokenIndex);
+		System.arraycopy(stack, depth-offset, stack, first+1, offset);
+		stack[first] = node;
+		return first+offset+1;
+	}
+
+	/**
+	 * Returns the index of the next node, taking it from the free list if
+	 * possible and otherwise growing the arena if necessary.
+	 *
+	 * @return index of the next node
+	 */
+	private int allocate() {
+		if (free != NONE) {
+			int node = free;
+			free = nextSibling[node];
+			numFree--;
+			return node;
+		}
+
+		if (size == production.length) {
+			int capacity = production.length<<1;
+			production = Arrays.copyOf(production, capacity);
+			firstChild = Arrays.copyOf(firstChild, capacity);
+			nextSibling = Arrays.copyOf(nextSibling, capacity);
+			parent = Arrays.copyOf(parent, capacity);
+			offset = Arrays.copyOf(offset, capacity);
+			width = Arrays.copyOf(width, capacity);
+			leftState = Arrays.copyOf(leftState, capacity);
+		}
+
+		return size++;
+	}
+
+	/**
+	 * Returns a node to the free list so that it can be allocated again. Its
+	 * children are not released.
+	 *
+	 * @param node node to release
+	 */
+	void release(int node) {
+		nextSibling[node] = free;
+		free = node;
+		numFree++;
+	}
+
+	/**
+	 * Returns a node and all of its descendants to the free list. The next
+	 * siblings of the node are not released.
+	 *
+	 * @param node root of the subtree to release
+	 * @param pending scratch stack, which is grown and returned if it is too
+	 *	small
+	 * @return the scratch stack
+	 */
+	int[] releaseSubtree(int node, int[] pending) {
+		int numPending = 0;
+		pending[numPending++] = node;
+		int n;
+		while (0 < numPending) {
+			n = pending[--numPending];
+			for (int child = firstChild[n]; child != NONE; child = nextSibling[child]) {
+				if (numPending == pending.length) {
+					pending = Arrays.copyOf(pending, numPending<<1);
+				}
+
+				pending[numPending++] = child;
+			}
+
+			release(n);
+		}
+
+		return pending;
+	}
+
+	/**
+	 * Returns the number of nodes within this SyntaxTree, excluding those
+	 * which have been released.
+	 *
+	 * @return number of nodes
+	 */
+	public int size() {
+		return size-numFree;
+	}
+
+	/**
+	 * Returns the root of this SyntaxTree.
+	 *
+	 * @return root node, or {@link #NONE} if the tree is incomplete
+	 */
+	public int getRoot() {
+		return root;
+	}
+
+	/**
+	 * Changes the root of this SyntaxTree.
+	 *
+	 * @param node new root node, or {@link #NONE}
+	 */
+	public void setRoot(int node) {
+		Preconditions.checkElementIndex(node+1, size+1);
+		this.root = node;
+	}
+
+	/**
+	 * Returns whether or not a node represents a token.
+	 *
+	 * @param node node to check
+	 * @return {@code true} if it does, otherwise {@code false}
+	 */
+	public boolean isToken(int node) {
+		return production[node] < 0;
+	}
+
+	/**
+	 * Returns the symbol id of a token node.
+	 *
+	 * @param node token node to check
+	 * @return symbol id of the token
+	 */
+	public int getSymbol(int node) {
+		return ~production[node];
+	}
+
+	/**
+	 * Returns the production id of a production node.
+	 *
+	 * @param node production node to check
+	 * @return id of the production the node was reduced from
+	 */
+	public int getProduction(int node) {
+		return production[node];
+	}
+
+	/**
+	 * Returns the first child of a node.
+	 *
+	 * @param node node to check
+	 * @return first child, or {@link #NONE} if it has none
+	 */
+	public int getFirstChild(int node) {
+		return firstChild[node];
+	}
+
+	/**
+	 * Returns the next sibling of a node.
+	 *
+	 * @param node node to check
+	 * @return next sibling, or {@link #NONE} if it has none
+	 */
+	public int getNextSibling(int node) {
+		return nextSibling[node];
+	}
+
+	/**
+	 * Returns the parent of a node.
+	 *
+	 * @param node node to check
+	 * @return parent, or {@link #NONE} if it has none
+	 */
+	public int getParent(int node) {
+		return parent[node];
+	}
+
+	/**
+	 * Returns the offset of the first token covered by a node from the first
+	 * token covered by its parent, or the index of that token if the node
+	 * has no parent.
+	 *
+	 * @param node node to check
+	 * @return offset of the first token covered
+	 */
+	int getOffset(int node) {
+		return offset[node];
+	}
+
+	/**
+	 * Detaches a node from its parent and siblings so that it begins at the
+	 * given token, or reattaches it. Moving a node moves all of its
+	 * descendants with it. This is used to reuse the nodes of a previous tree
+	 * within an incremental parse, and to restore them if that parse was
+	 * rejected.
+	 *
+	 * @param node node to change
+	 * @param parent new parent, or {@link #NONE}
+	 * @param offset new offset of the first token covered, see
+	 *	{@link #getOffset(int)}
+	 * @param sibling new next sibling, or {@link #NONE}
+	 */
+	void link(int node, int parent, int offset, int sibling) {
+		this.parent[node] = parent;
+		this.offset[node] = offset;
+		this.nextSibling[node] = sibling;
+	}
+
+	/**
+	 * Returns the index of the first token covered by a node. This sums the
+	 * offsets of the node and its ancestors.
+	 *
+	 * @param node node to check
+	 * @return index of the first token covered
+	 */
+	public int getStart(int node) {
+		int start = 0;
+		for (int n = node; n != NONE; n = parent[n]) {
+			start += offset[n];
+		}
+
+		return start;
+	}
+
+	/**
+	 * Returns the index one past the last token covered by a node.
+	 *
+	 * @param node node to check
+	 * @return index one past the last token covered
+	 */
+	public int getEnd(int node) {
+		return getStart(node)+width[node];
+	}
+
+	/**
+	 * Returns the number of tokens covered by a node.
+	 *
+	 * @param node node to check
+	 * @return number of tokens covered
+	 */
+	public int getWidth(int node) {
+		return width[node];
+	}
+
+	/**
+	 * Returns the table to the left of a node, i.e., the table on top of the
+	 * parser's stack before the first token of the node was shifted.
+	 *
+	 * @param node node to check
+	 * @return table to the left of the node
+	 */
+	public int getLeftState(int node) {
+		return leftState[node];
+	}
+
+	/**
+	 * Writes this SyntaxTree in its binary form, which begins with a header
+	 * (magic, version, number of nodes, root and free list) followed by each
+	 * array of the arena.
+	 *
+	 * @param out OutputStream to write into
+	 * @throws IOException if there is an error writing
+	 */
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.write(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(size);
+		data.writeInt(root);
+		data.writeInt(free);
+		data.writeInt(numFree);
+		writeArray(data, production);
+		writeArray(data, firstChild);
+		writeArray(data, nextSibling);
+		writeArray(data, parent);
+		writeArray(data, offset);
+		writeArray(data, width);
+		writeArray(data, leftState);
+		data.flush();
+	}
+
+	/**
+	 * Writes the used portion of an arena array.
+	 *
+	 * @param data DataOutputStream to write into
+	 * @param array array to write
+	 * @throws IOException if there is an error writing
+	 */
+	private void writeArray(DataOutputStream data, int[] array) throws IOException {
+		for (int i = 0; i < size; i++) {
+			data.writeInt(array[i]);
+		}
+	}
+
+	/**
+	 * Reads a SyntaxTree written by {@link #write(java.io.OutputStream)}.
+	 *
+	 * @param in InputStream to read from
+	 * @return the SyntaxTree read
+	 * @throws IOException if there is an error reading or the input is not a
+	 *	serialized SyntaxTree
+	 */
+	public static SyntaxTree read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		byte[] magic = new byte[MAGIC.length];
+		data.readFully(magic);
+		if (!Arrays.equals(magic, MAGIC)) {
+			throw new IOException("Input is not a serialized syntax tree!");
+		}
+
+		int version = data.readInt();
+		if (version != VERSION) {
+			throw new IOException(String.format("Unsupported syntax tree version %d!", version));
+		}
+
+		int size = data.readInt();
+		int root = data.readInt();
+		int free = data.readInt();
+		int numFree = data.readInt();
+		if (size < 0 || root < NONE || size <= root || free < NONE || size <= free || numFree < 0 || size < numFree) {
+			throw new IOException("Syntax tree header is corrupt!");
+		}
+
+		SyntaxTree tree = new SyntaxTree(Math.max(size, 1));
+		readArray(data, tree.production, size);
+		readArray(data, tree.firstChild, size);
+		readArray(data, tree.nextSibling, size);
+		readArray(data, tree.parent, size);
+		readArray(data, tree.offset, size);
+		readArray(data, tree.width, size);
+		readArray(data, tree.leftState, size);
+		tree.size = size;
+		tree.root = root;
+		tree.free = free;
+		tree.numFree = numFree;
+		return tree;
+	}
+
+	/**
+	 * Reads an arena array.
+	 *
+	 * @param data DataInputStream to read from
+	 * @param array array to read into
+	 * @param size number of elements to read
+	 * @throws IOException if there is an error reading
+	 */
+	private static void readArray(DataInputStream data, int[] array, int size) throws IOException {
+		for (int i = 0; i < size; i++) {
+			array[i] = data.readInt();
+		}
+	}
+}
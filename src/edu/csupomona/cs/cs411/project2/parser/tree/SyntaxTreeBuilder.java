@@ -0,0 +1,131 @@
+package edu.csupomona.cs.cs411.project2.parser.tree;
+
+import com.google.common.base.Preconditions;
+import edu.csupomona.cs.cs411.project2.parser.ParseListener;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRTables;
+import java.util.Arrays;
+
+/**
+ * This class represents a {@link ParseListener} which builds a
+ * {@link SyntaxTree} from the shifts and reductions of a parse. Every shift
+ * appends a token node and every reduction appends a production node whose
+ * children are the nodes of its right-hand side. Since the parser accepts
+ * instead of reducing production 0, accepting appends the root for that
+ * production. The builder and its tree can be reused for another parse once
+ * the previous tree is no longer needed.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public final class SyntaxTreeBuilder implements ParseListener {
+	/**
+	 * Tables used to determine the number of children of each original
+	 * production.
+	 */
+	private final SLRTables SLR_TABLES;
+
+	/**
+	 * Tree to build.
+	 */
+	private final SyntaxTree TREE;
+
+	/**
+	 * Stack of nodes which have not yet been given a parent.
+	 */
+	private int[] stack;
+
+	/**
+	 * Number of nodes within {@link #stack}.
+	 */
+	private int depth;
+
+	/**
+	 * Constructs a SyntaxTreeBuilder which builds a new {@link SyntaxTree}.
+	 *
+	 * @param tables tables of the parser driving this builder
+	 */
+	public SyntaxTreeBuilder(SLRTables tables) {
+		this(tables, new SyntaxTree());
+	}
+
+	/**
+	 * Constructs a SyntaxTreeBuilder which builds into the given
+	 * {@link SyntaxTree}, clearing it first.
+	 *
+	 * @param tables tables of the parser driving this builder
+	 * @param tree tree to build into
+	 */
+	public SyntaxTreeBuilder(SLRTables tables, SyntaxTree tree) {
+		this.SLR_TABLES = Preconditions.checkNotNull(tables);
+		this.TREE = Preconditions.checkNotNull(tree);
+		this.stack = new int[256];
+		reset();
+	}
+
+	/**
+	 * Clears the tree and this builder so that another parse can be built.
+	 */
+	public void reset() {
+		TREE.clear();
+		depth = 0;
+	}
+
+	/**
+	 * Returns the tree built by this SyntaxTreeBuilder.
+	 *
+	 * @return the tree built
+	 */
+	public SyntaxTree getTree() {
+		return TREE;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void shift(int state, int symbol, int tokenIndex) {
+		push(TREE.addToken(symbol, state, tokenIndex));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reduce(int state, int production, int offset, int symbol, int tokenIndex) {
+		if (depth == stack.length) {
+			stack = Arrays.copyOf(stack, stack.length<<1);
+		}
+
+		depth = TREE.reduce(production, SLR_TABLES.getOriginalRHSSize(production), stack, depth, offset, state, tokenIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void accept(int symbol, int tokenIndex) {
+		reduce(0, 0, 0, symbol, tokenIndex);
+		TREE.setRoot(stack[--depth]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reject(int state, int symbol, int tokenIndex) {
+		TREE.setRoot(SyntaxTree.NONE);
+		depth = 0;
+	}
+
+	/**
+	 * Pushes a node onto the stack, growing it if necessary.
+	 *
+	 * @param node node to push
+	 */
+	private void push(int node) {
+		if (depth == stack.length) {
+			stack = Arrays.copyOf(stack, stack.length<<1);
+		}
+
+		stack[depth++] = node;
+	}
+}
@@ -0,0 +1,183 @@
+package edu.csupomona.cs.cs411.project2.parser;
+
+import edu.csupomona.cs.cs411.project1.lexer.ToyLexer;
+import edu.csupomona.cs.cs411.project2.parser.lalr.LALRParserGenerator;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRParser;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRTables;
+import edu.csupomona.cs.cs411.project2.parser.tree.SyntaxTree;
+import edu.csupomona.cs.cs411.project2.parser.tree.SyntaxTreeBuilder;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the productions optimized by a {@link GrammarOptimizer} from the
+ * toy grammar. The optimized tables must accept and reject the same inputs
+ * as the original ones, stopping on the same token, and the original
+ * reductions they report (see {@link SLRTables#getReduction(int, int)} and
+ * {@link SLRTables#getReductionOffset(int, int)}) must build the same tree.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public class GrammarOptimizerTest {
+	/**
+	 * Path of the toy grammar.
+	 */
+	private static final Path CFG_PATH = Paths.get(".", "res", "toy.cfg.txt");
+
+	/**
+	 * Directory containing the sample inputs of the toy grammar.
+	 */
+	private static final Path INPUT_PATH = Paths.get(".", "input");
+
+	/**
+	 * Number of mutated inputs generated from each sample input.
+	 */
+	private static final int NUM_MUTATIONS = 100;
+
+	private static SLRTables tables;
+	private static SLRTables optimizedTables;
+
+	@BeforeClass
+	public static void setUpClass() throws IOException {
+		tables = new LALRParserGenerator(CFG_PATH).getGeneratedLALRTables().getSLRTables();
+		optimizedTables = new LALRParserGenerator(CFG_PATH, true, 1).getGeneratedLALRTables().getSLRTables();
+	}
+
+	@Test
+	public void testProductionsAreRewritten() {
+		assertTrue(optimizedTables.getNumProductions() != tables.getNumProductions());
+		assertTrue(optimizedTables.getNumShiftReduceConflicts() <= tables.getNumShiftReduceConflicts());
+		assertEquals(tables.getNumReduceReduceConflicts(), optimizedTables.getNumReduceReduceConflicts());
+	}
+
+	@Test
+	public void testAcceptsSameInputs() throws IOException {
+		Parser parser = new SLRParser(tables);
+		Parser optimized = new SLRParser(optimizedTables);
+
+		int numAccepted = 0;
+		int numRejected = 0;
+		for (String input : getInputs()) {
+			ParseResult expected = recognize(parser, input);
+			ParseResult actual = recognize(optimized, input);
+			assertEquals(input, expected.isAccepted(), actual.isAccepted());
+			assertEquals(input, expected.getTokenIndex(), actual.getTokenIndex());
+			if (expected.isAccepted()) {
+				numAccepted++;
+			} else {
+				numRejected++;
+			}
+		}
+
+		assertTrue(0 < numAccepted);
+		assertTrue(0 < numRejected);
+	}
+
+	@Test
+	public void testReductionsBuildSameTree() throws IOException {
+		SLRParser parser = new SLRParser(tables);
+		SLRParser optimized = new SLRParser(optimizedTables);
+		SyntaxTreeBuilder expected = new SyntaxTreeBuilder(tables);
+		SyntaxTreeBuilder actual = new SyntaxTreeBuilder(optimizedTables);
+
+		int numCompared = 0;
+		for (String input : getInputs()) {
+			expected.reset();
+			actual.reset();
+			if (!parser.parse(new ToyLexer().lex(new StringReader(input)), expected, new ParseContext())) {
+				continue;
+			}
+
+			assertTrue(input, optimized.parse(new ToyLexer().lex(new StringReader(input)), actual, new ParseContext()));
+			SyntaxTree expectedTree = expected.getTree();
+			SyntaxTree actualTree = actual.getTree();
+			assertEquals(input, expectedTree.size(), assertSameNode(input, expectedTree, expectedTree.getRoot(), actualTree, actualTree.getRoot()));
+			assertEquals(input, expectedTree.size(), actualTree.size());
+			numCompared++;
+		}
+
+		assertTrue(0 < numCompared);
+	}
+
+	/**
+	 * Asserts that two subtrees are the same, i.e., have the same original
+	 * productions or symbols, spans and children. The tables to the left of
+	 * the nodes are not compared, since the optimized tables are numbered
+	 * differently.
+	 *
+	 * @return number of nodes within the subtrees
+	 */
+	private static int assertSameNode(String message, SyntaxTree expectedTree, int expected, SyntaxTree actualTree, int actual) {
+		assertEquals(message, expectedTree.getProduction(expected), actualTree.getProduction(actual));
+		assertEquals(message, expectedTree.getStart(expected), actualTree.getStart(actual));
+		assertEquals(message, expectedTree.getWidth(expected), actualTree.getWidth(actual));
+
+		int numNodes = 1;
+		int expectedChild = expectedTree.getFirstChild(expected);
+		int actualChild = actualTree.getFirstChild(actual);
+		while (expectedChild != SyntaxTree.NONE && actualChild != SyntaxTree.NONE) {
+			numNodes += assertSameNode(message, expectedTree, expectedChild, actualTree, actualChild);
+			expectedChild = expectedTree.getNextSibling(expectedChild);
+			actualChild = actualTree.getNextSibling(actualChild);
+		}
+
+		assertEquals(message, expectedChild, actualChild);
+		return numNodes;
+	}
+
+	/**
+	 * Returns the sample inputs of the toy grammar, each followed by inputs
+	 * generated from it by repeatedly replacing, duplicating or removing a
+	 * random line, many of which cannot be parsed.
+	 *
+	 * @return the inputs
+	 * @throws IOException when a sample input cannot be read
+	 */
+	private static List<String> getInputs() throws IOException {
+		Random random = new Random(0);
+		List<String> inputs = new ArrayList<>();
+		for (int i = 1; i <= 4; i++) {
+			List<String> lines = new ArrayList<>(Files.readAllLines(INPUT_PATH.resolve("test" + i + ".txt"), Charset.forName("US-ASCII")));
+			for (int j = 0; j <= NUM_MUTATIONS; j++) {
+				StringBuilder sb = new StringBuilder();
+				for (String line : lines) {
+					sb.append(line).append('\n');
+				}
+
+				inputs.add(sb.toString());
+
+				int line = random.nextInt(lines.size());
+				switch (random.nextInt(3)) {
+					case 0:
+						lines.set(line, lines.get(random.nextInt(lines.size())));
+						break;
+					case 1:
+						lines.add(line, lines.get(random.nextInt(lines.size())));
+						break;
+					default:
+						if (1 < lines.size()) {
+							lines.remove(line);
+						}
+				}
+			}
+		}
+
+		return inputs;
+	}
+
+	private static ParseResult recognize(Parser parser, String input) throws IOException {
+		return parser.recognize(new ToyLexer().lex(new StringReader(input)));
+	}
+}
@@ -0,0 +1,212 @@
+package edu.csupomona.cs.cs411.project2.parser;
+
+import edu.csupomona.cs.cs411.project1.lexer.Token;
+import edu.csupomona.cs.cs411.project1.lexer.TokenStream;
+import edu.csupomona.cs.cs411.project1.lexer.ToyKeywords;
+import edu.csupomona.cs.cs411.project2.parser.lalr.LALRParser;
+import edu.csupomona.cs.cs411.project2.parser.lalr.LALRParserGenerator;
+import edu.csupomona.cs.cs411.project2.parser.trace.NoOpParseListener;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Allocation regression tests for parsing with a reused {@link ParseContext}.
+ * Each test parses N tokens and then 2N tokens with the same ParseContext
+ * and checks that the bytes allocated by the calling thread do not grow with
+ * the number of tokens.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public class ParseContextTest {
+	/**
+	 * Number of declarations within the smaller input, where each
+	 * declaration is 3 tokens.
+	 */
+	private static final int NUM_DECLARATIONS = 10000;
+
+	/**
+	 * Number of times each input is parsed before measuring, so that the
+	 * parse loop has been compiled and every buffer has grown.
+	 */
+	private static final int NUM_WARMUPS = 50;
+
+	/**
+	 * Number of measurements taken of each input, of which the smallest is
+	 * used.
+	 */
+	private static final int NUM_TRIALS = 10;
+
+	private static Parser parser;
+	private static com.sun.management.ThreadMXBean threads;
+
+	@BeforeClass
+	public static void setUpClass() throws IOException {
+		parser = new LALRParser(new LALRParserGenerator(Paths.get(".", "res", "toy.cfg.txt")).getGeneratedLALRTables());
+		threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+	}
+
+	@Test
+	public void testParseDoesNotAllocatePerToken() throws IOException {
+		ParseContext context = new ParseContext();
+		ParseListener listener = new NoOpParseListener();
+		ReplayTokenStream small = new ReplayTokenStream(NUM_DECLARATIONS);
+		ReplayTokenStream large = new ReplayTokenStream(2*NUM_DECLARATIONS);
+		assertTrue(parser.parse(small.rewind(), listener, context));
+		assertTrue(parser.parse(large.rewind(), listener, context));
+
+		long smallBytes = Long.MAX_VALUE;
+		long largeBytes = Long.MAX_VALUE;
+		for (int i = 0; i < NUM_WARMUPS+NUM_TRIALS; i++) {
+			long bytes = allocatedBytes();
+			parser.parse(small.rewind(), listener, context);
+			smallBytes = Math.min(smallBytes, allocatedBytes()-bytes);
+
+			bytes = allocatedBytes();
+			parser.parse(large.rewind(), listener, context);
+			largeBytes = Math.min(largeBytes, allocatedBytes()-bytes);
+		}
+
+		assertAllocationDoesNotGrow(smallBytes, largeBytes, small.size());
+	}
+
+	@Test
+	public void testRecognizeDoesNotAllocatePerToken() {
+		ParseContext context = new ParseContext();
+		ReplayTokenStream small = new ReplayTokenStream(NUM_DECLARATIONS);
+		ReplayTokenStream large = new ReplayTokenStream(2*NUM_DECLARATIONS);
+		assertTrue(parser.recognize(small.rewind(), context).isAccepted());
+		assertTrue(parser.recognize(large.rewind(), context).isAccepted());
+
+		long smallBytes = Long.MAX_VALUE;
+		long largeBytes = Long.MAX_VALUE;
+		for (int i = 0; i < NUM_WARMUPS+NUM_TRIALS; i++) {
+			long bytes = allocatedBytes();
+			parser.recognize(small.rewind(), context);
+			smallBytes = Math.min(smallBytes, allocatedBytes()-bytes);
+
+			bytes = allocatedBytes();
+			parser.recognize(large.rewind(), context);
+			largeBytes = Math.min(largeBytes, allocatedBytes()-bytes);
+		}
+
+		assertAllocationDoesNotGrow(smallBytes, largeBytes, small.size());
+	}
+
+	@Test
+	public void testTextParseDoesNotAllocatePerTokenOrPerFile() throws IOException {
+		Writer writer = new NullWriter();
+		ReplayTokenStream small = new ReplayTokenStream(NUM_DECLARATIONS);
+		ReplayTokenStream large = new ReplayTokenStream(2*NUM_DECLARATIONS);
+		assertTrue(parser.parse(small.rewind(), writer));
+		assertTrue(parser.parse(large.rewind(), writer));
+
+		long overhead = Long.MAX_VALUE;
+		long smallBytes = Long.MAX_VALUE;
+		long largeBytes = Long.MAX_VALUE;
+		for (int i = 0; i < NUM_WARMUPS+NUM_TRIALS; i++) {
+			long bytes = allocatedBytes();
+			overhead = Math.min(overhead, allocatedBytes()-bytes);
+
+			bytes = allocatedBytes();
+			parser.parse(small.rewind(), writer);
+			smallBytes = Math.min(smallBytes, allocatedBytes()-bytes);
+
+			bytes = allocatedBytes();
+			parser.parse(large.rewind(), writer);
+			largeBytes = Math.min(largeBytes, allocatedBytes()-bytes);
+		}
+
+		assertAllocationDoesNotGrow(smallBytes, largeBytes, small.size());
+		assertEquals("bytes allocated per file", overhead, smallBytes);
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the calling thread so far,
+	 * skipping the test if the JVM cannot measure it.
+	 *
+	 * @return number of bytes allocated by the calling thread
+	 */
+	private static long allocatedBytes() {
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		if (!threads.isThreadAllocatedMemoryEnabled()) {
+			threads.setThreadAllocatedMemoryEnabled(true);
+		}
+
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Checks that parsing twice as many tokens did not allocate any more than
+	 * a byte per additional token, which is less than any object.
+	 *
+	 * @param smallBytes bytes allocated parsing the smaller input
+	 * @param largeBytes bytes allocated parsing the larger input
+	 * @param numTokens number of tokens within the smaller input
+	 */
+	private static void assertAllocationDoesNotGrow(long smallBytes, long largeBytes, int numTokens) {
+		assertTrue(String.format("%d bytes allocated for %d tokens, %d bytes for %d tokens", smallBytes, numTokens, largeBytes, 2*numTokens-1),
+			largeBytes-smallBytes < numTokens);
+	}
+
+	/**
+	 * This class represents a TokenStream which replays the tokens of a list
+	 * of field declarations, e.g., {@code int x;}, without allocating any.
+	 */
+	private static final class ReplayTokenStream implements TokenStream {
+		private final Token[] TOKENS;
+		private int next;
+
+		ReplayTokenStream(int numDeclarations) {
+			this.TOKENS = new Token[3*numDeclarations+1];
+			for (int i = 0; i < numDeclarations; i++) {
+				TOKENS[3*i] = ToyKeywords._int;
+				TOKENS[3*i+1] = ToyKeywords._id;
+				TOKENS[3*i+2] = ToyKeywords._semicolon;
+			}
+
+			TOKENS[TOKENS.length-1] = ToyKeywords._EOF;
+		}
+
+		ReplayTokenStream rewind() {
+			next = 0;
+			return this;
+		}
+
+		int size() {
+			return TOKENS.length;
+		}
+
+		@Override
+		public Token next() {
+			return next < TOKENS.length ? TOKENS[next++] : null;
+		}
+	}
+
+	/**
+	 * This class represents a Writer which discards everything written.
+	 */
+	private static final class NullWriter extends Writer {
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			//...
+		}
+
+		@Override
+		public void flush() {
+			//...
+		}
+
+		@Override
+		public void close() {
+			//...
+		}
+	}
+}
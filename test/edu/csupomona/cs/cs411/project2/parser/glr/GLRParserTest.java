@@ -0,0 +1,185 @@
+package edu.csupomona.cs.cs411.project2.parser.glr;
+
+import edu.csupomona.cs.cs411.project1.lexer.Token;
+import edu.csupomona.cs.cs411.project1.lexer.TokenStream;
+import edu.csupomona.cs.cs411.project1.lexer.ToyKeywords;
+import edu.csupomona.cs.cs411.project2.parser.CFG;
+import edu.csupomona.cs.cs411.project2.parser.ParseContext;
+import edu.csupomona.cs.cs411.project2.parser.ParseResult;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRParser;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRParserGenerator;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRTables;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._id;
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._multiplication;
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._plus;
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._semicolon;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of a {@link GLRParser} using an ambiguous expression grammar, whose
+ * tables have a shift-reduce conflict after every operand followed by an
+ * operator. Every derivation of an expression must be kept within the
+ * {@link SharedPackedForest}, and once a statement ends the parser must
+ * return to a single stack and parse as an {@link SLRParser} would.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public class GLRParserTest {
+	/**
+	 * Ambiguous expression grammar, which has no precedence or
+	 * associativity.
+	 */
+	private static final String GRAMMAR =
+		"Program:\n" +
+		"StatementList\n" +
+		"\n" +
+		"StatementList:\n" +
+		"Statement\n" +
+		"StatementList Statement\n" +
+		"\n" +
+		"Statement:\n" +
+		"Expression ;\n" +
+		"\n" +
+		"Expression:\n" +
+		"Expression + Expression\n" +
+		"Expression * Expression\n" +
+		"_id\n";
+
+	private static SLRTables tables;
+	private static GLRParser parser;
+
+	@BeforeClass
+	public static void setUpClass() {
+		tables = new SLRParserGenerator(CFG.read(GRAMMAR), false, 1).getGeneratedTables();
+		parser = new GLRParser(tables);
+	}
+
+	@Test
+	public void testGrammarHasConflicts() {
+		assertTrue(0 < tables.getNumShiftReduceConflicts());
+	}
+
+	@Test
+	public void testUnambiguousInput() {
+		SharedPackedForest forest = parser.parse(tokens(_id, _semicolon, _id, _plus, _id, _semicolon), new ParseContext());
+		assertNotNull(forest);
+		assertFalse(forest.isAmbiguous());
+		assertEquals(1, countDerivations(forest.getRoot()));
+	}
+
+	@Test
+	public void testAmbiguousInputHasEveryDerivation() {
+		SharedPackedForest forest = parser.parse(tokens(_id, _plus, _id, _multiplication, _id, _semicolon), new ParseContext());
+		assertNotNull(forest);
+		assertTrue(forest.isAmbiguous());
+		assertEquals(2, countDerivations(forest.getRoot()));
+
+		// an expression of n operators has the nth Catalan number of
+		// derivations, i.e., 5 for 3 operators
+		forest = parser.parse(tokens(_id, _plus, _id, _plus, _id, _multiplication, _id, _semicolon), new ParseContext());
+		assertNotNull(forest);
+		assertEquals(5, countDerivations(forest.getRoot()));
+	}
+
+	@Test
+	public void testAmbiguousStatementsAreShared() {
+		SharedPackedForest forest = parser.parse(tokens(
+			_id, _plus, _id, _plus, _id, _semicolon,
+			_id, _multiplication, _id, _multiplication, _id, _semicolon
+		), new ParseContext());
+		assertNotNull(forest);
+		assertEquals(4, countDerivations(forest.getRoot()));
+	}
+
+	@Test
+	public void testRejectsInvalidInput() {
+		assertNull(parser.parse(tokens(_id, _plus, _plus, _id, _semicolon), new ParseContext()));
+		assertNull(parser.parse(tokens(_id, _plus, _id), new ParseContext()));
+	}
+
+	@Test
+	public void testReturnsToSingleStack() {
+		// the ambiguous statement is parsed using the graph-structured stack,
+		// after which the stack no longer branches and the missing ; is
+		// rejected using the single stack within the ParseContext
+		ToyKeywords[] input = { _id, _plus, _id, _plus, _id, _semicolon, _id, _id, _semicolon };
+		ParseContext expected = new ParseContext();
+		ParseResult deterministic = new SLRParser(tables).recognize(tokens(input), expected);
+		assertFalse(deterministic.isAccepted());
+
+		ParseContext actual = new ParseContext();
+		ParseResult result = parser.recognize(tokens(input), actual);
+		assertFalse(result.isAccepted());
+		assertEquals(deterministic.getTokenIndex(), result.getTokenIndex());
+		assertEquals(deterministic.getState(), result.getState());
+		assertEquals(expected.getDepth(), actual.getDepth());
+		for (int depth = 0; depth < expected.getDepth(); depth++) {
+			assertEquals(expected.peek(depth), actual.peek(depth));
+		}
+	}
+
+	/**
+	 * Returns the number of derivations of a node, i.e., the sum over its
+	 * alternatives of the product of the derivations of their children.
+	 *
+	 * @param node node to count the derivations of
+	 * @return number of derivations
+	 */
+	private static long countDerivations(SharedPackedForest.Node node) {
+		return countDerivations(node, new IdentityHashMap<SharedPackedForest.Node, Long>());
+	}
+
+	private static long countDerivations(SharedPackedForest.Node node, Map<SharedPackedForest.Node, Long> counts) {
+		if (node.isToken()) {
+			return 1;
+		}
+
+		Long count = counts.get(node);
+		if (count != null) {
+			return count;
+		}
+
+		long sum = 0;
+		for (int i = 0; i < node.getNumAlternatives(); i++) {
+			SharedPackedForest.Alternative alternative = node.getAlternative(i);
+			long product = 1;
+			for (int j = 0; j < alternative.getNumChildren(); j++) {
+				product *= countDerivations(alternative.getChild(j), counts);
+			}
+
+			sum += product;
+		}
+
+		counts.put(node, sum);
+		return sum;
+	}
+
+	/**
+	 * Returns a TokenStream of the given tokens followed by the end of file.
+	 *
+	 * @param tokens tokens of the stream
+	 * @return the TokenStream
+	 */
+	private static TokenStream tokens(ToyKeywords... tokens) {
+		final Token[] stream = new Token[tokens.length+1];
+		System.arraycopy(tokens, 0, stream, 0, tokens.length);
+		stream[tokens.length] = ToyKeywords._EOF;
+		return new TokenStream() {
+			private int next = 0;
+
+			@Override
+			public Token next() {
+				return next < stream.length ? stream[next++] : null;
+			}
+		};
+	}
+}
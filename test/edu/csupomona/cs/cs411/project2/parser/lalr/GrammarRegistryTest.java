@@ -0,0 +1,177 @@
+package edu.csupomona.cs.cs411.project2.parser.lalr;
+
+import edu.csupomona.cs.cs411.project2.parser.ProductionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of a {@link GrammarRegistry}. A grammar must be compiled once no
+ * matter how many threads request it, compiled tables must be evicted in
+ * access order once their total size exceeds the maximum, and a grammar which
+ * cannot be compiled must not be remembered.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public class GrammarRegistryTest {
+	private static final String STATEMENTS =
+		"Program:\n" +
+		"StatementList\n" +
+		"\n" +
+		"StatementList:\n" +
+		"Statement\n" +
+		"StatementList Statement\n" +
+		"\n" +
+		"Statement:\n" +
+		"_id = _id ;\n";
+
+	private static final String EXPRESSIONS =
+		"Program:\n" +
+		"Expression ;\n" +
+		"\n" +
+		"Expression:\n" +
+		"Expression + Term\n" +
+		"Term\n" +
+		"\n" +
+		"Term:\n" +
+		"Term * _id\n" +
+		"_id\n";
+
+	private static final String BLOCKS =
+		"Program:\n" +
+		"Block\n" +
+		"\n" +
+		"Block:\n" +
+		"{ StatementList }\n" +
+		"\n" +
+		"StatementList:\n" +
+		"Statement\n" +
+		"StatementList Statement\n" +
+		"\n" +
+		"Statement:\n" +
+		"Block\n" +
+		"_id ;\n" +
+		"if ( _id ) Statement\n" +
+		"while ( _id ) Statement\n";
+
+	/**
+	 * Grammar which cannot be compiled, since it uses an undefined symbol.
+	 */
+	private static final String UNDEFINED =
+		"Program:\n" +
+		"Undefined ;\n";
+
+	private static final int NUM_THREADS = 8;
+
+	@Test
+	public void testConcurrentGetsCompileOnce() throws Exception {
+		final GrammarRegistry registry = new GrammarRegistry(Long.MAX_VALUE);
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+		try {
+			List<Future<LALRTables>> futures = new ArrayList<>();
+			for (int i = 0; i < NUM_THREADS; i++) {
+				futures.add(executor.submit(new Callable<LALRTables>() {
+					@Override
+					public LALRTables call() throws InterruptedException {
+						start.await();
+						return registry.get(BLOCKS, false);
+					}
+				}));
+			}
+
+			start.countDown();
+			LALRTables tables = futures.get(0).get();
+			for (Future<LALRTables> future : futures) {
+				assertSame(tables, future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(1, registry.getNumCompiled());
+		assertEquals(1, registry.getNumGrammars());
+		assertEquals(0, registry.getNumCompiling());
+	}
+
+	@Test
+	public void testEvictsByBytesInAccessOrder() {
+		GrammarRegistry sizes = new GrammarRegistry(Long.MAX_VALUE);
+		long statementsBytes = getNumBytes(sizes, STATEMENTS);
+		long expressionsBytes = getNumBytes(sizes, EXPRESSIONS);
+		long blocksBytes = getNumBytes(sizes, BLOCKS);
+
+		// every grammar fits, but not all three at once
+		GrammarRegistry registry = new GrammarRegistry(statementsBytes+expressionsBytes+blocksBytes-1);
+		LALRTables statements = registry.get(STATEMENTS, false);
+		LALRTables expressions = registry.get(EXPRESSIONS, false);
+		assertSame(statements, registry.get(STATEMENTS, false));
+		assertEquals(2, registry.getNumCompiled());
+		assertEquals(statementsBytes+expressionsBytes, registry.getNumBytes());
+
+		// the expressions were used least recently, so they are evicted
+		// even though the statements were compiled first
+		registry.get(BLOCKS, false);
+		assertEquals(3, registry.getNumCompiled());
+		assertEquals(1, registry.getNumEvicted());
+		assertEquals(2, registry.getNumGrammars());
+		assertEquals(statementsBytes+blocksBytes, registry.getNumBytes());
+		assertSame(statements, registry.get(STATEMENTS, false));
+		assertEquals(3, registry.getNumCompiled());
+
+		assertNotSame(expressions, registry.get(EXPRESSIONS, false));
+		assertEquals(4, registry.getNumCompiled());
+		assertEquals(2, registry.getNumEvicted());
+		assertEquals(statementsBytes+expressionsBytes, registry.getNumBytes());
+
+		// tables larger than the maximum are never stored
+		GrammarRegistry small = new GrammarRegistry(statementsBytes-1);
+		small.get(STATEMENTS, false);
+		assertEquals(0, small.getNumGrammars());
+		assertEquals(0, small.getNumBytes());
+	}
+
+	@Test
+	public void testFailedCompileIsNotRemembered() {
+		GrammarRegistry registry = new GrammarRegistry(Long.MAX_VALUE);
+		for (int i = 0; i < 2; i++) {
+			try {
+				registry.get(UNDEFINED, false);
+				fail();
+			} catch (ProductionException e) {
+				// the grammar is compiled, and fails, every time it is requested
+			}
+
+			assertEquals(0, registry.getNumCompiling());
+			assertEquals(0, registry.getNumGrammars());
+			assertEquals(0, registry.getNumCompiled());
+		}
+
+		registry.get(STATEMENTS, false);
+		assertEquals(1, registry.getNumGrammars());
+	}
+
+	/**
+	 * Returns the number of bytes the tables of a grammar take within a
+	 * GrammarRegistry.
+	 *
+	 * @param registry registry with no maximum to compile the grammar in
+	 * @param cfg grammar to compile
+	 * @return number of bytes of its tables
+	 */
+	private static long getNumBytes(GrammarRegistry registry, String cfg) {
+		long numBytes = registry.getNumBytes();
+		registry.get(cfg, false);
+		return registry.getNumBytes()-numBytes;
+	}
+}
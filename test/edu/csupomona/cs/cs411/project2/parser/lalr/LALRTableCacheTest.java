@@ -0,0 +1,159 @@
+package edu.csupomona.cs.cs411.project2.parser.lalr;
+
+import edu.csupomona.cs.cs411.project2.parser.slr.TableFile;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of a {@link LALRTableCache}. Stored tables must be loaded again only
+ * for the same grammar and optimize flag, and a cached file which is corrupt
+ * or truncated must be treated as missing so that the tables are regenerated.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public class LALRTableCacheTest {
+	private static final String GRAMMAR =
+		"Program:\n" +
+		"StatementList\n" +
+		"\n" +
+		"StatementList:\n" +
+		"Statement\n" +
+		"StatementList Statement\n" +
+		"\n" +
+		"Statement:\n" +
+		"Expression ;\n" +
+		"\n" +
+		"Expression:\n" +
+		"_id = Expression\n" +
+		"_id\n";
+
+	private static final String EXTENSION = ".lalrtables.bin";
+
+	/**
+	 * Number of bytes within the header of a table file.
+	 */
+	private static final int HEADER_SIZE = 24;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path cfg;
+	private LALRTableCache cache;
+
+	@Before
+	public void setUp() throws IOException {
+		cfg = folder.getRoot().toPath().resolve("cfg.txt");
+		Files.write(cfg, GRAMMAR.getBytes(Charset.forName("US-ASCII")));
+		cache = new LALRTableCache(folder.getRoot().toPath().resolve("cache"));
+	}
+
+	@Test
+	public void testHit() throws IOException {
+		assertNull(cache.load(cfg, false));
+
+		LALRTables tables = generate(false);
+		cache.store(cfg, false, tables);
+		LALRTables loaded = cache.load(cfg, false);
+		assertNotNull(loaded);
+		assertArrayEquals(toByteArray(tables), toByteArray(loaded));
+	}
+
+	@Test
+	public void testMissAfterGrammarChanges() throws IOException {
+		cache.store(cfg, false, generate(false));
+		Files.write(cfg, (GRAMMAR + "_id + _id\n").getBytes(Charset.forName("US-ASCII")));
+		assertNull(cache.load(cfg, false));
+
+		Files.write(cfg, GRAMMAR.getBytes(Charset.forName("US-ASCII")));
+		assertNotNull(cache.load(cfg, false));
+	}
+
+	@Test
+	public void testMissAfterOptimizeChanges() throws IOException {
+		cache.store(cfg, false, generate(false));
+		assertNull(cache.load(cfg, true));
+
+		cache.store(cfg, true, generate(true));
+		assertNotNull(cache.load(cfg, true));
+		assertNotNull(cache.load(cfg, false));
+	}
+
+	@Test
+	public void testCorruptFileIsRegenerated() throws IOException {
+		LALRTables tables = generate(false);
+		cache.store(cfg, false, tables);
+		Path path = getPath(false);
+		byte[] bytes = Files.readAllBytes(path);
+
+		// every byte of the header but its reserved int, which is not read,
+		// and bytes throughout the sections
+		for (int i = 0; i < HEADER_SIZE-4; i++) {
+			assertCorruptByteIsMissed(path, bytes, i);
+		}
+
+		for (int i = HEADER_SIZE; i < bytes.length; i += 97) {
+			assertCorruptByteIsMissed(path, bytes, i);
+		}
+
+		Files.write(path, new byte[0]);
+		assertNull(cache.load(cfg, false));
+
+		cache.store(cfg, false, tables);
+		assertArrayEquals(toByteArray(tables), toByteArray(cache.load(cfg, false)));
+	}
+
+	@Test
+	public void testTruncatedFileIsRegenerated() throws IOException {
+		cache.store(cfg, false, generate(false));
+		Path path = getPath(false);
+		byte[] bytes = Files.readAllBytes(path);
+		for (int length : new int[] { 1, 16, HEADER_SIZE, HEADER_SIZE+1, bytes.length/2, bytes.length-1 }) {
+			Files.write(path, Arrays.copyOf(bytes, length));
+			assertNull(Integer.toString(length), cache.load(cfg, false));
+		}
+
+		Files.write(path, bytes);
+		assertNotNull(cache.load(cfg, false));
+	}
+
+	private void assertCorruptByteIsMissed(Path path, byte[] bytes, int index) throws IOException {
+		byte[] corrupt = bytes.clone();
+		corrupt[index] ^= 0x5A;
+		Files.write(path, corrupt);
+		assertNull(Integer.toString(index), cache.load(cfg, false));
+	}
+
+	private LALRTables generate(boolean optimize) throws IOException {
+		return new LALRParserGenerator(cfg, optimize, 1).getGeneratedLALRTables();
+	}
+
+	/**
+	 * Returns the path of the file the tables of the grammar are cached in.
+	 *
+	 * @param optimize whether or not the tables were optimized
+	 * @return path of the cached file, which must exist
+	 */
+	private Path getPath(boolean optimize) throws IOException {
+		Path path = folder.getRoot().toPath().resolve("cache").resolve(cache.getKey(cfg, optimize) + EXTENSION);
+		assertTrue(Files.isRegularFile(path));
+		return path;
+	}
+
+	private static byte[] toByteArray(LALRTables tables) {
+		TableFile.Builder builder = new TableFile.Builder(TableFile.LALR);
+		tables.write(builder);
+		return builder.toByteArray();
+	}
+}
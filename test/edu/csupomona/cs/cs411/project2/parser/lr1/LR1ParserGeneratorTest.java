@@ -0,0 +1,145 @@
+package edu.csupomona.cs.cs411.project2.parser.lr1;
+
+import edu.csupomona.cs.cs411.project1.lexer.ToyLexer;
+import edu.csupomona.cs.cs411.project2.parser.CFG;
+import edu.csupomona.cs.cs411.project2.parser.ParseResult;
+import edu.csupomona.cs.cs411.project2.parser.Parser;
+import edu.csupomona.cs.cs411.project2.parser.lalr.LALRParser;
+import edu.csupomona.cs.cs411.project2.parser.lalr.LALRParserGenerator;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRParser;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRTables;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the tables generated by an {@link LR1ParserGenerator} from the toy
+ * grammar. Merging weakly compatible tables must not generate more tables
+ * than the canonical LR(1) tables, nor fewer than the LALR tables, must not
+ * introduce a reduce-reduce conflict, and must accept the same inputs as the
+ * LALR tables.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public class LR1ParserGeneratorTest {
+	/**
+	 * Path of the toy grammar.
+	 */
+	private static final Path CFG_PATH = Paths.get(".", "res", "toy.cfg.txt");
+
+	/**
+	 * Directory containing the sample inputs of the toy grammar.
+	 */
+	private static final Path INPUT_PATH = Paths.get(".", "input");
+
+	/**
+	 * Number of mutated inputs generated from each sample input.
+	 */
+	private static final int NUM_MUTATIONS = 100;
+
+	private static SLRTables mergedTables;
+	private static SLRTables canonicalTables;
+	private static SLRTables lalrTables;
+
+	@BeforeClass
+	public static void setUpClass() throws IOException {
+		CFG cfg = CFG.read(CFG_PATH);
+		mergedTables = new LR1ParserGenerator(cfg, false, 1).getGeneratedTables();
+		canonicalTables = new LR1ParserGenerator(cfg, false, 1, false).getGeneratedTables();
+		lalrTables = new LALRParserGenerator(CFG_PATH).getGeneratedLALRTables().getSLRTables();
+	}
+
+	@Test
+	public void testMergingDoesNotAddTables() {
+		assertTrue(mergedTables.getNumTables() <= canonicalTables.getNumTables());
+		assertTrue(lalrTables.getNumTables() <= mergedTables.getNumTables());
+	}
+
+	@Test
+	public void testMergingDoesNotAddReduceReduceConflicts() {
+		assertEquals(canonicalTables.getNumReduceReduceConflicts(), mergedTables.getNumReduceReduceConflicts());
+	}
+
+	@Test
+	public void testAcceptsSameInputsAsLALR() throws IOException {
+		Parser merged = new SLRParser(mergedTables);
+		Parser canonical = new SLRParser(canonicalTables);
+		Parser lalr = new LALRParser(new LALRParserGenerator(CFG_PATH).getGeneratedLALRTables());
+
+		int numAccepted = 0;
+		int numRejected = 0;
+		for (String input : getInputs()) {
+			ParseResult expected = recognize(lalr, input);
+			ParseResult actual = recognize(merged, input);
+			assertEquals(input, expected.isAccepted(), actual.isAccepted());
+			assertEquals(input, expected.getTokenIndex(), actual.getTokenIndex());
+
+			actual = recognize(canonical, input);
+			assertEquals(input, expected.isAccepted(), actual.isAccepted());
+			assertEquals(input, expected.getTokenIndex(), actual.getTokenIndex());
+			if (expected.isAccepted()) {
+				numAccepted++;
+			} else {
+				numRejected++;
+			}
+		}
+
+		assertTrue(0 < numAccepted);
+		assertTrue(0 < numRejected);
+	}
+
+	/**
+	 * Returns the sample inputs of the toy grammar, each followed by inputs
+	 * generated from it by repeatedly replacing, duplicating or removing a
+	 * random line, many of which cannot be parsed.
+	 *
+	 * @return the inputs
+	 * @throws IOException when a sample input cannot be read
+	 */
+	private static List<String> getInputs() throws IOException {
+		Random random = new Random(0);
+		List<String> inputs = new ArrayList<>();
+		for (int i = 1; i <= 4; i++) {
+			List<String> lines = new ArrayList<>(Files.readAllLines(INPUT_PATH.resolve("test" + i + ".txt"), Charset.forName("US-ASCII")));
+			for (int j = 0; j <= NUM_MUTATIONS; j++) {
+				StringBuilder sb = new StringBuilder();
+				for (String line : lines) {
+					sb.append(line).append('\n');
+				}
+
+				inputs.add(sb.toString());
+
+				int line = random.nextInt(lines.size());
+				switch (random.nextInt(3)) {
+					case 0:
+						lines.set(line, lines.get(random.nextInt(lines.size())));
+						break;
+					case 1:
+						lines.add(line, lines.get(random.nextInt(lines.size())));
+						break;
+					default:
+						if (1 < lines.size()) {
+							lines.remove(line);
+						}
+				}
+			}
+		}
+
+		return inputs;
+	}
+
+	private static ParseResult recognize(Parser parser, String input) throws IOException {
+		return parser.recognize(new ToyLexer().lex(new StringReader(input)));
+	}
+}
@@ -0,0 +1,211 @@
+package edu.csupomona.cs.cs411.project2.parser.slr;
+
+import edu.csupomona.cs.cs411.project1.lexer.Token;
+import edu.csupomona.cs.cs411.project1.lexer.TokenStream;
+import edu.csupomona.cs.cs411.project1.lexer.ToyKeywords;
+import edu.csupomona.cs.cs411.project2.parser.CFG;
+import edu.csupomona.cs.cs411.project2.parser.ParseContext;
+import edu.csupomona.cs.cs411.project2.parser.ParseResult;
+import edu.csupomona.cs.cs411.project2.parser.SyntaxError;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._EOF;
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._assignop;
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._id;
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._leftbrace;
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._rightbrace;
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._semicolon;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of an {@link SLRErrorRecovery} using a grammar of assignments and
+ * blocks, both with and without an error production. Every syntax error must
+ * be reported at the token and in the table where no action existed, and
+ * parsing must resume after it.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public class SLRErrorRecoveryTest {
+	/**
+	 * Grammar of statements, which recovers using panic mode.
+	 */
+	private static final String GRAMMAR =
+		"Program:\n" +
+		"StatementList\n" +
+		"\n" +
+		"StatementList:\n" +
+		"Statement\n" +
+		"StatementList Statement\n" +
+		"\n" +
+		"Statement:\n" +
+		"Expression ;\n" +
+		"{ StatementList }\n" +
+		"\n" +
+		"Expression:\n" +
+		"_id = _id\n" +
+		"_id\n";
+
+	/**
+	 * Grammar of statements with an error production.
+	 */
+	private static final String ERROR_GRAMMAR = GRAMMAR.replace("{ StatementList }\n", "{ StatementList }\nerror ;\n");
+
+	private static SLRTables tables;
+	private static SLRTables errorTables;
+
+	@BeforeClass
+	public static void setUpClass() {
+		tables = new SLRParserGenerator(CFG.read(GRAMMAR), false, 1).getGeneratedTables();
+		errorTables = new SLRParserGenerator(CFG.read(ERROR_GRAMMAR), false, 1).getGeneratedTables();
+	}
+
+	@Test
+	public void testAcceptsValidInput() {
+		ParseResult result = recover(tables, _id, _assignop, _id, _semicolon, _leftbrace, _id, _semicolon, _rightbrace);
+		assertTrue(result.isAccepted());
+		assertTrue(result.getErrors().isEmpty());
+		assertEquals(8, result.getTokenIndex());
+	}
+
+	@Test
+	public void testErrorProduction() {
+		assertTrue(tables.getError() == Integer.MIN_VALUE);
+		assertTrue(errorTables.getError() != Integer.MIN_VALUE);
+
+		// x = = y ; a = b ; is recovered by shifting error in place of
+		// x = and discarding = y until the ; which follows it
+		ParseResult result = recover(errorTables, _id, _assignop, _assignop, _id, _semicolon, _id, _assignop, _id, _semicolon);
+		assertFalse(result.isAccepted());
+		assertEquals(9, result.getTokenIndex());
+		assertEquals(1, result.getErrors().size());
+		assertError(result.getErrors().get(0), reject(errorTables, _id, _assignop, _assignop), _assignop, 2);
+	}
+
+	@Test
+	public void testSyncOnSemicolon() {
+		ParseResult result = recover(tables, _id, _assignop, _assignop, _id, _semicolon, _id, _assignop, _id, _semicolon);
+		assertFalse(result.isAccepted());
+		assertEquals(9, result.getTokenIndex());
+		assertEquals(1, result.getErrors().size());
+		assertError(result.getErrors().get(0), reject(tables, _id, _assignop, _assignop), _assignop, 2);
+	}
+
+	@Test
+	public void testSyncOnRightBrace() {
+		// x x } is discarded up to the } which ends the block
+		ParseResult result = recover(tables, _leftbrace, _id, _semicolon, _id, _id, _rightbrace, _id, _semicolon);
+		assertFalse(result.isAccepted());
+		assertEquals(8, result.getTokenIndex());
+		assertEquals(1, result.getErrors().size());
+		assertError(result.getErrors().get(0), reject(tables, _leftbrace, _id, _semicolon, _id, _id), _id, 4);
+	}
+
+	@Test
+	public void testSeveralErrors() {
+		for (SLRTables t : new SLRTables[] { tables, errorTables }) {
+			ParseResult result = recover(t,
+				_id, _assignop, _assignop, _id, _semicolon,
+				_id, _assignop, _id, _semicolon,
+				_id, _assignop, _assignop, _id, _semicolon,
+				_leftbrace, _id, _semicolon, _id, _id, _rightbrace,
+				_id, _semicolon
+			);
+			assertFalse(result.isAccepted());
+			assertEquals(22, result.getTokenIndex());
+			assertEquals(3, result.getErrors().size());
+			int state = reject(t, _id, _assignop, _assignop);
+			assertError(result.getErrors().get(0), state, _assignop, 2);
+			assertError(result.getErrors().get(1), state, _assignop, 11);
+			assertError(result.getErrors().get(2), reject(t, _leftbrace, _id, _semicolon, _id, _id), _id, 18);
+		}
+	}
+
+	@Test
+	public void testErrorAtEOF() {
+		for (SLRTables t : new SLRTables[] { tables, errorTables }) {
+			ParseResult result = recover(t, _id, _assignop, _id, _semicolon, _id, _assignop);
+			assertFalse(result.isAccepted());
+			assertEquals(6, result.getTokenIndex());
+			assertEquals(1, result.getErrors().size());
+			assertError(result.getErrors().get(0), reject(t, _id, _assignop, _id, _semicolon, _id, _assignop), _EOF, 6);
+
+			result = recover(t, _leftbrace, _id, _semicolon);
+			assertFalse(result.isAccepted());
+			assertEquals(3, result.getTokenIndex());
+			assertEquals(1, result.getErrors().size());
+			assertError(result.getErrors().get(0), reject(t, _leftbrace, _id, _semicolon), _EOF, 3);
+		}
+	}
+
+	@Test
+	public void testTraceStopsAtFirstError() throws IOException {
+		SLRParser parser = new SLRParser(tables);
+		ToyKeywords[][] inputs = {
+			{ _id, _assignop, _id, _semicolon, _leftbrace, _id, _semicolon, _rightbrace },
+			{ _id, _assignop, _assignop, _id, _semicolon, _id, _assignop, _assignop, _id, _semicolon },
+			{ _leftbrace, _id, _semicolon }
+		};
+
+		for (ToyKeywords[] input : inputs) {
+			StringWriter expected = new StringWriter();
+			boolean accepted = parser.parse(tokens(input), expected, new ParseContext());
+			StringWriter actual = new StringWriter();
+			ParseResult result = parser.recover(tokens(input), actual, new ParseContext());
+			assertEquals(accepted, result.isAccepted());
+			assertEquals(expected.toString(), actual.toString());
+		}
+	}
+
+	/**
+	 * Asserts that a syntax error was found at the given position.
+	 */
+	private static void assertError(SyntaxError error, int state, ToyKeywords symbol, int tokenIndex) {
+		assertEquals(state, error.getState());
+		assertEquals(symbol.getId(), error.getSymbol());
+		assertEquals(tokenIndex, error.getTokenIndex());
+	}
+
+	private static ParseResult recover(SLRTables tables, ToyKeywords... tokens) {
+		return new SLRErrorRecovery(tables).recover(tokens(tokens), new ParseContext());
+	}
+
+	/**
+	 * Returns the table in which the first syntax error of an input is
+	 * found, i.e., where an {@link SLRParser} rejects it, either at its last
+	 * token or at the end of file.
+	 *
+	 * @param tables tables to parse the input with
+	 * @param tokens tokens of the input, excluding the end of file
+	 * @return the table the input is rejected in
+	 */
+	private static int reject(SLRTables tables, ToyKeywords... tokens) {
+		ParseResult result = new SLRParser(tables).recognize(tokens(tokens), new ParseContext());
+		assertFalse(result.isAccepted());
+		return result.getState();
+	}
+
+	/**
+	 * Returns a TokenStream of the given tokens followed by the end of file.
+	 *
+	 * @param tokens tokens of the stream
+	 * @return the TokenStream
+	 */
+	private static TokenStream tokens(ToyKeywords... tokens) {
+		final Token[] stream = new Token[tokens.length+1];
+		System.arraycopy(tokens, 0, stream, 0, tokens.length);
+		stream[tokens.length] = ToyKeywords._EOF;
+		return new TokenStream() {
+			private int next = 0;
+
+			@Override
+			public Token next() {
+				return next < stream.length ? stream[next++] : null;
+			}
+		};
+	}
+}
@@ -0,0 +1,149 @@
+package edu.csupomona.cs.cs411.project2.parser.slr;
+
+import edu.csupomona.cs.cs411.project1.lexer.Token;
+import edu.csupomona.cs.cs411.project1.lexer.TokenStream;
+import edu.csupomona.cs.cs411.project1.lexer.ToyKeywords;
+import edu.csupomona.cs.cs411.project2.parser.CFG;
+import edu.csupomona.cs.cs411.project2.parser.ParseContext;
+import edu.csupomona.cs.cs411.project2.parser.ParseListener;
+import java.io.IOException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._assignop;
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._id;
+import static edu.csupomona.cs.cs411.project1.lexer.ToyKeywords._semicolon;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the reductions within {@link SLRTables}. A state which reduces a
+ * production must only do so on the terminals which can follow the
+ * production's nonterminal, and must reject any other terminal without
+ * reducing first.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public class SLRTablesTest {
+	/**
+	 * Grammar of assignments, where only {@code ;} can follow an
+	 * {@code Expression}.
+	 */
+	private static final String GRAMMAR =
+		"Program:\n" +
+		"StatementList\n" +
+		"\n" +
+		"StatementList:\n" +
+		"Statement\n" +
+		"StatementList Statement\n" +
+		"\n" +
+		"Statement:\n" +
+		"Expression ;\n" +
+		"\n" +
+		"Expression:\n" +
+		"_id = _id\n" +
+		"_id\n";
+
+	private static SLRTables tables;
+
+	@BeforeClass
+	public static void setUpClass() {
+		tables = new SLRParserGenerator(CFG.read(GRAMMAR), false, 1).getGeneratedTables();
+	}
+
+	@Test
+	public void testReducesOnlyOnFollow() {
+		// the table after _id reduces Expression -> _id on ; and shifts =
+		int state = tables.shift(0, _id.getId());
+		assertTrue(state != Integer.MIN_VALUE);
+		assertTrue(tables.shift(state, _assignop.getId()) != Integer.MIN_VALUE);
+
+		int production = tables.reduce(state, _semicolon.getId());
+		assertTrue(production != Integer.MIN_VALUE);
+		assertEquals(1, tables.getRHSSize(production));
+		assertEquals(Integer.MIN_VALUE, tables.reduce(state, _id.getId()));
+		assertEquals(Integer.MIN_VALUE, tables.reduce(state, tables.getEOF()));
+		for (int terminal = 0; terminal < tables.getNumTerminals(); terminal++) {
+			if (terminal != _semicolon.getId()) {
+				assertEquals(Integer.MIN_VALUE, tables.reduce(state, terminal));
+			}
+		}
+	}
+
+	@Test
+	public void testRejectsWithoutReducing() throws IOException {
+		// x y ; is rejected on y in the table after x, where an LR(0) parser
+		// would have reduced x to an Expression before rejecting y
+		RecordingListener listener = new RecordingListener();
+		assertFalse(new SLRParser(tables).parse(tokens(_id, _id, _semicolon), listener, new ParseContext()));
+		assertEquals(1, listener.shifted);
+		assertEquals(0, listener.reduced);
+		assertEquals(tables.shift(0, _id.getId()), listener.rejectedState);
+		assertEquals(_id.getId(), listener.rejectedSymbol);
+		assertEquals(1, listener.rejectedTokenIndex);
+
+		// x ; y y ; reduces the first statement, but not the second x
+		listener = new RecordingListener();
+		assertFalse(new SLRParser(tables).parse(tokens(_id, _semicolon, _id, _id, _semicolon), listener, new ParseContext()));
+		assertEquals(3, listener.shifted);
+		assertEquals(3, listener.reduced);
+		assertEquals(3, listener.rejectedTokenIndex);
+		assertEquals(Integer.MIN_VALUE, tables.reduce(listener.rejectedState, _id.getId()));
+		assertTrue(tables.reduce(listener.rejectedState, _semicolon.getId()) != Integer.MIN_VALUE);
+	}
+
+	/**
+	 * This class represents a ParseListener which counts the shifts and
+	 * reductions made and records where the input was rejected.
+	 */
+	private static final class RecordingListener implements ParseListener {
+		int shifted;
+		int reduced;
+		int rejectedState = Integer.MIN_VALUE;
+		int rejectedSymbol = Integer.MIN_VALUE;
+		int rejectedTokenIndex = Integer.MIN_VALUE;
+
+		@Override
+		public void shift(int state, int symbol, int tokenIndex) {
+			shifted++;
+		}
+
+		@Override
+		public void reduce(int state, int production, int offset, int symbol, int tokenIndex) {
+			reduced++;
+		}
+
+		@Override
+		public void accept(int symbol, int tokenIndex) {
+			//...
+		}
+
+		@Override
+		public void reject(int state, int symbol, int tokenIndex) {
+			rejectedState = state;
+			rejectedSymbol = symbol;
+			rejectedTokenIndex = tokenIndex;
+		}
+	}
+
+	/**
+	 * Returns a TokenStream of the given tokens followed by the end of file.
+	 *
+	 * @param tokens tokens of the stream
+	 * @return the TokenStream
+	 */
+	private static TokenStream tokens(ToyKeywords... tokens) {
+		final Token[] stream = new Token[tokens.length+1];
+		System.arraycopy(tokens, 0, stream, 0, tokens.length);
+		stream[tokens.length] = ToyKeywords._EOF;
+		return new TokenStream() {
+			private int next = 0;
+
+			@Override
+			public Token next() {
+				return next < stream.length ? stream[next++] : null;
+			}
+		};
+	}
+}
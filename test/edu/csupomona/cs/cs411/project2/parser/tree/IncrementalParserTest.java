@@ -0,0 +1,331 @@
+package edu.csupomona.cs.cs411.project2.parser.tree;
+
+import edu.csupomona.cs.cs411.project1.lexer.ToyLexer;
+import edu.csupomona.cs.cs411.project2.parser.ParseContext;
+import edu.csupomona.cs.cs411.project2.parser.ParseResult;
+import edu.csupomona.cs.cs411.project2.parser.lalr.LALRParserGenerator;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRParser;
+import edu.csupomona.cs.cs411.project2.parser.slr.SLRTables;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of an {@link IncrementalParser} using the toy grammar. Random edits
+ * (inserting, deleting, replacing and changing lines, including edits which
+ * span several lines) are applied to the sample inputs, and after every edit
+ * the tree and {@link ParseResult} of the incremental parse must match those
+ * of a full parse of the same text, and the arena of the tree must not hold
+ * any node which is not part of the tree.
+ *
+ * @author Collin Smith <collinsmith@csupomona.edu>
+ */
+public class IncrementalParserTest {
+	/**
+	 * Path of the toy grammar.
+	 */
+	private static final Path CFG_PATH = Paths.get(".", "res", "toy.cfg.txt");
+
+	/**
+	 * Directory containing the sample inputs of the toy grammar.
+	 */
+	private static final Path INPUT_PATH = Paths.get(".", "input");
+
+	/**
+	 * Number of random edits applied to each sample input.
+	 */
+	private static final int NUM_EDITS = 200;
+
+	/**
+	 * Characters which may be inserted into a line. Quotes and the
+	 * characters of comments are left out so that a line never begins a
+	 * string which the lexer would continue onto the next line.
+	 */
+	private static final String INSERTED = " ;,(){}[]=+-<x1";
+
+	private static SLRTables tables;
+	private static SLRTables optimizedTables;
+
+	@BeforeClass
+	public static void setUpClass() throws IOException {
+		tables = new LALRParserGenerator(CFG_PATH).getGeneratedLALRTables().getSLRTables();
+		optimizedTables = new LALRParserGenerator(CFG_PATH, true, 1).getGeneratedLALRTables().getSLRTables();
+	}
+
+	@Test
+	public void testRandomEditsMatchFullParse() throws IOException {
+		testRandomEdits(tables, 0);
+	}
+
+	@Test
+	public void testRandomEditsMatchFullParseOfOptimizedGrammar() throws IOException {
+		testRandomEdits(optimizedTables, 1);
+	}
+
+	@Test
+	public void testEditReusesSubtrees() throws IOException {
+		List<String> lines = readLines(2);
+		IncrementalParser parser = new IncrementalParser(tables, new ToyLexer());
+		assertTrue(parser.parse(join(lines)));
+
+		int line = lines.indexOf("\t\tint i;");
+		assertTrue(parser.edit(line, 1, "\t\tint j;"));
+		assertTrue(0 < parser.getNumReused());
+		assertTrue(parser.getNumShifted() < parser.getNumTokens()/4);
+	}
+
+	@Test
+	public void testRejectedEditIsReused() throws IOException {
+		List<String> lines = readLines(2);
+		IncrementalParser parser = new IncrementalParser(tables, new ToyLexer());
+		assertTrue(parser.parse(join(lines)));
+		int size = parser.getTree().size();
+
+		String removed = lines.get(lines.size()/2);
+		assertEquals(false, parser.edit(lines.size()/2, 1, removed + " {"));
+		assertEquals(size, parser.getTree().size());
+
+		assertTrue(parser.edit(lines.size()/2, 1, removed));
+		assertTrue(0 < parser.getNumReused());
+		assertMatchesFullParse(tables, parser, join(lines));
+	}
+
+	/**
+	 * Applies random edits to each sample input, comparing the incremental
+	 * parse after each edit with a full parse. About a third of the edits
+	 * revert a previous one, so that documents which were rejected are
+	 * accepted again.
+	 *
+	 * @param tables tables to parse with
+	 * @param seed seed of the random edits
+	 * @throws IOException when a sample input cannot be read
+	 */
+	private static void testRandomEdits(SLRTables tables, long seed) throws IOException {
+		Random random = new Random(seed);
+		int numAccepted = 0;
+		int numRejected = 0;
+		int numReused = 0;
+		for (int i = 1; i <= 4; i++) {
+			List<String> original = readLines(i);
+			List<String> lines = new ArrayList<>(original);
+			IncrementalParser parser = new IncrementalParser(tables, new ToyLexer());
+			parser.parse(join(lines));
+			assertMatchesFullParse(tables, parser, join(lines));
+			int size = parser.getTree().size();
+
+			Deque<Edit> undo = new ArrayDeque<>();
+			for (int j = 0; j < NUM_EDITS; j++) {
+				boolean reverting = !undo.isEmpty() && random.nextInt(3) == 0;
+				Edit edit = reverting ? undo.pop() : randomEdit(random, lines, original);
+				parser.edit(edit.FIRST_LINE, edit.COUNT, edit.TEXT);
+				Edit revert = edit.apply(lines);
+				if (!reverting) {
+					undo.push(revert);
+				}
+
+				assertMatchesFullParse(String.format("test%d.txt, edit %d: %s", i, j, edit), tables, parser, join(lines));
+				if (parser.isAccepted()) {
+					size = parser.getTree().size();
+					numAccepted++;
+				} else {
+					assertEquals(size, parser.getTree().size());
+					numRejected++;
+				}
+
+				numReused += parser.getNumReused();
+			}
+		}
+
+		assertTrue(0 < numAccepted);
+		assertTrue(0 < numRejected);
+		assertTrue(0 < numReused);
+	}
+
+	/**
+	 * Returns a random edit of the given lines: replacing a line with a copy
+	 * of another one, inserting or deleting lines, replacing several lines
+	 * with several others, joining two lines, or inserting or deleting a
+	 * character within a line.
+	 *
+	 * @param random source of randomness
+	 * @param lines lines of the document
+	 * @param original lines of the sample input, which new lines are copied
+	 *	from
+	 * @return the edit
+	 */
+	private static Edit randomEdit(Random random, List<String> lines, List<String> original) {
+		int line = random.nextInt(lines.size());
+		int count;
+		StringBuilder sb;
+		switch (random.nextInt(6)) {
+			case 0:
+				return new Edit(line, 1, original.get(random.nextInt(original.size())));
+			case 1:
+				return new Edit(line, 1, original.get(random.nextInt(original.size())) + "\n" + lines.get(line));
+			case 2:
+				count = Math.min(1+random.nextInt(3), lines.size()-line);
+				return new Edit(line, count, "");
+			case 3:
+				count = Math.min(1+random.nextInt(4), lines.size()-line);
+				sb = new StringBuilder();
+				for (int i = random.nextInt(4); 0 <= i; i--) {
+					sb.append(original.get(random.nextInt(original.size())));
+					if (0 < i) {
+						sb.append('\n');
+					}
+				}
+
+				return new Edit(line, count, sb.toString());
+			case 4:
+				if (line+1 < lines.size()) {
+					return new Edit(line, 2, lines.get(line) + lines.get(line+1));
+				}
+
+				// the last line cannot be joined, so change it instead
+			default:
+				sb = new StringBuilder(lines.get(line));
+				int i = random.nextInt(sb.length()+1);
+				if (i < sb.length() && sb.charAt(i) != '"' && sb.charAt(i) != '/' && sb.charAt(i) != '*' && random.nextBoolean()) {
+					sb.deleteCharAt(i);
+				} else {
+					sb.insert(i, INSERTED.charAt(random.nextInt(INSERTED.length())));
+				}
+
+				return new Edit(line, 1, sb.toString());
+		}
+	}
+
+	private static void assertMatchesFullParse(SLRTables tables, IncrementalParser parser, String text) throws IOException {
+		assertMatchesFullParse(text, tables, parser, text);
+	}
+
+	/**
+	 * Asserts that the result and tree of an incremental parse match those
+	 * of a full parse of the same text, and that the arena of the tree holds
+	 * no node which is not part of it (or, if the document was rejected, of
+	 * the last tree accepted).
+	 *
+	 * @param message message describing the parse
+	 * @param tables tables the text was parsed with
+	 * @param parser parser which parsed the text incrementally
+	 * @param text text of the document
+	 * @throws IOException if the lexer fails
+	 */
+	private static void assertMatchesFullParse(String message, SLRTables tables, IncrementalParser parser, String text) throws IOException {
+		SLRParser full = new SLRParser(tables);
+		ParseResult expected = full.recognize(new ToyLexer().lex(new StringReader(text)));
+		ParseResult actual = parser.getResult();
+		assertEquals(message, expected.isAccepted(), actual.isAccepted());
+		assertEquals(message, expected.getState(), actual.getState());
+		assertEquals(message, expected.getTokenIndex(), actual.getTokenIndex());
+		if (!expected.isAccepted()) {
+			assertEquals(message, SyntaxTree.NONE, parser.getTree().getRoot());
+			return;
+		}
+
+		SyntaxTreeBuilder builder = new SyntaxTreeBuilder(tables);
+		assertTrue(message, full.parse(new ToyLexer().lex(new StringReader(text)), builder, new ParseContext()));
+		SyntaxTree expectedTree = builder.getTree();
+		SyntaxTree actualTree = parser.getTree();
+		assertEquals(message, expected.getTokenIndex()+1, parser.getNumTokens());
+		assertEquals(message, SyntaxTree.NONE, actualTree.getParent(actualTree.getRoot()));
+		assertEquals(message, expectedTree.size(), assertSameNode(message, expectedTree, expectedTree.getRoot(), actualTree, actualTree.getRoot()));
+		assertEquals(message, expectedTree.size(), actualTree.size());
+	}
+
+	/**
+	 * Asserts that two subtrees are the same, i.e., have the same
+	 * productions or symbols, spans and tables to their left, and the same
+	 * children.
+	 *
+	 * @return number of nodes within the subtrees
+	 */
+	private static int assertSameNode(String message, SyntaxTree expectedTree, int expected, SyntaxTree actualTree, int actual) {
+		String location = String.format("%s (node at token %d)", message, expectedTree.getStart(expected));
+		assertEquals(location, expectedTree.isToken(expected), actualTree.isToken(actual));
+		assertEquals(location, expectedTree.getProduction(expected), actualTree.getProduction(actual));
+		assertEquals(location, expectedTree.getStart(expected), actualTree.getStart(actual));
+		assertEquals(location, expectedTree.getWidth(expected), actualTree.getWidth(actual));
+		assertEquals(location, expectedTree.getLeftState(expected), actualTree.getLeftState(actual));
+
+		int numNodes = 1;
+		int expectedChild = expectedTree.getFirstChild(expected);
+		int actualChild = actualTree.getFirstChild(actual);
+		while (expectedChild != SyntaxTree.NONE && actualChild != SyntaxTree.NONE) {
+			assertEquals(location, actual, actualTree.getParent(actualChild));
+			numNodes += assertSameNode(message, expectedTree, expectedChild, actualTree, actualChild);
+			expectedChild = expectedTree.getNextSibling(expectedChild);
+			actualChild = actualTree.getNextSibling(actualChild);
+		}
+
+		assertEquals(location, expectedChild, actualChild);
+		return numNodes;
+	}
+
+	private static List<String> readLines(int input) throws IOException {
+		return Files.readAllLines(INPUT_PATH.resolve("test" + input + ".txt"), Charset.forName("US-ASCII"));
+	}
+
+	private static String join(List<String> lines) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < lines.size(); i++) {
+			if (0 < i) {
+				sb.append('\n');
+			}
+
+			sb.append(lines.get(i));
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * This class represents an edit of a document which replaces a number
+	 * of lines with text that may contain any number of lines, as passed to
+	 * {@link IncrementalParser#edit(int, int, java.lang.CharSequence)}.
+	 */
+	private static final class Edit {
+		private final int FIRST_LINE;
+		private final int COUNT;
+		private final String TEXT;
+
+		Edit(int firstLine, int count, String text) {
+			this.FIRST_LINE = firstLine;
+			this.COUNT = count;
+			this.TEXT = text;
+		}
+
+		/**
+		 * Applies this edit to a list of lines.
+		 *
+		 * @param lines lines to edit
+		 * @return the edit which reverts this one
+		 */
+		Edit apply(List<String> lines) {
+			List<String> replaced = lines.subList(FIRST_LINE, FIRST_LINE+COUNT);
+			Edit revert = new Edit(FIRST_LINE, TEXT.split("\n", -1).length, join(replaced));
+			replaced.clear();
+			replaced.addAll(Arrays.asList(TEXT.split("\n", -1)));
+			return revert;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("replace %d lines at line %d with \"%s\"", COUNT, FIRST_LINE, TEXT);
+		}
+	}
+}